@@ -0,0 +1,58 @@
+package com.synaptix.gitlab.api.benchmarks;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.GitLabHTTPRequestor;
+import com.synaptix.gitlab.api.models.projects.GitLabProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole paginated listing through {@link GitLabHTTPRequestor#getAll} against a loopback server, including the page url rewrite
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetAllBenchmark {
+
+    @Param({ "1", "5" })
+    public int pages;
+
+    @Param({ "false", "true" })
+    public boolean gzip;
+
+    private LoopbackServer server;
+    private GitLabAPI gitLabAPI;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new LoopbackServer(Payloads.bytes(Payloads.projects(20), gzip), gzip, pages);
+        gitLabAPI = GitLabAPI.connect(server.getUrl(), "token");
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public List<GitLabProject> getAllProjects() {
+        return gitLabAPI.retrieve().getAll("/projects", GitLabProject[].class);
+    }
+}
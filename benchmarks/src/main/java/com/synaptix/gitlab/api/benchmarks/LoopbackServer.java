@@ -0,0 +1,79 @@
+package com.synaptix.gitlab.api.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal HTTP server on the loopback interface serving the same JSON page
+ * for a fixed number of pages, then an empty page.
+ */
+public class LoopbackServer implements HttpHandler {
+
+    private static final Pattern PAGE_PATTERN = Pattern.compile("[&?]page=(\\d+)");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final byte[] page;
+    private final boolean gzip;
+    private final int pages;
+
+    static {
+        // The JDK server writes the headers and the body separately. With Nagle's algorithm on, a reused
+        // connection then waits for a delayed ACK, which adds ~40ms to every request on loopback
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    public LoopbackServer(byte[] page, boolean gzip, int pages) throws IOException {
+        super();
+        this.page = page;
+        this.gzip = gzip;
+        this.pages = pages;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", this);
+        this.executor = Executors.newFixedThreadPool(4);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        int pageNumber = 1;
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            Matcher matcher = PAGE_PATTERN.matcher("?" + query);
+            if (matcher.find()) {
+                pageNumber = Integer.parseInt(matcher.group(1));
+            }
+        }
+
+        byte[] body = pageNumber <= pages ? page : Payloads.bytes("[]", gzip);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.synaptix.gitlab.api.benchmarks;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.GitLabHTTPRequestor;
+import com.synaptix.gitlab.api.models.commits.GitLabCommit;
+import com.synaptix.gitlab.api.models.commits.GitLabCommitDiff;
+import com.synaptix.gitlab.api.models.projects.GitLabProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single page request through {@link GitLabHTTPRequestor#to} against a loopback server, on list payloads with and without gzip
+ * <p>
+ * The loopback round trip is the same for every payload, so the differences between sizes and types are the reading and binding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({ "1", "20", "100" })
+    public int items;
+
+    @Param({ "false", "true" })
+    public boolean gzip;
+
+    private LoopbackServer projectsServer;
+    private LoopbackServer commitsServer;
+    private LoopbackServer diffsServer;
+    private GitLabAPI projects;
+    private GitLabAPI commits;
+    private GitLabAPI diffs;
+
+    @Setup
+    public void setup() throws IOException {
+        projectsServer = new LoopbackServer(Payloads.bytes(Payloads.projects(items), gzip), gzip, 1);
+        commitsServer = new LoopbackServer(Payloads.bytes(Payloads.commits(items), gzip), gzip, 1);
+        diffsServer = new LoopbackServer(Payloads.bytes(Payloads.commitDiffs(items), gzip), gzip, 1);
+        projects = GitLabAPI.connect(projectsServer.getUrl(), "token");
+        commits = GitLabAPI.connect(commitsServer.getUrl(), "token");
+        diffs = GitLabAPI.connect(diffsServer.getUrl(), "token");
+    }
+
+    @TearDown
+    public void tearDown() {
+        projectsServer.stop();
+        commitsServer.stop();
+        diffsServer.stop();
+    }
+
+    @Benchmark
+    public GitLabProject[] projects() throws IOException {
+        return projects.retrieve().to("/projects", GitLabProject[].class);
+    }
+
+    @Benchmark
+    public GitLabCommit[] commits() throws IOException {
+        return commits.retrieve().to("/projects/1/repository/commits", GitLabCommit[].class);
+    }
+
+    @Benchmark
+    public GitLabCommitDiff[] commitDiffs() throws IOException {
+        return diffs.retrieve().to("/projects/1/repository/commits/master/diff", GitLabCommitDiff[].class);
+    }
+}
@@ -0,0 +1,150 @@
+package com.synaptix.gitlab.api.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates JSON payloads shaped like the responses of GitLab v3
+ * <p>
+ * The generator is seeded so every run works on the same bytes.
+ */
+public final class Payloads {
+
+    private static final String[] WORDS = { "gitlab", "api", "client", "release", "build", "deploy", "fix", "feature", "refactor", "cache", "service", "parser" };
+
+    private Payloads() {
+        super();
+    }
+
+    public static String projects(int count) {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(count * 1500).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            int id = 1000 + i;
+            String name = words(random, 2, "-");
+            String group = words(random, 1, "-");
+            builder.append("{\"id\":").append(id);
+            builder.append(",\"description\":\"").append(words(random, 12, " ")).append('"');
+            builder.append(",\"default_branch\":\"master\"");
+            builder.append(",\"tag_list\":[\"").append(words(random, 1, "")).append("\",\"").append(words(random, 1, "")).append("\"]");
+            builder.append(",\"public\":false,\"archived\":false,\"visibility_level\":10");
+            builder.append(",\"ssh_url_to_repo\":\"git@gitlab.example.com:").append(group).append('/').append(name).append(".git\"");
+            builder.append(",\"http_url_to_repo\":\"https://gitlab.example.com/").append(group).append('/').append(name).append(".git\"");
+            builder.append(",\"web_url\":\"https://gitlab.example.com/").append(group).append('/').append(name).append('"');
+            builder.append(",\"owner\":").append(user(random, id % 50));
+            builder.append(",\"name\":\"").append(name).append('"');
+            builder.append(",\"name_with_namespace\":\"").append(group).append(" / ").append(name).append('"');
+            builder.append(",\"path\":\"").append(name).append('"');
+            builder.append(",\"path_with_namespace\":\"").append(group).append('/').append(name).append('"');
+            builder.append(",\"issues_enabled\":true,\"merge_requests_enabled\":true,\"wiki_enabled\":true,\"builds_enabled\":true,\"snippets_enabled\":false");
+            builder.append(",\"created_at\":\"").append(date(random)).append('"');
+            builder.append(",\"last_activity_at\":\"").append(date(random)).append('"');
+            builder.append(",\"creator_id\":").append(id % 50);
+            builder.append(",\"namespace\":{\"id\":").append(id % 20).append(",\"name\":\"").append(group).append("\",\"path\":\"").append(group)
+                    .append("\",\"owner_id\":null,\"created_at\":\"").append(date(random)).append("\",\"updated_at\":\"").append(date(random))
+                    .append("\",\"description\":\"").append(words(random, 6, " ")).append("\",\"avatar\":null}");
+            builder.append(",\"avatar_url\":null,\"star_count\":").append(random.nextInt(100)).append(",\"forks_count\":").append(random.nextInt(10));
+            builder.append(",\"open_issues_count\":").append(random.nextInt(50));
+            builder.append(",\"permissions\":{\"project_access\":{\"access_level\":30,\"notification_level\":3},\"group_access\":null}");
+            builder.append('}');
+        }
+        return builder.append(']').toString();
+    }
+
+    public static String commits(int count) {
+        Random random = new Random(43);
+        StringBuilder builder = new StringBuilder(count * 400).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            String sha = sha(random);
+            builder.append("{\"id\":\"").append(sha).append('"');
+            builder.append(",\"short_id\":\"").append(sha, 0, 8).append('"');
+            builder.append(",\"title\":\"").append(words(random, 6, " ")).append('"');
+            builder.append(",\"author_name\":\"").append(words(random, 2, " ")).append('"');
+            builder.append(",\"author_email\":\"").append(words(random, 1, "")).append("@example.com\"");
+            builder.append(",\"created_at\":\"").append(date(random)).append('"');
+            builder.append(",\"message\":\"").append(words(random, 20, " ")).append("\\n\"");
+            builder.append(",\"committed_date\":\"").append(date(random)).append('"');
+            builder.append(",\"authored_date\":\"").append(date(random)).append('"');
+            builder.append(",\"parent_ids\":[\"").append(sha(random)).append("\"]");
+            builder.append('}');
+        }
+        return builder.append(']').toString();
+    }
+
+    public static String commitDiffs(int count) {
+        Random random = new Random(44);
+        StringBuilder builder = new StringBuilder(count * 2000).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            String path = "src/main/java/" + words(random, 3, "/") + ".java";
+            builder.append("{\"diff\":\"");
+            builder.append("--- a/").append(path).append("\\n+++ b/").append(path).append("\\n@@ -1,20 +1,24 @@\\n");
+            for (int line = 0; line < 24; line++) {
+                builder.append(line % 6 == 0 ? '+' : line % 7 == 0 ? '-' : ' ').append("    ").append(words(random, 6, " ")).append(";\\n");
+            }
+            builder.append('"');
+            builder.append(",\"new_path\":\"").append(path).append('"');
+            builder.append(",\"old_path\":\"").append(path).append('"');
+            builder.append(",\"a_mode\":\"100644\",\"b_mode\":\"100644\"");
+            builder.append(",\"new_file\":false,\"renamed_file\":false,\"deleted_file\":false");
+            builder.append('}');
+        }
+        return builder.append(']').toString();
+    }
+
+    public static byte[] bytes(String json, boolean gzip) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        if (!gzip) {
+            return bytes;
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+            GZIPOutputStream gzipOut = new GZIPOutputStream(out);
+            gzipOut.write(bytes);
+            gzipOut.close();
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String user(Random random, int id) {
+        String username = words(random, 1, "") + id;
+        return "{\"name\":\"" + words(random, 2, " ") + "\",\"username\":\"" + username + "\",\"id\":" + id + ",\"state\":\"active\",\"avatar_url\":\"https://gitlab.example.com/uploads/user/avatar/"
+                + id + "/avatar.png\",\"web_url\":\"https://gitlab.example.com/u/" + username + "\"}";
+    }
+
+    private static String words(Random random, int count, String separator) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static String sha(Random random) {
+        StringBuilder builder = new StringBuilder(40);
+        for (int i = 0; i < 40; i++) {
+            builder.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return builder.toString();
+    }
+
+    private static String date(Random random) {
+        return String.format("2016-%02d-%02dT%02d:%02d:%02d.000Z", 1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60));
+    }
+}
@@ -0,0 +1,80 @@
+package com.synaptix.gitlab.api.benchmarks;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * URL building: {@link GitLabAPI#sanitize(Object)} and string formatting against {@link EndpointTemplate}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+    private static final EndpointTemplate COMMIT_STATUSES = EndpointTemplate.compile("/projects/:id/repository/commits/:sha/statuses");
+    private static final EndpointTemplate PROJECTS = EndpointTemplate.compile("/projects");
+
+    private GitLabAPI gitLabAPI;
+
+    public String search = "release candidate/2016";
+    public String namespacedProject = "my-group/sub group/my-project";
+    public Integer numericProject = 4242;
+
+    @Setup
+    public void setup() {
+        gitLabAPI = GitLabAPI.connect("http://localhost", "token");
+    }
+
+    @Benchmark
+    public String sanitizeNamespacedProject() {
+        return gitLabAPI.sanitize(namespacedProject);
+    }
+
+    @Benchmark
+    public String sanitizeNumericProject() {
+        return gitLabAPI.sanitize(numericProject);
+    }
+
+    @Benchmark
+    public String commitsTailUrl() {
+        return String.format("/projects/%s/repository/commits/%s/statuses", gitLabAPI.sanitize(namespacedProject), "9c8d7ad4f3e1b6a1e0b3c2d4f5a6b7c8d9e0f1a2");
+    }
+
+    @Benchmark
+    public String buildEndpointQuery() {
+        return PROJECTS.expand().with("archived", Boolean.FALSE).with("order_by", "last_activity_at").with("sort", "desc").with("search", search).with("per_page", 100)
+                .getTailUrl();
+    }
+
+    @Benchmark
+    public String commitsEndpoint() {
+        return COMMIT_STATUSES.expand(namespacedProject, "9c8d7ad4f3e1b6a1e0b3c2d4f5a6b7c8d9e0f1a2").getTailUrl();
+    }
+
+    @Benchmark
+    public URL commitsUrl() throws IOException {
+        return gitLabAPI.getAPIUrl(commitsTailUrl());
+    }
+
+    @Benchmark
+    public URL commitsEndpointUrl() throws IOException {
+        return COMMIT_STATUSES.expand(namespacedProject, "9c8d7ad4f3e1b6a1e0b3c2d4f5a6b7c8d9e0f1a2").toURL(gitLabAPI.getAPIUrl(), null, null);
+    }
+}
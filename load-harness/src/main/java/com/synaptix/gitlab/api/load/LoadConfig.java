@@ -0,0 +1,119 @@
+package com.synaptix.gitlab.api.load;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of a load run, read from key=value arguments
+ * <p>
+ * <ul>
+ * <li>url, token: GitLab to load, by default an embedded fake server is started</li>
+ * <li>clients: number of concurrent virtual clients (16)</li>
+ * <li>duration, warmup: measured and warm up durations in seconds (30, 5)</li>
+ * <li>mix: weights of the operations, eg. list=10,crawl=10,status=20,lookup=60</li>
+ * <li>projects, commits: size of the embedded dataset (200, 300)</li>
+ * <li>latency: median latency of the embedded server in ms, log-normal (5)</li>
+ * <li>faults429, faults5xx: share of injected faults of the embedded server (0, 0)</li>
+ * <li>gzip: whether the embedded server compresses responses (true)</li>
+ * <li>parallelism, commitCacheSize: client settings under test</li>
+ * <li>out: file to write the JSON report to, stdout by default</li>
+ * </ul>
+ */
+public class LoadConfig {
+
+    String url;
+    String token;
+    int clients = 16;
+    int durationSeconds = 30;
+    int warmupSeconds = 5;
+    Map<Operation, Integer> mix = parseMix("list=10,crawl=10,status=20,lookup=60");
+    int projects = 200;
+    int commits = 300;
+    double latencyMillis = 5;
+    double faults429;
+    double faults5xx;
+    boolean gzip = true;
+    int parallelism = 8;
+    int commitCacheSize = 1000;
+    String out;
+
+    static LoadConfig parse(String[] args) {
+        LoadConfig config = new LoadConfig();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            String key = arg.substring(0, equals);
+            String value = arg.substring(equals + 1);
+            if ("url".equals(key)) {
+                config.url = value;
+            } else if ("token".equals(key)) {
+                config.token = value;
+            } else if ("clients".equals(key)) {
+                config.clients = Integer.parseInt(value);
+            } else if ("duration".equals(key)) {
+                config.durationSeconds = Integer.parseInt(value);
+            } else if ("warmup".equals(key)) {
+                config.warmupSeconds = Integer.parseInt(value);
+            } else if ("mix".equals(key)) {
+                config.mix = parseMix(value);
+            } else if ("projects".equals(key)) {
+                config.projects = Integer.parseInt(value);
+            } else if ("commits".equals(key)) {
+                config.commits = Integer.parseInt(value);
+            } else if ("latency".equals(key)) {
+                config.latencyMillis = Double.parseDouble(value);
+            } else if ("faults429".equals(key)) {
+                config.faults429 = Double.parseDouble(value);
+            } else if ("faults5xx".equals(key)) {
+                config.faults5xx = Double.parseDouble(value);
+            } else if ("gzip".equals(key)) {
+                config.gzip = Boolean.parseBoolean(value);
+            } else if ("parallelism".equals(key)) {
+                config.parallelism = Integer.parseInt(value);
+            } else if ("commitCacheSize".equals(key)) {
+                config.commitCacheSize = Integer.parseInt(value);
+            } else if ("out".equals(key)) {
+                config.out = value;
+            } else {
+                throw new IllegalArgumentException("Unknown setting " + key);
+            }
+        }
+        return config;
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<Operation, Integer>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            weights.put(Operation.fromKey(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("url", url != null ? url : "embedded");
+        map.put("clients", clients);
+        map.put("durationSeconds", durationSeconds);
+        map.put("warmupSeconds", warmupSeconds);
+        Map<String, Integer> weights = new LinkedHashMap<String, Integer>();
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            weights.put(entry.getKey().getKey(), entry.getValue());
+        }
+        map.put("mix", weights);
+        if (url == null) {
+            map.put("projects", projects);
+            map.put("commits", commits);
+            map.put("latencyMillis", latencyMillis);
+            map.put("faults429", faults429);
+            map.put("faults5xx", faults5xx);
+            map.put("gzip", gzip);
+        }
+        map.put("parallelism", parallelism);
+        map.put("commitCacheSize", commitCacheSize);
+        return map;
+    }
+}
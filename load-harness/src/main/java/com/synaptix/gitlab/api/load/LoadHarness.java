@@ -0,0 +1,266 @@
+package com.synaptix.gitlab.api.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.fake.FakeGitLabDataset;
+import com.synaptix.gitlab.api.fake.FakeGitLabServer;
+import com.synaptix.gitlab.api.fake.LatencyDistribution;
+import com.synaptix.gitlab.api.metrics.EndpointSnapshot;
+import com.synaptix.gitlab.api.metrics.InMemoryMetricsListener;
+import com.synaptix.gitlab.api.metrics.LatencyHistogram;
+import com.synaptix.gitlab.api.models.commits.GitLabCommit;
+import com.synaptix.gitlab.api.models.projects.GitLabProject;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Macro benchmark driving a {@link GitLabAPI} with concurrent virtual clients
+ * <p>
+ * Each virtual client runs operations picked at random according to the mix, back to back.
+ * Unless a url is given, an embedded {@link FakeGitLabServer} is started.
+ * The JSON report holds throughput, latency percentiles, allocation rate of the client threads
+ * and errors, overall and per operation, plus the per endpoint metrics of the client.
+ * <p>
+ * {@code java -jar load-harness.jar clients=64 duration=60 mix=lookup=80,crawl=20 latency=20}
+ *
+ * @see LoadConfig for the settings
+ */
+public class LoadHarness {
+
+    private static final int FIXTURE_PROJECTS = 10;
+
+    private final LoadConfig config;
+    private final Map<Operation, OperationStats> stats = new EnumMap<Operation, OperationStats>(Operation.class);
+    private final LatencyHistogram overall = new LatencyHistogram();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    public LoadHarness(LoadConfig config) {
+        super();
+        this.config = config;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        Map<String, Object> report = new LoadHarness(config).run();
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        if (config.out != null) {
+            mapper.writeValue(new File(config.out), report);
+        } else {
+            System.out.println(mapper.writeValueAsString(report));
+        }
+        System.exit(0);
+    }
+
+    public Map<String, Object> run() throws Exception {
+        FakeGitLabServer server = null;
+        String url = config.url;
+        String token = config.token;
+        if (url == null) {
+            server = FakeGitLabServer.create().dataset(new FakeGitLabDataset(42, 100, config.projects, config.commits, 3, 5, 2)).gzip(config.gzip)
+                    .latency(config.latencyMillis > 0 ? LatencyDistribution.logNormal(config.latencyMillis, 0.5) : LatencyDistribution.none())
+                    .start();
+            url = server.getUrl();
+            token = FakeGitLabServer.TOKEN;
+        }
+
+        try {
+            InMemoryMetricsListener clientMetrics = new InMemoryMetricsListener();
+            GitLabAPI gitLabAPI = GitLabAPI.connect(url, token).parallelism(config.parallelism).commitCacheSize(config.commitCacheSize);
+            Operation.Fixtures fixtures = loadFixtures(gitLabAPI);
+            if (server != null) {
+                // Faults only once the fixtures are loaded
+                server.faults(config.faults429, config.faults5xx);
+            }
+            gitLabAPI.addMetricsListener(clientMetrics);
+
+            List<Operation> weighted = new ArrayList<Operation>();
+            for (Map.Entry<Operation, Integer> entry : config.mix.entrySet()) {
+                for (int i = 0; i < entry.getValue(); i++) {
+                    weighted.add(entry.getKey());
+                }
+            }
+
+            CountDownLatch done = new CountDownLatch(config.clients);
+            List<Thread> clients = new ArrayList<Thread>();
+            for (int i = 0; i < config.clients; i++) {
+                Thread client = new Thread(virtualClient(gitLabAPI, fixtures, weighted, i, done), "virtual-client-" + i);
+                client.setDaemon(true);
+                clients.add(client);
+                client.start();
+            }
+
+            TimeUnit.SECONDS.sleep(config.warmupSeconds);
+            clientMetrics.reset();
+            long serverRequestsAtStart = server != null ? server.getRequestCount() : 0;
+            recording = true;
+            long start = System.nanoTime();
+            TimeUnit.SECONDS.sleep(config.durationSeconds);
+            recording = false;
+            long elapsed = System.nanoTime() - start;
+            running = false;
+            done.await(60, TimeUnit.SECONDS);
+
+            Map<String, Object> report = report(elapsed, clientMetrics);
+            if (server != null) {
+                Map<String, Object> serverReport = new LinkedHashMap<String, Object>();
+                serverReport.put("requests", server.getRequestCount() - serverRequestsAtStart);
+                serverReport.put("injectedFaults", server.getInjectedFaultCount());
+                report.put("server", serverReport);
+            }
+            return report;
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    private Operation.Fixtures loadFixtures(GitLabAPI gitLabAPI) throws Exception {
+        List<Integer> projectIds = new ArrayList<Integer>();
+        List<List<String>> commits = new ArrayList<List<String>>();
+        for (GitLabProject project : gitLabAPI.getGitLabAPIProjects().getProjects(null, null, null, null, null)) {
+            List<String> shas = new ArrayList<String>();
+            for (GitLabCommit commit : gitLabAPI.getGitLabAPICommits().getAllCommits(project.getId())) {
+                shas.add(commit.getId());
+            }
+            if (!shas.isEmpty()) {
+                projectIds.add(project.getId());
+                commits.add(shas);
+            }
+            if (projectIds.size() == FIXTURE_PROJECTS) {
+                break;
+            }
+        }
+        if (projectIds.isEmpty()) {
+            throw new IllegalStateException("No project with commits found");
+        }
+        return new Operation.Fixtures(projectIds, commits);
+    }
+
+    private Runnable virtualClient(final GitLabAPI gitLabAPI, final Operation.Fixtures fixtures, final List<Operation> weighted, final int index, final CountDownLatch done) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                Random random = new Random(index);
+                ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                long allocatedAtStart = -1;
+                try {
+                    while (running) {
+                        if (recording && allocatedAtStart < 0) {
+                            allocatedAtStart = allocatedBytes(threads);
+                        }
+                        Operation operation = weighted.get(random.nextInt(weighted.size()));
+                        boolean measured = recording;
+                        long start = System.nanoTime();
+                        try {
+                            operation.run(gitLabAPI, fixtures, random);
+                            if (measured && recording) {
+                                long nanos = System.nanoTime() - start;
+                                stats.get(operation).success(nanos);
+                                overall.record(nanos);
+                            }
+                        } catch (Throwable e) {
+                            if (measured && recording) {
+                                long nanos = System.nanoTime() - start;
+                                stats.get(operation).failure(nanos, e);
+                                overall.record(nanos);
+                            }
+                        }
+                        if (!recording && allocatedAtStart >= 0) {
+                            allocatedBytes.addAndGet(allocatedBytes(threads) - allocatedAtStart);
+                            allocatedAtStart = -2;
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private Map<String, Object> report(long elapsedNanos, InMemoryMetricsListener clientMetrics) {
+        double seconds = elapsedNanos / 1e9;
+        long errors = 0;
+
+        Map<String, Object> operations = new LinkedHashMap<String, Object>();
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().getLatency().snapshot();
+            if (snapshot.getCount() == 0) {
+                continue;
+            }
+            Map<String, Object> operation = new LinkedHashMap<String, Object>();
+            operation.put("count", snapshot.getCount());
+            operation.put("throughput", snapshot.getCount() / seconds);
+            operation.put("errors", entry.getValue().getErrors());
+            operation.put("errorTypes", entry.getValue().getErrorTypes());
+            operation.put("latencyMillis", latency(snapshot));
+            operations.put(entry.getKey().getKey(), operation);
+            errors += entry.getValue().getErrors();
+        }
+        long total = overall.getCount();
+
+        Map<String, Object> report = new LinkedHashMap<String, Object>();
+        report.put("config", config.toMap());
+        report.put("elapsedSeconds", seconds);
+        report.put("operations", total);
+        report.put("throughput", total / seconds);
+        report.put("errors", errors);
+        report.put("latencyMillis", latency(overall.snapshot()));
+
+        Map<String, Object> allocation = new LinkedHashMap<String, Object>();
+        allocation.put("bytesPerSecond", allocatedBytes.get() / seconds);
+        allocation.put("bytesPerOperation", total > 0 ? allocatedBytes.get() / total : 0);
+        report.put("allocation", allocation);
+
+        report.put("byOperation", operations);
+
+        Map<String, Object> endpoints = new LinkedHashMap<String, Object>();
+        for (EndpointSnapshot snapshot : clientMetrics.snapshot()) {
+            Map<String, Object> endpoint = new LinkedHashMap<String, Object>();
+            endpoint.put("count", snapshot.getCount());
+            endpoint.put("errors", snapshot.getErrors());
+            endpoint.put("pages", snapshot.getPages());
+            endpoint.put("bytesIn", snapshot.getBytesIn());
+            endpoint.put("latencyMillis", latency(snapshot.getLatency()));
+            endpoints.put(snapshot.getMethod() + " " + snapshot.getEndpoint(), endpoint);
+        }
+        report.put("byEndpoint", endpoints);
+        return report;
+    }
+
+    private static Map<String, Object> latency(LatencyHistogram.Snapshot snapshot) {
+        Map<String, Object> latency = new LinkedHashMap<String, Object>();
+        latency.put("mean", snapshot.getMean() / 1e6);
+        latency.put("p50", snapshot.getValueAtPercentile(50) / 1e6);
+        latency.put("p99", snapshot.getValueAtPercentile(99) / 1e6);
+        latency.put("p999", snapshot.getValueAtPercentile(99.9) / 1e6);
+        latency.put("max", snapshot.getMax() / 1e6);
+        return latency;
+    }
+}
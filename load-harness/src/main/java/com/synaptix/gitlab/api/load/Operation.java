@@ -0,0 +1,90 @@
+package com.synaptix.gitlab.api.load;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The operations a virtual client picks from
+ */
+public enum Operation {
+
+    LIST_PROJECTS("list") {
+        @Override
+        void run(GitLabAPI gitLabAPI, Fixtures fixtures, Random random) throws IOException {
+            gitLabAPI.getGitLabAPIProjects().getProjects(null, null, null, null, null);
+        }
+    },
+    CRAWL_COMMITS("crawl") {
+        @Override
+        void run(GitLabAPI gitLabAPI, Fixtures fixtures, Random random) throws IOException {
+            gitLabAPI.getGitLabAPICommits().getAllCommits(fixtures.randomProject(random));
+        }
+    },
+    POST_STATUS("status") {
+        @Override
+        void run(GitLabAPI gitLabAPI, Fixtures fixtures, Random random) throws IOException {
+            Integer projectId = fixtures.randomProject(random);
+            String sha = fixtures.randomCommit(projectId, random);
+            gitLabAPI.getGitLabAPICommits().postCommitStatus(projectId, sha, random.nextBoolean() ? "running" : "success", "master", "load-harness",
+                    "https://ci.example.com/load", null);
+        }
+    },
+    LOOKUP("lookup") {
+        @Override
+        void run(GitLabAPI gitLabAPI, Fixtures fixtures, Random random) throws IOException {
+            Integer projectId = fixtures.randomProject(random);
+            if (random.nextBoolean()) {
+                gitLabAPI.getGitLabAPIProjects().getProject(projectId);
+            } else {
+                gitLabAPI.getGitLabAPICommits().getCommit(projectId, fixtures.randomCommit(projectId, random));
+            }
+        }
+    };
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    abstract void run(GitLabAPI gitLabAPI, Fixtures fixtures, Random random) throws IOException;
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + key + ", expected list, crawl, status or lookup");
+    }
+
+    /**
+     * Project ids and commit SHAs the operations work on, collected before the run
+     */
+    static class Fixtures {
+
+        private final List<Integer> projectIds;
+        private final List<List<String>> commits;
+
+        Fixtures(List<Integer> projectIds, List<List<String>> commits) {
+            this.projectIds = projectIds;
+            this.commits = commits;
+        }
+
+        Integer randomProject(Random random) {
+            return projectIds.get(random.nextInt(projectIds.size()));
+        }
+
+        String randomCommit(Integer projectId, Random random) {
+            List<String> shas = commits.get(projectIds.indexOf(projectId));
+            return shas.get(random.nextInt(shas.size()));
+        }
+    }
+}
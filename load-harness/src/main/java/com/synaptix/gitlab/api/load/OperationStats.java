@@ -0,0 +1,60 @@
+package com.synaptix.gitlab.api.load;
+
+import com.synaptix.gitlab.api.GitlabAPIException;
+import com.synaptix.gitlab.api.metrics.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and errors of one operation during the measured part of the run
+ */
+class OperationStats {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> errorTypes = new ConcurrentHashMap<String, LongAdder>();
+
+    void success(long nanos) {
+        latency.record(nanos);
+    }
+
+    void failure(long nanos, Throwable error) {
+        latency.record(nanos);
+        errors.increment();
+
+        if (error instanceof Error && error.getCause() != null) {
+            // Listings wrap their failures in an Error
+            error = error.getCause();
+        }
+        String type = error.getClass().getSimpleName();
+        if (error instanceof GitlabAPIException) {
+            type += " " + ((GitlabAPIException) error).getResponseCode();
+        }
+        LongAdder count = errorTypes.get(type);
+        if (count == null) {
+            errorTypes.putIfAbsent(type, new LongAdder());
+            count = errorTypes.get(type);
+        }
+        count.increment();
+    }
+
+    LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    Map<String, Long> getErrorTypes() {
+        Map<String, Long> types = new TreeMap<String, Long>();
+        for (Map.Entry<String, LongAdder> entry : errorTypes.entrySet()) {
+            types.put(entry.getKey(), entry.getValue().sum());
+        }
+        return types;
+    }
+}
@@ -2,15 +2,41 @@ package com.synaptix.gitlab.api;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.synaptix.gitlab.api.concurrent.BulkExecutor;
+import com.synaptix.gitlab.api.concurrent.ExecutorFactory;
 import com.synaptix.gitlab.api.http.GitLabHTTPRequestor;
+import com.synaptix.gitlab.api.http.TLSContext;
+import com.synaptix.gitlab.api.metrics.GitLabMetricsListener;
+import com.synaptix.gitlab.api.metrics.GitLabRequestMetrics;
+import com.synaptix.gitlab.api.resilience.EndpointGroup;
+import com.synaptix.gitlab.api.resilience.HedgingPolicy;
+import com.synaptix.gitlab.api.routing.UpstreamRouter;
+import com.synaptix.gitlab.api.services.GitLabAPIBranches;
 import com.synaptix.gitlab.api.services.GitLabAPICommits;
+import com.synaptix.gitlab.api.services.GitLabAPIGroups;
+import com.synaptix.gitlab.api.services.GitLabAPIHooks;
+import com.synaptix.gitlab.api.services.GitLabAPIIssues;
+import com.synaptix.gitlab.api.services.GitLabAPIMembers;
+import com.synaptix.gitlab.api.services.GitLabAPIMergeRequests;
+import com.synaptix.gitlab.api.services.GitLabAPINotes;
 import com.synaptix.gitlab.api.services.GitLabAPIProjects;
+import com.synaptix.gitlab.api.services.GitLabAPIRepositories;
 import com.synaptix.gitlab.api.services.GitLabAPIUsers;
 
+import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Gitlab API Wrapper class
@@ -24,24 +50,66 @@ public class GitLabAPI {
     private static final String API_NAMESPACE = "/api/v3";
 
     private final String hostUrl;
+    private final String apiUrl;
     private final String apiToken;
     private final TokenType tokenType;
     private final AuthMethod authMethod;
+    private final UpstreamRouter router;
 
+    private final GitLabAPIBranches gitLabAPIBranches;
     private final GitLabAPICommits gitLabAPICommits;
+    private final GitLabAPIGroups gitLabAPIGroups;
+    private final GitLabAPIHooks gitLabAPIHooks;
+    private final GitLabAPIIssues gitLabAPIIssues;
+    private final GitLabAPIMembers gitLabAPIMembers;
+    private final GitLabAPIMergeRequests gitLabAPIMergeRequests;
+    private final GitLabAPINotes gitLabAPINotes;
     private final GitLabAPIProjects gitLabAPIProjects;
+    private final GitLabAPIRepositories gitLabAPIRepositories;
     private final GitLabAPIUsers gitLabAPIUsers;
 
     private boolean ignoreCertificateErrors = false;
+    private SSLContext sslContext;
+    private KeyStore trustStore;
+    private int sslSessionCacheSize = -1;
+    private int sslSessionTimeout = -1;
+    /**
+     * The TLS context of the current settings, read without locking on every HTTPS connection. Null until built, and again once a
+     * setting changes.
+     */
+    private volatile TLSContextHolder tlsContext;
+
+    private int connectTimeout = 10000;
+    private int readTimeout = 60000;
+
+    private int parallelism = 8;
+    private boolean virtualThreads = false;
+    private ExecutorService executorService;
+    private boolean ownsExecutorService;
+
+    private final List<GitLabMetricsListener> metricsListeners = new CopyOnWriteArrayList<GitLabMetricsListener>();
+
+    private final ConcurrentMap<String, EndpointGroup> endpointGroups = new ConcurrentHashMap<String, EndpointGroup>();
+    private volatile HedgingPolicy hedgingPolicy;
 
     private GitLabAPI(String hostUrl, String apiToken, TokenType tokenType, AuthMethod method) {
         this.hostUrl = hostUrl.endsWith("/") ? hostUrl.replaceAll("/$", "") : hostUrl;
+        this.apiUrl = this.hostUrl + API_NAMESPACE;
         this.apiToken = apiToken;
         this.tokenType = tokenType;
         this.authMethod = method;
+        this.router = new UpstreamRouter(apiUrl);
 
+        this.gitLabAPIBranches = new GitLabAPIBranches(this);
         this.gitLabAPICommits = new GitLabAPICommits(this);
+        this.gitLabAPIGroups = new GitLabAPIGroups(this);
+        this.gitLabAPIHooks = new GitLabAPIHooks(this);
+        this.gitLabAPIIssues = new GitLabAPIIssues(this);
+        this.gitLabAPIMembers = new GitLabAPIMembers(this);
+        this.gitLabAPIMergeRequests = new GitLabAPIMergeRequests(this);
+        this.gitLabAPINotes = new GitLabAPINotes(this);
         this.gitLabAPIProjects = new GitLabAPIProjects(this);
+        this.gitLabAPIRepositories = new GitLabAPIRepositories(this);
         this.gitLabAPIUsers = new GitLabAPIUsers(this);
     }
 
@@ -57,11 +125,242 @@ public class GitLabAPI {
         return new GitLabAPI(hostUrl, apiToken, tokenType, method);
     }
 
-    public GitLabAPI ignoreCertificateErrors(boolean ignoreCertificateErrors) {
+    /**
+     * Sets the timeout of opening a connection, 10 seconds by default
+     *
+     * @param connectTimeout The timeout in milliseconds, 0 for none
+     * @return this
+     */
+    public GitLabAPI connectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the timeout of each read on a connection, 60 seconds by default
+     * <p>
+     * It bounds the wait for the response and each pause while reading it, not the whole call:
+     * use a {@link com.synaptix.gitlab.api.http.CancellationToken} with a deadline for that.
+     *
+     * @param readTimeout The timeout in milliseconds, 0 for none
+     * @return this
+     */
+    public GitLabAPI readTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    /**
+     * Adds read endpoints, eg. GitLab Geo secondaries
+     * <p>
+     * GET requests are routed to the primary or a read endpoint by measured latency and health, and fail over
+     * when an endpoint stops responding. Writes always go to the primary.
+     *
+     * @param hostUrls The host urls of the read endpoints
+     * @return this
+     */
+    public GitLabAPI readEndpoints(String... hostUrls) {
+        for (String hostUrl : hostUrls) {
+            router.addReadUpstream((hostUrl.endsWith("/") ? hostUrl.replaceAll("/$", "") : hostUrl) + API_NAMESPACE);
+        }
+        return this;
+    }
+
+    /**
+     * Isolates the endpoints of a group behind its rate limiter, bulkhead and circuit breaker
+     * <p>
+     * An endpoint belongs to at most one group: registering it again moves it to the new group.
+     *
+     * @param endpointGroup The configured group
+     * @return this
+     */
+    public GitLabAPI endpointGroup(EndpointGroup endpointGroup) {
+        for (String endpoint : endpointGroup.getEndpoints()) {
+            endpointGroups.put(endpoint, endpointGroup);
+        }
+        return this;
+    }
+
+    /**
+     * Enables hedging of single object GETs
+     *
+     * @param hedgingPolicy The policy, or null to disable hedging
+     * @return this
+     */
+    public synchronized GitLabAPI hedging(HedgingPolicy hedgingPolicy) {
+        if (this.hedgingPolicy != null) {
+            removeMetricsListener(this.hedgingPolicy);
+        }
+        this.hedgingPolicy = hedgingPolicy;
+        if (hedgingPolicy != null) {
+            addMetricsListener(hedgingPolicy);
+        }
+        return this;
+    }
+
+    /**
+     * Trusts every certificate and host name, for this client only
+     *
+     * @param ignoreCertificateErrors true to skip certificate checks
+     * @return this
+     */
+    public synchronized GitLabAPI ignoreCertificateErrors(boolean ignoreCertificateErrors) {
         this.ignoreCertificateErrors = ignoreCertificateErrors;
+        this.tlsContext = null;
+        return this;
+    }
+
+    /**
+     * Trusts the certificates of the given store instead of the JVM defaults
+     *
+     * @param trustStore The trusted certificates
+     * @return this
+     */
+    public synchronized GitLabAPI trustStore(KeyStore trustStore) {
+        this.trustStore = trustStore;
+        this.tlsContext = null;
+        return this;
+    }
+
+    /**
+     * Uses the given SSL context for HTTPS connections, eg. to present a client certificate
+     *
+     * @param sslContext The initialized context
+     * @return this
+     */
+    public synchronized GitLabAPI sslContext(SSLContext sslContext) {
+        this.sslContext = sslContext;
+        this.tlsContext = null;
         return this;
     }
 
+    /**
+     * Tunes the TLS session cache of this client, which allows abbreviated handshakes on new connections
+     *
+     * @param size           The maximum number of cached sessions, 0 for no limit
+     * @param timeoutSeconds The lifetime of a cached session, 0 for no limit
+     * @return this
+     */
+    public synchronized GitLabAPI sslSessionCache(int size, int timeoutSeconds) {
+        this.sslSessionCacheSize = size;
+        this.sslSessionTimeout = timeoutSeconds;
+        this.tlsContext = null;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of requests a single bulk operation runs concurrently
+     *
+     * @param parallelism The number of concurrent requests, at least 1
+     * @return this
+     */
+    public GitLabAPI parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Sets the executor used by bulk operations. The executor is not shut down by this API.
+     * By default a shared pool of daemon threads is created on first use.
+     *
+     * @param executorService The executor
+     * @return this
+     */
+    public synchronized GitLabAPI executorService(ExecutorService executorService) {
+        this.executorService = executorService;
+        this.ownsExecutorService = false;
+        return this;
+    }
+
+    /**
+     * Runs bulk operations on one virtual thread per request instead of a pool of platform threads.
+     * Only has an effect on Java 21+, see {@link ExecutorFactory#isVirtualThreadsSupported()}, and
+     * when no executor was set with {@link #executorService(ExecutorService)}.
+     * Raise {@link #parallelism(int)} accordingly, virtual threads make thousands of concurrent requests affordable.
+     *
+     * @param virtualThreads true to use virtual threads
+     * @return this
+     */
+    public synchronized GitLabAPI virtualThreads(boolean virtualThreads) {
+        if (this.virtualThreads != virtualThreads && executorService != null && ownsExecutorService) {
+            executorService.shutdown();
+            executorService = null;
+        }
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of commits kept in the commit cache, 0 disables it
+     *
+     * @param size The number of commits
+     * @return this
+     */
+    public GitLabAPI commitCacheSize(int size) {
+        gitLabAPICommits.getCommitCache().setCapacity(size);
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of merge request changes kept in the changes cache, 0 disables it
+     *
+     * @param size The number of merge request changes
+     * @return this
+     */
+    public GitLabAPI mergeRequestChangesCacheSize(int size) {
+        gitLabAPIMergeRequests.getChangesCache().setCapacity(size);
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of directory listings kept in the tree cache, 0 disables it
+     *
+     * @param size The number of trees
+     * @return this
+     */
+    public GitLabAPI treeCacheSize(int size) {
+        gitLabAPIRepositories.getTreeCache().setCapacity(size);
+        return this;
+    }
+
+    /**
+     * Registers a listener called with the metrics of every request
+     *
+     * @param listener The listener
+     * @return this
+     */
+    public GitLabAPI addMetricsListener(GitLabMetricsListener listener) {
+        metricsListeners.add(listener);
+        return this;
+    }
+
+    public GitLabAPI removeMetricsListener(GitLabMetricsListener listener) {
+        metricsListeners.remove(listener);
+        return this;
+    }
+
+    public boolean hasMetricsListeners() {
+        return !metricsListeners.isEmpty();
+    }
+
+    /**
+     * Hands the metrics of a finished request to the registered listeners
+     *
+     * @param metrics The metrics
+     */
+    public void fireRequestMetrics(GitLabRequestMetrics metrics) {
+        for (GitLabMetricsListener listener : metricsListeners) {
+            try {
+                listener.onRequest(metrics);
+            } catch (RuntimeException e) {
+                // A broken listener must not break the API call
+            }
+        }
+    }
+
     public GitLabHTTPRequestor retrieve() {
         return new GitLabHTTPRequestor(this).authenticate(apiToken, tokenType, authMethod);
     }
@@ -74,11 +373,95 @@ public class GitLabAPI {
         return ignoreCertificateErrors;
     }
 
+    /**
+     * Returns the TLS context of this client, built on first use
+     *
+     * @return the context, or null if the JVM defaults are used
+     * @throws IOException if the context cannot be built
+     */
+    public TLSContext getTLSContext() throws IOException {
+        TLSContextHolder holder = tlsContext;
+        if (holder == null) {
+            holder = buildTLSContext();
+        }
+        return holder.context;
+    }
+
+    private synchronized TLSContextHolder buildTLSContext() throws IOException {
+        if (tlsContext == null) {
+            TLSContext context = null;
+            if (ignoreCertificateErrors || sslContext != null || trustStore != null || sslSessionCacheSize >= 0 || sslSessionTimeout >= 0) {
+                try {
+                    context = TLSContext.build(sslContext, ignoreCertificateErrors, trustStore, sslSessionCacheSize, sslSessionTimeout);
+                } catch (GeneralSecurityException e) {
+                    throw new IOException("Failed to build the SSL context", e);
+                }
+            }
+            tlsContext = new TLSContextHolder(context);
+        }
+        return tlsContext;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public synchronized ExecutorService getExecutorService() {
+        if (executorService == null) {
+            executorService = virtualThreads ? ExecutorFactory.newVirtualThreadPerTaskExecutor("gitlab-api-") : ExecutorFactory.newPlatformThreadExecutor("gitlab-api-");
+            ownsExecutorService = true;
+        }
+        return executorService;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads && ExecutorFactory.isVirtualThreadsSupported();
+    }
+
+    public BulkExecutor bulk() {
+        return new BulkExecutor(getExecutorService(), parallelism);
+    }
+
+    /**
+     * @param endpoint The endpoint template
+     * @return the group of the endpoint, or null if it is not isolated
+     */
+    public EndpointGroup getEndpointGroup(String endpoint) {
+        return endpoint == null || endpointGroups.isEmpty() ? null : endpointGroups.get(endpoint);
+    }
+
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    public List<EndpointGroup> getEndpointGroups() {
+        return new ArrayList<EndpointGroup>(new LinkedHashSet<EndpointGroup>(endpointGroups.values()));
+    }
+
+    public UpstreamRouter getRouter() {
+        return router;
+    }
+
+    /**
+     * @return the url of the API namespace of the primary, eg. https://gitlab.example.com/api/v3
+     */
+    public String getAPIUrl() {
+        return apiUrl;
+    }
+
     public URL getAPIUrl(String tailAPIUrl) throws IOException {
         if (!tailAPIUrl.startsWith("/")) {
             tailAPIUrl = "/" + tailAPIUrl;
         }
-        return new URL(hostUrl + API_NAMESPACE + tailAPIUrl);
+        return new URL(apiUrl + tailAPIUrl);
     }
 
     public URL getUrl(String tailAPIUrl) throws IOException {
@@ -100,15 +483,56 @@ public class GitLabAPI {
         }
     }
 
+    public GitLabAPIBranches getGitLabAPIBranches() {
+        return gitLabAPIBranches;
+    }
+
     public GitLabAPICommits getGitLabAPICommits() {
         return gitLabAPICommits;
     }
 
+    public GitLabAPIGroups getGitLabAPIGroups() {
+        return gitLabAPIGroups;
+    }
+
+    public GitLabAPIHooks getGitLabAPIHooks() {
+        return gitLabAPIHooks;
+    }
+
+    public GitLabAPIIssues getGitLabAPIIssues() {
+        return gitLabAPIIssues;
+    }
+
+    public GitLabAPIMembers getGitLabAPIMembers() {
+        return gitLabAPIMembers;
+    }
+
+    public GitLabAPIMergeRequests getGitLabAPIMergeRequests() {
+        return gitLabAPIMergeRequests;
+    }
+
+    public GitLabAPINotes getGitLabAPINotes() {
+        return gitLabAPINotes;
+    }
+
     public GitLabAPIProjects getGitLabAPIProjects() {
         return gitLabAPIProjects;
     }
 
+    public GitLabAPIRepositories getGitLabAPIRepositories() {
+        return gitLabAPIRepositories;
+    }
+
     public GitLabAPIUsers getGitLabAPIUsers() {
         return gitLabAPIUsers;
     }
+
+    private static final class TLSContextHolder {
+
+        private final TLSContext context;
+
+        private TLSContextHolder(TLSContext context) {
+            this.context = context;
+        }
+    }
 }
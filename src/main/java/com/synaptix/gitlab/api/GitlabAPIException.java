@@ -8,13 +8,29 @@ import java.io.IOException;
 public class GitlabAPIException extends IOException {
 
     private int responseCode;
+    private long retryAfterMillis = -1;
 
     public GitlabAPIException(String message, Integer responseCode, Throwable cause) {
         super(message, cause);
         this.responseCode = responseCode;
     }
 
+    /**
+     * @param retryAfterMillis The delay asked by the server before retrying, -1 if none
+     */
+    public GitlabAPIException(String message, Integer responseCode, Throwable cause, long retryAfterMillis) {
+        this(message, responseCode, cause);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
     public int getResponseCode() {
         return responseCode;
     }
+
+    /**
+     * @return the delay given by the Retry-After header of a 429 or 503 response, -1 if none
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
 }
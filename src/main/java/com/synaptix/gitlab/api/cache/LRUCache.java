@@ -0,0 +1,98 @@
+package com.synaptix.gitlab.api.cache;
+
+import com.synaptix.gitlab.api.jfr.GitLabFlightRecorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small thread safe least-recently-used cache
+ * <p>
+ * Entries are evicted in access order once the capacity is reached.
+ * A capacity of 0 disables the cache.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class LRUCache<K, V> {
+
+    private final String name;
+    private final LinkedHashMap<K, V> entries;
+
+    private int capacity;
+
+    public LRUCache(String name, int capacity) {
+        super();
+        this.name = name;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LRUCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value or null, marking the entry as recently used
+     *
+     * @param key The key
+     * @return the value or null
+     */
+    public V get(K key) {
+        V value;
+        synchronized (this) {
+            value = entries.get(key);
+        }
+        GitLabFlightRecorder.cacheAccess(name, value != null);
+        return value;
+    }
+
+    /**
+     * Caches a value, evicting the least recently used entry if needed
+     *
+     * @param key   The key
+     * @param value The value, ignored if null
+     */
+    public synchronized void put(K key, V value) {
+        if (value != null && capacity > 0) {
+            entries.put(key, value);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized V remove(K key) {
+        return entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Changes the capacity, evicting the least recently used entries if the cache shrinks
+     *
+     * @param capacity The new capacity
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        while (entries.size() > capacity) {
+            K eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.synaptix.gitlab.api.cache;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.concurrent.BulkResult;
+import com.synaptix.gitlab.api.concurrent.IOFunction;
+import com.synaptix.gitlab.api.models.GitlabUser;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves users by id, username or email, with a cache
+ * <p>
+ * Commits only carry the name and email of their author. The directory turns them into users with as few calls as possible:
+ * <ul>
+ * <li>Resolved users are kept in an LRU cache indexed by id, username and email, and so are the keys matching no user,
+ * so that an external committer is looked up once.</li>
+ * <li>Concurrent lookups of the same key share a single request.</li>
+ * <li>Lookups from concurrent threads are collected for a short window, then resolved together with bounded parallelism.
+ * The bulk methods resolve their keys at once.</li>
+ * <li>{@link #preload()} lists every user in a few pages, after which only unknown keys cost a request. Emails are only
+ * listed for administrators.</li>
+ * </ul>
+ * Usernames and emails are compared ignoring case.
+ */
+public class UserDirectory {
+
+    // Cached for the keys that match no user
+    private static final GitlabUser NOT_FOUND = new GitlabUser();
+
+    private final GitLabAPI gitLabAPI;
+    private final LRUCache<String, GitlabUser> cache = new LRUCache<String, GitlabUser>("users", 30000);
+
+    private long batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(10);
+    private int maxBatchSize = 100;
+
+    private final Object lock = new Object();
+    private final Map<String, Pending> inflight = new HashMap<String, Pending>();
+    private List<Pending> batch;
+
+    public UserDirectory(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    /**
+     * @param capacity The number of cached keys, a user takes up to 3 of them. 30000 by default.
+     * @return this
+     */
+    public UserDirectory capacity(int capacity) {
+        cache.setCapacity(capacity);
+        return this;
+    }
+
+    /**
+     * @param batchWindowMillis How long a lookup waits for others to join its batch, 10 by default
+     * @return this
+     */
+    public UserDirectory batchWindowMillis(long batchWindowMillis) {
+        this.batchWindowNanos = TimeUnit.MILLISECONDS.toNanos(batchWindowMillis);
+        return this;
+    }
+
+    /**
+     * @param maxBatchSize The number of lookups that sends a batch before the end of its window, 100 by default
+     * @return this
+     */
+    public UserDirectory maxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    public LRUCache<String, GitlabUser> getCache() {
+        return cache;
+    }
+
+    /**
+     * @return the user, or null if there is none
+     * @throws IOException if the lookup failed
+     */
+    public GitlabUser getById(Integer id) throws IOException {
+        return get(key(Pending.ID, String.valueOf(id)));
+    }
+
+    /**
+     * @return the user, or null if there is none
+     * @throws IOException if the lookup failed
+     */
+    public GitlabUser getByUsername(String username) throws IOException {
+        return get(key(Pending.USERNAME, username));
+    }
+
+    /**
+     * @return the user, or null if there is none or if the user cannot see emails
+     * @throws IOException if the lookup failed
+     */
+    public GitlabUser getByEmail(String email) throws IOException {
+        return get(key(Pending.EMAIL, email));
+    }
+
+    /**
+     * Resolves many ids at once
+     *
+     * @return the users found, by id. Ids whose lookup failed are missing too, and are looked up again next time.
+     * @throws InterruptedIOException if interrupted while waiting for the lookups
+     */
+    public Map<Integer, GitlabUser> getByIds(Collection<Integer> ids) throws InterruptedIOException {
+        Map<String, Integer> keys = new LinkedHashMap<String, Integer>();
+        for (Integer id : ids) {
+            keys.put(key(Pending.ID, String.valueOf(id)), id);
+        }
+        return getAll(keys);
+    }
+
+    /**
+     * Resolves many usernames at once
+     *
+     * @return the users found, by username as given
+     * @throws InterruptedIOException if interrupted while waiting for the lookups
+     * @see #getByIds(Collection)
+     */
+    public Map<String, GitlabUser> getByUsernames(Collection<String> usernames) throws InterruptedIOException {
+        Map<String, String> keys = new LinkedHashMap<String, String>();
+        for (String username : usernames) {
+            keys.put(key(Pending.USERNAME, username), username);
+        }
+        return getAll(keys);
+    }
+
+    /**
+     * Resolves many emails at once
+     *
+     * @return the users found, by email as given
+     * @throws InterruptedIOException if interrupted while waiting for the lookups
+     * @see #getByIds(Collection)
+     */
+    public Map<String, GitlabUser> getByEmails(Collection<String> emails) throws InterruptedIOException {
+        Map<String, String> keys = new LinkedHashMap<String, String>();
+        for (String email : emails) {
+            keys.put(key(Pending.EMAIL, email), email);
+        }
+        return getAll(keys);
+    }
+
+    /**
+     * Lists every user into the cache
+     *
+     * @return the number of users
+     * @throws IOException
+     */
+    public int preload() throws IOException {
+        List<GitlabUser> users = gitLabAPI.getGitLabAPIUsers().getUsers(null);
+        for (GitlabUser user : users) {
+            put(user);
+        }
+        return users.size();
+    }
+
+    /**
+     * Caches a user obtained elsewhere, eg. the author of a merge request
+     */
+    public void put(GitlabUser user) {
+        if (user.getId() != null) {
+            cache.put(key(Pending.ID, String.valueOf(user.getId())), user);
+        }
+        if (user.getUsername() != null) {
+            cache.put(key(Pending.USERNAME, user.getUsername()), user);
+        }
+        if (user.getEmail() != null) {
+            cache.put(key(Pending.EMAIL, user.getEmail()), user);
+        }
+    }
+
+    private GitlabUser get(String key) throws IOException {
+        GitlabUser cached = cache.get(key);
+        if (cached != null) {
+            return cached != NOT_FOUND ? cached : null;
+        }
+
+        Pending pending;
+        boolean leader = false;
+        synchronized (lock) {
+            pending = inflight.get(key);
+            if (pending == null) {
+                pending = new Pending(key);
+                inflight.put(key, pending);
+                if (batch == null) {
+                    batch = new ArrayList<Pending>();
+                    leader = true;
+                }
+                batch.add(pending);
+                if (batch.size() >= maxBatchSize) {
+                    lock.notifyAll();
+                }
+            }
+        }
+
+        if (leader) {
+            // The first lookup of a batch waits for others to join it, then sends it
+            List<Pending> collected = collectBatch();
+            // The batch is shared: an interrupt of the leader would fail the lookups of the others, it is restored once the batch is resolved
+            boolean interrupted = Thread.interrupted();
+            try {
+                resolve(collected);
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        pending.await();
+        if (pending.failure != null) {
+            throw pending.failure;
+        }
+        return pending.user != NOT_FOUND ? pending.user : null;
+    }
+
+    private List<Pending> collectBatch() {
+        synchronized (lock) {
+            long deadline = System.nanoTime() + batchWindowNanos;
+            long remaining;
+            while (batch.size() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    // Send the batch now, the other lookups are waiting for it
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            List<Pending> collected = batch;
+            batch = null;
+            return collected;
+        }
+    }
+
+    private <K> Map<K, GitlabUser> getAll(Map<String, K> keys) throws InterruptedIOException {
+        Map<K, GitlabUser> users = new LinkedHashMap<K, GitlabUser>();
+        List<Pending> waiting = new ArrayList<Pending>();
+        List<Pending> missing = new ArrayList<Pending>();
+        for (Map.Entry<String, K> entry : keys.entrySet()) {
+            GitlabUser cached = cache.get(entry.getKey());
+            if (cached != null) {
+                if (cached != NOT_FOUND) {
+                    users.put(entry.getValue(), cached);
+                }
+                continue;
+            }
+            synchronized (lock) {
+                Pending pending = inflight.get(entry.getKey());
+                if (pending == null) {
+                    pending = new Pending(entry.getKey());
+                    inflight.put(entry.getKey(), pending);
+                    missing.add(pending);
+                }
+                waiting.add(pending);
+            }
+        }
+
+        resolve(missing);
+        for (Pending pending : waiting) {
+            pending.await();
+            if (pending.user != null && pending.user != NOT_FOUND) {
+                users.put(keys.get(pending.key), pending.user);
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Looks up the keys with the parallelism of the bulk executor, then completes them
+     */
+    private void resolve(List<Pending> pendings) {
+        if (pendings.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<String>(pendings.size());
+        for (Pending pending : pendings) {
+            keys.add(pending.key);
+        }
+
+        List<BulkResult<String, GitlabUser>> results = null;
+        IOException failure = null;
+        try {
+            results = gitLabAPI.bulk().getAll(keys, new IOFunction<String, GitlabUser>() {
+                @Override
+                public GitlabUser apply(String key) throws IOException {
+                    return lookup(key);
+                }
+            });
+        } catch (InterruptedIOException e) {
+            failure = e;
+        }
+
+        for (int i = 0; i < pendings.size(); i++) {
+            Pending pending = pendings.get(i);
+            if (results != null && results.get(i).isSuccess()) {
+                pending.user = results.get(i).getValue();
+                if (pending.user != NOT_FOUND) {
+                    put(pending.user);
+                } else {
+                    cache.put(pending.key, NOT_FOUND);
+                }
+            } else {
+                pending.failure = results != null ? results.get(i).getException() : failure;
+            }
+            synchronized (lock) {
+                inflight.remove(pending.key);
+            }
+            pending.done.countDown();
+        }
+    }
+
+    private GitlabUser lookup(String key) throws IOException {
+        String value = key.substring(2);
+        GitlabUser user = null;
+        switch (key.charAt(0)) {
+            case Pending.ID:
+                try {
+                    user = gitLabAPI.getGitLabAPIUsers().getUser(Integer.valueOf(value));
+                } catch (FileNotFoundException e) {
+                    user = null;
+                }
+                break;
+            case Pending.USERNAME:
+                user = gitLabAPI.getGitLabAPIUsers().getUserByUsername(value);
+                break;
+            default:
+                // An email matches one user at most, the first page is enough
+                for (GitlabUser candidate : gitLabAPI.getGitLabAPIUsers().getUsers(value, 1, 100)) {
+                    if (value.equalsIgnoreCase(candidate.getEmail())) {
+                        user = candidate;
+                        break;
+                    }
+                }
+                break;
+        }
+        return user != null ? user : NOT_FOUND;
+    }
+
+    private static String key(char type, String value) {
+        return type + ":" + (type == Pending.ID ? value : value.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * A lookup in progress, shared by the threads asking for the same key
+     */
+    private static final class Pending {
+
+        static final char ID = 'i';
+        static final char USERNAME = 'u';
+        static final char EMAIL = 'e';
+
+        final String key;
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile GitlabUser user;
+        volatile IOException failure;
+
+        Pending(String key) {
+            this.key = key;
+        }
+
+        void await() throws InterruptedIOException {
+            if (done.getCount() == 0) {
+                // Already resolved, eg. by the interrupted leader of its batch
+                return;
+            }
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while resolving " + key);
+            }
+        }
+    }
+}
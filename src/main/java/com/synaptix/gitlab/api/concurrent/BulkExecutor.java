@@ -0,0 +1,134 @@
+package com.synaptix.gitlab.api.concurrent;
+
+import com.synaptix.gitlab.api.http.CancellationToken;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs the same API call for many keys with bounded parallelism
+ * <p>
+ * Duplicate keys are fetched once. Failures are reported per key as a {@link BulkResult}
+ * and never abort the other fetches. The calls run with the {@link CancellationToken} of the calling thread.
+ */
+public class BulkExecutor {
+
+    private final Executor executor;
+    private final int parallelism;
+
+    public BulkExecutor(Executor executor, int parallelism) {
+        super();
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Fetches every key and returns the results in the order of the keys
+     *
+     * @param keys     The keys to fetch
+     * @param function The call fetching one key
+     * @param <K>      key type
+     * @param <V>      value type
+     * @return one result per key, in input order
+     * @throws InterruptedIOException if the calling thread is interrupted while waiting
+     */
+    public <K, V> List<BulkResult<K, V>> getAll(Collection<K> keys, IOFunction<K, V> function) throws InterruptedIOException {
+        final Map<K, BulkResult<K, V>> results = new LinkedHashMap<K, BulkResult<K, V>>();
+        stream(keys, function, new Consumer<BulkResult<K, V>>() {
+            @Override
+            public void accept(BulkResult<K, V> result) {
+                results.put(result.getKey(), result);
+            }
+        });
+
+        List<BulkResult<K, V>> ordered = new ArrayList<BulkResult<K, V>>(keys.size());
+        for (K key : keys) {
+            ordered.add(results.get(key));
+        }
+        return ordered;
+    }
+
+    /**
+     * Fetches every distinct key and hands each result to the consumer as soon as it completes
+     * <p>
+     * The consumer is called from the worker threads but never concurrently.
+     * This method returns once every key has been delivered.
+     *
+     * @param keys     The keys to fetch
+     * @param function The call fetching one key
+     * @param consumer Receives each result
+     * @param <K>      key type
+     * @param <V>      value type
+     * @throws InterruptedIOException if the calling thread is interrupted while waiting
+     */
+    public <K, V> void stream(Collection<K> keys, final IOFunction<K, V> function, final Consumer<BulkResult<K, V>> consumer) throws InterruptedIOException {
+        List<K> distinct = new ArrayList<K>(new LinkedHashSet<K>(keys));
+        final Semaphore permits = new Semaphore(parallelism);
+        final CountDownLatch done = new CountDownLatch(distinct.size());
+        final ReentrantLock consumerLock = new ReentrantLock();
+        final CancellationToken cancellation = CancellationToken.current();
+
+        try {
+            for (final K key : distinct) {
+                permits.acquire();
+                Runnable task = new Runnable() {
+                    @Override
+                    public void run() {
+                        CancellationToken.Scope scope = cancellation != null ? cancellation.enter() : null;
+                        try {
+                            BulkResult<K, V> result;
+                            try {
+                                result = BulkResult.success(key, function.apply(key));
+                            } catch (IOException e) {
+                                result = BulkResult.failure(key, e);
+                            } catch (UncheckedIOException e) {
+                                // Thrown by listings
+                                result = BulkResult.failure(key, e.getCause());
+                            } catch (RuntimeException e) {
+                                result = BulkResult.failure(key, new IOException(e));
+                            }
+                            consumerLock.lock();
+                            try {
+                                consumer.accept(result);
+                            } finally {
+                                consumerLock.unlock();
+                            }
+                        } finally {
+                            if (scope != null) {
+                                scope.close();
+                            }
+                            permits.release();
+                            done.countDown();
+                        }
+                    }
+                };
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    // Run in the caller thread rather than losing the key
+                    task.run();
+                }
+            }
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for bulk results");
+        }
+    }
+}
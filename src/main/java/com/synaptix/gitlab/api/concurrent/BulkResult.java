@@ -0,0 +1,68 @@
+package com.synaptix.gitlab.api.concurrent;
+
+import java.io.IOException;
+
+/**
+ * Outcome of one element of a bulk operation
+ * <p>
+ * Either holds the value fetched for the key or the exception that made the fetch fail,
+ * so that a single failing element does not fail the whole batch.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BulkResult<K, V> {
+
+    private final K key;
+    private final V value;
+    private final IOException exception;
+
+    private BulkResult(K key, V value, IOException exception) {
+        super();
+        this.key = key;
+        this.value = value;
+        this.exception = exception;
+    }
+
+    public static <K, V> BulkResult<K, V> success(K key, V value) {
+        return new BulkResult<K, V>(key, value, null);
+    }
+
+    public static <K, V> BulkResult<K, V> failure(K key, IOException exception) {
+        return new BulkResult<K, V>(key, null, exception);
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public V getValue() {
+        return value;
+    }
+
+    public IOException getException() {
+        return exception;
+    }
+
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    /**
+     * Returns the value or rethrows the exception of the failed fetch
+     *
+     * @return the value
+     * @throws IOException the exception of the failed fetch
+     */
+    public V get() throws IOException {
+        if (exception != null) {
+            throw exception;
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResult[" + key + (exception == null ? "]" : ", " + exception + "]");
+    }
+}
@@ -0,0 +1,15 @@
+package com.synaptix.gitlab.api.concurrent;
+
+import java.io.IOException;
+
+/**
+ * Function performing a GitLab API call
+ *
+ * @param <K> argument type
+ * @param <V> result type
+ */
+public interface IOFunction<K, V> {
+
+    V apply(K key) throws IOException;
+
+}
@@ -0,0 +1,80 @@
+package com.synaptix.gitlab.api.http;
+
+import java.net.HttpURLConnection;
+
+/**
+ * The connection of an exchange in progress, so that another thread can abort it
+ * <p>
+ * Blocking reads on a {@link HttpURLConnection} ignore interrupts; disconnecting closes the socket and makes them fail at once.
+ */
+final class Attempt {
+
+    private final CancellationToken token;
+    private volatile HttpURLConnection connection;
+    private volatile boolean cancelled;
+    private volatile Runnable onResponse;
+
+    /**
+     * @param token The token of the call, or null
+     */
+    Attempt(CancellationToken token) {
+        this.token = token;
+    }
+
+    /**
+     * Registers the connection of the exchange, to be followed by {@link #detach()}
+     *
+     * @return the connection
+     * @throws RequestCancelledException if the attempt was already cancelled
+     */
+    HttpURLConnection attach(HttpURLConnection connection) throws RequestCancelledException {
+        this.connection = connection;
+        if (token != null) {
+            token.register(this);
+        }
+        if (isCancelled()) {
+            connection.disconnect();
+            detach();
+            throw newException();
+        }
+        return connection;
+    }
+
+    void detach() {
+        connection = null;
+        if (token != null) {
+            token.unregister(this);
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+        HttpURLConnection current = connection;
+        if (current != null) {
+            current.disconnect();
+        }
+    }
+
+    /**
+     * @param onResponse Run once, when the status and headers of the response arrive
+     */
+    void onResponse(Runnable onResponse) {
+        this.onResponse = onResponse;
+    }
+
+    void responded() {
+        Runnable listener = onResponse;
+        if (listener != null) {
+            onResponse = null;
+            listener.run();
+        }
+    }
+
+    boolean isCancelled() {
+        return cancelled || token != null && token.isCancelled();
+    }
+
+    RequestCancelledException newException() {
+        return token != null && token.isCancelled() ? token.newException() : new RequestCancelledException("Request cancelled");
+    }
+}
@@ -0,0 +1,177 @@
+package com.synaptix.gitlab.api.http;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cancels API calls, and optionally bounds them with a deadline
+ * <p>
+ * A deadline covers the whole call, every page of a listing included: connect and read timeouts are capped to the
+ * time left, the requests still in flight when it passes are aborted, even while a body is being read, and no page is
+ * requested once it has passed. {@link #cancel()} aborts the requests in flight at once and fails the next ones,
+ * including the next page of an iterator. Cancelled calls throw a {@link RequestCancelledException}, or a
+ * {@link DeadlineExceededException} when the deadline passed.
+ * <p>
+ * Pass it to a requestor with {@link GitLabHTTPRequestor#cancellation(CancellationToken)}, or make it the token
+ * of the calls of the current thread, including those made by the services:
+ * <pre>
+ * CancellationToken.Scope scope = CancellationToken.withTimeout(5, TimeUnit.SECONDS).enter();
+ * try {
+ *     gitLabAPI.getGitLabAPICommits().getAllCommits(projectId);
+ * } finally {
+ *     scope.close();
+ * }
+ * </pre>
+ * Bulk calls hand the token of the calling thread to their worker threads.
+ */
+public class CancellationToken {
+
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<CancellationToken>();
+
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+    private final Set<Attempt> attempts = Collections.newSetFromMap(new ConcurrentHashMap<Attempt, Boolean>());
+    private final AtomicBoolean deadlineScheduled = new AtomicBoolean();
+
+    /**
+     * Creates a token without deadline
+     */
+    public CancellationToken() {
+        this(false, 0);
+    }
+
+    private CancellationToken(boolean hasDeadline, long deadlineNanos) {
+        super();
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a token whose deadline is the given time from now
+     */
+    public static CancellationToken withTimeout(long timeout, TimeUnit unit) {
+        return new CancellationToken(true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * @return the token of the current thread, or null
+     */
+    public static CancellationToken current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes this token the one of the calls of the current thread, until the scope is closed
+     *
+     * @return the scope
+     */
+    public Scope enter() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(this);
+        return scope;
+    }
+
+    /**
+     * Cancels the calls using this token and aborts their requests in flight
+     */
+    public void cancel() {
+        cancelled = true;
+        abort();
+    }
+
+    private void abort() {
+        for (Attempt attempt : attempts) {
+            attempt.cancel();
+        }
+    }
+
+    /**
+     * @return true if the token was cancelled or its deadline passed
+     */
+    public boolean isCancelled() {
+        return cancelled || isExpired();
+    }
+
+    public boolean isExpired() {
+        return hasDeadline && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    /**
+     * @return the time left before the deadline, at least 1 until it passes, Long.MAX_VALUE without deadline
+     */
+    public long getRemainingMillis() {
+        if (!hasDeadline) {
+            return Long.MAX_VALUE;
+        }
+        long remaining = deadlineNanos - System.nanoTime();
+        return remaining <= 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+
+    void register(Attempt attempt) {
+        attempts.add(attempt);
+        if (hasDeadline && deadlineScheduled.compareAndSet(false, true)) {
+            // Aborts the requests in flight at the deadline, which is then reported by newException. Tokens that never send
+            // a request do not use the timer.
+            Deadlines.TIMER.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    abort();
+                }
+            }, deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void unregister(Attempt attempt) {
+        attempts.remove(attempt);
+    }
+
+    RequestCancelledException newException() {
+        return !cancelled && isExpired() ? new DeadlineExceededException("Deadline exceeded") : new RequestCancelledException("Request cancelled");
+    }
+
+    /**
+     * The timer thread shared by the tokens having a deadline, started on first use
+     */
+    private static final class Deadlines {
+
+        private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "gitlab-api-deadlines");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Restores the previous token of the thread when closed
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final CancellationToken previous;
+
+        private Scope(CancellationToken previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.synaptix.gitlab.api.http;
+
+/**
+ * Thrown by a call whose deadline passed
+ */
+public class DeadlineExceededException extends RequestCancelledException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
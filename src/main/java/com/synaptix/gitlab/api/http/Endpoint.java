@@ -0,0 +1,113 @@
+package com.synaptix.gitlab.api.http;
+
+import com.synaptix.gitlab.api.metrics.EndpointTemplates;
+import com.synaptix.gitlab.api.models.GitlabAccessLevel;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * An API path with its query, rendered from an {@link EndpointTemplate}
+ * <p>
+ * Query parameters are encoded as they are appended. Has a fluent api for method chaining.
+ */
+public final class Endpoint {
+
+    private final String template;
+    private final StringBuilder builder;
+    private boolean hasQuery;
+
+    Endpoint(String template, StringBuilder builder, boolean hasQuery) {
+        super();
+        this.template = template;
+        this.builder = builder;
+        this.hasQuery = hasQuery;
+    }
+
+    /**
+     * Wraps an already built path, whose template is guessed by {@link EndpointTemplates}
+     *
+     * @param tailAPIUrl The url after the API namespace, with its query
+     * @return the endpoint
+     */
+    public static Endpoint of(String tailAPIUrl) {
+        StringBuilder builder = new StringBuilder(tailAPIUrl.length() + 32);
+        if (!tailAPIUrl.startsWith("/")) {
+            builder.append('/');
+        }
+        builder.append(tailAPIUrl);
+        return new Endpoint(EndpointTemplates.of(tailAPIUrl), builder, tailAPIUrl.indexOf('?') >= 0);
+    }
+
+    /**
+     * Conditionally append a parameter to the query
+     * if the value of the parameter is not null
+     *
+     * @param name  Parameter name
+     * @param value Parameter value
+     * @return this
+     */
+    public Endpoint with(String name, Object value) {
+        if (value != null) {
+            builder.append(hasQuery ? '&' : '?').append(name).append('=');
+            hasQuery = true;
+            if (value instanceof GitlabAccessLevel) {
+                builder.append(((GitlabAccessLevel) value).accessValue);
+            } else {
+                appendValue(builder, value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the template this endpoint was rendered from, used to group metrics
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return the url after the API namespace, with its query
+     */
+    public String getTailUrl() {
+        return builder.toString();
+    }
+
+    /**
+     * Builds the full url
+     *
+     * @param apiUrl         The url of the API namespace
+     * @param tokenParamName The name of the token parameter, or null to not send the token in the url
+     * @param token          The token
+     * @return the url
+     * @throws MalformedURLException if the url is invalid
+     */
+    public URL toURL(String apiUrl, String tokenParamName, String token) throws MalformedURLException {
+        StringBuilder url = new StringBuilder(apiUrl.length() + builder.length() + (tokenParamName != null ? tokenParamName.length() + token.length() + 2 : 0));
+        url.append(apiUrl).append(builder);
+        if (tokenParamName != null) {
+            url.append(hasQuery ? '&' : '?').append(tokenParamName).append('=');
+            PercentEncoder.encode(token, url);
+        }
+        return new URL(url.toString());
+    }
+
+    static void appendValue(StringBuilder builder, Object value) {
+        if (value instanceof Integer || value instanceof Long) {
+            builder.append(((Number) value).longValue());
+        } else if (value instanceof Date) {
+            // ISO 8601 in UTC, eg. 2016-06-01T12:00:00Z
+            PercentEncoder.encode(DateTimeFormatter.ISO_INSTANT.format(((Date) value).toInstant()), builder);
+        } else {
+            PercentEncoder.encode(value.toString(), builder);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getTailUrl();
+    }
+}
@@ -0,0 +1,101 @@
+package com.synaptix.gitlab.api.http;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A precompiled API path, eg. /projects/:id/repository/commits/:sha
+ * <p>
+ * The template is parsed once, usually into a constant. Each call then only writes the literals and the encoded values
+ * into the builder of a new {@link Endpoint}, which also holds the query.
+ * <pre>
+ * static final EndpointTemplate COMMIT = EndpointTemplate.compile("/projects/:id/repository/commits/:sha");
+ *
+ * gitLabAPI.retrieve().to(COMMIT.expand(projectId, sha), GitLabCommit.class);
+ * </pre>
+ */
+public final class EndpointTemplate {
+
+    private final String template;
+    private final String[] literals;
+    private final String[] names;
+    private final int capacity;
+
+    private EndpointTemplate(String template, String[] literals, String[] names) {
+        super();
+        this.template = template;
+        this.literals = literals;
+        this.names = names;
+        this.capacity = template.length() + 24 * names.length + 32;
+    }
+
+    /**
+     * Parses a template
+     *
+     * @param template The path after the API namespace, where each :name segment is a parameter
+     * @return the compiled template
+     */
+    public static EndpointTemplate compile(String template) {
+        if (template == null || !template.startsWith("/")) {
+            throw new IllegalArgumentException("Template must start with /: " + template);
+        }
+        List<String> literals = new ArrayList<String>();
+        List<String> names = new ArrayList<String>();
+        int literalStart = 0;
+        int index = template.indexOf("/:");
+        while (index >= 0) {
+            int nameStart = index + 2;
+            int nameEnd = template.indexOf('/', nameStart);
+            if (nameEnd < 0) {
+                nameEnd = template.length();
+            }
+            if (nameEnd == nameStart) {
+                throw new IllegalArgumentException("Empty parameter name in template " + template);
+            }
+            literals.add(template.substring(literalStart, index + 1));
+            names.add(template.substring(nameStart, nameEnd));
+            literalStart = nameEnd;
+            index = template.indexOf("/:", nameEnd);
+        }
+        literals.add(template.substring(literalStart));
+        return new EndpointTemplate(template, literals.toArray(new String[literals.size()]), names.toArray(new String[names.size()]));
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return the number of parameters
+     */
+    public int getParameterCount() {
+        return names.length;
+    }
+
+    /**
+     * Renders the template with the given parameter values, in order
+     *
+     * @param values The values, encoded as path segments
+     * @return the endpoint, to which query parameters can be added
+     */
+    public Endpoint expand(Object... values) {
+        if (values.length != names.length) {
+            throw new IllegalArgumentException("Template " + template + " expects " + names.length + " values, got " + values.length);
+        }
+        StringBuilder builder = new StringBuilder(capacity);
+        for (int i = 0; i < names.length; i++) {
+            if (values[i] == null) {
+                throw new IllegalArgumentException("Missing value for :" + names[i] + " in " + template);
+            }
+            builder.append(literals[i]);
+            Endpoint.appendValue(builder, values[i]);
+        }
+        builder.append(literals[names.length]);
+        return new Endpoint(template, builder, false);
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
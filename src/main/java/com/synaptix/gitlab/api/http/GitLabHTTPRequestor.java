@@ -1,23 +1,40 @@
 package com.synaptix.gitlab.api.http;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.synaptix.gitlab.api.AuthMethod;
 import com.synaptix.gitlab.api.GitLabAPI;
 import com.synaptix.gitlab.api.GitlabAPIException;
 import com.synaptix.gitlab.api.TokenType;
+import com.synaptix.gitlab.api.concurrent.IOFunction;
+import com.synaptix.gitlab.api.jfr.GitLabFlightRecorder;
+import com.synaptix.gitlab.api.metrics.GitLabRequestMetrics;
 import com.synaptix.gitlab.api.models.commits.GitLabCommit;
+import com.synaptix.gitlab.api.resilience.EndpointGroup;
+import com.synaptix.gitlab.api.resilience.HedgingPolicy;
+import com.synaptix.gitlab.api.resilience.RateLimiter;
+import com.synaptix.gitlab.api.routing.Upstream;
+import com.synaptix.gitlab.api.routing.UpstreamRouter;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 
 import javax.net.ssl.*;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Field;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.ProtocolException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
@@ -41,6 +58,11 @@ public class GitLabHTTPRequestor {
     private TokenType tokenType;
     private AuthMethod authMethod;
 
+    private CancellationToken cancellation;
+
+    private IOFunction<JsonParser, ?> reader;
+    private boolean readerStarted;
+
     private enum METHOD {
         GET, PUT, POST, PATCH, DELETE, HEAD, OPTIONS, TRACE;
 
@@ -61,6 +83,7 @@ public class GitLabHTTPRequestor {
 
     public GitLabHTTPRequestor(GitLabAPI root) {
         this.root = root;
+        this.cancellation = CancellationToken.current();
     }
 
     /**
@@ -79,6 +102,19 @@ public class GitLabHTTPRequestor {
         return this;
     }
 
+    /**
+     * Sets the token that can cancel the request, and bounds it with its deadline.
+     * Defaults to the token of the current thread.
+     * Has a fluent api for method chaining.
+     *
+     * @param cancellation The token, or null
+     * @return this
+     */
+    public GitLabHTTPRequestor cancellation(CancellationToken cancellation) {
+        this.cancellation = cancellation;
+        return this;
+    }
+
     /**
      * Sets the HTTP Request method for the request.
      * Has a fluent api for method chaining.
@@ -131,35 +167,73 @@ public class GitLabHTTPRequestor {
      * @throws IOException on gitlab api error
      */
     public <T> T to(String tailAPIUrl, Class<T> type, T instance) throws IOException {
-        HttpURLConnection connection = null;
-        try {
-            connection = setupConnection(root.getAPIUrl(tailAPIUrl));
+        return to(Endpoint.of(tailAPIUrl), type, instance);
+    }
 
-            if (hasOutput()) {
-                submitData(connection);
-            } else if ("PUT".equals(method)) {
-                // PUT requires Content-Length: 0 even when there is no body (eg: API for protecting a branch)
-                connection.setDoOutput(true);
-                connection.setFixedLengthStreamingMode(0);
-            }
+    public <T> T to(Endpoint endpoint, T instance) throws IOException {
+        return to(endpoint, null, instance);
+    }
 
-            try {
-                return parse(connection, type, instance);
-            } catch (IOException e) {
-                handleAPIError(e, connection);
-            }
+    public <T> T to(Endpoint endpoint, Class<T> type) throws IOException {
+        return to(endpoint, type, null);
+    }
 
-            return null;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
+    /**
+     * Opens the HTTP(S) connection, submits any data and parses the response.
+     * Will throw an error
+     *
+     * @param <T>      The return type of the method
+     * @param endpoint The endpoint to open a connection to
+     * @param type     The type of the response to be deserialized from
+     * @param instance The instance to update from the response
+     * @return An object of type T
+     * @throws IOException on gitlab api error
+     */
+    public <T> T to(Endpoint endpoint, Class<T> type, T instance) throws IOException {
+        GitLabRequestMetrics metrics = new GitLabRequestMetrics(endpoint.getTemplate(), method);
+        try {
+            HedgingPolicy hedging = root.getHedgingPolicy();
+            long hedgeDelayNanos = hedging != null && instance == null && reader == null && "GET".equals(method) ? hedging.getDelayNanos(endpoint.getTemplate()) : -1;
+            if (hedgeDelayNanos >= 0) {
+                return hedgedExchange(endpoint, type, metrics, hedging, hedgeDelayNanos);
             }
+            return exchange(new Route(endpoint), type, instance, metrics);
+        } catch (IOException e) {
+            metrics.setException(e);
+            throw e;
+        } catch (RuntimeException e) {
+            metrics.setException(e);
+            throw e;
+        } finally {
+            metrics.finish();
+            root.fireRequestMetrics(metrics);
         }
     }
 
+    /**
+     * Opens the HTTP(S) connection, submits any data and hands the response to the reader as it arrives,
+     * instead of buffering and binding it as a whole.
+     * The request is not hedged, and is not retried on another upstream once the reader has started.
+     *
+     * @param <T>      The return type of the method
+     * @param endpoint The endpoint to open a connection to
+     * @param reader   Reads the response from a parser positioned before its first token
+     * @return the result of the reader
+     * @throws IOException on gitlab api error
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T to(Endpoint endpoint, IOFunction<JsonParser, T> reader) throws IOException {
+        this.reader = reader;
+        return (T) to(endpoint, (Class<Object>) null, null);
+    }
+
     public <T> List<T> getAll(final String tailUrl, final Class<T[]> type) {
+        return getAll(Endpoint.of(tailUrl), type);
+    }
+
+    public <T> List<T> getAll(final Endpoint endpoint, final Class<T[]> type) {
         List<T> results = new ArrayList<T>();
-        Iterator<T[]> iterator = asIterator(tailUrl, type);
+        Iterator<T[]> iterator = asIterator(endpoint, type);
 
         while (iterator.hasNext()) {
             T[] requests = iterator.next();
@@ -172,6 +246,16 @@ public class GitLabHTTPRequestor {
     }
 
     public <T> Iterator<T> asIterator(final String tailApiUrl, final Class<T> type) {
+        return asIterator(Endpoint.of(tailApiUrl), type);
+    }
+
+    /**
+     * Iterates over the pages of a listing, fetching each page when it is reached
+     * <p>
+     * The iterator cannot throw checked exceptions: the failure of a page is thrown by hasNext or next as an
+     * {@link UncheckedIOException} wrapping it, and {@link #getAll} throws it the same way.
+     */
+    public <T> Iterator<T> asIterator(final Endpoint endpoint, final Class<T> type) {
         method("GET"); // Ensure we only use iterators for GET requests
 
         // Ensure that we don't submit any data and alert the user
@@ -181,24 +265,23 @@ public class GitLabHTTPRequestor {
 
         return new Iterator<T>() {
             T next;
-            URL url;
-
-            {
-                try {
-                    url = root.getAPIUrl(tailApiUrl);
-                } catch (IOException e) {
-                    throw new Error(e);
-                }
-            }
+            final Route route = new Route(endpoint);
+            final GitLabRequestMetrics metrics = new GitLabRequestMetrics(endpoint.getTemplate(), method);
+            boolean reported;
 
             public boolean hasNext() {
                 fetch();
+                boolean hasNext;
                 if (next != null && next.getClass().isArray()) {
                     Object[] arr = (Object[]) next;
-                    return arr.length != 0;
+                    hasNext = arr.length != 0;
                 } else {
-                    return next != null;
+                    hasNext = next != null;
+                }
+                if (!hasNext) {
+                    report();
                 }
+                return hasNext;
             }
 
             public T next() {
@@ -222,76 +305,326 @@ public class GitLabHTTPRequestor {
                     return;
                 }
 
-                if (url == null) {
-                    return;
-                }
-
                 try {
-                    HttpURLConnection connection = setupConnection(url);
-                    try {
-                        next = parse(connection, type, null);
-                        assert next != null;
-                        findNextUrl();
-                    } catch (IOException e) {
-                        handleAPIError(e, connection);
-                    }
+                    Object pageEvent = GitLabFlightRecorder.beginPage();
+                    next = exchange(route, type, null, metrics);
+                    assert next != null;
+                    GitLabFlightRecorder.endPage(pageEvent, metrics.getEndpoint(), metrics.getPages(), next.getClass().isArray() ? ((Object[]) next).length : 1);
+                    route.nextPage(type);
                 } catch (IOException e) {
-                    throw new Error(e);
+                    metrics.setException(e);
+                    report();
+                    throw new UncheckedIOException(e);
                 }
             }
 
-            private void findNextUrl() throws MalformedURLException {
-                String url = this.url.toString();
+            private void report() {
+                if (!reported) {
+                    reported = true;
+                    metrics.finish();
+                    root.fireRequestMetrics(metrics);
+                }
+            }
+        };
+    }
 
-                this.url = null;
-                /* Increment the page number for the url if a "page" property exists,
-                 * otherwise, add the page property and increment it.
-                 * The Gitlab API is not a compliant hypermedia REST api, so we use
-                 * a naive implementation.
-                 */
-                Matcher matcher = PAGE_PATTERN.matcher(url);
+    /**
+     * Increment the page number for the url if a "page" property exists,
+     * otherwise, add the page property and increment it.
+     * The Gitlab API is not a compliant hypermedia REST api, so we use
+     * a naive implementation.
+     *
+     * @param url  The url of the current page
+     * @param type The type of the page
+     * @return the url of the next page
+     */
+    private static String nextPageUrl(String url, Class<?> type) {
+        Matcher matcher = PAGE_PATTERN.matcher(url);
+
+        if (matcher.find()) {
+            Integer page = Integer.parseInt(matcher.group(2)) + 1;
+            return matcher.replaceAll(matcher.group(1) + "page=" + page);
+        } else if (GitLabCommit[].class == type) {
+            // there is a bug in the Gitlab CE API
+            // (https://gitlab.com/gitlab-org/gitlab-ce/issues/759)
+            // that starts pagination with page=0 for commits
+            return url + (url.indexOf('?') > 0 ? '&' : '?') + "page=1";
+        } else {
+            // Since the page query was not present, its safe to assume that we just
+            // currently used the first page, so we can default to page 2
+            return url + (url.indexOf('?') > 0 ? '&' : '?') + "&page=2";
+        }
+    }
 
-                if (matcher.find()) {
-                    Integer page = Integer.parseInt(matcher.group(2)) + 1;
-                    this.url = new URL(matcher.replaceAll(matcher.group(1) + "page=" + page));
+    /**
+     * Runs the exchange, and sends a second identical one if no response has started after the delay.
+     * The first to answer wins and the other is cancelled: an exchange answers when its status and headers arrive, before its body is read.
+     */
+    private <T> T hedgedExchange(Endpoint endpoint, Class<T> type, GitLabRequestMetrics metrics, HedgingPolicy hedging, long delayNanos) throws IOException {
+        Route route = new Route(endpoint);
+        final Hedge<T> hedge = new Hedge<T>(endpoint, type, route.attempt, hedging);
+        final ScheduledFuture<?> timer = hedging.schedule(hedge, delayNanos);
+        route.attempt.onResponse(new Runnable() {
+            @Override
+            public void run() {
+                timer.cancel(false);
+                hedge.primaryAnswered();
+            }
+        });
+        try {
+            T result = exchange(route, type, null, metrics);
+            timer.cancel(false);
+            if (hedge.cancel()) {
+                metrics.incrementRetries();
+            }
+            return result;
+        } catch (IOException e) {
+            timer.cancel(false);
+            if (!hedge.cancel()) {
+                throw e;
+            }
+            metrics.incrementRetries();
+            T result = hedge.await();
+            if (result == null) {
+                throw e;
+            }
+            metrics.add(hedge.metrics);
+            return result;
+        }
+    }
+
+    /**
+     * Runs the exchange within the rate limiter, bulkhead and circuit breaker of its endpoint group, if any.
+     * With a rate limiter, a 429 response pauses the whole group for its Retry-After delay and the exchange is sent again.
+     */
+    private <T> T exchange(Route route, Class<T> type, T instance, GitLabRequestMetrics metrics) throws IOException {
+        EndpointGroup group = root.getEndpointGroup(metrics.getEndpoint());
+        if (group == null) {
+            return routedExchange(route, type, instance, metrics);
+        }
+        RateLimiter rateLimiter = group.getRateLimiter();
+        if (rateLimiter == null) {
+            return groupExchange(group, route, type, instance, metrics);
+        }
+
+        for (int retries = 0; ; retries++) {
+            rateLimiter.acquire(cancellation);
+            try {
+                return groupExchange(group, route, type, instance, metrics);
+            } catch (GitlabAPIException e) {
+                if (e.getResponseCode() != 429 || retries >= group.getMaxThrottledRetries() || readerStarted) {
+                    throw e;
+                }
+                rateLimiter.pause(e.getRetryAfterMillis() >= 0 ? e.getRetryAfterMillis() : TimeUnit.SECONDS.toMillis(1));
+                metrics.incrementRetries();
+            }
+        }
+    }
+
+    private <T> T groupExchange(EndpointGroup group, Route route, Class<T> type, T instance, GitLabRequestMetrics metrics) throws IOException {
+        long permit = group.acquire();
+        long start = System.nanoTime();
+        boolean failed = true;
+        boolean cancelled = false;
+        try {
+            T result = routedExchange(route, type, instance, metrics);
+            failed = false;
+            return result;
+        } catch (RequestCancelledException e) {
+            // Neither a success nor a failure: a probe that hit its deadline must not close the breaker
+            cancelled = true;
+            throw e;
+        } catch (IOException e) {
+            failed = UpstreamRouter.isUnavailable(e);
+            throw e;
+        } finally {
+            if (cancelled) {
+                group.release(permit);
+            } else {
+                group.release(permit, failed, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Runs the exchange on the upstream chosen by the router: the primary for writes, the best available one for reads.
+     * A read fails over to the next best upstream when one does not answer.
+     */
+    private <T> T routedExchange(Route route, Class<T> type, T instance, GitLabRequestMetrics metrics) throws IOException {
+        UpstreamRouter router = root.getRouter();
+        if (!"GET".equals(method) || !router.hasReadUpstreams()) {
+            route.upstream = router.getPrimary();
+            route.url = route.toURL(route.upstream);
+            return exchange(route.url, type, instance, metrics, route.attempt);
+        }
+
+        long tried = 0;
+        IOException failure = null;
+        Upstream upstream;
+        while ((upstream = router.selectForRead(tried, route.upstream)) != null) {
+            tried |= upstream.getMask();
+            if (failure != null) {
+                metrics.incrementRetries();
+            }
+            URL url = route.toURL(upstream);
+            long start = System.nanoTime();
+            boolean answered = false;
+            boolean cancelled = false;
+            upstream.begin();
+            try {
+                T result = exchange(url, type, instance, metrics, route.attempt);
+                answered = true;
+                route.upstream = upstream;
+                route.url = url;
+                return result;
+            } catch (RequestCancelledException e) {
+                cancelled = true;
+                throw e;
+            } catch (IOException e) {
+                answered = !UpstreamRouter.isUnavailable(e);
+                if (answered || readerStarted) {
+                    // A reader may have consumed part of the response already, it cannot be replayed
+                    throw e;
+                }
+                failure = e;
+            } finally {
+                if (cancelled) {
+                    upstream.cancelled();
+                } else if (answered) {
+                    upstream.success(System.nanoTime() - start);
                 } else {
-                    if (GitLabCommit[].class == type) {
-                        // there is a bug in the Gitlab CE API
-                        // (https://gitlab.com/gitlab-org/gitlab-ce/issues/759)
-                        // that starts pagination with page=0 for commits
-                        this.url = new URL(url + (url.indexOf('?') > 0 ? '&' : '?') + "page=1");
-                    } else {
-                        // Since the page query was not present, its safe to assume that we just
-                        // currently used the first page, so we can default to page 2
-                        this.url = new URL(url + (url.indexOf('?') > 0 ? '&' : '?') + "&page=2");
-                    }
+                    upstream.failure();
                 }
             }
-        };
+        }
+        throw failure;
     }
 
-    private void submitData(HttpURLConnection connection) throws IOException {
-        connection.setDoOutput(true);
-        connection.setRequestProperty("Content-Type", "application/json");
-        GitLabAPI.MAPPER.writeValue(connection.getOutputStream(), data);
+    /**
+     * Runs one HTTP exchange and accumulates its timings in the metrics
+     */
+    private <T> T exchange(URL url, Class<T> type, T instance, GitLabRequestMetrics metrics, Attempt attempt) throws IOException {
+        try {
+            return exchange(url, type, instance, metrics, attempt, attempt.attach(setupConnection(url)));
+        } catch (IOException e) {
+            throw attempt.isCancelled() ? cancelled(attempt, e) : e;
+        } catch (RuntimeException e) {
+            // A connection closed under a blocking read may also fail with unchecked exceptions
+            if (attempt.isCancelled()) {
+                throw cancelled(attempt, e);
+            }
+            throw e;
+        } finally {
+            attempt.detach();
+        }
     }
 
-    private boolean hasOutput() {
-        return method.equals("POST") || method.equals("PUT") && !data.isEmpty();
+    private static RequestCancelledException cancelled(Attempt attempt, Exception cause) {
+        if (cause instanceof RequestCancelledException) {
+            return (RequestCancelledException) cause;
+        }
+        RequestCancelledException cancelled = attempt.newException();
+        cancelled.initCause(cause);
+        return cancelled;
     }
 
-    private HttpURLConnection setupConnection(URL url) throws IOException {
-        if (root.isIgnoreCertificateErrors()) {
-            ignoreCertificateErrors();
+    private <T> T exchange(URL url, Class<T> type, T instance, GitLabRequestMetrics metrics, Attempt attempt, HttpURLConnection connection) throws IOException {
+        Object exchangeEvent = GitLabFlightRecorder.beginExchange();
+        long bytesIn = metrics.getBytesIn();
+        long bytesOut = metrics.getBytesOut();
+
+        try {
+            byte[] body = null;
+            if (hasOutput()) {
+                body = GitLabAPI.MAPPER.writeValueAsBytes(data);
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+            } else if ("PUT".equals(method)) {
+                // PUT requires Content-Length: 0 even when there is no body (eg: API for protecting a branch)
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(0);
+            }
+
+            long start = System.nanoTime();
+            try {
+                connection.connect();
+            } catch (SSLHandshakeException e) {
+                throw new SSLHandshakeException("You can disable certificate checking by setting ignoreCertificateErrors or a trust store on GitLabAPI. SSL Error: " + e.getMessage());
+            }
+            long connected = System.nanoTime();
+            metrics.addConnectNanos(connected - start);
+
+            if (body != null) {
+                OutputStream outputStream = connection.getOutputStream();
+                try {
+                    outputStream.write(body);
+                } finally {
+                    outputStream.close();
+                }
+                metrics.addBytesOut(body.length);
+            }
+            long sent = System.nanoTime();
+
+            metrics.setStatus(connection.getResponseCode());
+            metrics.addTimeToFirstByteNanos(System.nanoTime() - sent);
+            if (metrics.getStatus() < 500) {
+                // An answer, unlike an unavailable upstream which the read may fail over from
+                attempt.responded();
+            }
+
+            try {
+                T result = parse(connection, type, instance, metrics);
+                metrics.incrementPages();
+                return result;
+            } catch (IOException e) {
+                handleAPIError(e, connection);
+            }
+
+            return null;
+        } finally {
+            connection.disconnect();
+            GitLabFlightRecorder.endExchange(exchangeEvent, metrics.getEndpoint(), method, metrics.getStatus(), metrics.getBytesIn() - bytesIn, metrics.getBytesOut() - bytesOut);
         }
+    }
+
+    private boolean hasOutput() {
+        return method.equals("POST") || method.equals("PUT") && !data.isEmpty();
+    }
 
+    /**
+     * Builds the url of an endpoint on an upstream, with the token when it is sent as a parameter
+     */
+    private URL toURL(Upstream upstream, Endpoint endpoint) throws MalformedURLException {
         if (apiToken != null && authMethod == AuthMethod.URL_PARAMETER) {
-            String urlWithAuth = url.toString();
-            urlWithAuth = urlWithAuth + (urlWithAuth.indexOf('?') > 0 ? '&' : '?') + tokenType.getTokenParamName() + "=" + apiToken;
-            url = new URL(urlWithAuth);
+            return endpoint.toURL(upstream.getAPIUrl(), tokenType.getTokenParamName(), apiToken);
         }
+        return endpoint.toURL(upstream.getAPIUrl(), null, null);
+    }
 
+    private HttpURLConnection setupConnection(URL url) throws IOException {
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        int connectTimeout = root.getConnectTimeout();
+        int readTimeout = root.getReadTimeout();
+        if (cancellation != null && cancellation.hasDeadline()) {
+            int remaining = (int) Math.min(Integer.MAX_VALUE, cancellation.getRemainingMillis());
+            // 0 means no timeout, but also no time left: the attempt fails when attached
+            if (remaining > 0) {
+                connectTimeout = connectTimeout == 0 ? remaining : Math.min(connectTimeout, remaining);
+                readTimeout = readTimeout == 0 ? remaining : Math.min(readTimeout, remaining);
+            }
+        }
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        if (connection instanceof HttpsURLConnection) {
+            TLSContext tlsContext = root.getTLSContext();
+            if (tlsContext != null) {
+                HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
+                httpsConnection.setSSLSocketFactory(tlsContext.getSocketFactory());
+                if (tlsContext.getHostnameVerifier() != null) {
+                    httpsConnection.setHostnameVerifier(tlsContext.getHostnameVerifier());
+                }
+            }
+        }
         if (apiToken != null && authMethod == AuthMethod.HEADER) {
             connection.setRequestProperty(tokenType.getTokenHeaderName(), String.format(tokenType.getTokenHeaderFormat(), apiToken));
         }
@@ -313,25 +646,56 @@ public class GitLabHTTPRequestor {
         return connection;
     }
 
-    private <T> T parse(HttpURLConnection connection, Class<T> type, T instance) throws IOException {
-        InputStreamReader reader = null;
+    private <T> T parse(HttpURLConnection connection, Class<T> type, T instance, GitLabRequestMetrics metrics) throws IOException {
+        InputStream stream = null;
         try {
-            reader = new InputStreamReader(wrapStream(connection, connection.getInputStream()), "UTF-8");
+            long start = System.nanoTime();
+            CountingInputStream countingStream = new CountingInputStream(connection.getInputStream());
+            stream = wrapStream(connection, countingStream);
+            if (reader != null) {
+                return read(stream, countingStream, metrics, start);
+            }
+            byte[] data = IOUtils.toByteArray(stream);
+            long read = System.nanoTime();
+            metrics.addBodyReadNanos(read - start);
+            metrics.addBytesIn(countingStream.getByteCount());
+
             if (byte[].class == type) {
-                return type.cast(IOUtils.toByteArray(reader));
+                return type.cast(data);
             }
-            String data = IOUtils.toString(reader);
-            if (type != null) {
-                return GitLabAPI.MAPPER.readValue(data, type);
-            } else if (instance != null) {
-                return GitLabAPI.MAPPER.readerForUpdating(instance).readValue(data);
-            } else {
-                return null;
+            Object bindEvent = GitLabFlightRecorder.beginBind();
+            try {
+                if (type != null) {
+                    return GitLabAPI.MAPPER.readValue(data, type);
+                } else if (instance != null) {
+                    return GitLabAPI.MAPPER.readerForUpdating(instance).readValue(data);
+                } else {
+                    return null;
+                }
+            } finally {
+                metrics.addBindNanos(System.nanoTime() - read);
+                GitLabFlightRecorder.endBind(bindEvent, metrics.getEndpoint(), type != null ? type : instance != null ? instance.getClass() : null, data.length);
             }
-        } catch (SSLHandshakeException e) {
-            throw new SSLHandshakeException("You can disable certificate checking by setting ignoreCertificateErrors on GitLabHTTPRequestor. SSL Error: " + e.getMessage());
         } finally {
-            IOUtils.closeQuietly(reader);
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * Hands the response to the reader, reading and binding are interleaved so they are accounted as binding
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T read(InputStream stream, CountingInputStream countingStream, GitLabRequestMetrics metrics, long start) throws IOException {
+        readerStarted = true;
+        Object bindEvent = GitLabFlightRecorder.beginBind();
+        JsonParser parser = GitLabAPI.MAPPER.getFactory().createParser(stream);
+        try {
+            return (T) reader.apply(parser);
+        } finally {
+            parser.close();
+            metrics.addBindNanos(System.nanoTime() - start);
+            metrics.addBytesIn(countingStream.getByteCount());
+            GitLabFlightRecorder.endBind(bindEvent, metrics.getEndpoint(), null, countingStream.getByteCount());
         }
     }
 
@@ -358,40 +722,168 @@ public class GitLabHTTPRequestor {
             if (es != null) {
                 error = IOUtils.toString(es, "UTF-8");
             }
-            throw new GitlabAPIException(error, connection.getResponseCode(), e);
+            throw new GitlabAPIException(error, connection.getResponseCode(), e, retryAfterMillis(connection));
         } finally {
             IOUtils.closeQuietly(es);
         }
     }
 
-    private void ignoreCertificateErrors() {
-        TrustManager[] trustAllCerts = new TrustManager[] { new X509TrustManager() {
-            public java.security.cert.X509Certificate[] getAcceptedIssuers() {
-                return null;
+    /**
+     * @return the delay of the Retry-After header, in seconds as sent by GitLab, or -1
+     */
+    private static long retryAfterMillis(HttpURLConnection connection) {
+        String retryAfter = connection.getHeaderField("Retry-After");
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            // An HTTP date, not sent by GitLab
+            return -1;
+        }
+    }
+
+    /**
+     * Where a request goes: the endpoint of its first page, then the path of the next page,
+     * and the upstream that served the last page so that a listing stays on it
+     */
+    private final class Route {
+
+        private final Attempt attempt = new Attempt(cancellation);
+        private Endpoint endpoint;
+        private String tailUrl;
+        private Upstream upstream;
+        private URL url;
+
+        Route(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        URL toURL(Upstream target) throws MalformedURLException {
+            if (endpoint != null) {
+                return GitLabHTTPRequestor.this.toURL(target, endpoint);
             }
+            return new URL(target.getAPIUrl() + tailUrl);
+        }
 
-            public void checkClientTrusted(java.security.cert.X509Certificate[] certs, String authType) {
+        void nextPage(Class<?> type) {
+            tailUrl = nextPageUrl(url.toString(), type).substring(upstream.getAPIUrl().length());
+            endpoint = null;
+        }
+    }
+
+    /**
+     * The second attempt of a hedged request, started by the timer of the hedging policy on the executor of the client
+     */
+    private final class Hedge<T> implements Runnable {
+
+        private static final int PENDING = 0;
+        private static final int STARTED = 1;
+        private static final int CANCELLED = 2;
+        private static final int SKIPPED = 3;
+
+        private static final int UNANSWERED = 0;
+        private static final int PRIMARY = 1;
+        private static final int HEDGE = 2;
+
+        private final Route route;
+        private final Class<T> type;
+        private final Attempt primary;
+        private final HedgingPolicy hedging;
+        private final GitLabRequestMetrics metrics;
+
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final AtomicInteger answer = new AtomicInteger(UNANSWERED);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile T result;
+
+        Hedge(Endpoint endpoint, Class<T> type, Attempt primary, HedgingPolicy hedging) {
+            this.route = new Route(endpoint);
+            this.type = type;
+            this.primary = primary;
+            this.hedging = hedging;
+            this.metrics = new GitLabRequestMetrics(endpoint.getTemplate(), method);
+            this.route.attempt.onResponse(new Runnable() {
+                @Override
+                public void run() {
+                    if (answer.compareAndSet(UNANSWERED, HEDGE)) {
+                        primary.cancel();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void run() {
+            // Claim the hedge before taking from the budget, so that a hedge cancelled meanwhile does not spend a token
+            if (!state.compareAndSet(PENDING, STARTED)) {
+                return;
+            }
+            if (!hedging.tryAcquire()) {
+                state.set(SKIPPED);
+                done.countDown();
+                return;
+            }
+            try {
+                root.getExecutorService().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        fetch();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                done.countDown();
+            }
+        }
+
+        private void fetch() {
+            try {
+                result = exchange(route, type, null, metrics);
+            } catch (IOException e) {
+                // The primary attempt reports its own error
+            } catch (RuntimeException e) {
+                // idem
+            } finally {
+                done.countDown();
             }
+        }
 
-            public void checkServerTrusted(java.security.cert.X509Certificate[] certs, String authType) {
+        /**
+         * Cancels the hedge once the primary attempt answered first
+         */
+        void primaryAnswered() {
+            if (answer.compareAndSet(UNANSWERED, PRIMARY)) {
+                cancel();
             }
-        } };
-        // Added per https://github.com/timols/java-gitlab-api/issues/44
-        HostnameVerifier nullVerifier = new HostnameVerifier() {
-            @Override
-            public boolean verify(String hostname, SSLSession session) {
-                return true;
+        }
+
+        /**
+         * Cancels the hedge, or aborts it if it is in flight and did not answer first
+         *
+         * @return true if the hedge was sent
+         */
+        boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED) || state.get() != STARTED) {
+                return false;
             }
-        };
+            if (answer.get() != HEDGE) {
+                route.attempt.cancel();
+            }
+            return true;
+        }
 
-        try {
-            SSLContext sc = SSLContext.getInstance("SSL");
-            sc.init(null, trustAllCerts, new java.security.SecureRandom());
-            HttpsURLConnection.setDefaultSSLSocketFactory(sc.getSocketFactory());
-            // Added per https://github.com/timols/java-gitlab-api/issues/44
-            HttpsURLConnection.setDefaultHostnameVerifier(nullVerifier);
-        } catch (Exception e) {
-            // Ignore it
+        /**
+         * @return the result of the hedge, or null if it failed
+         */
+        T await() throws InterruptedIOException {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a hedged request");
+            }
+            return result;
         }
     }
 }
@@ -0,0 +1,97 @@
+package com.synaptix.gitlab.api.http;
+
+/**
+ * Percent-encodes URL path segments and query values
+ * <p>
+ * Every character but the RFC 3986 unreserved ones is written as UTF-8 %XX escapes, straight into the caller's builder.
+ * Unlike {@link java.net.URLEncoder} a space becomes %20, so the result is valid in a path as well as in a query.
+ */
+public final class PercentEncoder {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['-'] = true;
+        UNRESERVED['.'] = true;
+        UNRESERVED['_'] = true;
+        UNRESERVED['~'] = true;
+    }
+
+    private PercentEncoder() {
+        super();
+    }
+
+    /**
+     * Encodes a value
+     *
+     * @param value The value to encode
+     * @return the encoded value, the same instance when nothing needs escaping
+     */
+    public static String encode(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 128 || !UNRESERVED[c]) {
+                StringBuilder builder = new StringBuilder(length + 16);
+                builder.append(value, 0, i);
+                encode(value, i, builder);
+                return builder.toString();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Encodes a value into a builder
+     *
+     * @param value   The value to encode
+     * @param builder The builder to append to
+     */
+    public static void encode(CharSequence value, StringBuilder builder) {
+        encode(value, 0, builder);
+    }
+
+    private static void encode(CharSequence value, int start, StringBuilder builder) {
+        int length = value.length();
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (UNRESERVED[c]) {
+                    builder.append(c);
+                } else {
+                    appendByte(builder, c);
+                }
+            } else if (c < 0x800) {
+                appendByte(builder, 0xC0 | (c >> 6));
+                appendByte(builder, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendByte(builder, 0xF0 | (codePoint >> 18));
+                appendByte(builder, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendByte(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendByte(builder, 0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced like String.getBytes does
+                appendByte(builder, '?');
+            } else {
+                appendByte(builder, 0xE0 | (c >> 12));
+                appendByte(builder, 0x80 | ((c >> 6) & 0x3F));
+                appendByte(builder, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static void appendByte(StringBuilder builder, int b) {
+        builder.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+    }
+}
@@ -10,7 +10,11 @@ import java.util.List;
 /**
  * Models the Query
  * aspect of a URL
+ *
+ * @deprecated no longer used by the services, build request URLs with {@link EndpointTemplate#expand(Object...)} and
+ * {@link Endpoint#with(String, Object)} instead
  */
+@Deprecated
 public class Query {
 
     private class Tuple<T1, T2> {
@@ -0,0 +1,15 @@
+package com.synaptix.gitlab.api.http;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown by a request that was cancelled while in flight
+ */
+public class RequestCancelledException extends InterruptedIOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RequestCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,108 @@
+package com.synaptix.gitlab.api.http;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+
+/**
+ * TLS settings of one {@link com.synaptix.gitlab.api.GitLabAPI}
+ * <p>
+ * The SSL context is built once and its socket factory is set on every HTTPS connection of the client,
+ * so TLS sessions are cached per client and abbreviated handshakes can be used across requests.
+ * Nothing is installed JVM wide.
+ */
+public final class TLSContext {
+
+    // Added per https://github.com/timols/java-gitlab-api/issues/44
+    private static final HostnameVerifier TRUST_ALL_HOSTNAMES = new HostnameVerifier() {
+        @Override
+        public boolean verify(String hostname, SSLSession session) {
+            return true;
+        }
+    };
+
+    private static final TrustManager[] TRUST_ALL_CERTIFICATES = new TrustManager[] { new X509TrustManager() {
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+
+        public void checkClientTrusted(X509Certificate[] certs, String authType) {
+        }
+
+        public void checkServerTrusted(X509Certificate[] certs, String authType) {
+        }
+    } };
+
+    private final SSLContext sslContext;
+    private final SSLSocketFactory socketFactory;
+    private final HostnameVerifier hostnameVerifier;
+
+    private TLSContext(SSLContext sslContext, HostnameVerifier hostnameVerifier) {
+        super();
+        this.sslContext = sslContext;
+        this.socketFactory = sslContext.getSocketFactory();
+        this.hostnameVerifier = hostnameVerifier;
+    }
+
+    /**
+     * Builds the TLS context of a client
+     *
+     * @param sslContext              A context provided by the user, or null to build one
+     * @param ignoreCertificateErrors Trust every certificate and host name
+     * @param trustStore              The trusted certificates, or null for the JVM defaults
+     * @param sessionCacheSize        The number of cached TLS sessions, negative to keep the JVM default
+     * @param sessionTimeout          The lifetime of cached TLS sessions in seconds, negative to keep the JVM default
+     * @return the context
+     * @throws GeneralSecurityException if the context cannot be built
+     */
+    public static TLSContext build(SSLContext sslContext, boolean ignoreCertificateErrors, KeyStore trustStore, int sessionCacheSize, int sessionTimeout)
+            throws GeneralSecurityException {
+        SSLContext context = sslContext;
+        if (context == null) {
+            TrustManager[] trustManagers = null;
+            if (ignoreCertificateErrors) {
+                trustManagers = TRUST_ALL_CERTIFICATES;
+            } else if (trustStore != null) {
+                TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+                factory.init(trustStore);
+                trustManagers = factory.getTrustManagers();
+            }
+            context = SSLContext.getInstance("TLS");
+            context.init(null, trustManagers, null);
+        }
+
+        SSLSessionContext sessionContext = context.getClientSessionContext();
+        if (sessionContext != null) {
+            if (sessionCacheSize >= 0) {
+                sessionContext.setSessionCacheSize(sessionCacheSize);
+            }
+            if (sessionTimeout >= 0) {
+                sessionContext.setSessionTimeout(sessionTimeout);
+            }
+        }
+        return new TLSContext(context, ignoreCertificateErrors ? TRUST_ALL_HOSTNAMES : null);
+    }
+
+    public SSLContext getSSLContext() {
+        return sslContext;
+    }
+
+    public SSLSocketFactory getSocketFactory() {
+        return socketFactory;
+    }
+
+    /**
+     * @return the host name verifier to use, or null for the default one
+     */
+    public HostnameVerifier getHostnameVerifier() {
+        return hostnameVerifier;
+    }
+}
@@ -0,0 +1,123 @@
+package com.synaptix.gitlab.api.jfr;
+
+/**
+ * Emits JDK Flight Recorder events for the GitLab API calls
+ * <p>
+ * The events are only registered on Java 11+: they and their recorder are in META-INF/versions/11 of the multi-release jar,
+ * as they need jdk.jfr to compile. On Java 8 every method is a no-op. Events can be turned off with {@code -Dgitlab.api.jfr=false}.
+ * <p>
+ * Begin methods return an opaque token that must be handed back to the matching end method.
+ */
+public final class GitLabFlightRecorder {
+
+    static final String JFR_RECORDER_CLASS = "com.synaptix.gitlab.api.jfr.JfrRecorder";
+
+    private static final Recorder RECORDER = createRecorder();
+
+    private GitLabFlightRecorder() {
+        super();
+    }
+
+    public static boolean isAvailable() {
+        return !(RECORDER instanceof NoopRecorder);
+    }
+
+    public static Object beginExchange() {
+        return RECORDER.beginExchange();
+    }
+
+    public static void endExchange(Object token, String endpoint, String method, int status, long bytesIn, long bytesOut) {
+        if (token != null) {
+            RECORDER.endExchange(token, endpoint, method, status, bytesIn, bytesOut);
+        }
+    }
+
+    public static Object beginPage() {
+        return RECORDER.beginPage();
+    }
+
+    public static void endPage(Object token, String endpoint, int page, int items) {
+        if (token != null) {
+            RECORDER.endPage(token, endpoint, page, items);
+        }
+    }
+
+    public static Object beginBind() {
+        return RECORDER.beginBind();
+    }
+
+    public static void endBind(Object token, String endpoint, Class<?> type, long bytes) {
+        if (token != null) {
+            RECORDER.endBind(token, endpoint, type, bytes);
+        }
+    }
+
+    public static void cacheAccess(String cache, boolean hit) {
+        RECORDER.cacheAccess(cache, hit);
+    }
+
+    private static Recorder createRecorder() {
+        if (!Boolean.parseBoolean(System.getProperty("gitlab.api.jfr", "true"))) {
+            return new NoopRecorder();
+        }
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return (Recorder) Class.forName(JFR_RECORDER_CLASS).getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            // JFR is not part of this JVM
+            return new NoopRecorder();
+        }
+    }
+
+    interface Recorder {
+
+        Object beginExchange();
+
+        void endExchange(Object token, String endpoint, String method, int status, long bytesIn, long bytesOut);
+
+        Object beginPage();
+
+        void endPage(Object token, String endpoint, int page, int items);
+
+        Object beginBind();
+
+        void endBind(Object token, String endpoint, Class<?> type, long bytes);
+
+        void cacheAccess(String cache, boolean hit);
+
+    }
+
+    static class NoopRecorder implements Recorder {
+
+        @Override
+        public Object beginExchange() {
+            return null;
+        }
+
+        @Override
+        public void endExchange(Object token, String endpoint, String method, int status, long bytesIn, long bytesOut) {
+        }
+
+        @Override
+        public Object beginPage() {
+            return null;
+        }
+
+        @Override
+        public void endPage(Object token, String endpoint, int page, int items) {
+        }
+
+        @Override
+        public Object beginBind() {
+            return null;
+        }
+
+        @Override
+        public void endBind(Object token, String endpoint, Class<?> type, long bytes) {
+        }
+
+        @Override
+        public void cacheAccess(String cache, boolean hit) {
+        }
+    }
+}
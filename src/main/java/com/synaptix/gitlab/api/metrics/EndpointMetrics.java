@@ -0,0 +1,66 @@
+package com.synaptix.gitlab.api.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live metrics of one endpoint, fed by {@link InMemoryMetricsListener}
+ */
+public class EndpointMetrics {
+
+    private final String method;
+    private final String endpoint;
+
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LatencyHistogram connect = new LatencyHistogram();
+    private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+    private final LatencyHistogram bodyRead = new LatencyHistogram();
+    private final LatencyHistogram bind = new LatencyHistogram();
+
+    public EndpointMetrics(String method, String endpoint) {
+        super();
+        this.method = method;
+        this.endpoint = endpoint;
+    }
+
+    public void record(GitLabRequestMetrics metrics) {
+        if (metrics.isError()) {
+            errors.increment();
+        }
+        bytesIn.add(metrics.getBytesIn());
+        bytesOut.add(metrics.getBytesOut());
+        pages.add(metrics.getPages());
+        retries.add(metrics.getRetries());
+
+        total.record(metrics.getTotalNanos());
+        connect.record(metrics.getConnectNanos());
+        timeToFirstByte.record(metrics.getTimeToFirstByteNanos());
+        bodyRead.record(metrics.getBodyReadNanos());
+        bind.record(metrics.getBindNanos());
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the live histogram of the call durations
+     */
+    public LatencyHistogram getLatency() {
+        return total;
+    }
+
+    public EndpointSnapshot snapshot() {
+        return new EndpointSnapshot(method, endpoint, errors.sum(), bytesIn.sum(), bytesOut.sum(), pages.sum(), retries.sum(), total.snapshot(), connect.snapshot(),
+                timeToFirstByte.snapshot(), bodyRead.snapshot(), bind.snapshot());
+    }
+}
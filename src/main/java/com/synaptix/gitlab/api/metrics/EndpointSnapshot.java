@@ -0,0 +1,111 @@
+package com.synaptix.gitlab.api.metrics;
+
+/**
+ * Point in time copy of the metrics of one endpoint
+ * <p>
+ * All durations are in nanoseconds.
+ */
+public class EndpointSnapshot {
+
+    private final String method;
+    private final String endpoint;
+    private final long errors;
+    private final long bytesIn;
+    private final long bytesOut;
+    private final long pages;
+    private final long retries;
+    private final LatencyHistogram.Snapshot latency;
+    private final LatencyHistogram.Snapshot connect;
+    private final LatencyHistogram.Snapshot timeToFirstByte;
+    private final LatencyHistogram.Snapshot bodyRead;
+    private final LatencyHistogram.Snapshot bind;
+
+    EndpointSnapshot(String method, String endpoint, long errors, long bytesIn, long bytesOut, long pages, long retries, LatencyHistogram.Snapshot latency,
+            LatencyHistogram.Snapshot connect, LatencyHistogram.Snapshot timeToFirstByte, LatencyHistogram.Snapshot bodyRead, LatencyHistogram.Snapshot bind) {
+        super();
+        this.method = method;
+        this.endpoint = endpoint;
+        this.errors = errors;
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+        this.pages = pages;
+        this.retries = retries;
+        this.latency = latency;
+        this.connect = connect;
+        this.timeToFirstByte = timeToFirstByte;
+        this.bodyRead = bodyRead;
+        this.bind = bind;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    public long getPages() {
+        return pages;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    public long getP50() {
+        return latency.getValueAtPercentile(50);
+    }
+
+    public long getP99() {
+        return latency.getValueAtPercentile(99);
+    }
+
+    public long getP999() {
+        return latency.getValueAtPercentile(99.9);
+    }
+
+    /**
+     * @return the distribution of the whole call durations
+     */
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency;
+    }
+
+    public LatencyHistogram.Snapshot getConnect() {
+        return connect;
+    }
+
+    public LatencyHistogram.Snapshot getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    public LatencyHistogram.Snapshot getBodyRead() {
+        return bodyRead;
+    }
+
+    public LatencyHistogram.Snapshot getBind() {
+        return bind;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + endpoint + " count=" + getCount() + " errors=" + errors + " p50=" + getP50() / 1000 + "us p99=" + getP99() / 1000 + "us";
+    }
+}
@@ -0,0 +1,79 @@
+package com.synaptix.gitlab.api.metrics;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns a concrete API path into its endpoint template
+ * <p>
+ * /projects/42/repository/commits/0a1b...?page=2 becomes /projects/:id/repository/commits/:sha,
+ * so that metrics are grouped by endpoint and not by URL.
+ */
+public final class EndpointTemplates {
+
+    private static final Map<String, String> PLACEHOLDERS = new HashMap<String, String>();
+    private static final Set<String> LITERALS = new HashSet<String>();
+
+    static {
+        PLACEHOLDERS.put("projects", ":id");
+        PLACEHOLDERS.put("users", ":id");
+        PLACEHOLDERS.put("groups", ":id");
+        PLACEHOLDERS.put("namespaces", ":id");
+        PLACEHOLDERS.put("commits", ":sha");
+        PLACEHOLDERS.put("statuses", ":sha");
+        PLACEHOLDERS.put("search", ":query");
+        PLACEHOLDERS.put("merge_requests", ":merge_request_id");
+        PLACEHOLDERS.put("merge_request", ":merge_request_id");
+        PLACEHOLDERS.put("issues", ":issue_id");
+        PLACEHOLDERS.put("notes", ":note_id");
+        PLACEHOLDERS.put("hooks", ":hook_id");
+        PLACEHOLDERS.put("members", ":user_id");
+        PLACEHOLDERS.put("branches", ":branch");
+        PLACEHOLDERS.put("milestones", ":milestone_id");
+        PLACEHOLDERS.put("keys", ":key_id");
+
+        LITERALS.add("owned");
+        LITERALS.add("all");
+        LITERALS.add("search");
+        LITERALS.add("starred");
+        LITERALS.add("visible");
+        LITERALS.add("repository");
+    }
+
+    private EndpointTemplates() {
+        super();
+    }
+
+    /**
+     * Returns the endpoint template of an API path
+     *
+     * @param tailAPIUrl The path after the API namespace, with or without query
+     * @return the template, without query
+     */
+    public static String of(String tailAPIUrl) {
+        if (tailAPIUrl == null) {
+            return null;
+        }
+        int queryIndex = tailAPIUrl.indexOf('?');
+        String path = queryIndex >= 0 ? tailAPIUrl.substring(0, queryIndex) : tailAPIUrl;
+
+        StringBuilder builder = new StringBuilder(path.length());
+        String placeholder = null;
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            builder.append('/');
+            if (placeholder != null && !LITERALS.contains(segment)) {
+                builder.append(placeholder);
+                placeholder = null;
+            } else {
+                builder.append(segment);
+                placeholder = PLACEHOLDERS.get(segment);
+            }
+        }
+        return builder.length() == 0 ? "/" : builder.toString();
+    }
+}
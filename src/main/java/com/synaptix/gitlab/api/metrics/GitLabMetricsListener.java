@@ -0,0 +1,18 @@
+package com.synaptix.gitlab.api.metrics;
+
+/**
+ * Receives the metrics of every request made through a {@link com.synaptix.gitlab.api.GitLabAPI}
+ * <p>
+ * Listeners are called synchronously from the thread that made the request, once the request is over.
+ * They must be thread safe and should return quickly. Exceptions thrown by a listener are ignored.
+ */
+public interface GitLabMetricsListener {
+
+    /**
+     * Called once per API call, after the last page was read or the call failed
+     *
+     * @param metrics The metrics of the call
+     */
+    void onRequest(GitLabRequestMetrics metrics);
+
+}
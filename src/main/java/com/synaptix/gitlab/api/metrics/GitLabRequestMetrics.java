@@ -0,0 +1,182 @@
+package com.synaptix.gitlab.api.metrics;
+
+/**
+ * Metrics of one API call
+ * <p>
+ * A call made with {@code getAll} or an iterator covers all the pages it fetched,
+ * timings and byte counts are then summed over the pages.
+ * All durations are in nanoseconds.
+ */
+public class GitLabRequestMetrics {
+
+    private final String endpoint;
+    private final String method;
+    private final long startNanos;
+
+    private int status = -1;
+    private long bytesIn;
+    private long bytesOut;
+    private int pages;
+    private int retries;
+    private long connectNanos;
+    private long timeToFirstByteNanos;
+    private long bodyReadNanos;
+    private long bindNanos;
+    private long totalNanos;
+    private Throwable exception;
+
+    public GitLabRequestMetrics(String endpoint, String method) {
+        super();
+        this.endpoint = endpoint;
+        this.method = method;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * @return The endpoint template, eg. /projects/:id/repository/commits
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return The HTTP status of the last exchange, or -1 if no response was received
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * @return The number of bytes received, as transferred (before gzip decoding)
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    public void addBytesIn(long bytesIn) {
+        this.bytesIn += bytesIn;
+    }
+
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    public void addBytesOut(long bytesOut) {
+        this.bytesOut += bytesOut;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public void incrementPages() {
+        this.pages++;
+    }
+
+    /**
+     * @return The number of additional attempts made for this call
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    public void incrementRetries() {
+        this.retries++;
+    }
+
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public void addConnectNanos(long connectNanos) {
+        this.connectNanos += connectNanos;
+    }
+
+    /**
+     * @return The time between the request being sent and the response status being read
+     */
+    public long getTimeToFirstByteNanos() {
+        return timeToFirstByteNanos;
+    }
+
+    public void addTimeToFirstByteNanos(long timeToFirstByteNanos) {
+        this.timeToFirstByteNanos += timeToFirstByteNanos;
+    }
+
+    public long getBodyReadNanos() {
+        return bodyReadNanos;
+    }
+
+    public void addBodyReadNanos(long bodyReadNanos) {
+        this.bodyReadNanos += bodyReadNanos;
+    }
+
+    /**
+     * @return The time spent deserializing JSON responses
+     */
+    public long getBindNanos() {
+        return bindNanos;
+    }
+
+    public void addBindNanos(long bindNanos) {
+        this.bindNanos += bindNanos;
+    }
+
+    /**
+     * @return The wall clock duration of the whole call
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return The exception that ended the call, or null if it succeeded
+     */
+    public Throwable getException() {
+        return exception;
+    }
+
+    public void setException(Throwable exception) {
+        this.exception = exception;
+    }
+
+    public boolean isError() {
+        return exception != null || status >= 400;
+    }
+
+    /**
+     * Adds the counters of another attempt of the call, eg. a hedge that answered first, and takes its status
+     *
+     * @param attempt The metrics of the attempt
+     */
+    public void add(GitLabRequestMetrics attempt) {
+        this.status = attempt.status;
+        this.bytesIn += attempt.bytesIn;
+        this.bytesOut += attempt.bytesOut;
+        this.pages += attempt.pages;
+        this.connectNanos += attempt.connectNanos;
+        this.timeToFirstByteNanos += attempt.timeToFirstByteNanos;
+        this.bodyReadNanos += attempt.bodyReadNanos;
+        this.bindNanos += attempt.bindNanos;
+    }
+
+    /**
+     * Stops the clock of the call
+     */
+    public void finish() {
+        this.totalNanos = System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + endpoint + " " + status + " in " + totalNanos / 1000000 + "ms (" + pages + " pages, " + bytesIn + " bytes)";
+    }
+}
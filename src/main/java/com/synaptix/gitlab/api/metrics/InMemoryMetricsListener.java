@@ -0,0 +1,72 @@
+package com.synaptix.gitlab.api.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps per endpoint latency histograms and counters in memory
+ * <p>
+ * <pre>
+ * InMemoryMetricsListener metrics = new InMemoryMetricsListener();
+ * gitLabAPI.addMetricsListener(metrics);
+ * ...
+ * for (EndpointSnapshot snapshot : metrics.snapshot()) {
+ *     System.out.println(snapshot.getEndpoint() + " p99=" + snapshot.getP99());
+ * }
+ * </pre>
+ */
+public class InMemoryMetricsListener implements GitLabMetricsListener {
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<String, EndpointMetrics>();
+
+    @Override
+    public void onRequest(GitLabRequestMetrics metrics) {
+        getEndpointMetrics(metrics.getMethod(), metrics.getEndpoint()).record(metrics);
+    }
+
+    /**
+     * Returns the live metrics of an endpoint, creating them if needed
+     *
+     * @param method   The HTTP method
+     * @param endpoint The endpoint template
+     * @return the metrics
+     */
+    public EndpointMetrics getEndpointMetrics(String method, String endpoint) {
+        String key = method + " " + endpoint;
+        EndpointMetrics endpointMetrics = endpoints.get(key);
+        if (endpointMetrics == null) {
+            EndpointMetrics created = new EndpointMetrics(method, endpoint);
+            endpointMetrics = endpoints.putIfAbsent(key, created);
+            if (endpointMetrics == null) {
+                endpointMetrics = created;
+            }
+        }
+        return endpointMetrics;
+    }
+
+    /**
+     * @return a copy of the metrics of every endpoint called so far, sorted by endpoint and method
+     */
+    public List<EndpointSnapshot> snapshot() {
+        List<EndpointSnapshot> snapshots = new ArrayList<EndpointSnapshot>(endpoints.size());
+        for (EndpointMetrics endpointMetrics : endpoints.values()) {
+            snapshots.add(endpointMetrics.snapshot());
+        }
+        Collections.sort(snapshots, new Comparator<EndpointSnapshot>() {
+            @Override
+            public int compare(EndpointSnapshot o1, EndpointSnapshot o2) {
+                int result = o1.getEndpoint().compareTo(o2.getEndpoint());
+                return result != 0 ? result : o1.getMethod().compareTo(o2.getMethod());
+            }
+        });
+        return snapshots;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+}
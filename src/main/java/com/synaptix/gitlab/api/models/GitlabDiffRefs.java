@@ -0,0 +1,39 @@
+package com.synaptix.gitlab.api.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class GitlabDiffRefs {
+
+    @JsonProperty("base_sha")
+    private String baseSha;
+
+    @JsonProperty("head_sha")
+    private String headSha;
+
+    @JsonProperty("start_sha")
+    private String startSha;
+
+    public String getBaseSha() {
+        return baseSha;
+    }
+
+    public void setBaseSha(String baseSha) {
+        this.baseSha = baseSha;
+    }
+
+    public String getHeadSha() {
+        return headSha;
+    }
+
+    public void setHeadSha(String headSha) {
+        this.headSha = headSha;
+    }
+
+    public String getStartSha() {
+        return startSha;
+    }
+
+    public void setStartSha(String startSha) {
+        this.startSha = startSha;
+    }
+}
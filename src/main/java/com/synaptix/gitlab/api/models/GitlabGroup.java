@@ -9,6 +9,10 @@ public class GitlabGroup {
     private Integer id;
     private String name;
     private String path;
+    private String description;
+
+    @JsonProperty("parent_id")
+    private Integer parentId;
 
     @JsonProperty("ldap_cn")
     private String ldapCn;
@@ -40,6 +44,25 @@ public class GitlabGroup {
         this.path = path;
     }
 
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * @return the id of the parent group of a subgroup, null for a top level group or on servers without subgroups
+     */
+    public Integer getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Integer parentId) {
+        this.parentId = parentId;
+    }
+
     public String getLdapCn() {
         return ldapCn;
     }
@@ -23,6 +23,14 @@ public class GitlabMergeRequest {
     private String[] labels;
     private List<GitLabCommitDiff> changes;
 
+    private String sha;
+
+    @JsonProperty("merge_commit_sha")
+    private String mergeCommitSha;
+
+    @JsonProperty("diff_refs")
+    private GitlabDiffRefs diffRefs;
+
     private int upvotes;
     private int downvotes;
 
@@ -235,4 +243,28 @@ public class GitlabMergeRequest {
     public void setChanges(List<GitLabCommitDiff> changes) {
         this.changes = changes;
     }
+
+    public String getSha() {
+        return sha;
+    }
+
+    public void setSha(String sha) {
+        this.sha = sha;
+    }
+
+    public String getMergeCommitSha() {
+        return mergeCommitSha;
+    }
+
+    public void setMergeCommitSha(String mergeCommitSha) {
+        this.mergeCommitSha = mergeCommitSha;
+    }
+
+    public GitlabDiffRefs getDiffRefs() {
+        return diffRefs;
+    }
+
+    public void setDiffRefs(GitlabDiffRefs diffRefs) {
+        this.diffRefs = diffRefs;
+    }
 }
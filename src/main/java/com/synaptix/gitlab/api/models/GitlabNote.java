@@ -19,6 +19,15 @@ public class GitlabNote {
     @JsonProperty("created_at")
     private Date createdAt;
 
+    @JsonProperty("updated_at")
+    private Date updatedAt;
+
+    @JsonProperty("noteable_id")
+    private Integer noteableId;
+
+    @JsonProperty("noteable_type")
+    private String noteableType;
+
     public Integer getId() {
         return id;
     }
@@ -51,6 +60,30 @@ public class GitlabNote {
         this.createdAt = createdAt;
     }
 
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Integer getNoteableId() {
+        return noteableId;
+    }
+
+    public void setNoteableId(Integer noteableId) {
+        this.noteableId = noteableId;
+    }
+
+    public String getNoteableType() {
+        return noteableType;
+    }
+
+    public void setNoteableType(String noteableType) {
+        this.noteableType = noteableType;
+    }
+
     public String getAttachment() {
         return attachment;
     }
@@ -1,31 +1,55 @@
 package com.synaptix.gitlab.api.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Date;
 
+/**
+ * A project hook
+ * <p>
+ * The event and certificate flags read false when unset. Their Flag accessors tell an unset flag apart: null when the server did
+ * not return it, eg. an older GitLab not knowing the event, or when a hook to add or edit leaves it as it is.
+ */
 public class GitlabProjectHook {
 
     public final static String URL = "/hooks";
 
     private String id;
     private String url;
+
+    @JsonProperty("project_id")
     private Integer projectId;
 
     @JsonProperty("push_events")
-    private boolean pushEvents;
+    private Boolean pushEvents;
 
     @JsonProperty("issues_events")
-    private boolean issueEvents;
+    private Boolean issueEvents;
 
     @JsonProperty("merge_requests_events")
-    private boolean mergeRequestsEvents;
+    private Boolean mergeRequestsEvents;
+
+    @JsonProperty("tag_push_events")
+    private Boolean tagPushEvents;
+
+    @JsonProperty("note_events")
+    private Boolean noteEvents;
+
+    @JsonProperty("build_events")
+    private Boolean buildEvents;
+
+    @JsonProperty("pipeline_events")
+    private Boolean pipelineEvents;
+
+    @JsonProperty("wiki_page_events")
+    private Boolean wikiPageEvents;
 
     @JsonProperty("created_at")
     private Date createdAt;
 
     @JsonProperty("enable_ssl_verification")
-    private boolean sslVerificationEnabled;
+    private Boolean sslVerificationEnabled;
 
     public String getId() {
         return id;
@@ -52,29 +76,173 @@ public class GitlabProjectHook {
     }
 
     public boolean getPushEvents() {
-        return pushEvents;
+        return pushEvents != null && pushEvents;
     }
 
     public void setPushEvents(boolean pushEvents) {
         this.pushEvents = pushEvents;
     }
 
+    /**
+     * @return push_events, null if the server did not return it or it was not set
+     */
+    @JsonIgnore
+    public Boolean getPushEventsFlag() {
+        return pushEvents;
+    }
+
+    @JsonIgnore
+    public void setPushEventsFlag(Boolean pushEvents) {
+        this.pushEvents = pushEvents;
+    }
+
     public boolean getIssueEvents() {
-        return issueEvents;
+        return issueEvents != null && issueEvents;
     }
 
     public void setIssueEvents(boolean issueEvents) {
         this.issueEvents = issueEvents;
     }
 
+    /**
+     * @return issues_events, null if the server did not return it or it was not set
+     */
+    @JsonIgnore
+    public Boolean getIssueEventsFlag() {
+        return issueEvents;
+    }
+
+    @JsonIgnore
+    public void setIssueEventsFlag(Boolean issueEvents) {
+        this.issueEvents = issueEvents;
+    }
+
     public boolean isMergeRequestsEvents() {
-        return mergeRequestsEvents;
+        return mergeRequestsEvents != null && mergeRequestsEvents;
     }
 
     public void setMergeRequestsEvents(boolean mergeRequestsEvents) {
         this.mergeRequestsEvents = mergeRequestsEvents;
     }
 
+    /**
+     * @return merge_requests_events, null if the server did not return it or it was not set
+     */
+    @JsonIgnore
+    public Boolean getMergeRequestsEventsFlag() {
+        return mergeRequestsEvents;
+    }
+
+    @JsonIgnore
+    public void setMergeRequestsEventsFlag(Boolean mergeRequestsEvents) {
+        this.mergeRequestsEvents = mergeRequestsEvents;
+    }
+
+    public boolean isTagPushEvents() {
+        return tagPushEvents != null && tagPushEvents;
+    }
+
+    public void setTagPushEvents(boolean tagPushEvents) {
+        this.tagPushEvents = tagPushEvents;
+    }
+
+    /**
+     * @return tag_push_events, null if the server did not return it or it was not set
+     */
+    @JsonIgnore
+    public Boolean getTagPushEventsFlag() {
+        return tagPushEvents;
+    }
+
+    @JsonIgnore
+    public void setTagPushEventsFlag(Boolean tagPushEvents) {
+        this.tagPushEvents = tagPushEvents;
+    }
+
+    public boolean isNoteEvents() {
+        return noteEvents != null && noteEvents;
+    }
+
+    public void setNoteEvents(boolean noteEvents) {
+        this.noteEvents = noteEvents;
+    }
+
+    /**
+     * @return note_events, null if the server did not return it or it was not set
+     */
+    @JsonIgnore
+    public Boolean getNoteEventsFlag() {
+        return noteEvents;
+    }
+
+    @JsonIgnore
+    public void setNoteEventsFlag(Boolean noteEvents) {
+        this.noteEvents = noteEvents;
+    }
+
+    public boolean isBuildEvents() {
+        return buildEvents != null && buildEvents;
+    }
+
+    public void setBuildEvents(boolean buildEvents) {
+        this.buildEvents = buildEvents;
+    }
+
+    /**
+     * @return build_events, null if the server did not return it or it was not set
+     */
+    @JsonIgnore
+    public Boolean getBuildEventsFlag() {
+        return buildEvents;
+    }
+
+    @JsonIgnore
+    public void setBuildEventsFlag(Boolean buildEvents) {
+        this.buildEvents = buildEvents;
+    }
+
+    public boolean isPipelineEvents() {
+        return pipelineEvents != null && pipelineEvents;
+    }
+
+    public void setPipelineEvents(boolean pipelineEvents) {
+        this.pipelineEvents = pipelineEvents;
+    }
+
+    /**
+     * @return pipeline_events, null if the server did not return it or it was not set
+     */
+    @JsonIgnore
+    public Boolean getPipelineEventsFlag() {
+        return pipelineEvents;
+    }
+
+    @JsonIgnore
+    public void setPipelineEventsFlag(Boolean pipelineEvents) {
+        this.pipelineEvents = pipelineEvents;
+    }
+
+    public boolean isWikiPageEvents() {
+        return wikiPageEvents != null && wikiPageEvents;
+    }
+
+    public void setWikiPageEvents(boolean wikiPageEvents) {
+        this.wikiPageEvents = wikiPageEvents;
+    }
+
+    /**
+     * @return wiki_page_events, null if the server did not return it or it was not set
+     */
+    @JsonIgnore
+    public Boolean getWikiPageEventsFlag() {
+        return wikiPageEvents;
+    }
+
+    @JsonIgnore
+    public void setWikiPageEventsFlag(Boolean wikiPageEvents) {
+        this.wikiPageEvents = wikiPageEvents;
+    }
+
     public Date getCreatedAt() {
         return createdAt;
     }
@@ -84,11 +252,24 @@ public class GitlabProjectHook {
     }
 
     public boolean isSslVerificationEnabled() {
-        return sslVerificationEnabled;
+        return sslVerificationEnabled != null && sslVerificationEnabled;
     }
 
     public void setSslVerificationEnabled(boolean sslVerificationEnabled) {
         this.sslVerificationEnabled = sslVerificationEnabled;
     }
 
+    /**
+     * @return enable_ssl_verification, null if the server did not return it or it was not set
+     */
+    @JsonIgnore
+    public Boolean getSslVerificationEnabledFlag() {
+        return sslVerificationEnabled;
+    }
+
+    @JsonIgnore
+    public void setSslVerificationEnabledFlag(Boolean sslVerificationEnabled) {
+        this.sslVerificationEnabled = sslVerificationEnabled;
+    }
+
 }
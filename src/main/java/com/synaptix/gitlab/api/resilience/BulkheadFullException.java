@@ -0,0 +1,22 @@
+package com.synaptix.gitlab.api.resilience;
+
+import com.synaptix.gitlab.api.GitlabAPIException;
+
+/**
+ * Thrown without any request being sent when an endpoint group already has its maximum of requests in flight
+ */
+public class BulkheadFullException extends GitlabAPIException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String group;
+
+    public BulkheadFullException(String group, int maxConcurrent) {
+        super("Endpoint group " + group + " already has " + maxConcurrent + " requests in flight", 503, null);
+        this.group = group;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+}
@@ -0,0 +1,172 @@
+package com.synaptix.gitlab.api.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count based circuit breaker
+ * <p>
+ * While closed, the outcomes of the last calls are kept in a sliding window. When the window is full and the share
+ * of failures reaches the threshold, the breaker opens and rejects every call for the open duration. It then turns
+ * half-open and admits a few probe calls: if they all succeed it closes again, if one fails it opens again.
+ * <p>
+ * Each admitted call gets a permit from {@link #tryAcquire()}, to be handed back with its outcome to {@link #record(long, boolean)},
+ * or without outcome to {@link #release(long)} when the call was cancelled.
+ * A permit belongs to the state the call was admitted in: a call admitted while closed that completes after the breaker opened
+ * is not taken for a probe, and neither is a probe that completes after the breaker moved on.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Returned by {@link #tryAcquire()} when the call is rejected
+     */
+    public static final long REJECTED = -1;
+
+    private final double failureRateThreshold;
+    private final boolean[] outcomes;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    private State state = State.CLOSED;
+    private int index;
+    private int calls;
+    private int failures;
+    private long openedAtNanos;
+    private int probesStarted;
+    private int probesSucceeded;
+    // Incremented on every change of state, the permits hold the generation they were issued in
+    private long generation;
+
+    /**
+     * @param failureRateThreshold The share of failed calls, between 0 and 1, that opens the breaker
+     * @param windowSize           The number of calls in the sliding window
+     * @param openMillis           How long the breaker stays open before probing
+     * @param halfOpenProbes       The number of successful probes needed to close the breaker
+     */
+    public CircuitBreaker(double failureRateThreshold, int windowSize, long openMillis, int halfOpenProbes) {
+        super();
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("failureRateThreshold must be in ]0, 1]");
+        }
+        if (windowSize < 1 || halfOpenProbes < 1) {
+            throw new IllegalArgumentException("windowSize and halfOpenProbes must be positive");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.outcomes = new boolean[windowSize];
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    /**
+     * Admits a call
+     *
+     * @return the permit of the call, or {@link #REJECTED} if the breaker is open, or half-open with all its probes in flight
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.CLOSED) {
+            return generation;
+        }
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                return REJECTED;
+            }
+            state = State.HALF_OPEN;
+            generation++;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (probesStarted >= halfOpenProbes) {
+            return REJECTED;
+        }
+        probesStarted++;
+        return generation;
+    }
+
+    /**
+     * Records the outcome of an admitted call. Outcomes of calls admitted before the last change of state are ignored.
+     *
+     * @param permit  The permit returned by {@link #tryAcquire()} when the call was admitted
+     * @param failure true if the call failed
+     */
+    public synchronized void record(long permit, boolean failure) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (failure) {
+                open();
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            if (calls == outcomes.length) {
+                if (outcomes[index]) {
+                    failures--;
+                }
+            } else {
+                calls++;
+            }
+            outcomes[index] = failure;
+            if (failure) {
+                failures++;
+            }
+            index = (index + 1) % outcomes.length;
+            if (calls == outcomes.length && failures >= failureRateThreshold * calls) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * Gives back the permit of a call that ended without outcome, eg. cancelled or past its deadline. A probe frees its slot
+     * for another call.
+     *
+     * @param permit The permit returned by {@link #tryAcquire()} when the call was admitted
+     */
+    public synchronized void release(long permit) {
+        if (permit == generation && state == State.HALF_OPEN) {
+            probesStarted--;
+        }
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * @return the share of failures in the sliding window
+     */
+    public synchronized double getFailureRate() {
+        return calls == 0 ? 0 : (double) failures / calls;
+    }
+
+    /**
+     * @return the time before the breaker turns half-open, 0 if it is not open
+     */
+    public synchronized long getRemainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openNanos - (System.nanoTime() - openedAtNanos)));
+    }
+
+    private void open() {
+        state = State.OPEN;
+        generation++;
+        openedAtNanos = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        generation++;
+        index = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.synaptix.gitlab.api.resilience;
+
+import com.synaptix.gitlab.api.GitlabAPIException;
+
+/**
+ * Thrown without any request being sent when the circuit breaker of an endpoint group is open
+ * <p>
+ * {@link #getRetryAfterMillis()} is the time before the breaker lets probe requests through.
+ */
+public class CircuitBreakerOpenException extends GitlabAPIException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String group;
+
+    public CircuitBreakerOpenException(String group, long retryAfterMillis) {
+        super("Circuit breaker of endpoint group " + group + " is open, retry in " + retryAfterMillis + "ms", 503, null, retryAfterMillis);
+        this.group = group;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+}
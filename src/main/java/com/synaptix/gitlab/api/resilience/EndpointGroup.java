@@ -0,0 +1,240 @@
+package com.synaptix.gitlab.api.resilience;
+
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Isolates a set of endpoints from the others
+ * <p>
+ * A bulkhead caps the requests in flight to the group, so that a slow endpoint cannot hold every thread, a
+ * {@link RateLimiter} paces the requests, and a {@link CircuitBreaker} fails fast while the group is failing. All are optional. Configure the group, then
+ * register it with {@link com.synaptix.gitlab.api.GitLabAPI#endpointGroup(EndpointGroup)}.
+ * <pre>
+ * gitLabAPI.endpointGroup(new EndpointGroup("diffs").endpoints(GitLabAPICommits.COMMIT_DIFF).maxConcurrent(4).circuitBreaker(0.5, 20, 30000));
+ * </pre>
+ * Each page of a listing is a separate call.
+ */
+public class EndpointGroup {
+
+    private final String name;
+    private final Set<String> endpoints = new LinkedHashSet<String>();
+
+    private int maxConcurrent;
+    private long maxWaitNanos;
+    private Semaphore bulkhead;
+    private CircuitBreaker circuitBreaker;
+    private long slowCallNanos;
+    private RateLimiter rateLimiter;
+    private int maxThrottledRetries = 3;
+
+    public EndpointGroup(String name) {
+        super();
+        this.name = name;
+    }
+
+    /**
+     * Adds endpoints to the group
+     *
+     * @param templates The endpoint templates, eg. /projects/:id/repository/commits/:sha/diff
+     * @return this
+     */
+    public EndpointGroup endpoints(String... templates) {
+        endpoints.addAll(Arrays.asList(templates));
+        return this;
+    }
+
+    /**
+     * Adds endpoints to the group
+     *
+     * @param templates The endpoint templates
+     * @return this
+     */
+    public EndpointGroup endpoints(EndpointTemplate... templates) {
+        for (EndpointTemplate template : templates) {
+            endpoints.add(template.getTemplate());
+        }
+        return this;
+    }
+
+    /**
+     * Sets the bulkhead of the group
+     *
+     * @param maxConcurrent The maximum number of requests in flight
+     * @return this
+     */
+    public EndpointGroup maxConcurrent(int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent, true);
+        return this;
+    }
+
+    /**
+     * Sets how long a request waits for a slot in the bulkhead before being rejected, 0 by default
+     *
+     * @param maxWaitMillis The maximum wait
+     * @return this
+     */
+    public EndpointGroup maxWaitMillis(long maxWaitMillis) {
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        return this;
+    }
+
+    /**
+     * Sets the circuit breaker of the group, with a single half-open probe
+     *
+     * @param failureRateThreshold The share of failed calls, between 0 and 1, that opens the breaker
+     * @param windowSize           The number of calls in the sliding window
+     * @param openMillis           How long the breaker stays open before probing
+     * @return this
+     */
+    public EndpointGroup circuitBreaker(double failureRateThreshold, int windowSize, long openMillis) {
+        return circuitBreaker(new CircuitBreaker(failureRateThreshold, windowSize, openMillis, 1));
+    }
+
+    public EndpointGroup circuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    /**
+     * Counts calls slower than the given duration as failures of the circuit breaker, so that it also opens on a degraded endpoint
+     *
+     * @param slowCallMillis The duration, 0 to disable
+     * @return this
+     */
+    public EndpointGroup slowCallMillis(long slowCallMillis) {
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        return this;
+    }
+
+    /**
+     * Paces the requests of the group, allowing a burst of one second worth of requests after an idle period
+     * <p>
+     * A request answered 429 pauses the group for the Retry-After delay, then is sent again.
+     *
+     * @param permitsPerSecond The steady rate
+     * @return this
+     */
+    public EndpointGroup rateLimit(double permitsPerSecond) {
+        return rateLimiter(new RateLimiter(permitsPerSecond, Math.max(1, (int) permitsPerSecond)));
+    }
+
+    /**
+     * Paces the requests of the group with a rate limiter, which may be shared with other groups
+     *
+     * @return this
+     */
+    public EndpointGroup rateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+        return this;
+    }
+
+    /**
+     * Sets how many times a request answered 429 is sent again when the group has a rate limiter, 3 by default
+     *
+     * @return this
+     */
+    public EndpointGroup maxThrottledRetries(int maxThrottledRetries) {
+        this.maxThrottledRetries = maxThrottledRetries;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Set<String> getEndpoints() {
+        return Collections.unmodifiableSet(endpoints);
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public int getMaxThrottledRetries() {
+        return maxThrottledRetries;
+    }
+
+    /**
+     * @return the number of requests in flight, when the group has a bulkhead
+     */
+    public int getInFlight() {
+        return bulkhead != null ? maxConcurrent - bulkhead.availablePermits() : 0;
+    }
+
+    /**
+     * Admits a call, to be followed by {@link #release(long, boolean, long)}, or {@link #release(long)} if it is cancelled
+     *
+     * @return the permit of the call, to be handed back to {@link #release(long, boolean, long)} or {@link #release(long)}
+     * @throws BulkheadFullException       if the bulkhead has no slot left
+     * @throws CircuitBreakerOpenException if the circuit breaker is open
+     * @throws InterruptedIOException      if interrupted while waiting for a slot
+     */
+    public long acquire() throws IOException {
+        if (bulkhead != null) {
+            boolean acquired;
+            try {
+                acquired = maxWaitNanos > 0 ? bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS) : bulkhead.tryAcquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for endpoint group " + name);
+            }
+            if (!acquired) {
+                throw new BulkheadFullException(name, maxConcurrent);
+            }
+        }
+        long permit = circuitBreaker != null ? circuitBreaker.tryAcquire() : 0;
+        if (permit == CircuitBreaker.REJECTED) {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            throw new CircuitBreakerOpenException(name, circuitBreaker.getRemainingOpenMillis());
+        }
+        return permit;
+    }
+
+    /**
+     * Ends an admitted call that was cancelled, without recording an outcome
+     *
+     * @param permit The permit returned by {@link #acquire()}
+     */
+    public void release(long permit) {
+        if (bulkhead != null) {
+            bulkhead.release();
+        }
+        if (circuitBreaker != null) {
+            circuitBreaker.release(permit);
+        }
+    }
+
+    /**
+     * Ends an admitted call
+     *
+     * @param permit        The permit returned by {@link #acquire()}
+     * @param failed        true if the call got no usable response
+     * @param durationNanos The duration of the call
+     */
+    public void release(long permit, boolean failed, long durationNanos) {
+        if (bulkhead != null) {
+            bulkhead.release();
+        }
+        if (circuitBreaker != null) {
+            circuitBreaker.record(permit, failed || slowCallNanos > 0 && durationNanos > slowCallNanos);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.synaptix.gitlab.api.resilience;
+
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+import com.synaptix.gitlab.api.metrics.GitLabMetricsListener;
+import com.synaptix.gitlab.api.metrics.GitLabRequestMetrics;
+import com.synaptix.gitlab.api.metrics.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedging of single object GETs, eg. getProject or getCommit
+ * <p>
+ * When the response of a request has not started after a percentile of the recent time to first byte of its endpoint,
+ * a second identical request is sent; the first to answer wins and the other is cancelled. Hedges are counted as
+ * retries in the request metrics. Each hedgeable request adds {@code budget} to a token bucket and each hedge takes
+ * a whole token, so hedges never exceed that share of the traffic, with a burst of at most 10.
+ * <p>
+ * Register it with {@link com.synaptix.gitlab.api.GitLabAPI#hedging(HedgingPolicy)}, which also feeds it the
+ * request metrics. Endpoints are hedged once {@code minSamples} successful requests have been measured.
+ */
+public class HedgingPolicy implements GitLabMetricsListener {
+
+    private static final int RECOMPUTE_EVERY = 32;
+    private static final long TOKEN = 1000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final Set<String> endpoints = new HashSet<String>();
+    private double percentile = 95;
+    private double budget = 0.05;
+    private long minDelayNanos = TimeUnit.MILLISECONDS.toNanos(1);
+    private int minSamples = 100;
+    private long windowNanos = TimeUnit.MINUTES.toNanos(1);
+
+    private final ConcurrentMap<String, EndpointLatency> latencies = new ConcurrentHashMap<String, EndpointLatency>();
+    private final AtomicLong tokens = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Restricts hedging to the given endpoints, all GET endpoints are hedged by default
+     *
+     * @param templates The endpoint templates
+     * @return this
+     */
+    public HedgingPolicy endpoints(String... templates) {
+        endpoints.addAll(Arrays.asList(templates));
+        return this;
+    }
+
+    public HedgingPolicy endpoints(EndpointTemplate... templates) {
+        for (EndpointTemplate template : templates) {
+            endpoints.add(template.getTemplate());
+        }
+        return this;
+    }
+
+    /**
+     * @param percentile The percentile of the time to first byte after which a hedge is sent, 95 by default
+     * @return this
+     */
+    public HedgingPolicy percentile(double percentile) {
+        this.percentile = percentile;
+        return this;
+    }
+
+    /**
+     * @param budget The maximum share of hedged requests, 0.05 by default
+     * @return this
+     */
+    public HedgingPolicy budget(double budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    /**
+     * @param minDelayMillis The minimum delay before a hedge, 1ms by default
+     * @return this
+     */
+    public HedgingPolicy minDelayMillis(long minDelayMillis) {
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        return this;
+    }
+
+    /**
+     * @param minSamples The number of measured requests needed before an endpoint is hedged, 100 by default
+     * @return this
+     */
+    public HedgingPolicy minSamples(int minSamples) {
+        this.minSamples = minSamples;
+        return this;
+    }
+
+    /**
+     * @param windowMillis How long latencies are kept before measuring again from scratch, 1 minute by default
+     * @return this
+     */
+    public HedgingPolicy windowMillis(long windowMillis) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        return this;
+    }
+
+    public Set<String> getEndpoints() {
+        return Collections.unmodifiableSet(endpoints);
+    }
+
+    /**
+     * @return the number of hedgeable requests measured
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of hedges sent
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    @Override
+    public void onRequest(GitLabRequestMetrics metrics) {
+        if (!"GET".equals(metrics.getMethod()) || metrics.isError() || metrics.getPages() != 1 || !isHedged(metrics.getEndpoint())) {
+            return;
+        }
+        requests.increment();
+        deposit((long) (budget * TOKEN));
+
+        EndpointLatency latency = latencies.get(metrics.getEndpoint());
+        if (latency == null) {
+            EndpointLatency created = new EndpointLatency();
+            latency = latencies.putIfAbsent(metrics.getEndpoint(), created);
+            if (latency == null) {
+                latency = created;
+            }
+        }
+        latency.record(metrics.getConnectNanos() + metrics.getTimeToFirstByteNanos());
+    }
+
+    /**
+     * @param endpoint The endpoint template
+     * @return the delay after which a request to the endpoint is hedged, or -1 if it is not hedged
+     */
+    public long getDelayNanos(String endpoint) {
+        EndpointLatency latency = latencies.get(endpoint);
+        return latency != null ? latency.delayNanos : -1;
+    }
+
+    /**
+     * Takes a token from the budget
+     *
+     * @return true if a hedge can be sent
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        hedges.increment();
+        return true;
+    }
+
+    /**
+     * Runs a task after a delay, on the timer thread of this policy
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delayNanos) {
+        return getScheduler().schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "gitlab-api-hedging");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return scheduler;
+    }
+
+    private boolean isHedged(String endpoint) {
+        return endpoint != null && (endpoints.isEmpty() || endpoints.contains(endpoint));
+    }
+
+    private void deposit(long amount) {
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= MAX_TOKENS) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(MAX_TOKENS, current + amount)));
+    }
+
+    /**
+     * Time to first byte of one endpoint over the current window, and the delay derived from it
+     */
+    private final class EndpointLatency {
+
+        private volatile LatencyHistogram histogram = new LatencyHistogram();
+        private volatile long windowStartNanos = System.nanoTime();
+        private volatile long delayNanos = -1;
+        private final AtomicLong samples = new AtomicLong();
+
+        void record(long nanos) {
+            LatencyHistogram current = histogram;
+            current.record(nanos);
+            if (samples.incrementAndGet() % RECOMPUTE_EVERY != 0) {
+                return;
+            }
+            LatencyHistogram.Snapshot snapshot = current.snapshot();
+            if (snapshot.getCount() >= minSamples) {
+                delayNanos = Math.max(minDelayNanos, snapshot.getValueAtPercentile(percentile));
+                long now = System.nanoTime();
+                if (now - windowStartNanos > windowNanos) {
+                    // Keep the current delay while the new window fills up
+                    windowStartNanos = now;
+                    histogram = new LatencyHistogram();
+                }
+            }
+        }
+    }
+}
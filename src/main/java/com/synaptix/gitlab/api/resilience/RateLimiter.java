@@ -0,0 +1,118 @@
+package com.synaptix.gitlab.api.resilience;
+
+import com.synaptix.gitlab.api.http.CancellationToken;
+import com.synaptix.gitlab.api.http.DeadlineExceededException;
+import com.synaptix.gitlab.api.http.RequestCancelledException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces the calls of every thread sharing it to a steady rate
+ * <p>
+ * Calls are spaced evenly instead of being sent in bursts until the server answers 429, a short burst being allowed
+ * after an idle period. When the server asks to slow down, {@link #pause(long)} holds every caller until the delay has passed.
+ * Used through {@link EndpointGroup#rateLimit(double)}, which also pauses it on 429 responses.
+ */
+public class RateLimiter {
+
+    // Upper bound of a single sleep, so that a cancelled caller does not wait for its whole slot
+    private static final long MAX_SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final double permitsPerSecond;
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    // The time the next permit is free, never more than the burst in the past
+    private long nextFreeNanos = System.nanoTime();
+    private long waitedNanos;
+
+    /**
+     * @param permitsPerSecond The steady rate
+     * @param burst            The number of calls allowed at once after an idle period, at least 1
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        super();
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = intervalNanos * (burst - 1);
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * @return the total time callers spent waiting for a permit, in milliseconds
+     */
+    public synchronized long getWaitedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitedNanos);
+    }
+
+    /**
+     * Waits for a permit
+     *
+     * @param token The token of the call, or null
+     * @throws DeadlineExceededException if the permit comes after the deadline of the token
+     * @throws RequestCancelledException if the token is cancelled while waiting
+     * @throws InterruptedIOException    if interrupted while waiting
+     */
+    public void acquire(CancellationToken token) throws IOException {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+        if (token != null && token.hasDeadline() && TimeUnit.NANOSECONDS.toMillis(waitNanos) >= token.getRemainingMillis()) {
+            throw new DeadlineExceededException("Deadline exceeded before the rate limit allows the call");
+        }
+
+        long end = System.nanoTime() + waitNanos;
+        try {
+            long remaining;
+            while ((remaining = end - System.nanoTime()) > 0) {
+                if (token != null && token.isCancelled()) {
+                    throw token.isExpired() ? new DeadlineExceededException("Deadline exceeded") : new RequestCancelledException("Request cancelled");
+                }
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, MAX_SLEEP_NANOS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+        }
+    }
+
+    /**
+     * Holds every caller for the given delay, eg. the Retry-After of a 429 response
+     *
+     * @param millis The delay
+     */
+    public synchronized void pause(long millis) {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        if (until - nextFreeNanos > 0) {
+            // No burst after a pause
+            nextFreeNanos = until;
+        }
+    }
+
+    /**
+     * Takes the next free permit
+     *
+     * @return how long to wait for it, in nanoseconds
+     */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        if (now - burstNanos - nextFreeNanos > 0) {
+            nextFreeNanos = now - burstNanos;
+        }
+        long waitNanos = nextFreeNanos - now;
+        nextFreeNanos += intervalNanos;
+        if (waitNanos > 0) {
+            waitedNanos += waitNanos;
+        }
+        return waitNanos;
+    }
+}
@@ -0,0 +1,140 @@
+package com.synaptix.gitlab.api.routing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One GitLab instance the client can send requests to, with its measured latency and health
+ * <p>
+ * Latency is an exponentially weighted moving average of the request durations. After a failure the
+ * upstream is skipped for a delay that doubles with each consecutive failure; the first request once
+ * the delay has elapsed probes it again. The primary is never skipped since writes can only go there.
+ */
+public final class Upstream {
+
+    private static final long MIN_RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final int index;
+    private final String apiUrl;
+    private final boolean primary;
+
+    private final AtomicLong latencyNanos = new AtomicLong();
+    private final AtomicLong lastSampleNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long retryAtNanos;
+
+    Upstream(int index, String apiUrl, boolean primary) {
+        super();
+        this.index = index;
+        this.apiUrl = apiUrl;
+        this.primary = primary;
+        this.lastSampleNanos = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * @return the url of the API namespace of this upstream
+     */
+    public String getAPIUrl() {
+        return apiUrl;
+    }
+
+    public boolean isPrimary() {
+        return primary;
+    }
+
+    /**
+     * @return the average latency in nanoseconds, 0 until measured
+     */
+    public long getLatencyNanos() {
+        return latencyNanos.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * @return true if requests can be routed to this upstream
+     */
+    public boolean isAvailable() {
+        return isAvailable(System.nanoTime());
+    }
+
+    boolean isAvailable(long now) {
+        return primary || consecutiveFailures.get() == 0 || now - retryAtNanos >= 0;
+    }
+
+    /**
+     * @return the bit of this upstream in the tried masks of {@link UpstreamRouter#selectForRead(long, Upstream)}
+     */
+    public long getMask() {
+        return 1L << index;
+    }
+
+    /**
+     * Returns the cost of routing a request here: the latency weighted by the requests in flight.
+     * An upstream not measured for the given interval costs nothing, so that one request probes its latency again.
+     */
+    long getCost(long now, long probeIntervalNanos) {
+        long last = lastSampleNanos.get();
+        if (now - last > probeIntervalNanos && lastSampleNanos.compareAndSet(last, now)) {
+            return 0;
+        }
+        return latencyNanos.get() * (inFlight.get() + 1);
+    }
+
+    /**
+     * Marks the start of a request
+     */
+    public void begin() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Marks the end of a request that got a response
+     *
+     * @param durationNanos The duration of the request
+     */
+    public void success(long durationNanos) {
+        inFlight.decrementAndGet();
+        consecutiveFailures.set(0);
+        long previous;
+        long next;
+        do {
+            previous = latencyNanos.get();
+            // alpha = 1/4
+            next = previous == 0 ? durationNanos : previous + (durationNanos - previous) / 4;
+        } while (!latencyNanos.compareAndSet(previous, next));
+        lastSampleNanos.set(System.nanoTime());
+    }
+
+    /**
+     * Marks the end of a request that got no usable response, and skips this upstream for a while
+     */
+    public void failure() {
+        inFlight.decrementAndGet();
+        int failures = consecutiveFailures.incrementAndGet();
+        long delay = MIN_RETRY_DELAY_NANOS << Math.min(failures - 1, 16);
+        retryAtNanos = System.nanoTime() + Math.min(delay, MAX_RETRY_DELAY_NANOS);
+    }
+
+    /**
+     * Marks the end of a request cancelled before its outcome, eg. a hedge that lost or a deadline that passed: it says nothing
+     * about the upstream, whose latency and failures are left as they are
+     */
+    public void cancelled() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return apiUrl + (primary ? " (primary)" : "");
+    }
+}
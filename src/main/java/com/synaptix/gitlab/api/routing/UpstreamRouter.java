@@ -0,0 +1,115 @@
+package com.synaptix.gitlab.api.routing;
+
+import com.synaptix.gitlab.api.GitlabAPIException;
+import com.synaptix.gitlab.api.http.RequestCancelledException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes requests between a primary GitLab and its read endpoints, eg. GitLab Geo secondaries
+ * <p>
+ * Writes always go to the primary. Reads go to the available upstream with the lowest latency weighted
+ * by its requests in flight, the primary included. A read that gets no response, or a 5xx, fails over to the
+ * next best upstream that was not tried yet; the failed upstream is skipped until its retry delay elapses.
+ */
+public class UpstreamRouter {
+
+    private static final int MAX_UPSTREAMS = 64;
+    private static final long PROBE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Upstream primary;
+    private volatile Upstream[] upstreams;
+
+    public UpstreamRouter(String primaryAPIUrl) {
+        super();
+        this.primary = new Upstream(0, primaryAPIUrl, true);
+        this.upstreams = new Upstream[] { primary };
+    }
+
+    /**
+     * Adds a read endpoint
+     *
+     * @param apiUrl The url of its API namespace
+     * @return the new upstream
+     */
+    public synchronized Upstream addReadUpstream(String apiUrl) {
+        Upstream[] current = upstreams;
+        if (current.length == MAX_UPSTREAMS) {
+            throw new IllegalStateException("At most " + (MAX_UPSTREAMS - 1) + " read endpoints are supported");
+        }
+        Upstream upstream = new Upstream(current.length, apiUrl, false);
+        Upstream[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = upstream;
+        upstreams = next;
+        return upstream;
+    }
+
+    public Upstream getPrimary() {
+        return primary;
+    }
+
+    /**
+     * @return the primary followed by the read endpoints
+     */
+    public List<Upstream> getUpstreams() {
+        return Collections.unmodifiableList(new ArrayList<Upstream>(Arrays.asList(upstreams)));
+    }
+
+    /**
+     * @return true if reads can go elsewhere than to the primary
+     */
+    public boolean hasReadUpstreams() {
+        return upstreams.length > 1;
+    }
+
+    /**
+     * Selects the upstream of a read
+     *
+     * @param tried     The masks of the upstreams already tried, or-ed together
+     * @param preferred The upstream to keep using while it is available, eg. for the next page of a listing, or null
+     * @return the upstream, or null if all were tried
+     */
+    public Upstream selectForRead(long tried, Upstream preferred) {
+        long now = System.nanoTime();
+        if (preferred != null && (tried & preferred.getMask()) == 0 && preferred.isAvailable(now)) {
+            return preferred;
+        }
+        Upstream best = null;
+        long bestCost = Long.MAX_VALUE;
+        for (Upstream upstream : upstreams) {
+            if ((tried & upstream.getMask()) != 0 || !upstream.isAvailable(now)) {
+                continue;
+            }
+            long cost = upstream.getCost(now, PROBE_INTERVAL_NANOS);
+            if (best == null || cost < bestCost) {
+                best = upstream;
+                bestCost = cost;
+            }
+        }
+        if (best == null && (tried & primary.getMask()) == 0) {
+            return primary;
+        }
+        return best;
+    }
+
+    /**
+     * Tells whether a failed request should be retried on another upstream
+     *
+     * @param e The error of the request
+     * @return true if the upstream gave no usable response
+     */
+    public static boolean isUnavailable(IOException e) {
+        if (e instanceof GitlabAPIException) {
+            return ((GitlabAPIException) e).getResponseCode() >= 500;
+        }
+        // 404 is an answer and a cancelled request says nothing about the upstream,
+        // any other error means the upstream could not be reached or did not answer
+        return !(e instanceof FileNotFoundException || e instanceof RequestCancelledException);
+    }
+}
@@ -0,0 +1,57 @@
+package com.synaptix.gitlab.api.services;
+
+import java.io.Serializable;
+
+/**
+ * A commit of a project, identified by its SHA
+ */
+public final class CommitRef implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Serializable projectId;
+    private final String sha;
+
+    /**
+     * @param projectId The ID of a project
+     * @param sha       The commit SHA
+     */
+    public CommitRef(Serializable projectId, String sha) {
+        super();
+        if (projectId == null || sha == null) {
+            throw new IllegalArgumentException("projectId and sha are required");
+        }
+        this.projectId = projectId;
+        this.sha = sha;
+    }
+
+    public Serializable getProjectId() {
+        return projectId;
+    }
+
+    public String getSha() {
+        return sha;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CommitRef)) {
+            return false;
+        }
+        CommitRef other = (CommitRef) o;
+        return projectId.equals(other.projectId) && sha.equals(other.sha);
+    }
+
+    @Override
+    public int hashCode() {
+        return projectId.hashCode() * 31 + sha.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return projectId + "@" + sha;
+    }
+}
@@ -0,0 +1,118 @@
+package com.synaptix.gitlab.api.services;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.concurrent.BulkResult;
+import com.synaptix.gitlab.api.concurrent.IOFunction;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+import com.synaptix.gitlab.api.models.GitlabBranch;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Branches API
+ * <p>
+ * http://doc.gitlab.com/ce/api/branches.html
+ */
+public class GitLabAPIBranches {
+
+    public static final EndpointTemplate BRANCHES = EndpointTemplate.compile("/projects/:id/repository/branches");
+    public static final EndpointTemplate BRANCH = EndpointTemplate.compile("/projects/:id/repository/branches/:branch");
+    public static final EndpointTemplate BRANCH_PROTECT = EndpointTemplate.compile("/projects/:id/repository/branches/:branch/protect");
+    public static final EndpointTemplate BRANCH_UNPROTECT = EndpointTemplate.compile("/projects/:id/repository/branches/:branch/unprotect");
+
+    private final GitLabAPI gitLabAPI;
+
+    public GitLabAPIBranches(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    /**
+     * List repository branches
+     * <p>
+     * Get a list of repository branches from a project, sorted by name alphabetically.
+     * <p>
+     * GET /projects/:id/repository/branches
+     *
+     * @param projectId (required) - The ID of a project
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabBranch> getBranches(Serializable projectId) throws IOException {
+        // The branches are not paginated
+        return Arrays.asList(gitLabAPI.retrieve().to(BRANCHES.expand(projectId), GitlabBranch[].class));
+    }
+
+    /**
+     * List the branches of many projects
+     * <p>
+     * Get the branches of the given projects, fetching up to {@link GitLabAPI#getParallelism()} of them concurrently.
+     * <p>
+     * GET /projects/:id/repository/branches
+     *
+     * @param projectIds (required) - The IDs of the projects
+     * @param <P>        project id type
+     * @return one result per project, in the order of the ids, holding its branches or the error of its listing
+     * @throws IOException if interrupted while waiting for the listings
+     */
+    public <P extends Serializable> List<BulkResult<P, List<GitlabBranch>>> getBranches(Collection<P> projectIds) throws IOException {
+        return gitLabAPI.bulk().getAll(projectIds, new IOFunction<P, List<GitlabBranch>>() {
+            @Override
+            public List<GitlabBranch> apply(P projectId) throws IOException {
+                return getBranches(projectId);
+            }
+        });
+    }
+
+    /**
+     * Get single repository branch
+     * <p>
+     * Get a single project repository branch.
+     * <p>
+     * GET /projects/:id/repository/branches/:branch
+     *
+     * @param projectId (required) - The ID of a project
+     * @param branch    (required) - The name of the branch
+     * @return
+     * @throws IOException
+     */
+    public GitlabBranch getBranch(Serializable projectId, String branch) throws IOException {
+        return gitLabAPI.retrieve().to(BRANCH.expand(projectId, branch), GitlabBranch.class);
+    }
+
+    /**
+     * Protect repository branch
+     * <p>
+     * Protects a single project repository branch. This is an idempotent function, protecting an already protected repository branch still returns a 200 OK status code.
+     * <p>
+     * PUT /projects/:id/repository/branches/:branch/protect
+     *
+     * @param projectId (required) - The ID of a project
+     * @param branch    (required) - The name of the branch
+     * @return
+     * @throws IOException
+     */
+    public GitlabBranch protectBranch(Serializable projectId, String branch) throws IOException {
+        return gitLabAPI.dispatch().method("PUT").to(BRANCH_PROTECT.expand(projectId, branch), GitlabBranch.class);
+    }
+
+    /**
+     * Unprotect repository branch
+     * <p>
+     * Unprotects a single project repository branch. This is an idempotent function, unprotecting an already unprotected repository branch still returns a 200 OK status code.
+     * <p>
+     * PUT /projects/:id/repository/branches/:branch/unprotect
+     *
+     * @param projectId (required) - The ID of a project
+     * @param branch    (required) - The name of the branch
+     * @return
+     * @throws IOException
+     */
+    public GitlabBranch unprotectBranch(Serializable projectId, String branch) throws IOException {
+        return gitLabAPI.dispatch().method("PUT").to(BRANCH_UNPROTECT.expand(projectId, branch), GitlabBranch.class);
+    }
+}
@@ -1,6 +1,10 @@
 package com.synaptix.gitlab.api.services;
 
 import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.cache.LRUCache;
+import com.synaptix.gitlab.api.concurrent.BulkResult;
+import com.synaptix.gitlab.api.concurrent.IOFunction;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
 import com.synaptix.gitlab.api.models.commits.GitLabCommit;
 import com.synaptix.gitlab.api.models.commits.GitLabCommitComments;
 import com.synaptix.gitlab.api.models.commits.GitLabCommitDiff;
@@ -9,7 +13,10 @@ import com.synaptix.gitlab.api.models.commits.GitLabCommitStatus;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * Commits API
@@ -18,13 +25,32 @@ import java.util.List;
  */
 public class GitLabAPICommits {
 
+    public static final EndpointTemplate COMMITS = EndpointTemplate.compile("/projects/:id/repository/commits");
+    public static final EndpointTemplate COMMIT = EndpointTemplate.compile("/projects/:id/repository/commits/:sha");
+    public static final EndpointTemplate COMMIT_DIFF = EndpointTemplate.compile("/projects/:id/repository/commits/:sha/diff");
+    public static final EndpointTemplate COMMIT_COMMENTS = EndpointTemplate.compile("/projects/:id/repository/commits/:sha/comments");
+    public static final EndpointTemplate COMMIT_STATUSES = EndpointTemplate.compile("/projects/:id/repository/commits/:sha/statuses");
+    public static final EndpointTemplate STATUS = EndpointTemplate.compile("/projects/:id/statuses/:sha");
+
+    private static final Pattern FULL_SHA_PATTERN = Pattern.compile("[0-9a-f]{40}");
+
     private final GitLabAPI gitLabAPI;
 
+    // Commits addressed by their full SHA never change, so they can be kept
+    private final LRUCache<String, GitLabCommit> commitCache = new LRUCache<String, GitLabCommit>("commits", 1000);
+
     public GitLabAPICommits(GitLabAPI gitLabAPI) {
         super();
         this.gitLabAPI = gitLabAPI;
     }
 
+    /**
+     * @return the cache of the commits fetched by full SHA, whose instances are shared by every caller and must not be mutated
+     */
+    public LRUCache<String, GitLabCommit> getCommitCache() {
+        return commitCache;
+    }
+
     /**
      * List repository commits
      * <p>
@@ -37,8 +63,7 @@ public class GitLabAPICommits {
      * @throws IOException
      */
     public List<GitLabCommit> getAllCommits(Serializable projectId) throws IOException {
-        String tailUrl = String.format("/projects/%s/repository/commits", gitLabAPI.sanitize(projectId));
-        return gitLabAPI.retrieve().getAll(tailUrl, GitLabCommit[].class);
+        return gitLabAPI.retrieve().getAll(COMMITS.expand(projectId), GitLabCommit[].class);
     }
 
     /**
@@ -46,6 +71,8 @@ public class GitLabAPICommits {
      * <p>
      * Get a specific commit identified by the commit hash or name of a branch or tag.
      * <p>
+     * A commit identified by its full SHA is cached and the same instance is returned to every caller: it must not be mutated.
+     * <p>
      * GET /projects/:id/repository/commits/:sha
      *
      * @param projectId  (required) - The ID of a project
@@ -54,8 +81,76 @@ public class GitLabAPICommits {
      * @throws IOException
      */
     public GitLabCommit getCommit(Serializable projectId, String commitHash) throws IOException {
-        String tailUrl = String.format("/projects/%s/repository/commits/%s", gitLabAPI.sanitize(projectId), commitHash);
-        return gitLabAPI.retrieve().to(tailUrl, GitLabCommit.class);
+        String cacheKey = commitCacheKey(projectId, commitHash);
+        if (cacheKey != null) {
+            GitLabCommit commit = commitCache.get(cacheKey);
+            if (commit != null) {
+                return commit;
+            }
+        }
+
+        GitLabCommit commit = gitLabAPI.retrieve().to(COMMIT.expand(projectId, commitHash), GitLabCommit.class);
+        if (cacheKey != null) {
+            commitCache.put(cacheKey, commit);
+        }
+        return commit;
+    }
+
+    /**
+     * Get many commits
+     * <p>
+     * Get the commits identified by the given hashes, fetching up to {@link GitLabAPI#getParallelism()} of them concurrently.
+     * Cached commits are not fetched again, and are shared by every caller: they must not be mutated.
+     * <p>
+     * GET /projects/:id/repository/commits/:sha
+     *
+     * @param projectId    (required) - The ID of a project
+     * @param commitHashes (required) - The commit SHAs
+     * @return one result per hash, in the order of the hashes, holding the commit or the error of its lookup
+     * @throws IOException if interrupted while waiting for the lookups
+     */
+    public List<BulkResult<String, GitLabCommit>> getCommits(Serializable projectId, Collection<String> commitHashes) throws IOException {
+        return gitLabAPI.bulk().getAll(commitHashes, commitLookup(projectId));
+    }
+
+    /**
+     * Get many commits, streaming the results
+     * <p>
+     * Same as {@link #getCommits(Serializable, Collection)} but each result is given to the consumer as soon as it is available,
+     * in completion order. The consumer is never called concurrently. Returns once every commit has been delivered.
+     * <p>
+     * GET /projects/:id/repository/commits/:sha
+     *
+     * @param projectId    (required) - The ID of a project
+     * @param commitHashes (required) - The commit SHAs
+     * @param consumer     (required) - Receives the result of each lookup
+     * @throws IOException if interrupted while waiting for the lookups
+     */
+    public void getCommits(Serializable projectId, Collection<String> commitHashes, Consumer<BulkResult<String, GitLabCommit>> consumer) throws IOException {
+        gitLabAPI.bulk().stream(commitHashes, commitLookup(projectId), consumer);
+    }
+
+    private IOFunction<String, GitLabCommit> commitLookup(final Serializable projectId) {
+        return new IOFunction<String, GitLabCommit>() {
+            @Override
+            public GitLabCommit apply(String commitHash) throws IOException {
+                return getCommit(projectId, commitHash);
+            }
+        };
+    }
+
+    private String commitCacheKey(Serializable projectId, String commitHash) {
+        if (!isFullSha(commitHash)) {
+            return null;
+        }
+        return projectId + "@" + commitHash;
+    }
+
+    /**
+     * @return true if the hash is a full SHA, which unlike a short SHA or a branch name always addresses the same commit
+     */
+    public static boolean isFullSha(String commitHash) {
+        return commitHash != null && FULL_SHA_PATTERN.matcher(commitHash).matches();
     }
 
     /**
@@ -71,8 +166,7 @@ public class GitLabAPICommits {
      * @throws IOException
      */
     public List<GitLabCommitDiff> getCommitDiffs(Serializable projectId, String commitHash) throws IOException {
-        String tailUrl = String.format("/projects/%s/repository/commits/%s/diff", gitLabAPI.sanitize(projectId), commitHash);
-        GitLabCommitDiff[] diffs = gitLabAPI.retrieve().to(tailUrl, GitLabCommitDiff[].class);
+        GitLabCommitDiff[] diffs = gitLabAPI.retrieve().to(COMMIT_DIFF.expand(projectId, commitHash), GitLabCommitDiff[].class);
         return Arrays.asList(diffs);
     }
 
@@ -89,8 +183,7 @@ public class GitLabAPICommits {
      * @throws IOException
      */
     public List<GitLabCommitComments> getCommitComments(Serializable projectId, String commitHash) throws IOException {
-        String tailUrl = String.format("/projects/%s/repository/commits/%s/comments", gitLabAPI.sanitize(projectId), commitHash);
-        return gitLabAPI.retrieve().getAll(tailUrl, GitLabCommitComments[].class);
+        return gitLabAPI.retrieve().getAll(COMMIT_COMMENTS.expand(projectId, commitHash), GitLabCommitComments[].class);
     }
 
     /**
@@ -110,8 +203,7 @@ public class GitLabAPICommits {
      * @throws IOException
      */
     public GitLabCommitComments postCommitComments(Serializable projectId, String commitHash, String note, String path, Integer line, String lineType) throws IOException {
-        String tailUrl = String.format("/projects/%s/repository/commits/%s/comments", gitLabAPI.sanitize(projectId), commitHash);
-        return gitLabAPI.dispatch().with("note", note).with("path", path).with("line", line).with("line_type", lineType).to(tailUrl, GitLabCommitComments.class);
+        return gitLabAPI.dispatch().with("note", note).with("path", path).with("line", line).with("line_type", lineType).to(COMMIT_COMMENTS.expand(projectId, commitHash), GitLabCommitComments.class);
     }
 
     /**
@@ -127,14 +219,30 @@ public class GitLabAPICommits {
      * @throws IOException
      */
     public List<GitLabCommitStatus> getCommitStatuses(Serializable projectId, String commitHash) throws IOException {
-        String tailUrl = String.format("/projects/%s/repository/commits/%s/statuses", gitLabAPI.sanitize(projectId), commitHash);
-        return gitLabAPI.retrieve().getAll(tailUrl, GitLabCommitStatus[].class);
+        return gitLabAPI.retrieve().getAll(COMMIT_STATUSES.expand(projectId, commitHash), GitLabCommitStatus[].class);
+    }
+
+    /**
+     * Get a page of the statuses of a commit
+     * <p>
+     * GET /projects/:id/repository/commits/:sha/statuses
+     *
+     * @param projectId  (required) - The ID of a project
+     * @param commitHash (required) - The commit SHA
+     * @param page       (optional) - The page, starting at 1
+     * @param perPage    (optional) - The number of statuses per page, 20 by default and 100 at most
+     * @return the statuses of the page, fewer than perPage on the last page
+     * @throws IOException
+     */
+    public List<GitLabCommitStatus> getCommitStatuses(Serializable projectId, String commitHash, Integer page, Integer perPage) throws IOException {
+        return Arrays.asList(gitLabAPI.retrieve().to(COMMIT_STATUSES.expand(projectId, commitHash).with("page", page).with("per_page", perPage), GitLabCommitStatus[].class));
     }
 
     /**
      * Post the status to commit
      * <p>
-     * Adds or updates a status of a commit.
+     * Adds or updates a status of a commit. The combined status a {@link com.synaptix.gitlab.api.sync.CommitStatusAggregator} cached for the
+     * commit is not updated: invalidate it there when a terminal status is posted again.
      * <p>
      * POST /projects/:id/statuses/:sha
      *
@@ -149,7 +257,6 @@ public class GitLabAPICommits {
      * @throws IOException
      */
     public GitLabCommitStatus postCommitStatus(Serializable projectId, String commitHash, String state, String ref, String name, String targetUrl, String description) throws IOException {
-        String tailUrl = String.format("/projects/%s/statuses/%s", gitLabAPI.sanitize(projectId), commitHash);
-        return gitLabAPI.dispatch().with("state", state).with("ref", ref).with("name", name).with("target_url", targetUrl).with("description", description).to(tailUrl, GitLabCommitStatus.class);
+        return gitLabAPI.dispatch().with("state", state).with("ref", ref).with("name", name).with("target_url", targetUrl).with("description", description).to(STATUS.expand(projectId, commitHash), GitLabCommitStatus.class);
     }
 }
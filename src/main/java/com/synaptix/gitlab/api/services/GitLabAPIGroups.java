@@ -0,0 +1,89 @@
+package com.synaptix.gitlab.api.services;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+import com.synaptix.gitlab.api.models.GitlabGroup;
+import com.synaptix.gitlab.api.models.projects.GitLabProject;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Groups API
+ * <p>
+ * http://doc.gitlab.com/ce/api/groups.html
+ */
+public class GitLabAPIGroups {
+
+    public static final EndpointTemplate GROUPS = EndpointTemplate.compile("/groups");
+    public static final EndpointTemplate GROUP = EndpointTemplate.compile("/groups/:id");
+    public static final EndpointTemplate GROUP_PROJECTS = EndpointTemplate.compile("/groups/:id/projects");
+
+    private final GitLabAPI gitLabAPI;
+
+    public GitLabAPIGroups(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    /**
+     * List groups
+     * <p>
+     * Get a list of groups. (As user: my groups, as admin: all groups)
+     * <p>
+     * GET /groups
+     *
+     * @param search (optional) - Return the groups matching the search criteria
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabGroup> getGroups(String search) throws IOException {
+        return gitLabAPI.retrieve().getAll(GROUPS.expand().with("search", search), GitlabGroup[].class);
+    }
+
+    /**
+     * List groups, one page
+     * <p>
+     * GET /groups
+     *
+     * @param page    (required) - The page, starting at 1
+     * @param perPage (optional) - The number of groups per page, 20 by default and 100 at most
+     * @return the groups of the page, fewer than perPage on the last page
+     * @throws IOException
+     */
+    public List<GitlabGroup> getGroups(Integer page, Integer perPage) throws IOException {
+        return Arrays.asList(gitLabAPI.retrieve().to(GROUPS.expand().with("page", page).with("per_page", perPage), GitlabGroup[].class));
+    }
+
+    /**
+     * Details of a group
+     * <p>
+     * Get all details of a group.
+     * <p>
+     * GET /groups/:id
+     *
+     * @param groupId (required) - The ID or path of a group
+     * @return
+     * @throws IOException
+     */
+    public GitlabGroup getGroup(Serializable groupId) throws IOException {
+        return gitLabAPI.retrieve().to(GROUP.expand(groupId), GitlabGroup.class);
+    }
+
+    /**
+     * List a group's projects
+     * <p>
+     * Get a list of projects in this group.
+     * <p>
+     * GET /groups/:id/projects
+     *
+     * @param groupId (required) - The ID or path of a group
+     * @return
+     * @throws IOException
+     */
+    public List<GitLabProject> getGroupProjects(Serializable groupId) throws IOException {
+        return gitLabAPI.retrieve().getAll(GROUP_PROJECTS.expand(groupId).with("per_page", 100), GitLabProject[].class);
+    }
+}
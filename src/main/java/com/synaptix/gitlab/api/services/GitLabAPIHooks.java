@@ -0,0 +1,198 @@
+package com.synaptix.gitlab.api.services;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+import com.synaptix.gitlab.api.http.GitLabHTTPRequestor;
+import com.synaptix.gitlab.api.models.GitlabProjectHook;
+import com.synaptix.gitlab.api.models.GitlabSystemHook;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Project hooks and system hooks API
+ * <p>
+ * http://doc.gitlab.com/ce/api/projects.html#hooks
+ * http://doc.gitlab.com/ce/api/system_hooks.html
+ */
+public class GitLabAPIHooks {
+
+    public static final EndpointTemplate PROJECT_HOOKS = EndpointTemplate.compile("/projects/:id/hooks");
+    public static final EndpointTemplate PROJECT_HOOK = EndpointTemplate.compile("/projects/:id/hooks/:hook_id");
+    public static final EndpointTemplate SYSTEM_HOOKS = EndpointTemplate.compile("/hooks");
+    public static final EndpointTemplate SYSTEM_HOOK = EndpointTemplate.compile("/hooks/:id");
+
+    private final GitLabAPI gitLabAPI;
+
+    public GitLabAPIHooks(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    /**
+     * List project hooks
+     * <p>
+     * Get a list of project hooks.
+     * <p>
+     * GET /projects/:id/hooks
+     *
+     * @param projectId (required) - The ID or NAMESPACE/PROJECT_NAME of a project
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabProjectHook> getProjectHooks(Serializable projectId) throws IOException {
+        return gitLabAPI.retrieve().getAll(PROJECT_HOOKS.expand(projectId).with("per_page", 100), GitlabProjectHook[].class);
+    }
+
+    /**
+     * List a page of project hooks
+     * <p>
+     * GET /projects/:id/hooks
+     *
+     * @param projectId (required) - The ID or NAMESPACE/PROJECT_NAME of a project
+     * @param page      (optional) - The page, starting at 1
+     * @param perPage   (optional) - The number of hooks per page, 20 by default and 100 at most
+     * @return the hooks of the page, fewer than perPage on the last page
+     * @throws IOException
+     */
+    public List<GitlabProjectHook> getProjectHooks(Serializable projectId, Integer page, Integer perPage) throws IOException {
+        return Arrays.asList(gitLabAPI.retrieve().to(PROJECT_HOOKS.expand(projectId).with("page", page).with("per_page", perPage), GitlabProjectHook[].class));
+    }
+
+    /**
+     * Get project hook
+     * <p>
+     * Get a specific hook for a project.
+     * <p>
+     * GET /projects/:id/hooks/:hook_id
+     *
+     * @param projectId (required) - The ID or NAMESPACE/PROJECT_NAME of a project
+     * @param hookId    (required) - The ID of a project hook
+     * @return
+     * @throws IOException
+     */
+    public GitlabProjectHook getProjectHook(Serializable projectId, String hookId) throws IOException {
+        return gitLabAPI.retrieve().to(PROJECT_HOOK.expand(projectId, hookId), GitlabProjectHook.class);
+    }
+
+    /**
+     * Add project hook
+     * <p>
+     * Adds a hook to a specified project.
+     * <p>
+     * POST /projects/:id/hooks
+     *
+     * @param projectId (required) - The ID or NAMESPACE/PROJECT_NAME of a project
+     * @param hook      (required) - The hook url, the events triggering it and whether to verify the certificate of the url, the null ones are not sent
+     * @param token     (optional) - Secret token to validate received payloads, sent in the X-Gitlab-Token header
+     * @return
+     * @throws IOException
+     */
+    public GitlabProjectHook addProjectHook(Serializable projectId, GitlabProjectHook hook, String token) throws IOException {
+        return withHook(gitLabAPI.dispatch(), hook, token).to(PROJECT_HOOKS.expand(projectId), GitlabProjectHook.class);
+    }
+
+    /**
+     * Edit project hook
+     * <p>
+     * Edits a hook for a specified project.
+     * <p>
+     * PUT /projects/:id/hooks/:hook_id
+     *
+     * @param projectId (required) - The ID or NAMESPACE/PROJECT_NAME of a project
+     * @param hookId    (required) - The ID of a project hook
+     * @param hook      (required) - The hook url, the events triggering it and whether to verify the certificate of the url, the null ones are not sent
+     * @param token     (optional) - Secret token to validate received payloads, unchanged if null
+     * @return
+     * @throws IOException
+     */
+    public GitlabProjectHook editProjectHook(Serializable projectId, String hookId, GitlabProjectHook hook, String token) throws IOException {
+        return withHook(gitLabAPI.dispatch().method("PUT"), hook, token).to(PROJECT_HOOK.expand(projectId, hookId), GitlabProjectHook.class);
+    }
+
+    /**
+     * Delete project hook
+     * <p>
+     * Removes a hook from a project.
+     * <p>
+     * DELETE /projects/:id/hooks/:hook_id
+     *
+     * @param projectId (required) - The ID or NAMESPACE/PROJECT_NAME of a project
+     * @param hookId    (required) - The ID of a project hook
+     * @return the removed hook
+     * @throws IOException
+     */
+    public GitlabProjectHook deleteProjectHook(Serializable projectId, String hookId) throws IOException {
+        return gitLabAPI.retrieve().method("DELETE").to(PROJECT_HOOK.expand(projectId, hookId), GitlabProjectHook.class);
+    }
+
+    /**
+     * List system hooks
+     * <p>
+     * Get a list of all system hooks. Requires an administrator.
+     * <p>
+     * GET /hooks
+     *
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabSystemHook> getSystemHooks() throws IOException {
+        return gitLabAPI.retrieve().getAll(SYSTEM_HOOKS.expand().with("per_page", 100), GitlabSystemHook[].class);
+    }
+
+    /**
+     * Add new system hook
+     * <p>
+     * POST /hooks
+     *
+     * @param url (required) - The hook URL
+     * @return
+     * @throws IOException
+     */
+    public GitlabSystemHook addSystemHook(String url) throws IOException {
+        return gitLabAPI.dispatch().with("url", url).to(SYSTEM_HOOKS.expand(), GitlabSystemHook.class);
+    }
+
+    /**
+     * Test system hook
+     * <p>
+     * Triggers the hook with a test event.
+     * <p>
+     * GET /hooks/:id
+     *
+     * @param hookId (required) - The ID of a system hook
+     * @throws IOException
+     */
+    public void testSystemHook(Integer hookId) throws IOException {
+        gitLabAPI.retrieve().to(SYSTEM_HOOK.expand(hookId), (Class<Object>) null);
+    }
+
+    /**
+     * Delete system hook
+     * <p>
+     * DELETE /hooks/:id
+     *
+     * @param hookId (required) - The ID of a system hook
+     * @return the removed hook
+     * @throws IOException
+     */
+    public GitlabSystemHook deleteSystemHook(Integer hookId) throws IOException {
+        return gitLabAPI.retrieve().method("DELETE").to(SYSTEM_HOOK.expand(hookId), GitlabSystemHook.class);
+    }
+
+    private static GitLabHTTPRequestor withHook(GitLabHTTPRequestor requestor, GitlabProjectHook hook, String token) {
+        return requestor.with("url", hook.getUrl())
+                .with("push_events", hook.getPushEventsFlag())
+                .with("issues_events", hook.getIssueEventsFlag())
+                .with("merge_requests_events", hook.getMergeRequestsEventsFlag())
+                .with("tag_push_events", hook.getTagPushEventsFlag())
+                .with("note_events", hook.getNoteEventsFlag())
+                .with("build_events", hook.getBuildEventsFlag())
+                .with("pipeline_events", hook.getPipelineEventsFlag())
+                .with("wiki_page_events", hook.getWikiPageEventsFlag())
+                .with("enable_ssl_verification", hook.getSslVerificationEnabledFlag())
+                .with("token", token);
+    }
+}
@@ -0,0 +1,134 @@
+package com.synaptix.gitlab.api.services;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.Endpoint;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+import com.synaptix.gitlab.api.models.GitlabIssue;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Issues API
+ * <p>
+ * http://doc.gitlab.com/ce/api/issues.html
+ */
+public class GitLabAPIIssues {
+
+    public static final EndpointTemplate ISSUES = EndpointTemplate.compile("/issues");
+    public static final EndpointTemplate PROJECT_ISSUES = EndpointTemplate.compile("/projects/:id/issues");
+    public static final EndpointTemplate PROJECT_ISSUE = EndpointTemplate.compile("/projects/:id/issues/:issue_id");
+
+    private static final Function<GitlabIssue, Date> UPDATED_AT = new Function<GitlabIssue, Date>() {
+        @Override
+        public Date apply(GitlabIssue issue) {
+            return issue.getUpdatedAt();
+        }
+    };
+
+    private final GitLabAPI gitLabAPI;
+
+    public GitLabAPIIssues(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    /**
+     * List issues
+     * <p>
+     * Get all issues created by the authenticated user, most recently updated first.
+     * <p>
+     * GET /issues
+     *
+     * @param state        (optional) - Return all issues or just those that are opened or closed
+     * @param labels       (optional) - Comma-separated list of label names
+     * @param updatedAfter (optional) - Return only the issues updated on or after this date
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabIssue> getIssues(String state, String labels, Date updatedAfter) throws IOException {
+        final List<GitlabIssue> issues = new ArrayList<GitlabIssue>();
+        Listings.streamUpdatedAfter(gitLabAPI, sorted(ISSUES.expand(), state, labels, null, updatedAfter), GitlabIssue[].class, UPDATED_AT, updatedAfter,
+                new Consumer<GitlabIssue>() {
+                    @Override
+                    public void accept(GitlabIssue issue) {
+                        issues.add(issue);
+                    }
+                });
+        return issues;
+    }
+
+    /**
+     * List project issues
+     * <p>
+     * Get a list of project issues, most recently updated first.
+     * <p>
+     * GET /projects/:id/issues
+     *
+     * @param projectId    (required) - The ID of a project
+     * @param state        (optional) - Return all issues or just those that are opened or closed
+     * @param labels       (optional) - Comma-separated list of label names
+     * @param milestone    (optional) - Milestone title
+     * @param updatedAfter (optional) - Return only the issues updated on or after this date
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabIssue> getIssues(Serializable projectId, String state, String labels, String milestone, Date updatedAfter) throws IOException {
+        final List<GitlabIssue> issues = new ArrayList<GitlabIssue>();
+        getIssues(projectId, state, labels, milestone, updatedAfter, new Consumer<GitlabIssue>() {
+            @Override
+            public void accept(GitlabIssue issue) {
+                issues.add(issue);
+            }
+        });
+        return issues;
+    }
+
+    /**
+     * List project issues, streaming the pages
+     * <p>
+     * Same as {@link #getIssues(Serializable, String, String, String, Date)} but each issue is given to the consumer as soon as its page is read.
+     * The listing is sorted by update date, so paging stops at the first issue updated before {@code updatedAfter},
+     * even on servers ignoring the filter.
+     * <p>
+     * GET /projects/:id/issues
+     *
+     * @param projectId    (required) - The ID of a project
+     * @param state        (optional) - Return all issues or just those that are opened or closed
+     * @param labels       (optional) - Comma-separated list of label names
+     * @param milestone    (optional) - Milestone title
+     * @param updatedAfter (optional) - Return only the issues updated on or after this date
+     * @param consumer     (required) - Receives the issues
+     * @throws IOException
+     */
+    public void getIssues(Serializable projectId, String state, String labels, String milestone, Date updatedAfter, Consumer<GitlabIssue> consumer) throws IOException {
+        Listings.streamUpdatedAfter(gitLabAPI, sorted(PROJECT_ISSUES.expand(projectId), state, labels, milestone, updatedAfter), GitlabIssue[].class, UPDATED_AT,
+                updatedAfter, consumer);
+    }
+
+    /**
+     * Single issue
+     * <p>
+     * Gets a single project issue.
+     * <p>
+     * GET /projects/:id/issues/:issue_id
+     *
+     * @param projectId (required) - The ID of a project
+     * @param issueId   (required) - The ID of a project's issue
+     * @return
+     * @throws IOException
+     */
+    public GitlabIssue getIssue(Serializable projectId, Integer issueId) throws IOException {
+        return gitLabAPI.retrieve().to(PROJECT_ISSUE.expand(projectId, issueId), GitlabIssue.class);
+    }
+
+    private static Endpoint sorted(Endpoint endpoint, String state, String labels, String milestone, Date updatedAfter) {
+        return endpoint.with("state", state).with("labels", labels).with("milestone", milestone).with("order_by", "updated_at").with("sort", "desc")
+                .with("updated_after", updatedAfter);
+    }
+}
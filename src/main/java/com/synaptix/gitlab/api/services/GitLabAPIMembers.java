@@ -0,0 +1,88 @@
+package com.synaptix.gitlab.api.services;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+import com.synaptix.gitlab.api.models.GitlabGroupMember;
+import com.synaptix.gitlab.api.models.GitlabProjectMember;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Group and project members API
+ * <p>
+ * http://doc.gitlab.com/ce/api/members.html
+ */
+public class GitLabAPIMembers {
+
+    public static final EndpointTemplate GROUP_MEMBERS = EndpointTemplate.compile("/groups/:id/members");
+    public static final EndpointTemplate GROUP_MEMBER = EndpointTemplate.compile("/groups/:id/members/:user_id");
+    public static final EndpointTemplate PROJECT_MEMBERS = EndpointTemplate.compile("/projects/:id/members");
+    public static final EndpointTemplate PROJECT_MEMBER = EndpointTemplate.compile("/projects/:id/members/:user_id");
+
+    private final GitLabAPI gitLabAPI;
+
+    public GitLabAPIMembers(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    /**
+     * List all members of a group
+     * <p>
+     * Gets a list of group members viewable by the authenticated user.
+     * <p>
+     * GET /groups/:id/members
+     *
+     * @param groupId (required) - The ID or path of a group
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabGroupMember> getGroupMembers(Serializable groupId) throws IOException {
+        return gitLabAPI.retrieve().getAll(GROUP_MEMBERS.expand(groupId).with("per_page", 100), GitlabGroupMember[].class);
+    }
+
+    /**
+     * Get a member of a group
+     * <p>
+     * GET /groups/:id/members/:user_id
+     *
+     * @param groupId (required) - The ID or path of a group
+     * @param userId  (required) - The user ID of the member
+     * @return
+     * @throws IOException
+     */
+    public GitlabGroupMember getGroupMember(Serializable groupId, Integer userId) throws IOException {
+        return gitLabAPI.retrieve().to(GROUP_MEMBER.expand(groupId, userId), GitlabGroupMember.class);
+    }
+
+    /**
+     * List all members of a project
+     * <p>
+     * Gets a list of project members viewable by the authenticated user. Members inherited from the group are not listed.
+     * <p>
+     * GET /projects/:id/members
+     *
+     * @param projectId (required) - The ID or NAMESPACE/PROJECT_NAME of a project
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabProjectMember> getProjectMembers(Serializable projectId) throws IOException {
+        return gitLabAPI.retrieve().getAll(PROJECT_MEMBERS.expand(projectId).with("per_page", 100), GitlabProjectMember[].class);
+    }
+
+    /**
+     * Get a member of a project
+     * <p>
+     * GET /projects/:id/members/:user_id
+     *
+     * @param projectId (required) - The ID or NAMESPACE/PROJECT_NAME of a project
+     * @param userId    (required) - The user ID of the member
+     * @return
+     * @throws IOException
+     */
+    public GitlabProjectMember getProjectMember(Serializable projectId, Integer userId) throws IOException {
+        return gitLabAPI.retrieve().to(PROJECT_MEMBER.expand(projectId, userId), GitlabProjectMember.class);
+    }
+}
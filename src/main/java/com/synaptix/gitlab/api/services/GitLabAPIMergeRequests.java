@@ -0,0 +1,256 @@
+package com.synaptix.gitlab.api.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.cache.LRUCache;
+import com.synaptix.gitlab.api.concurrent.IOFunction;
+import com.synaptix.gitlab.api.http.Endpoint;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+import com.synaptix.gitlab.api.models.GitlabDiffRefs;
+import com.synaptix.gitlab.api.models.GitlabMergeRequest;
+import com.synaptix.gitlab.api.models.commits.GitLabCommitDiff;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Merge requests API
+ * <p>
+ * http://doc.gitlab.com/ce/api/merge_requests.html
+ */
+public class GitLabAPIMergeRequests {
+
+    public static final EndpointTemplate MERGE_REQUESTS = EndpointTemplate.compile("/projects/:id/merge_requests");
+    public static final EndpointTemplate MERGE_REQUEST = EndpointTemplate.compile("/projects/:id/merge_request/:merge_request_id");
+    public static final EndpointTemplate MERGE_REQUEST_CHANGES = EndpointTemplate.compile("/projects/:id/merge_request/:merge_request_id/changes");
+
+    private final GitLabAPI gitLabAPI;
+
+    // The changes of a merge request only depend on its source and target commits
+    private final LRUCache<String, List<GitLabCommitDiff>> changesCache = new LRUCache<String, List<GitLabCommitDiff>>("merge-request-changes", 100);
+
+    public GitLabAPIMergeRequests(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    public LRUCache<String, List<GitLabCommitDiff>> getChangesCache() {
+        return changesCache;
+    }
+
+    /**
+     * List merge requests
+     * <p>
+     * Get all merge requests for this project, most recently updated first.
+     * <p>
+     * GET /projects/:id/merge_requests
+     *
+     * @param projectId    (required) - The ID of a project
+     * @param state        (optional) - Return all requests or just those that are merged, opened or closed
+     * @param updatedAfter (optional) - Return only the requests updated on or after this date
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabMergeRequest> getMergeRequests(Serializable projectId, String state, Date updatedAfter) throws IOException {
+        final List<GitlabMergeRequest> mergeRequests = new ArrayList<GitlabMergeRequest>();
+        getMergeRequests(projectId, state, updatedAfter, new Consumer<GitlabMergeRequest>() {
+            @Override
+            public void accept(GitlabMergeRequest mergeRequest) {
+                mergeRequests.add(mergeRequest);
+            }
+        });
+        return mergeRequests;
+    }
+
+    /**
+     * List merge requests, streaming the pages
+     * <p>
+     * Same as {@link #getMergeRequests(Serializable, String, Date)} but each merge request is given to the consumer as soon as its page is read.
+     * The listing is sorted by update date, so paging stops at the first request updated before {@code updatedAfter},
+     * even on servers ignoring the filter.
+     * <p>
+     * GET /projects/:id/merge_requests
+     *
+     * @param projectId    (required) - The ID of a project
+     * @param state        (optional) - Return all requests or just those that are merged, opened or closed
+     * @param updatedAfter (optional) - Return only the requests updated on or after this date
+     * @param consumer     (required) - Receives the merge requests
+     * @throws IOException
+     */
+    public void getMergeRequests(Serializable projectId, String state, Date updatedAfter, Consumer<GitlabMergeRequest> consumer) throws IOException {
+        Endpoint endpoint = MERGE_REQUESTS.expand(projectId).with("state", state).with("order_by", "updated_at").with("sort", "desc").with("updated_after", updatedAfter);
+        Listings.streamUpdatedAfter(gitLabAPI, endpoint, GitlabMergeRequest[].class, new Function<GitlabMergeRequest, Date>() {
+            @Override
+            public Date apply(GitlabMergeRequest mergeRequest) {
+                return mergeRequest.getUpdatedAt();
+            }
+        }, updatedAfter, consumer);
+    }
+
+    /**
+     * Get single merge request
+     * <p>
+     * Shows information about a single merge request.
+     * <p>
+     * GET /projects/:id/merge_request/:merge_request_id
+     *
+     * @param projectId      (required) - The ID of a project
+     * @param mergeRequestId (required) - The ID of the merge request
+     * @return
+     * @throws IOException
+     */
+    public GitlabMergeRequest getMergeRequest(Serializable projectId, Integer mergeRequestId) throws IOException {
+        return gitLabAPI.retrieve().to(MERGE_REQUEST.expand(projectId, mergeRequestId), GitlabMergeRequest.class);
+    }
+
+    /**
+     * Get single merge request changes
+     * <p>
+     * Shows information about the merge request including its files and changes.
+     * The changes are cached by source and target commit, so the changes of a merge request that did not move are not downloaded again.
+     * <p>
+     * GET /projects/:id/merge_request/:merge_request_id/changes
+     *
+     * @param projectId      (required) - The ID of a project
+     * @param mergeRequestId (required) - The ID of the merge request
+     * @return the merge request with its changes
+     * @throws IOException
+     */
+    public GitlabMergeRequest getMergeRequestChanges(Serializable projectId, Integer mergeRequestId) throws IOException {
+        final List<GitLabCommitDiff> changes = new ArrayList<GitLabCommitDiff>();
+        GitlabMergeRequest mergeRequest = getMergeRequestChanges(projectId, mergeRequestId, new Consumer<GitLabCommitDiff>() {
+            @Override
+            public void accept(GitLabCommitDiff diff) {
+                changes.add(diff);
+            }
+        });
+        mergeRequest.setChanges(changes);
+        return mergeRequest;
+    }
+
+    /**
+     * Get single merge request changes, streaming the diffs
+     * <p>
+     * Same as {@link #getMergeRequestChanges(Serializable, Integer)} but each file diff is given to the consumer as soon as it is read,
+     * so the whole response is never held in memory.
+     * <p>
+     * GET /projects/:id/merge_request/:merge_request_id/changes
+     *
+     * @param projectId      (required) - The ID of a project
+     * @param mergeRequestId (required) - The ID of the merge request
+     * @param consumer       (required) - Receives the diff of each changed file
+     * @return the merge request, without its changes
+     * @throws IOException
+     */
+    public GitlabMergeRequest getMergeRequestChanges(Serializable projectId, Integer mergeRequestId, Consumer<GitLabCommitDiff> consumer) throws IOException {
+        if (changesCache.getCapacity() > 0) {
+            GitlabMergeRequest mergeRequest = getMergeRequest(projectId, mergeRequestId);
+            if (replayChanges(mergeRequest, consumer)) {
+                return mergeRequest;
+            }
+        }
+        return fetchChanges(projectId, mergeRequestId, consumer);
+    }
+
+    /**
+     * Get the changes of a listed merge request, streaming the diffs
+     * <p>
+     * Same as {@link #getMergeRequestChanges(Serializable, Integer, Consumer)}, using the commits of the given merge request to look up the cache
+     * without fetching the merge request again when it has them.
+     * <p>
+     * GET /projects/:id/merge_request/:merge_request_id/changes
+     *
+     * @param mergeRequest (required) - The merge request
+     * @param consumer     (required) - Receives the diff of each changed file
+     * @return the merge request, without its changes
+     * @throws IOException
+     */
+    public GitlabMergeRequest getMergeRequestChanges(GitlabMergeRequest mergeRequest, Consumer<GitLabCommitDiff> consumer) throws IOException {
+        if (changesCacheKey(mergeRequest) == null) {
+            return getMergeRequestChanges(mergeRequest.getProjectId(), mergeRequest.getId(), consumer);
+        }
+        if (replayChanges(mergeRequest, consumer)) {
+            return mergeRequest;
+        }
+        return fetchChanges(mergeRequest.getProjectId(), mergeRequest.getId(), consumer);
+    }
+
+    private boolean replayChanges(GitlabMergeRequest mergeRequest, Consumer<GitLabCommitDiff> consumer) {
+        String cacheKey = changesCacheKey(mergeRequest);
+        List<GitLabCommitDiff> changes = cacheKey != null ? changesCache.get(cacheKey) : null;
+        if (changes == null) {
+            return false;
+        }
+        for (GitLabCommitDiff diff : changes) {
+            consumer.accept(diff);
+        }
+        return true;
+    }
+
+    private GitlabMergeRequest fetchChanges(Serializable projectId, Integer mergeRequestId, Consumer<GitLabCommitDiff> consumer) throws IOException {
+        final List<GitLabCommitDiff> changes = changesCache.getCapacity() > 0 ? new ArrayList<GitLabCommitDiff>() : null;
+        GitlabMergeRequest mergeRequest = gitLabAPI.retrieve().to(MERGE_REQUEST_CHANGES.expand(projectId, mergeRequestId), new ChangesReader(consumer, changes));
+        String cacheKey = changesCacheKey(mergeRequest);
+        if (changes != null && cacheKey != null) {
+            changesCache.put(cacheKey, Collections.unmodifiableList(changes));
+        }
+        return mergeRequest;
+    }
+
+    private String changesCacheKey(GitlabMergeRequest mergeRequest) {
+        GitlabDiffRefs diffRefs = mergeRequest.getDiffRefs();
+        String sourceSha = diffRefs != null && diffRefs.getHeadSha() != null ? diffRefs.getHeadSha() : mergeRequest.getSha();
+        String targetSha = diffRefs != null ? diffRefs.getStartSha() != null ? diffRefs.getStartSha() : diffRefs.getBaseSha() : null;
+        if (sourceSha == null || targetSha == null) {
+            return null;
+        }
+        return mergeRequest.getProjectId() + "@" + sourceSha + ".." + targetSha;
+    }
+
+    /**
+     * Reads a merge request, handing the entries of its changes to a consumer one at a time instead of binding them
+     */
+    private static final class ChangesReader implements IOFunction<JsonParser, GitlabMergeRequest> {
+
+        private final Consumer<GitLabCommitDiff> consumer;
+        private final List<GitLabCommitDiff> changes;
+
+        ChangesReader(Consumer<GitLabCommitDiff> consumer, List<GitLabCommitDiff> changes) {
+            this.consumer = consumer;
+            this.changes = changes;
+        }
+
+        @Override
+        public GitlabMergeRequest apply(JsonParser parser) throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a merge request but got " + parser.getCurrentToken());
+            }
+            ObjectNode fields = GitLabAPI.MAPPER.createObjectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("changes".equals(name) && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        GitLabCommitDiff diff = GitLabAPI.MAPPER.readValue(parser, GitLabCommitDiff.class);
+                        if (changes != null) {
+                            changes.add(diff);
+                        }
+                        consumer.accept(diff);
+                    }
+                } else {
+                    fields.set(name, GitLabAPI.MAPPER.<JsonNode> readTree(parser));
+                }
+            }
+            return GitLabAPI.MAPPER.treeToValue(fields, GitlabMergeRequest.class);
+        }
+    }
+}
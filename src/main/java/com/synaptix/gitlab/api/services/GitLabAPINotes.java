@@ -0,0 +1,193 @@
+package com.synaptix.gitlab.api.services;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.concurrent.BulkResult;
+import com.synaptix.gitlab.api.concurrent.IOFunction;
+import com.synaptix.gitlab.api.http.Endpoint;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+import com.synaptix.gitlab.api.models.GitlabNote;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Notes API
+ * <p>
+ * http://doc.gitlab.com/ce/api/notes.html
+ * <p>
+ * The bulk listings fetch the notes of many issues and merge requests in parallel. To keep them under the rate limit
+ * of the server, pace the notes endpoints with an {@link com.synaptix.gitlab.api.resilience.EndpointGroup}, shared by every worker:
+ * <pre>
+ * gitLabAPI.endpointGroup(new EndpointGroup("notes").endpoints(GitLabAPINotes.ISSUE_NOTES, GitLabAPINotes.MERGE_REQUEST_NOTES).rateLimit(10));
+ * </pre>
+ */
+public class GitLabAPINotes {
+
+    public static final EndpointTemplate ISSUE_NOTES = EndpointTemplate.compile("/projects/:id/issues/:issue_id/notes");
+    public static final EndpointTemplate MERGE_REQUEST_NOTES = EndpointTemplate.compile("/projects/:id/merge_requests/:merge_request_id/notes");
+
+    private static final Function<GitlabNote, Date> UPDATED_AT = new Function<GitlabNote, Date>() {
+        @Override
+        public Date apply(GitlabNote note) {
+            return note.getUpdatedAt();
+        }
+    };
+
+    private static final Comparator<GitlabNote> MOST_RECENTLY_UPDATED_FIRST = new Comparator<GitlabNote>() {
+        @Override
+        public int compare(GitlabNote left, GitlabNote right) {
+            Date leftDate = left.getUpdatedAt();
+            Date rightDate = right.getUpdatedAt();
+            if (leftDate == null || rightDate == null) {
+                return leftDate != null ? -1 : rightDate != null ? 1 : 0;
+            }
+            return rightDate.compareTo(leftDate);
+        }
+    };
+
+    private final GitLabAPI gitLabAPI;
+
+    public GitLabAPINotes(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    /**
+     * List project issue notes
+     * <p>
+     * Gets a list of all notes for a single issue.
+     * <p>
+     * GET /projects/:id/issues/:issue_id/notes
+     *
+     * @param projectId (required) - The ID of a project
+     * @param issueId   (required) - The ID of an issue
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabNote> getIssueNotes(Serializable projectId, Integer issueId) throws IOException {
+        return getNotes(Noteable.issue(projectId, issueId), null);
+    }
+
+    /**
+     * List all merge request notes
+     * <p>
+     * Gets a list of all notes for a single merge request.
+     * <p>
+     * GET /projects/:id/merge_requests/:merge_request_id/notes
+     *
+     * @param projectId      (required) - The ID of a project
+     * @param mergeRequestId (required) - The ID of a merge request
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabNote> getMergeRequestNotes(Serializable projectId, Integer mergeRequestId) throws IOException {
+        return getNotes(Noteable.mergeRequest(projectId, mergeRequestId), null);
+    }
+
+    /**
+     * List the notes of an issue or a merge request, most recently updated first
+     *
+     * @param noteable     (required) - The issue or merge request
+     * @param updatedAfter (optional) - Return only the notes updated on or after this date
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabNote> getNotes(Noteable noteable, Date updatedAfter) throws IOException {
+        final List<GitlabNote> notes = new ArrayList<GitlabNote>();
+        getNotes(noteable, updatedAfter, new Consumer<GitlabNote>() {
+            @Override
+            public void accept(GitlabNote note) {
+                notes.add(note);
+            }
+        });
+        // Servers ignoring the sort list the oldest first
+        Collections.sort(notes, MOST_RECENTLY_UPDATED_FIRST);
+        return notes;
+    }
+
+    /**
+     * List the notes of an issue or a merge request, streaming the pages
+     * <p>
+     * The notes are handed out in the order of the server. When it sorts them by update date as requested, paging stops at the first
+     * note updated before {@code updatedAfter}. The v3 API ignores the sort and lists the oldest notes first: every page is then read,
+     * and the older notes are filtered out.
+     *
+     * @param noteable     (required) - The issue or merge request
+     * @param updatedAfter (optional) - Return only the notes updated on or after this date
+     * @param consumer     (required) - Receives the notes
+     * @throws IOException
+     */
+    public void getNotes(Noteable noteable, Date updatedAfter, Consumer<GitlabNote> consumer) throws IOException {
+        Endpoint endpoint = (noteable.getType() == Noteable.Type.ISSUE ? ISSUE_NOTES : MERGE_REQUEST_NOTES).expand(noteable.getProjectId(), noteable.getId())
+                .with("order_by", "updated_at").with("sort", "desc");
+        Listings.streamUpdatedAfter(gitLabAPI, endpoint, GitlabNote[].class, UPDATED_AT, updatedAfter, consumer);
+    }
+
+    /**
+     * List the notes of many issues and merge requests
+     * <p>
+     * Same as {@link #getNotes(Collection, Function, BiConsumer)} with the same date for every noteable.
+     *
+     * @param noteables    (required) - The issues and merge requests
+     * @param updatedAfter (optional) - Return only the notes updated on or after this date
+     * @param consumer     (required) - Receives each note with its noteable
+     * @return the noteables whose notes could not be listed
+     * @throws IOException if interrupted while waiting for the listings
+     */
+    public Map<Noteable, IOException> getNotes(Collection<Noteable> noteables, final Date updatedAfter, BiConsumer<Noteable, GitlabNote> consumer) throws IOException {
+        return getNotes(noteables, new Function<Noteable, Date>() {
+            @Override
+            public Date apply(Noteable noteable) {
+                return updatedAfter;
+            }
+        }, consumer);
+    }
+
+    /**
+     * List the notes of many issues and merge requests
+     * <p>
+     * The listings run in parallel on the bulk executor. The notes of a noteable are handed to the consumer together, most recently
+     * updated first, once all its pages are read, so a failed listing never delivers part of its notes. The consumer is never
+     * called concurrently. For an incremental refresh, give the most recent update date seen for each noteable: only the newer notes
+     * are handed out, and only the pages holding them are fetched when the server sorts the notes by update date.
+     *
+     * @param noteables    (required) - The issues and merge requests
+     * @param updatedAfter (required) - Gives the date after which the notes of a noteable are returned, or null for all its notes
+     * @param consumer     (required) - Receives each note with its noteable
+     * @return the noteables whose notes could not be listed
+     * @throws IOException if interrupted while waiting for the listings
+     */
+    public Map<Noteable, IOException> getNotes(Collection<Noteable> noteables, final Function<? super Noteable, Date> updatedAfter,
+            final BiConsumer<Noteable, GitlabNote> consumer) throws IOException {
+        final Map<Noteable, IOException> failures = new LinkedHashMap<Noteable, IOException>();
+        gitLabAPI.bulk().stream(noteables, new IOFunction<Noteable, List<GitlabNote>>() {
+            @Override
+            public List<GitlabNote> apply(Noteable noteable) throws IOException {
+                return getNotes(noteable, updatedAfter.apply(noteable));
+            }
+        }, new Consumer<BulkResult<Noteable, List<GitlabNote>>>() {
+            @Override
+            public void accept(BulkResult<Noteable, List<GitlabNote>> result) {
+                if (!result.isSuccess()) {
+                    failures.put(result.getKey(), result.getException());
+                    return;
+                }
+                for (GitlabNote note : result.getValue()) {
+                    consumer.accept(result.getKey(), note);
+                }
+            }
+        });
+        return failures;
+    }
+}
@@ -1,7 +1,7 @@
 package com.synaptix.gitlab.api.services;
 
 import com.synaptix.gitlab.api.GitLabAPI;
-import com.synaptix.gitlab.api.http.Query;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
 import com.synaptix.gitlab.api.models.projects.GitLabProject;
 
 import java.io.IOException;
@@ -15,6 +15,12 @@ import java.util.List;
  */
 public class GitLabAPIProjects {
 
+    public static final EndpointTemplate PROJECTS = EndpointTemplate.compile("/projects");
+    public static final EndpointTemplate PROJECTS_OWNED = EndpointTemplate.compile("/projects/owned");
+    public static final EndpointTemplate PROJECTS_ALL = EndpointTemplate.compile("/projects/all");
+    public static final EndpointTemplate PROJECT = EndpointTemplate.compile("/projects/:id");
+    public static final EndpointTemplate PROJECTS_SEARCH = EndpointTemplate.compile("/projects/search/:query");
+
     private final GitLabAPI gitLabAPI;
 
     public GitLabAPIProjects(GitLabAPI gitLabAPI) {
@@ -38,7 +44,7 @@ public class GitLabAPIProjects {
      * @throws IOException
      */
     public List<GitLabProject> getProjects(Boolean archived, String orderBy, String sort, String search, Boolean ciEnabledFirst) throws IOException {
-        return getProjects(null, archived, orderBy, sort, search, ciEnabledFirst);
+        return getProjects(PROJECTS, archived, orderBy, sort, search, ciEnabledFirst);
     }
 
     /**
@@ -57,7 +63,7 @@ public class GitLabAPIProjects {
      * @throws IOException
      */
     public List<GitLabProject> getProjectOwneds(Boolean archived, String orderBy, String sort, String search, Boolean ciEnabledFirst) throws IOException {
-        return getProjects("/owned", archived, orderBy, sort, search, ciEnabledFirst);
+        return getProjects(PROJECTS_OWNED, archived, orderBy, sort, search, ciEnabledFirst);
     }
 
     /**
@@ -76,19 +82,12 @@ public class GitLabAPIProjects {
      * @throws IOException
      */
     public List<GitLabProject> getProjectAlls(Boolean archived, String orderBy, String sort, String search, Boolean ciEnabledFirst) throws IOException {
-        return getProjects("/all", archived, orderBy, sort, search, ciEnabledFirst);
+        return getProjects(PROJECTS_ALL, archived, orderBy, sort, search, ciEnabledFirst);
     }
 
-    private List<GitLabProject> getProjects(String prefix, Boolean archived, String orderBy, String sort, String search, Boolean ciEnabledFirst) throws IOException {
-        String parameters = Query.newQuery().appendIf("archived", archived).appendIf("order_by", orderBy).appendIf("sort", sort).appendIf("search", gitLabAPI.sanitize(search))
-                .appendIf("ciEnabledFirst", ciEnabledFirst).build();
-
-        String tailUrl = "/projects";
-        if (prefix != null) {
-            tailUrl += prefix;
-        }
-        tailUrl += parameters;
-        return gitLabAPI.retrieve().getAll(tailUrl, GitLabProject[].class);
+    private List<GitLabProject> getProjects(EndpointTemplate template, Boolean archived, String orderBy, String sort, String search, Boolean ciEnabledFirst) throws IOException {
+        return gitLabAPI.retrieve().getAll(template.expand().with("archived", archived).with("order_by", orderBy).with("sort", sort).with("search", search)
+                .with("ciEnabledFirst", ciEnabledFirst), GitLabProject[].class);
     }
 
     /**
@@ -103,8 +102,7 @@ public class GitLabAPIProjects {
      * @throws IOException
      */
     public GitLabProject getProject(Serializable projectId) throws IOException {
-        String tailUrl = String.format("/projects/%s", gitLabAPI.sanitize(projectId));
-        return gitLabAPI.retrieve().to(tailUrl, GitLabProject.class);
+        return gitLabAPI.retrieve().to(PROJECT.expand(projectId), GitLabProject.class);
     }
 
     /**
@@ -123,8 +121,6 @@ public class GitLabAPIProjects {
      * @throws IOException
      */
     public List<GitLabProject> getProjectsSearchByName(String query, Integer perPage, Integer page, String orderBy, String sort) throws IOException {
-        String parameters = Query.newQuery().appendIf("per_page", perPage).appendIf("page", page).appendIf("orderBy", orderBy).appendIf("sort", sort).build();
-        String tailUrl = String.format("/projects/search/%s%s", gitLabAPI.sanitize(query), parameters);
-        return gitLabAPI.retrieve().getAll(tailUrl, GitLabProject[].class);
+        return gitLabAPI.retrieve().getAll(PROJECTS_SEARCH.expand(query).with("per_page", perPage).with("page", page).with("orderBy", orderBy).with("sort", sort), GitLabProject[].class);
     }
 }
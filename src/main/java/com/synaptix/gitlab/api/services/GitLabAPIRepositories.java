@@ -0,0 +1,91 @@
+package com.synaptix.gitlab.api.services;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.cache.LRUCache;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+import com.synaptix.gitlab.api.models.GitlabRepositoryTree;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Repositories API
+ * <p>
+ * http://doc.gitlab.com/ce/api/repositories.html
+ */
+public class GitLabAPIRepositories {
+
+    public static final EndpointTemplate TREE = EndpointTemplate.compile("/projects/:id/repository/tree");
+
+    private final GitLabAPI gitLabAPI;
+
+    // Trees are content addressed: the listing of a tree id never changes, whatever the commit, branch or path it is reached from
+    private final LRUCache<String, GitlabRepositoryTree[]> treeCache = new LRUCache<String, GitlabRepositoryTree[]>("trees", 1000);
+
+    public GitLabAPIRepositories(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    public LRUCache<String, GitlabRepositoryTree[]> getTreeCache() {
+        return treeCache;
+    }
+
+    /**
+     * List repository tree
+     * <p>
+     * Get a list of repository files and directories in a project.
+     * <p>
+     * GET /projects/:id/repository/tree
+     *
+     * @param projectId (required) - The ID of a project
+     * @param path      (optional) - The path inside repository. Used to get content of subdirectories
+     * @param ref       (optional) - The name of a repository branch or tag or if not given the default branch
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabRepositoryTree> getTree(Serializable projectId, String path, String ref) throws IOException {
+        return Arrays.asList(getTree(projectId, path, ref, null));
+    }
+
+    /**
+     * Walk repository tree
+     * <p>
+     * Visits every file and directory under a path, listing up to {@link GitLabAPI#getParallelism()} directories concurrently.
+     * The listings of subdirectories already met in any commit or branch are taken from the tree cache instead of being fetched again.
+     * Entries are handed to the visitor as their directory is listed and are not kept, so the size of the tree does not matter.
+     * <p>
+     * GET /projects/:id/repository/tree
+     *
+     * @param projectId (required) - The ID of a project
+     * @param path      (optional) - The path inside repository to start from, the root if not given
+     * @param ref       (optional) - The name of a repository branch or tag or if not given the default branch
+     * @param visitor   (required) - Receives the entries, and chooses the directories to walk into
+     * @throws IOException on the first listing that failed
+     */
+    public void walkTree(Serializable projectId, String path, String ref, RepositoryTreeVisitor visitor) throws IOException {
+        new RepositoryTreeWalker(this, projectId, ref, visitor).walk(path, gitLabAPI.getExecutorService(), gitLabAPI.getParallelism());
+    }
+
+    /**
+     * @param treeId The id of the tree at this path, if known, to look it up in the cache
+     */
+    GitlabRepositoryTree[] getTree(Serializable projectId, String path, String ref, String treeId) throws IOException {
+        if (treeId != null) {
+            GitlabRepositoryTree[] entries = treeCache.get(treeId);
+            if (entries != null) {
+                return entries;
+            }
+        }
+
+        // The tree is not paginated
+        GitlabRepositoryTree[] entries = gitLabAPI.retrieve().to(TREE.expand(projectId).with("path", path != null && !path.isEmpty() ? path : null).with("ref_name", ref),
+                GitlabRepositoryTree[].class);
+        if (treeId != null) {
+            treeCache.put(treeId, entries);
+        }
+        return entries;
+    }
+}
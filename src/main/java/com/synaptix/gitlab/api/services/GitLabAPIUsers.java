@@ -1,9 +1,12 @@
 package com.synaptix.gitlab.api.services;
 
 import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
 import com.synaptix.gitlab.api.models.GitlabUser;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Users API
@@ -12,6 +15,10 @@ import java.io.IOException;
  */
 public class GitLabAPIUsers {
 
+    public static final EndpointTemplate USER = EndpointTemplate.compile("/user");
+    public static final EndpointTemplate USERS = EndpointTemplate.compile("/users");
+    public static final EndpointTemplate USER_BY_ID = EndpointTemplate.compile("/users/:id");
+
     private final GitLabAPI gitLabAPI;
 
     public GitLabAPIUsers(GitLabAPI gitLabAPI) {
@@ -30,7 +37,70 @@ public class GitLabAPIUsers {
      * @throws IOException
      */
     public GitlabUser getUser() throws IOException {
-        String tailUrl = String.format("/user");
-        return gitLabAPI.retrieve().to(tailUrl, GitlabUser.class);
+        return gitLabAPI.retrieve().to(USER.expand(), GitlabUser.class);
+    }
+
+    /**
+     * List users
+     * <p>
+     * Get a list of users. Only administrators see the email of the users.
+     * <p>
+     * GET /users
+     *
+     * @param search (optional) - Return the users whose username, name or email matches
+     * @return
+     * @throws IOException
+     */
+    public List<GitlabUser> getUsers(String search) throws IOException {
+        return gitLabAPI.retrieve().getAll(USERS.expand().with("search", search).with("per_page", 100), GitlabUser[].class);
+    }
+
+    /**
+     * List users, one page
+     * <p>
+     * GET /users
+     *
+     * @param search  (optional) - Return the users whose username, name or email matches
+     * @param page    (required) - The page, starting at 1
+     * @param perPage (optional) - The number of users per page, 20 by default and 100 at most
+     * @return the users of the page, fewer than perPage on the last page
+     * @throws IOException
+     */
+    public List<GitlabUser> getUsers(String search, Integer page, Integer perPage) throws IOException {
+        return Arrays.asList(gitLabAPI.retrieve().to(USERS.expand().with("search", search).with("page", page).with("per_page", perPage), GitlabUser[].class));
+    }
+
+    /**
+     * Single user by username
+     * <p>
+     * GET /users?username=:username
+     *
+     * @param username (required) - The username of a user
+     * @return the user, or null if there is none
+     * @throws IOException
+     */
+    public GitlabUser getUserByUsername(String username) throws IOException {
+        GitlabUser[] users = gitLabAPI.retrieve().to(USERS.expand().with("username", username), GitlabUser[].class);
+        for (GitlabUser user : users) {
+            if (username.equalsIgnoreCase(user.getUsername())) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Single user
+     * <p>
+     * Get a single user.
+     * <p>
+     * GET /users/:id
+     *
+     * @param userId (required) - The ID of a user
+     * @return
+     * @throws IOException
+     */
+    public GitlabUser getUser(Integer userId) throws IOException {
+        return gitLabAPI.retrieve().to(USER_BY_ID.expand(userId), GitlabUser.class);
     }
 }
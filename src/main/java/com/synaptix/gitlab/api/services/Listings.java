@@ -0,0 +1,88 @@
+package com.synaptix.gitlab.api.services;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.Endpoint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Streams paginated listings to a consumer
+ */
+final class Listings {
+
+    private Listings() {
+        super();
+    }
+
+    /**
+     * Hands every item of a listing updated after a date to the consumer as its page is read, the older items are filtered out.
+     * <p>
+     * When the listing is sorted by update date, most recent first, paging stops at the first page holding an older item, so that
+     * the filter also saves requests on servers ignoring the updated_after parameter. Some endpoints ignore the sort as well, eg.
+     * the v3 notes list the oldest first: paging only stops early once a page was seen in descending order, with at least two
+     * different dates, otherwise every page is read.
+     *
+     * @param endpoint     The listing, requested sorted by update date in descending order
+     * @param type         The page type
+     * @param updatedAt    Gives the update date of an item
+     * @param updatedAfter The oldest update date to hand out, null for all the items
+     * @param consumer     Receives the items
+     * @param <T>          item type
+     * @throws IOException if a page could not be fetched
+     */
+    static <T> void streamUpdatedAfter(GitLabAPI gitLabAPI, Endpoint endpoint, Class<T[]> type, Function<T, Date> updatedAt, Date updatedAfter, Consumer<T> consumer)
+            throws IOException {
+        try {
+            boolean descending = false;
+            Iterator<T[]> pages = gitLabAPI.retrieve().asIterator(endpoint, type);
+            while (pages.hasNext()) {
+                T[] page = pages.next();
+                if (updatedAfter != null && !descending) {
+                    descending = isDescending(page, updatedAt);
+                }
+                boolean older = false;
+                for (T item : page) {
+                    Date date = updatedAfter != null ? updatedAt.apply(item) : null;
+                    if (date != null && date.before(updatedAfter)) {
+                        older = true;
+                    } else {
+                        consumer.accept(item);
+                    }
+                }
+                if (older && descending) {
+                    return;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            // Listings wrap their I/O failures in an UncheckedIOException
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return true if the update dates of the page never increase and are not all the same, which proves the sort was applied
+     */
+    private static <T> boolean isDescending(T[] page, Function<T, Date> updatedAt) {
+        Date first = null;
+        Date previous = null;
+        for (T item : page) {
+            Date date = updatedAt.apply(item);
+            if (date == null) {
+                continue;
+            }
+            if (previous != null && date.after(previous)) {
+                return false;
+            }
+            if (first == null) {
+                first = date;
+            }
+            previous = date;
+        }
+        return first != null && previous.before(first);
+    }
+}
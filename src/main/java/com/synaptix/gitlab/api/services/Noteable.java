@@ -0,0 +1,79 @@
+package com.synaptix.gitlab.api.services;
+
+import java.io.Serializable;
+
+/**
+ * An issue or a merge request, identifying the notes listed by {@link GitLabAPINotes}
+ */
+public final class Noteable implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        ISSUE, MERGE_REQUEST
+    }
+
+    private final Type type;
+    private final Serializable projectId;
+    private final Integer id;
+
+    private Noteable(Type type, Serializable projectId, Integer id) {
+        super();
+        if (projectId == null || id == null) {
+            throw new IllegalArgumentException("projectId and id are required");
+        }
+        this.type = type;
+        this.projectId = projectId;
+        this.id = id;
+    }
+
+    /**
+     * @param projectId The ID of a project
+     * @param issueId   The ID of a project's issue
+     */
+    public static Noteable issue(Serializable projectId, Integer issueId) {
+        return new Noteable(Type.ISSUE, projectId, issueId);
+    }
+
+    /**
+     * @param projectId      The ID of a project
+     * @param mergeRequestId The ID of a merge request
+     */
+    public static Noteable mergeRequest(Serializable projectId, Integer mergeRequestId) {
+        return new Noteable(Type.MERGE_REQUEST, projectId, mergeRequestId);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Serializable getProjectId() {
+        return projectId;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Noteable)) {
+            return false;
+        }
+        Noteable other = (Noteable) o;
+        return type == other.type && projectId.equals(other.projectId) && id.equals(other.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return (type.hashCode() * 31 + projectId.hashCode()) * 31 + id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return (type == Type.ISSUE ? "issue " : "merge request ") + projectId + "/" + id;
+    }
+}
@@ -0,0 +1,23 @@
+package com.synaptix.gitlab.api.services;
+
+import com.synaptix.gitlab.api.models.GitlabRepositoryTree;
+
+/**
+ * Receives the entries of a repository tree walk
+ *
+ * @see GitLabAPIRepositories#walkTree(java.io.Serializable, String, String, RepositoryTreeVisitor)
+ */
+public interface RepositoryTreeVisitor {
+
+    /**
+     * Visits one entry: a file, a directory or a submodule
+     * <p>
+     * Never called concurrently, but directories are walked in parallel so entries come in no particular order.
+     *
+     * @param path  The path of the entry from the root of the repository
+     * @param entry The entry, its type is blob, tree or commit
+     * @return for a directory, true to walk into it. Ignored for other entries.
+     */
+    boolean visit(String path, GitlabRepositoryTree entry);
+
+}
@@ -0,0 +1,181 @@
+package com.synaptix.gitlab.api.services;
+
+import com.synaptix.gitlab.api.http.CancellationToken;
+import com.synaptix.gitlab.api.models.GitlabRepositoryTree;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Walks a repository tree, listing sibling directories concurrently
+ * <p>
+ * The directories to list are a stack shared by workers running on the executor of the API, so the walk goes depth first
+ * and an idle worker takes the subdirectories queued by busy ones: a deep branch of the tree does not hold the others back.
+ * Only the listings of the directories being walked are held in memory. The first failure stops the walk.
+ */
+final class RepositoryTreeWalker {
+
+    private final GitLabAPIRepositories repositories;
+    private final Serializable projectId;
+    private final String ref;
+    private final RepositoryTreeVisitor visitor;
+    private final CancellationToken cancellation = CancellationToken.current();
+    private final ReentrantLock visitorLock = new ReentrantLock();
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    // State of the walk, guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Deque<Directory> directories = new ArrayDeque<Directory>();
+    // Directories queued or being listed
+    private int pending;
+
+    RepositoryTreeWalker(GitLabAPIRepositories repositories, Serializable projectId, String ref, RepositoryTreeVisitor visitor) {
+        this.repositories = repositories;
+        this.projectId = projectId;
+        this.ref = ref;
+        this.visitor = visitor;
+    }
+
+    void walk(String path, ExecutorService executorService, int parallelism) throws IOException {
+        directories.push(new Directory(path != null ? path : "", null));
+        pending = 1;
+
+        CountDownLatch done = new CountDownLatch(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            executorService.execute(new Worker(done));
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(new InterruptedIOException("Interrupted while walking the repository tree"));
+        }
+
+        Throwable e = failure.get();
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else if (e instanceof Error) {
+            throw (Error) e;
+        }
+    }
+
+    /**
+     * @return the next directory to list, or null once the walk is over or failed
+     */
+    private Directory take() {
+        lock.lock();
+        try {
+            while (failure.get() == null) {
+                Directory directory = directories.poll();
+                if (directory != null) {
+                    return directory;
+                }
+                if (pending == 0) {
+                    return null;
+                }
+                try {
+                    changed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fail(new InterruptedIOException("Interrupted while walking the repository tree"));
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void list(Directory directory) {
+        Deque<Directory> subdirectories = new ArrayDeque<Directory>();
+        try {
+            GitlabRepositoryTree[] entries = repositories.getTree(projectId, directory.path, ref, directory.treeId);
+            visitorLock.lock();
+            try {
+                for (GitlabRepositoryTree entry : entries) {
+                    String entryPath = directory.path.isEmpty() ? entry.getName() : directory.path + "/" + entry.getName();
+                    if (visitor.visit(entryPath, entry) && "tree".equals(entry.getType())) {
+                        subdirectories.push(new Directory(entryPath, entry.getId()));
+                    }
+                }
+            } finally {
+                visitorLock.unlock();
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (RuntimeException e) {
+            fail(e);
+        } catch (Error e) {
+            fail(e);
+        }
+
+        lock.lock();
+        try {
+            // Pushed in reverse, so that the first subdirectory is listed next
+            for (Directory subdirectory : subdirectories) {
+                directories.push(subdirectory);
+            }
+            pending += subdirectories.size() - 1;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fail(Throwable cause) {
+        failure.compareAndSet(null, cause);
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Directory {
+
+        private final String path;
+        private final String treeId;
+
+        Directory(String path, String treeId) {
+            this.path = path;
+            this.treeId = treeId;
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        private final CountDownLatch done;
+
+        Worker(CountDownLatch done) {
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            CancellationToken.Scope scope = cancellation != null ? cancellation.enter() : null;
+            try {
+                Directory directory;
+                while ((directory = take()) != null) {
+                    list(directory);
+                }
+            } finally {
+                if (scope != null) {
+                    scope.close();
+                }
+                done.countDown();
+            }
+        }
+    }
+}
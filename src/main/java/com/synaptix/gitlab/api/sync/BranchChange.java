@@ -0,0 +1,57 @@
+package com.synaptix.gitlab.api.sync;
+
+/**
+ * A branch created, moved or deleted since the previous poll of a {@link BranchHeadTracker}
+ */
+public class BranchChange {
+
+    public enum Type {
+        CREATED, MOVED, DELETED
+    }
+
+    private final Type type;
+    private final Integer projectId;
+    private final String branch;
+    private final String previousSha;
+    private final String sha;
+
+    public BranchChange(Type type, Integer projectId, String branch, String previousSha, String sha) {
+        super();
+        this.type = type;
+        this.projectId = projectId;
+        this.branch = branch;
+        this.previousSha = previousSha;
+        this.sha = sha;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Integer getProjectId() {
+        return projectId;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    /**
+     * @return the head before the change, null if the branch was created
+     */
+    public String getPreviousSha() {
+        return previousSha;
+    }
+
+    /**
+     * @return the head after the change, null if the branch was deleted
+     */
+    public String getSha() {
+        return sha;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + projectId + ":" + branch + " " + previousSha + " -> " + sha;
+    }
+}
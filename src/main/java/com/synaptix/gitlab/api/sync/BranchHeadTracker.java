@@ -0,0 +1,334 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.concurrent.BulkResult;
+import com.synaptix.gitlab.api.models.GitlabBranch;
+import com.synaptix.gitlab.api.models.projects.GitLabProject;
+import com.synaptix.gitlab.api.services.GitLabAPIProjects;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Detects the branches created, moved or deleted across many projects
+ * <p>
+ * Each {@link #poll()} lists the projects by last activity, most recent first, and stops at the first one not active since the
+ * previous poll. Only the branches of the projects whose activity changed are fetched, in parallel, and compared to the known heads.
+ * The first poll fetches every project and reports all its branches as created.
+ * <p>
+ * As GitLab does not update the activity of a project on every kind of change, every project is checked again
+ * once per {@link #fullScanInterval(long) full scan interval}. Projects whose branches could not be fetched are retried on the next poll.
+ * <p>
+ * Heads are kept compact: per project, the sorted branch names and their SHAs packed in a single byte array,
+ * about 20 bytes plus the name per branch.
+ */
+public class BranchHeadTracker {
+
+    private static final int SHA_BYTES = 20;
+
+    private final GitLabAPI gitLabAPI;
+    private final Set<Integer> projectIds;
+
+    private final Map<Integer, ProjectHeads> heads = new HashMap<Integer, ProjectHeads>();
+    private final Set<Integer> retries = new HashSet<Integer>();
+    private final Map<Integer, IOException> failures = new LinkedHashMap<Integer, IOException>();
+    // Held across the listings: a lock rather than a monitor, which would pin the carrier of a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long fullScanInterval = 3600000;
+    private long lastFullScan = Long.MIN_VALUE;
+    private long watermark = Long.MIN_VALUE;
+
+    /**
+     * Tracks every project visible to the user
+     */
+    public BranchHeadTracker(GitLabAPI gitLabAPI) {
+        this(gitLabAPI, null);
+    }
+
+    /**
+     * @param projectIds The projects to track, null for every project visible to the user
+     */
+    public BranchHeadTracker(GitLabAPI gitLabAPI, Collection<Integer> projectIds) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+        this.projectIds = projectIds != null ? new HashSet<Integer>(projectIds) : null;
+    }
+
+    /**
+     * Sets how often every project is checked regardless of its activity, one hour by default
+     *
+     * @param fullScanInterval The interval in milliseconds, 0 to check every project on every poll
+     * @return this
+     */
+    public BranchHeadTracker fullScanInterval(long fullScanInterval) {
+        lock.lock();
+        try {
+            this.fullScanInterval = fullScanInterval;
+            return this;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fetches the branches of the projects active since the previous poll
+     *
+     * @return the branches created, moved or deleted since the previous poll
+     * @throws IOException if the projects could not be listed, in which case nothing changed
+     */
+    public List<BranchChange> poll() throws IOException {
+        lock.lock();
+        try {
+            return doPoll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<BranchChange> doPoll() throws IOException {
+        long now = System.currentTimeMillis();
+        boolean fullScan = lastFullScan == Long.MIN_VALUE || now - lastFullScan >= fullScanInterval;
+
+        Map<Integer, Long> activities = listActiveProjects(fullScan ? Long.MIN_VALUE : watermark);
+        List<Integer> candidates = new ArrayList<Integer>();
+        long newWatermark = watermark;
+        for (Map.Entry<Integer, Long> activity : activities.entrySet()) {
+            newWatermark = Math.max(newWatermark, activity.getValue());
+            ProjectHeads known = heads.get(activity.getKey());
+            if (fullScan || known == null || known.lastActivity != activity.getValue() || retries.contains(activity.getKey())) {
+                candidates.add(activity.getKey());
+            }
+        }
+        for (Integer projectId : fullScan ? heads.keySet() : retries) {
+            // A full scan also checks the known projects that are no longer listed, they may have been deleted
+            if (!activities.containsKey(projectId)) {
+                candidates.add(projectId);
+            }
+        }
+        if (fullScan) {
+            for (Integer retry : retries) {
+                if (!activities.containsKey(retry) && !heads.containsKey(retry)) {
+                    candidates.add(retry);
+                }
+            }
+        }
+
+        List<BranchChange> changes = new ArrayList<BranchChange>();
+        retries.clear();
+        failures.clear();
+        for (BulkResult<Integer, List<GitlabBranch>> result : gitLabAPI.getGitLabAPIBranches().getBranches(candidates)) {
+            Integer projectId = result.getKey();
+            ProjectHeads known = heads.get(projectId);
+            if (result.isSuccess()) {
+                Long activity = activities.get(projectId);
+                ProjectHeads current = ProjectHeads.of(activity != null ? activity : known != null ? known.lastActivity : Long.MIN_VALUE, result.getValue());
+                diff(projectId, known, current, changes);
+                heads.put(projectId, current);
+            } else if (result.getException() instanceof FileNotFoundException) {
+                // The project is gone
+                diff(projectId, known, null, changes);
+                heads.remove(projectId);
+            } else {
+                retries.add(projectId);
+                failures.put(projectId, result.getException());
+            }
+        }
+
+        watermark = newWatermark;
+        if (fullScan) {
+            lastFullScan = now;
+        }
+        return changes;
+    }
+
+    /**
+     * @return the head of a branch as of the last poll, or null if it is unknown
+     */
+    public String getHead(Integer projectId, String branch) {
+        lock.lock();
+        try {
+            ProjectHeads known = heads.get(projectId);
+            if (known == null) {
+                return null;
+            }
+            int index = Arrays.binarySearch(known.branches, branch);
+            return index >= 0 ? known.getSha(index) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the projects whose branches could not be fetched by the last poll, they are retried on the next one
+     */
+    public Map<Integer, IOException> getFailures() {
+        lock.lock();
+        try {
+            return new LinkedHashMap<Integer, IOException>(failures);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getProjectCount() {
+        lock.lock();
+        try {
+            return heads.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getBranchCount() {
+        lock.lock();
+        try {
+            int count = 0;
+            for (ProjectHeads known : heads.values()) {
+                count += known.branches.length;
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets the heads of a project, its branches are reported as created when it is polled again
+     */
+    public void forget(Integer projectId) {
+        lock.lock();
+        try {
+            heads.remove(projectId);
+            retries.remove(projectId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lists the projects by last activity, most recent first, down to the watermark
+     */
+    private Map<Integer, Long> listActiveProjects(long since) throws IOException {
+        Map<Integer, Long> activities = new LinkedHashMap<Integer, Long>();
+        try {
+            Iterator<GitLabProject[]> pages = gitLabAPI.retrieve().asIterator(GitLabAPIProjects.PROJECTS.expand().with("order_by", "last_activity_at").with("sort", "desc")
+                    .with("per_page", 100), GitLabProject[].class);
+            while (pages.hasNext()) {
+                for (GitLabProject project : pages.next()) {
+                    long activity = project.getLastActivityAt() != null ? project.getLastActivityAt().getTime() : Long.MIN_VALUE;
+                    if (activity < since) {
+                        return activities;
+                    }
+                    if (projectIds == null || projectIds.contains(project.getId())) {
+                        activities.put(project.getId(), activity);
+                    }
+                }
+            }
+            return activities;
+        } catch (UncheckedIOException e) {
+            // Listings wrap their I/O failures in an UncheckedIOException
+            throw e.getCause();
+        }
+    }
+
+    private static void diff(Integer projectId, ProjectHeads previous, ProjectHeads current, List<BranchChange> changes) {
+        String[] before = previous != null ? previous.branches : new String[0];
+        String[] after = current != null ? current.branches : new String[0];
+        int i = 0;
+        int j = 0;
+        while (i < before.length || j < after.length) {
+            int order = i == before.length ? 1 : j == after.length ? -1 : before[i].compareTo(after[j]);
+            if (order < 0) {
+                changes.add(new BranchChange(BranchChange.Type.DELETED, projectId, before[i], previous.getSha(i), null));
+                i++;
+            } else if (order > 0) {
+                changes.add(new BranchChange(BranchChange.Type.CREATED, projectId, after[j], null, current.getSha(j)));
+                j++;
+            } else {
+                if (!previous.sameSha(i, current, j)) {
+                    changes.add(new BranchChange(BranchChange.Type.MOVED, projectId, after[j], previous.getSha(i), current.getSha(j)));
+                }
+                i++;
+                j++;
+            }
+        }
+    }
+
+    /**
+     * The heads of the branches of one project: sorted names, and the SHAs of the heads packed in the same order
+     */
+    private static final class ProjectHeads {
+
+        private final long lastActivity;
+        private final String[] branches;
+        private final byte[] shas;
+
+        private ProjectHeads(long lastActivity, String[] branches, byte[] shas) {
+            this.lastActivity = lastActivity;
+            this.branches = branches;
+            this.shas = shas;
+        }
+
+        static ProjectHeads of(long lastActivity, List<GitlabBranch> branches) {
+            List<GitlabBranch> sorted = new ArrayList<GitlabBranch>(branches);
+            Collections.sort(sorted, new Comparator<GitlabBranch>() {
+                @Override
+                public int compare(GitlabBranch left, GitlabBranch right) {
+                    return left.getName().compareTo(right.getName());
+                }
+            });
+            String[] names = new String[sorted.size()];
+            byte[] shas = new byte[sorted.size() * SHA_BYTES];
+            for (int i = 0; i < names.length; i++) {
+                GitlabBranch branch = sorted.get(i);
+                names[i] = branch.getName();
+                if (branch.getCommit() != null && branch.getCommit().getId() != null) {
+                    pack(branch.getCommit().getId(), shas, i * SHA_BYTES);
+                }
+            }
+            return new ProjectHeads(lastActivity, names, shas);
+        }
+
+        String getSha(int index) {
+            char[] hex = new char[SHA_BYTES * 2];
+            for (int i = 0; i < SHA_BYTES; i++) {
+                byte b = shas[index * SHA_BYTES + i];
+                hex[i * 2] = Character.forDigit((b >> 4) & 0xf, 16);
+                hex[i * 2 + 1] = Character.forDigit(b & 0xf, 16);
+            }
+            return new String(hex);
+        }
+
+        boolean sameSha(int index, ProjectHeads other, int otherIndex) {
+            for (int i = 0; i < SHA_BYTES; i++) {
+                if (shas[index * SHA_BYTES + i] != other.shas[otherIndex * SHA_BYTES + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void pack(String sha, byte[] shas, int offset) {
+            for (int i = 0; i < SHA_BYTES && i * 2 + 1 < sha.length(); i++) {
+                int high = Character.digit(sha.charAt(i * 2), 16);
+                int low = Character.digit(sha.charAt(i * 2 + 1), 16);
+                shas[offset + i] = (byte) ((high < 0 ? 0 : high) << 4 | (low < 0 ? 0 : low));
+            }
+        }
+    }
+}
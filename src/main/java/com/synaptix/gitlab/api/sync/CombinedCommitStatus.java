@@ -0,0 +1,107 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.synaptix.gitlab.api.models.commits.GitLabCommitStatus;
+import com.synaptix.gitlab.api.services.CommitRef;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The statuses of a commit reduced to a single state
+ */
+public class CombinedCommitStatus {
+
+    /**
+     * The combined state, from the most to the least significant: one failed status fails the commit, then one running status
+     * makes it running, and so on
+     */
+    public enum State {
+        FAILED, RUNNING, PENDING, CANCELED, SUCCESS,
+        /**
+         * The commit has no status yet
+         */
+        NONE
+    }
+
+    private final CommitRef commit;
+    private final List<GitLabCommitStatus> statuses;
+    private final State state;
+    private final boolean terminal;
+
+    public CombinedCommitStatus(CommitRef commit, List<GitLabCommitStatus> statuses) {
+        super();
+        this.commit = commit;
+        this.statuses = Collections.unmodifiableList(statuses);
+
+        State combined = State.NONE;
+        boolean allTerminal = !statuses.isEmpty();
+        for (GitLabCommitStatus status : statuses) {
+            State state = stateOf(status.getStatus());
+            if (state.ordinal() < combined.ordinal()) {
+                combined = state;
+            }
+            allTerminal &= isTerminal(status.getStatus());
+        }
+        this.state = combined;
+        this.terminal = allTerminal;
+    }
+
+    /**
+     * @return the state of a single status: created, pending and unknown states count as pending, skipped counts as success
+     */
+    public static State stateOf(String status) {
+        if ("failed".equals(status)) {
+            return State.FAILED;
+        } else if ("running".equals(status)) {
+            return State.RUNNING;
+        } else if ("canceled".equals(status)) {
+            return State.CANCELED;
+        } else if ("success".equals(status) || "skipped".equals(status)) {
+            return State.SUCCESS;
+        }
+        return State.PENDING;
+    }
+
+    /**
+     * @return true if the status will not change anymore: success, failed, canceled or skipped
+     */
+    public static boolean isTerminal(String status) {
+        return "success".equals(status) || "failed".equals(status) || "canceled".equals(status) || "skipped".equals(status);
+    }
+
+    public CommitRef getCommit() {
+        return commit;
+    }
+
+    public List<GitLabCommitStatus> getStatuses() {
+        return statuses;
+    }
+
+    /**
+     * @return the status with the given name, or null
+     */
+    public GitLabCommitStatus getStatus(String name) {
+        for (GitLabCommitStatus status : statuses) {
+            if (name.equals(status.getName())) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return true if the commit has statuses and every one of them is terminal
+     */
+    public boolean isTerminal() {
+        return terminal;
+    }
+
+    @Override
+    public String toString() {
+        return commit + " " + state + (terminal ? "" : " (in progress)") + " " + statuses.size() + " statuses";
+    }
+}
@@ -0,0 +1,148 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.cache.LRUCache;
+import com.synaptix.gitlab.api.concurrent.BulkResult;
+import com.synaptix.gitlab.api.concurrent.IOFunction;
+import com.synaptix.gitlab.api.models.commits.GitLabCommitStatus;
+import com.synaptix.gitlab.api.services.CommitRef;
+import com.synaptix.gitlab.api.services.GitLabAPICommits;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Combined status of many commits, for merge gates
+ * <p>
+ * The statuses of the commits are fetched in parallel and reduced to a {@link CombinedCommitStatus}. Once every status of a commit
+ * is terminal, the combined status is cached and the commit is never fetched again, so that evaluating the same commits over and over
+ * only costs a request for the commits still in progress. Only commits addressed by their full SHA are cached, a branch name moves.
+ * <p>
+ * A terminal status posted again, eg. when a job is retried, is not seen once the commit is cached: {@link #invalidate(CommitRef)} it.
+ * This includes the statuses posted with {@link GitLabAPICommits#postCommitStatus}, which does not know about the aggregators.
+ */
+public class CommitStatusAggregator {
+
+    private static final int PER_PAGE = 100;
+
+    private final GitLabAPI gitLabAPI;
+    private final LRUCache<CommitRef, CombinedCommitStatus> cache = new LRUCache<CommitRef, CombinedCommitStatus>("commitStatuses", 100000);
+
+    public CommitStatusAggregator(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    /**
+     * @param capacity The number of terminal commits kept, 100000 by default
+     * @return this
+     */
+    public CommitStatusAggregator capacity(int capacity) {
+        cache.setCapacity(capacity);
+        return this;
+    }
+
+    public LRUCache<CommitRef, CombinedCommitStatus> getCache() {
+        return cache;
+    }
+
+    /**
+     * GET /projects/:id/repository/commits/:sha/statuses
+     *
+     * @param projectId  (required) - The ID of a project
+     * @param commitHash (required) - The commit SHA
+     * @return
+     * @throws IOException
+     */
+    public CombinedCommitStatus getCombinedStatus(Serializable projectId, String commitHash) throws IOException {
+        CommitRef commit = new CommitRef(projectId, commitHash);
+        CombinedCommitStatus cached = cache.get(commit);
+        return cached != null ? cached : fetch(commit);
+    }
+
+    /**
+     * Get the combined status of many commits, fetching up to {@link GitLabAPI#getParallelism()} of them concurrently
+     * <p>
+     * GET /projects/:id/repository/commits/:sha/statuses
+     *
+     * @param commits (required) - The commits, possibly of different projects
+     * @return one result per commit, in the order of the commits, holding the combined status or the error of its lookup
+     * @throws IOException if interrupted while waiting for the lookups
+     */
+    public List<BulkResult<CommitRef, CombinedCommitStatus>> getCombinedStatuses(Collection<CommitRef> commits) throws IOException {
+        return getCombinedStatuses(commits, true);
+    }
+
+    /**
+     * Like {@link #getCombinedStatuses(Collection)}, but fetches every commit, cached or not, and caches the terminal ones again
+     * <p>
+     * For callers waiting for a status that is not posted yet while every posted one is terminal, which the cache would hide.
+     *
+     * @param commits (required) - The commits, possibly of different projects
+     * @return one result per commit, in the order of the commits, holding the combined status or the error of its lookup
+     * @throws IOException if interrupted while waiting for the lookups
+     */
+    public List<BulkResult<CommitRef, CombinedCommitStatus>> refreshCombinedStatuses(Collection<CommitRef> commits) throws IOException {
+        return getCombinedStatuses(commits, false);
+    }
+
+    private List<BulkResult<CommitRef, CombinedCommitStatus>> getCombinedStatuses(Collection<CommitRef> commits, boolean useCache) throws IOException {
+        Map<CommitRef, BulkResult<CommitRef, CombinedCommitStatus>> results = new HashMap<CommitRef, BulkResult<CommitRef, CombinedCommitStatus>>();
+        Set<CommitRef> missing = new LinkedHashSet<CommitRef>();
+        for (CommitRef commit : commits) {
+            CombinedCommitStatus cached = useCache ? cache.get(commit) : null;
+            if (cached != null) {
+                results.put(commit, BulkResult.<CommitRef, CombinedCommitStatus>success(commit, cached));
+            } else {
+                missing.add(commit);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<BulkResult<CommitRef, CombinedCommitStatus>> fetched = gitLabAPI.bulk().getAll(missing, new IOFunction<CommitRef, CombinedCommitStatus>() {
+                @Override
+                public CombinedCommitStatus apply(CommitRef commit) throws IOException {
+                    return fetch(commit);
+                }
+            });
+            for (BulkResult<CommitRef, CombinedCommitStatus> result : fetched) {
+                results.put(result.getKey(), result);
+            }
+        }
+
+        List<BulkResult<CommitRef, CombinedCommitStatus>> ordered = new ArrayList<BulkResult<CommitRef, CombinedCommitStatus>>(commits.size());
+        for (CommitRef commit : commits) {
+            ordered.add(results.get(commit));
+        }
+        return ordered;
+    }
+
+    /**
+     * Forgets the cached status of a commit, eg. after one of its jobs was retried
+     */
+    public void invalidate(CommitRef commit) {
+        cache.remove(commit);
+    }
+
+    private CombinedCommitStatus fetch(CommitRef commit) throws IOException {
+        GitLabAPICommits commits = gitLabAPI.getGitLabAPICommits();
+        // Nearly every commit has fewer statuses than a page, which saves the request of the empty page ending a full listing
+        List<GitLabCommitStatus> statuses = commits.getCommitStatuses(commit.getProjectId(), commit.getSha(), 1, PER_PAGE);
+        if (statuses.size() >= PER_PAGE) {
+            statuses = commits.getCommitStatuses(commit.getProjectId(), commit.getSha());
+        }
+
+        CombinedCommitStatus status = new CombinedCommitStatus(commit, statuses);
+        if (status.isTerminal() && GitLabAPICommits.isFullSha(commit.getSha())) {
+            cache.put(commit, status);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,503 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.concurrent.BulkResult;
+import com.synaptix.gitlab.api.http.DeadlineExceededException;
+import com.synaptix.gitlab.api.models.commits.GitLabCommitStatus;
+import com.synaptix.gitlab.api.services.CommitRef;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Waits for commit statuses to finish, with a single poller shared by every waiter
+ * <p>
+ * Waiters of the same commit share its polls: each commit is polled once per interval however many waiters it has, and all
+ * the commits due at once are polled together with the parallelism of the bulk executor. A commit whose statuses did not change
+ * since its previous poll is polled less and less often, up to the {@link #maxIntervalMillis(long) maximum interval}, and at the
+ * base interval again as soon as they change. The poller stops when there is nothing left to wait for.
+ * <p>
+ * When GitLab webhooks are received, {@link #statusChanged(Serializable, String)} polls the commit at once, so that waiters complete
+ * without waiting for the next poll, see {@link StatusWebhookReceiver}.
+ * <p>
+ * Share one waiter per {@link GitLabAPI}. Futures complete on the poller thread, or fail with a {@link DeadlineExceededException}
+ * once their timeout elapsed, a {@link FileNotFoundException} if the commit does not exist, or a cancellation when the waiter is closed.
+ * An interrupted poller hands the waiters over to a new one, or fails them with an {@link InterruptedIOException} when the executor of
+ * the API is shut down.
+ * Cancelling a future stops waiting for it.
+ */
+public class CommitStatusWaiter implements Closeable {
+
+    private final GitLabAPI gitLabAPI;
+    private final CommitStatusAggregator aggregator;
+
+    private long intervalMillis = 5000;
+    private long maxIntervalMillis = 60000;
+    private double backoff = 1.5;
+
+    private final Object lock = new Object();
+    private final Map<CommitRef, Watch> watches = new HashMap<CommitRef, Watch>();
+    private boolean polling;
+    private boolean closed;
+
+    private final AtomicLong polls = new AtomicLong();
+
+    public CommitStatusWaiter(GitLabAPI gitLabAPI) {
+        this(gitLabAPI, new CommitStatusAggregator(gitLabAPI));
+    }
+
+    /**
+     * @param aggregator Fetches the statuses, and caches the terminal commits for its other users: the polls bypass the cache
+     */
+    public CommitStatusWaiter(GitLabAPI gitLabAPI, CommitStatusAggregator aggregator) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+        this.aggregator = aggregator;
+    }
+
+    /**
+     * @param intervalMillis The delay between two polls of a commit whose statuses change, 5000 by default
+     * @return this
+     */
+    public CommitStatusWaiter intervalMillis(long intervalMillis) {
+        synchronized (lock) {
+            this.intervalMillis = intervalMillis;
+        }
+        return this;
+    }
+
+    /**
+     * @param maxIntervalMillis The longest delay between two polls of a commit whose statuses do not change, 60000 by default
+     * @return this
+     */
+    public CommitStatusWaiter maxIntervalMillis(long maxIntervalMillis) {
+        synchronized (lock) {
+            this.maxIntervalMillis = maxIntervalMillis;
+        }
+        return this;
+    }
+
+    /**
+     * @param backoff The factor applied to the delay of a commit after each poll without change, 1.5 by default
+     * @return this
+     */
+    public CommitStatusWaiter backoff(double backoff) {
+        synchronized (lock) {
+            this.backoff = backoff;
+        }
+        return this;
+    }
+
+    public CommitStatusAggregator getAggregator() {
+        return aggregator;
+    }
+
+    /**
+     * Waits for a status of a commit to be terminal: success, failed, canceled or skipped
+     *
+     * @param projectId  (required) - The ID of a project
+     * @param commitHash (required) - The commit SHA
+     * @param name       (required) - The name of the status
+     * @param timeout    (required) - How long to wait
+     * @param unit       (required) - The unit of the timeout
+     * @return a future completed with the terminal status
+     */
+    public CompletableFuture<GitLabCommitStatus> awaitCommitStatus(Serializable projectId, String commitHash, final String name, long timeout, TimeUnit unit) {
+        return await(new Waiter<GitLabCommitStatus>(new CommitRef(projectId, commitHash), unit.toNanos(timeout)) {
+            @Override
+            GitLabCommitStatus resultOf(CombinedCommitStatus combined) {
+                GitLabCommitStatus status = combined.getStatus(name);
+                return status != null && CombinedCommitStatus.isTerminal(status.getStatus()) ? status : null;
+            }
+
+            @Override
+            public String toString() {
+                return "status " + name + " of " + commit;
+            }
+        });
+    }
+
+    /**
+     * Waits for every status of a commit to be terminal
+     *
+     * @param projectId  (required) - The ID of a project
+     * @param commitHash (required) - The commit SHA
+     * @param timeout    (required) - How long to wait
+     * @param unit       (required) - The unit of the timeout
+     * @return a future completed with the terminal combined status
+     */
+    public CompletableFuture<CombinedCommitStatus> awaitCombinedStatus(Serializable projectId, String commitHash, long timeout, TimeUnit unit) {
+        return await(new Waiter<CombinedCommitStatus>(new CommitRef(projectId, commitHash), unit.toNanos(timeout)) {
+            @Override
+            CombinedCommitStatus resultOf(CombinedCommitStatus combined) {
+                return combined.isTerminal() ? combined : null;
+            }
+
+            @Override
+            public String toString() {
+                return "statuses of " + commit;
+            }
+        });
+    }
+
+    /**
+     * Polls a commit at once, eg. when a pipeline or build webhook was received for it
+     * <p>
+     * The cached status of the commit is forgotten, a terminal status may have been posted again.
+     *
+     * @param projectId  (required) - The ID of a project
+     * @param commitHash (required) - The commit SHA
+     */
+    public void statusChanged(Serializable projectId, String commitHash) {
+        CommitRef commit = new CommitRef(projectId, commitHash);
+        aggregator.invalidate(commit);
+        synchronized (lock) {
+            Watch watch = watches.get(commit);
+            if (watch != null) {
+                watch.delayMillis = intervalMillis;
+                if (watch.inFlight) {
+                    watch.changed = true;
+                } else {
+                    watch.nextPoll = System.nanoTime();
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of commits being waited for
+     */
+    public int getWatchedCommits() {
+        synchronized (lock) {
+            return watches.size();
+        }
+    }
+
+    /**
+     * @return the number of commits polled so far
+     */
+    public long getPolls() {
+        return polls.get();
+    }
+
+    /**
+     * Stops polling and cancels the pending futures
+     */
+    @Override
+    public void close() {
+        List<Waiter<?>> cancelled = new ArrayList<Waiter<?>>();
+        synchronized (lock) {
+            closed = true;
+            for (Watch watch : watches.values()) {
+                cancelled.addAll(watch.waiters);
+            }
+            watches.clear();
+            lock.notifyAll();
+        }
+        for (Waiter<?> waiter : cancelled) {
+            waiter.future.cancel(false);
+        }
+    }
+
+    private <T> CompletableFuture<T> await(Waiter<T> waiter) {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Closed");
+            }
+            Watch watch = watches.get(waiter.commit);
+            if (watch == null) {
+                watch = new Watch(waiter.commit, intervalMillis);
+                watches.put(waiter.commit, watch);
+                lock.notifyAll();
+            } else if (watch.last != null) {
+                // The last poll may already satisfy a new waiter, eg. a status finished before the others
+                T result = waiter.resultOf(watch.last);
+                if (result != null) {
+                    waiter.future.complete(result);
+                    return waiter.future;
+                }
+            }
+            watch.waiters.add(waiter);
+
+            if (!polling && !startPoller()) {
+                watch.waiters.remove(waiter);
+                if (watch.waiters.isEmpty()) {
+                    watches.remove(waiter.commit);
+                }
+                throw new RejectedExecutionException("The executor of the API is shut down");
+            }
+        }
+        return waiter.future;
+    }
+
+    /**
+     * Starts a poller on the executor of the API, guarded by the lock
+     *
+     * @return false if the executor rejected it
+     */
+    private boolean startPoller() {
+        try {
+            gitLabAPI.getExecutorService().execute(new Runnable() {
+                @Override
+                public void run() {
+                    poll();
+                }
+            });
+            polling = true;
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void poll() {
+        while (true) {
+            List<Watch> due = new ArrayList<Watch>();
+            List<Runnable> timeouts = new ArrayList<Runnable>();
+            boolean interrupted = false;
+            synchronized (lock) {
+                while (due.isEmpty() && timeouts.isEmpty() && !interrupted) {
+                    if (closed || watches.isEmpty()) {
+                        polling = false;
+                        return;
+                    }
+                    long now = System.nanoTime();
+                    long wakeUp = Long.MAX_VALUE;
+                    for (Iterator<Watch> it = watches.values().iterator(); it.hasNext(); ) {
+                        Watch watch = it.next();
+                        if (watch.inFlight) {
+                            continue;
+                        }
+                        wakeUp = Math.min(wakeUp, watch.expire(now, timeouts));
+                        if (watch.waiters.isEmpty()) {
+                            it.remove();
+                        } else if (watch.nextPoll - now <= 0) {
+                            watch.inFlight = true;
+                            due.add(watch);
+                        } else {
+                            wakeUp = Math.min(wakeUp, watch.nextPoll);
+                        }
+                    }
+                    if (due.isEmpty() && timeouts.isEmpty() && !watches.isEmpty()) {
+                        try {
+                            TimeUnit.NANOSECONDS.timedWait(lock, wakeUp - now);
+                        } catch (InterruptedException e) {
+                            // Eg. the executor is shutting down: another poller takes the watches over, or they fail
+                            Thread.currentThread().interrupt();
+                            interrupted = true;
+                            polling = false;
+                            if (!startPoller()) {
+                                failAll(new InterruptedIOException("Interrupted while waiting for commit statuses"), timeouts);
+                            }
+                        }
+                    }
+                }
+            }
+            for (Runnable timeout : timeouts) {
+                timeout.run();
+            }
+            if (interrupted) {
+                return;
+            }
+            if (due.isEmpty()) {
+                continue;
+            }
+
+            List<CommitRef> commits = new ArrayList<CommitRef>(due.size());
+            for (Watch watch : due) {
+                commits.add(watch.commit);
+            }
+            List<BulkResult<CommitRef, CombinedCommitStatus>> results = null;
+            IOException failure = null;
+            try {
+                // Every due commit still has waiters, whose status may be missing from a cached terminal commit
+                results = aggregator.refreshCombinedStatuses(commits);
+            } catch (IOException e) {
+                failure = e;
+            }
+            polls.addAndGet(due.size());
+
+            List<Runnable> completions = new ArrayList<Runnable>();
+            synchronized (lock) {
+                long now = System.nanoTime();
+                for (int i = 0; i < due.size(); i++) {
+                    Watch watch = due.get(i);
+                    watch.inFlight = false;
+                    if (results != null && results.get(i).isSuccess()) {
+                        watch.update(results.get(i).getValue(), completions);
+                    } else {
+                        watch.fail(results != null ? results.get(i).getException() : failure, completions);
+                    }
+                    if (watch.waiters.isEmpty()) {
+                        if (watches.get(watch.commit) == watch) {
+                            watches.remove(watch.commit);
+                        }
+                    } else if (watch.changed) {
+                        watch.changed = false;
+                        watch.nextPoll = now;
+                    } else {
+                        watch.nextPoll = now + TimeUnit.MILLISECONDS.toNanos(watch.delayMillis);
+                    }
+                }
+            }
+            // Outside of the lock, the futures may run dependent stages
+            for (Runnable completion : completions) {
+                completion.run();
+            }
+        }
+    }
+
+    /**
+     * Fails every waiter, guarded by the lock
+     */
+    private void failAll(final IOException failure, List<Runnable> completions) {
+        for (Watch watch : watches.values()) {
+            for (final Waiter<?> waiter : watch.waiters) {
+                completions.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        waiter.future.completeExceptionally(failure);
+                    }
+                });
+            }
+        }
+        watches.clear();
+    }
+
+    /**
+     * The waiters of a commit and the state of its polls, guarded by the lock
+     */
+    private final class Watch {
+
+        final CommitRef commit;
+        final List<Waiter<?>> waiters = new ArrayList<Waiter<?>>();
+
+        long nextPoll = System.nanoTime();
+        long delayMillis;
+        boolean inFlight;
+        boolean changed;
+
+        CombinedCommitStatus last;
+        String fingerprint;
+        IOException lastFailure;
+
+        Watch(CommitRef commit, long delayMillis) {
+            this.commit = commit;
+            this.delayMillis = delayMillis;
+        }
+
+        /**
+         * Drops the cancelled waiters and fails those whose deadline passed
+         *
+         * @return the next deadline
+         */
+        long expire(long now, List<Runnable> completions) {
+            long next = Long.MAX_VALUE;
+            for (Iterator<Waiter<?>> it = waiters.iterator(); it.hasNext(); ) {
+                final Waiter<?> waiter = it.next();
+                if (waiter.future.isDone()) {
+                    it.remove();
+                } else if (waiter.deadline - now <= 0) {
+                    it.remove();
+                    final DeadlineExceededException timeout = new DeadlineExceededException("Timed out waiting for the " + waiter);
+                    if (lastFailure != null) {
+                        timeout.initCause(lastFailure);
+                    }
+                    completions.add(new Runnable() {
+                        @Override
+                        public void run() {
+                            waiter.future.completeExceptionally(timeout);
+                        }
+                    });
+                } else {
+                    next = Math.min(next, waiter.deadline);
+                }
+            }
+            return next;
+        }
+
+        void update(CombinedCommitStatus combined, List<Runnable> completions) {
+            StringBuilder statuses = new StringBuilder();
+            for (GitLabCommitStatus status : combined.getStatuses()) {
+                statuses.append(status.getName()).append('=').append(status.getStatus()).append(';');
+            }
+            String current = statuses.toString();
+            // Long running statuses are polled less and less often, changes bring the interval back
+            delayMillis = current.equals(fingerprint) ? Math.min(maxIntervalMillis, (long) (delayMillis * backoff)) : intervalMillis;
+            fingerprint = current;
+            last = combined;
+            lastFailure = null;
+
+            for (Iterator<Waiter<?>> it = waiters.iterator(); it.hasNext(); ) {
+                if (it.next().offer(combined, completions)) {
+                    it.remove();
+                }
+            }
+        }
+
+        void fail(final IOException failure, List<Runnable> completions) {
+            if (!(failure instanceof FileNotFoundException)) {
+                // Transient, keep polling until the deadlines
+                lastFailure = failure;
+                delayMillis = Math.min(maxIntervalMillis, (long) (delayMillis * backoff));
+                return;
+            }
+            for (final Waiter<?> waiter : waiters) {
+                completions.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        waiter.future.completeExceptionally(failure);
+                    }
+                });
+            }
+            waiters.clear();
+        }
+    }
+
+    /**
+     * A future waiting for a commit
+     */
+    private abstract static class Waiter<T> {
+
+        final CommitRef commit;
+        final long deadline;
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+
+        Waiter(CommitRef commit, long timeoutNanos) {
+            this.commit = commit;
+            this.deadline = System.nanoTime() + timeoutNanos;
+        }
+
+        /**
+         * @return the result if the combined status satisfies the waiter, else null
+         */
+        abstract T resultOf(CombinedCommitStatus combined);
+
+        boolean offer(CombinedCommitStatus combined, List<Runnable> completions) {
+            final T result = resultOf(combined);
+            if (result == null) {
+                return false;
+            }
+            completions.add(new Runnable() {
+                @Override
+                public void run() {
+                    future.complete(result);
+                }
+            });
+            return true;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.synaptix.gitlab.api.models.GitlabGroup;
+import com.synaptix.gitlab.api.models.GitlabGroupMember;
+import com.synaptix.gitlab.api.models.GitlabProjectMember;
+import com.synaptix.gitlab.api.models.projects.GitLabProject;
+
+import java.util.List;
+
+/**
+ * Receives the groups, projects and memberships found by a {@link GroupCrawler}
+ * <p>
+ * Never called concurrently, but the hierarchy is crawled in parallel so calls come in no particular order.
+ * A crawl resumed from a checkpoint may visit again what was visited just before the checkpoint was written.
+ */
+public interface GroupCrawlVisitor {
+
+    void group(GitlabGroup group);
+
+    void groupMembers(Integer groupId, List<GitlabGroupMember> members);
+
+    /**
+     * @param groupId The group whose projects are listed
+     */
+    void project(Integer groupId, GitLabProject project);
+
+    /**
+     * @param members The direct members of the project, without those inherited from its group
+     */
+    void projectMembers(Integer projectId, List<GitlabProjectMember> members);
+
+}
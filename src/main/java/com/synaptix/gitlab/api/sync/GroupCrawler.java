@@ -0,0 +1,568 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.CancellationToken;
+import com.synaptix.gitlab.api.http.RequestCancelledException;
+import com.synaptix.gitlab.api.models.GitlabGroup;
+import com.synaptix.gitlab.api.models.GitlabGroupMember;
+import com.synaptix.gitlab.api.models.GitlabProjectMember;
+import com.synaptix.gitlab.api.models.projects.GitLabProject;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Crawls the groups visible to the user, the projects of each group, and the members of both
+ * <p>
+ * The crawl is made of tasks: a page of the group listing, a group (its members and its projects) and a project (its members).
+ * Each worker has its own deque of tasks. It runs the tasks it queued itself most recent first, going down the hierarchy,
+ * and when it has none left it steals the oldest task of another worker, usually a page of the listing or a whole group.
+ * The frontier, the tasks queued and not started yet, is bounded: when it is full a worker runs the projects of its group
+ * itself instead of queuing them. Only the pages of the group listing are always queued, so a full frontier cannot
+ * stop the listing.
+ * <p>
+ * With a checkpoint file, the frontier and the tasks in progress are written to the file periodically and when the crawl
+ * is cancelled or interrupted. A crawl started while the file exists resumes from it instead of starting over, and the file
+ * is deleted once a crawl completes. Tasks that were running when the checkpoint was written run again, so the visitor may
+ * get them twice after a resume.
+ * <pre>
+ * new GroupCrawler(gitLabAPI).parallelism(16).checkpoint(new File("audit.checkpoint"), 30000).crawl(visitor);
+ * </pre>
+ * A task that fails is reported by {@link #getFailures()} and the crawl goes on. A group or project deleted during the crawl
+ * is skipped. The crawl stops at once when it is cancelled with a {@link CancellationToken} or when the visitor throws.
+ */
+public class GroupCrawler {
+
+    private final GitLabAPI gitLabAPI;
+
+    private int parallelism;
+    private int maxFrontier = 10000;
+    private int perPage = 100;
+    private File checkpointFile;
+    private long checkpointIntervalMillis = 30000;
+
+    private final ReentrantLock visitorLock = new ReentrantLock();
+    // Locks rather than monitors: they are held across requests and file writes, or waited on by the workers, which would pin the
+    // carriers of virtual threads
+    private final ReentrantLock crawlLock = new ReentrantLock();
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    private GroupCrawlVisitor visitor;
+
+    // State of the crawl, guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private Worker[] workers;
+    private int frontier;
+    private int active;
+    private boolean stopped;
+    private Throwable stopCause;
+    private long completedTasks;
+    private long nextCheckpointMillis;
+    private final Map<String, IOException> failures = new LinkedHashMap<String, IOException>();
+
+    public GroupCrawler(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+        this.parallelism = gitLabAPI.getParallelism();
+    }
+
+    /**
+     * @param parallelism The number of workers, the parallelism of the API by default
+     * @return this
+     */
+    public GroupCrawler parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * @param maxFrontier The maximum number of tasks queued, 10000 by default
+     * @return this
+     */
+    public GroupCrawler maxFrontier(int maxFrontier) {
+        if (maxFrontier < 1) {
+            throw new IllegalArgumentException("Max frontier must be at least 1: " + maxFrontier);
+        }
+        this.maxFrontier = maxFrontier;
+        return this;
+    }
+
+    /**
+     * @param perPage The number of groups per page of the listing, from 1 to 100, the most GitLab returns. 100 by default.
+     * @return this
+     */
+    public GroupCrawler perPage(int perPage) {
+        if (perPage < 1 || perPage > 100) {
+            throw new IllegalArgumentException("Per page must be between 1 and 100: " + perPage);
+        }
+        this.perPage = perPage;
+        return this;
+    }
+
+    /**
+     * Enables checkpoints
+     *
+     * @param checkpointFile The file holding the checkpoint, a crawl resumes from it when it exists
+     * @param intervalMillis The time between two checkpoints
+     * @return this
+     */
+    public GroupCrawler checkpoint(File checkpointFile, long intervalMillis) {
+        this.checkpointFile = checkpointFile;
+        this.checkpointIntervalMillis = intervalMillis;
+        return this;
+    }
+
+    /**
+     * Crawls the hierarchy, or resumes the crawl of the checkpoint file
+     *
+     * @param visitor Receives the groups, projects and members
+     * @throws RequestCancelledException if the crawl was cancelled, the checkpoint is written first
+     * @throws InterruptedIOException    if interrupted while waiting for the workers, the checkpoint is written first
+     * @throws IOException               if the checkpoint could not be read or written when stopping
+     */
+    public void crawl(GroupCrawlVisitor visitor) throws IOException {
+        crawlLock.lock();
+        try {
+            doCrawl(visitor);
+        } finally {
+            crawlLock.unlock();
+        }
+    }
+
+    private void doCrawl(GroupCrawlVisitor visitor) throws IOException {
+        List<Task> tasks = checkpointFile != null && checkpointFile.exists() ? readCheckpoint() : new ArrayList<Task>();
+        if (tasks.isEmpty()) {
+            tasks.add(new Task(Task.GROUPS_PAGE, 1, 0));
+        }
+
+        this.visitor = visitor;
+        CountDownLatch done = new CountDownLatch(parallelism);
+        CancellationToken cancellation = CancellationToken.current();
+        lock.lock();
+        try {
+            workers = new Worker[parallelism];
+            for (int i = 0; i < parallelism; i++) {
+                workers[i] = new Worker(i, cancellation, done);
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                workers[i % parallelism].deque.addLast(tasks.get(i));
+            }
+            frontier = tasks.size();
+            active = 0;
+            stopped = false;
+            stopCause = null;
+            completedTasks = 0;
+            nextCheckpointMillis = System.currentTimeMillis() + checkpointIntervalMillis;
+            failures.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        for (Worker worker : workers) {
+            gitLabAPI.getExecutorService().execute(worker);
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop(new InterruptedIOException("Interrupted while crawling groups"));
+        }
+
+        Throwable cause;
+        lock.lock();
+        try {
+            cause = stopped ? stopCause : null;
+        } finally {
+            lock.unlock();
+        }
+        if (cause == null) {
+            if (checkpointFile != null) {
+                Files.deleteIfExists(checkpointFile.toPath());
+            }
+            return;
+        }
+
+        if (checkpointFile != null) {
+            writeCheckpoint();
+        }
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        throw (Error) cause;
+    }
+
+    /**
+     * @return the tasks of the last crawl that failed, eg. "group 12" or "project 345"
+     */
+    public Map<String, IOException> getFailures() {
+        lock.lock();
+        try {
+            return new LinkedHashMap<String, IOException>(failures);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of tasks completed by the last crawl, or by the one in progress
+     */
+    public long getCompletedTasks() {
+        lock.lock();
+        try {
+            return completedTasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Task take(Worker worker) {
+        lock.lock();
+        try {
+            while (!stopped) {
+                Task task = worker.deque.pollLast();
+                for (int i = 1; task == null && i < workers.length; i++) {
+                    task = workers[(worker.index + i) % workers.length].deque.pollFirst();
+                }
+                if (task != null) {
+                    frontier--;
+                    active++;
+                    worker.running.addLast(task);
+                    return task;
+                }
+                if (active == 0) {
+                    // Nothing queued and nothing running that could queue more
+                    changed.signalAll();
+                    return null;
+                }
+                try {
+                    changed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stopped(new InterruptedIOException("Interrupted while crawling groups"));
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish() {
+        lock.lock();
+        try {
+            active--;
+            if (active == 0) {
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a task, or runs it at once when the frontier is full
+     *
+     * @throws InterruptedIOException if the crawl stopped
+     */
+    private void offer(Worker worker, Task task) throws InterruptedIOException {
+        lock.lock();
+        try {
+            if (stopped) {
+                throw new InterruptedIOException("Crawl stopped");
+            }
+            if (task.kind == Task.GROUPS_PAGE || frontier < maxFrontier) {
+                worker.deque.addLast(task);
+                frontier++;
+                changed.signal();
+                return;
+            }
+            worker.running.addLast(task);
+        } finally {
+            lock.unlock();
+        }
+        if (!execute(worker, task)) {
+            throw new InterruptedIOException("Crawl stopped");
+        }
+    }
+
+    /**
+     * Runs a task registered in the running tasks of the worker, and unregisters it unless the crawl stopped
+     *
+     * @return false if the crawl stopped
+     */
+    private boolean execute(Worker worker, Task task) {
+        try {
+            crawl(worker, task);
+        } catch (FileNotFoundException e) {
+            // Deleted since it was listed
+        } catch (InterruptedIOException e) {
+            // Also thrown by cancelled requests; the task stays running so that the checkpoint keeps it
+            stop(e);
+            return false;
+        } catch (IOException e) {
+            lock.lock();
+            try {
+                failures.put(task.toString(), e);
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            stop(e);
+            return false;
+        } catch (Error e) {
+            stop(e);
+            return false;
+        }
+
+        lock.lock();
+        try {
+            worker.running.removeLast();
+            completedTasks++;
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    private void crawl(Worker worker, Task task) throws IOException {
+        try {
+            switch (task.kind) {
+                case Task.GROUPS_PAGE:
+                    crawlGroups(worker, task.id);
+                    break;
+                case Task.GROUP:
+                    crawlGroup(worker, task.id);
+                    break;
+                default:
+                    crawlProject(task.id);
+                    break;
+            }
+        } catch (UncheckedIOException e) {
+            // Listings wrap their I/O failures in an UncheckedIOException
+            throw e.getCause();
+        }
+    }
+
+    private void crawlGroups(Worker worker, int page) throws IOException {
+        List<GitlabGroup> groups = gitLabAPI.getGitLabAPIGroups().getGroups(page, perPage);
+        visitorLock.lock();
+        try {
+            for (GitlabGroup group : groups) {
+                visitor.group(group);
+            }
+        } finally {
+            visitorLock.unlock();
+        }
+        // Queued first so that another worker steals it while this one goes down the groups
+        if (groups.size() >= perPage) {
+            offer(worker, new Task(Task.GROUPS_PAGE, page + 1, 0));
+        }
+        for (GitlabGroup group : groups) {
+            offer(worker, new Task(Task.GROUP, group.getId(), group.getId()));
+        }
+    }
+
+    private void crawlGroup(Worker worker, int groupId) throws IOException {
+        List<GitlabGroupMember> members = gitLabAPI.getGitLabAPIMembers().getGroupMembers(groupId);
+        List<GitLabProject> projects = gitLabAPI.getGitLabAPIGroups().getGroupProjects(groupId);
+        visitorLock.lock();
+        try {
+            visitor.groupMembers(groupId, members);
+            for (GitLabProject project : projects) {
+                visitor.project(groupId, project);
+            }
+        } finally {
+            visitorLock.unlock();
+        }
+        for (GitLabProject project : projects) {
+            offer(worker, new Task(Task.PROJECT, project.getId(), groupId));
+        }
+    }
+
+    private void crawlProject(int projectId) throws IOException {
+        List<GitlabProjectMember> members = gitLabAPI.getGitLabAPIMembers().getProjectMembers(projectId);
+        visitorLock.lock();
+        try {
+            visitor.projectMembers(projectId, members);
+        } finally {
+            visitorLock.unlock();
+        }
+    }
+
+    private void stop(Throwable cause) {
+        lock.lock();
+        try {
+            stopped(cause);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void stopped(Throwable cause) {
+        if (!stopped) {
+            stopped = true;
+            stopCause = cause;
+        }
+        changed.signalAll();
+    }
+
+    private void checkpointIfDue() {
+        if (checkpointFile == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (stopped || now < nextCheckpointMillis) {
+                return;
+            }
+            nextCheckpointMillis = now + checkpointIntervalMillis;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writeCheckpoint();
+        } catch (IOException e) {
+            lock.lock();
+            try {
+                failures.put("checkpoint", e);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the running and queued tasks to a temporary file, then moves it over the checkpoint so that a crash while writing
+     * keeps the previous checkpoint
+     */
+    private void writeCheckpoint() throws IOException {
+        List<String> lines = new ArrayList<String>();
+        lines.add("# GroupCrawler checkpoint: kind id groupId");
+        lock.lock();
+        try {
+            for (Worker worker : workers) {
+                for (Task task : worker.running) {
+                    lines.add(task.toLine());
+                }
+                for (Task task : worker.deque) {
+                    lines.add(task.toLine());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        checkpointLock.lock();
+        try {
+            File temporary = new File(checkpointFile.getPath() + ".tmp");
+            Files.write(temporary.toPath(), lines, StandardCharsets.UTF_8);
+            Files.move(temporary.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    private List<Task> readCheckpoint() throws IOException {
+        List<Task> tasks = new ArrayList<Task>();
+        for (String line : Files.readAllLines(checkpointFile.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(" ");
+            try {
+                tasks.add(new Task(fields[0].charAt(0), Integer.parseInt(fields[1]), Integer.parseInt(fields[2])));
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid checkpoint line in " + checkpointFile + ": " + line, e);
+            }
+        }
+        return tasks;
+    }
+
+    private final class Worker implements Runnable {
+
+        private final int index;
+        private final CancellationToken cancellation;
+        private final CountDownLatch done;
+
+        // Guarded by lock. Running tasks are a stack, a task run because the frontier was full sits on top of its parent.
+        private final Deque<Task> deque = new ArrayDeque<Task>();
+        private final Deque<Task> running = new ArrayDeque<Task>();
+
+        Worker(int index, CancellationToken cancellation, CountDownLatch done) {
+            this.index = index;
+            this.cancellation = cancellation;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            CancellationToken.Scope scope = cancellation != null ? cancellation.enter() : null;
+            try {
+                Task task;
+                while ((task = take(this)) != null) {
+                    boolean completed = execute(this, task);
+                    finish();
+                    if (!completed) {
+                        return;
+                    }
+                    checkpointIfDue();
+                }
+            } finally {
+                if (scope != null) {
+                    scope.close();
+                }
+                done.countDown();
+            }
+        }
+    }
+
+    private static final class Task {
+
+        static final char GROUPS_PAGE = 'L';
+        static final char GROUP = 'G';
+        static final char PROJECT = 'P';
+
+        final char kind;
+        final int id;
+        final int groupId;
+
+        Task(char kind, int id, int groupId) {
+            if (kind != GROUPS_PAGE && kind != GROUP && kind != PROJECT) {
+                throw new IllegalArgumentException("Unknown task kind: " + kind);
+            }
+            this.kind = kind;
+            this.id = id;
+            this.groupId = groupId;
+        }
+
+        String toLine() {
+            return kind + " " + id + " " + groupId;
+        }
+
+        @Override
+        public String toString() {
+            return (kind == GROUPS_PAGE ? "groups page " : kind == GROUP ? "group " : "project ") + id;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.synaptix.gitlab.api.models.GitlabProjectHook;
+
+import java.io.Serializable;
+
+/**
+ * A change of the hooks of a project planned by a {@link ProjectHookReconciler}
+ */
+public class HookChange {
+
+    public enum Type {
+        ADD, EDIT, DELETE
+    }
+
+    private final Type type;
+    private final Serializable projectId;
+    private final GitlabProjectHook actual;
+    private final GitlabProjectHook desired;
+    private final String token;
+
+    public HookChange(Type type, Serializable projectId, GitlabProjectHook actual, GitlabProjectHook desired, String token) {
+        super();
+        this.type = type;
+        this.projectId = projectId;
+        this.actual = actual;
+        this.desired = desired;
+        this.token = token;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Serializable getProjectId() {
+        return projectId;
+    }
+
+    /**
+     * @return the hook of the project, null for an addition
+     */
+    public GitlabProjectHook getActual() {
+        return actual;
+    }
+
+    /**
+     * @return the hook wanted, null for a deletion
+     */
+    public GitlabProjectHook getDesired() {
+        return desired;
+    }
+
+    /**
+     * @return the secret token sent with the hook, or null
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @return the url of the hook
+     */
+    public String getUrl() {
+        return desired != null ? desired.getUrl() : actual.getUrl();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append(type).append(' ').append(projectId).append(' ').append(getUrl());
+        if (actual != null) {
+            builder.append(" #").append(actual.getId());
+        }
+        if (type == Type.EDIT) {
+            String differences = ProjectHookReconciler.differences(actual, desired);
+            builder.append(differences.isEmpty() ? " token" : differences);
+        }
+        return builder.toString();
+    }
+}
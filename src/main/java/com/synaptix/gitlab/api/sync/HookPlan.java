@@ -0,0 +1,64 @@
+package com.synaptix.gitlab.api.sync;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The changes a {@link ProjectHookReconciler} would make, computed without changing anything
+ */
+public class HookPlan {
+
+    private final int projectCount;
+    private final List<HookChange> changes;
+    private final Map<Serializable, IOException> failures;
+
+    public HookPlan(int projectCount, List<HookChange> changes, Map<Serializable, IOException> failures) {
+        super();
+        this.projectCount = projectCount;
+        this.changes = Collections.unmodifiableList(changes);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return the number of projects checked, including those whose hooks could not be listed
+     */
+    public int getProjectCount() {
+        return projectCount;
+    }
+
+    /**
+     * @return the changes, grouped by project
+     */
+    public List<HookChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return the number of changes of the given type
+     */
+    public int count(HookChange.Type type) {
+        int count = 0;
+        for (HookChange change : changes) {
+            if (change.getType() == type) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the projects whose hooks could not be listed, which are left out of the plan
+     */
+    public Map<Serializable, IOException> getFailures() {
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return projectCount + " projects: " + count(HookChange.Type.ADD) + " to add, " + count(HookChange.Type.EDIT) + " to edit, " + count(HookChange.Type.DELETE)
+                + " to delete, " + failures.size() + " not listed";
+    }
+}
@@ -0,0 +1,60 @@
+package com.synaptix.gitlab.api.sync;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of the changes applied by a {@link ProjectHookReconciler}
+ */
+public class HookReport {
+
+    private final HookPlan plan;
+    private final List<HookChange> applied;
+    private final Map<HookChange, IOException> failures;
+    private final long durationMillis;
+
+    public HookReport(HookPlan plan, List<HookChange> applied, Map<HookChange, IOException> failures, long durationMillis) {
+        super();
+        this.plan = plan;
+        this.applied = Collections.unmodifiableList(applied);
+        this.failures = Collections.unmodifiableMap(failures);
+        this.durationMillis = durationMillis;
+    }
+
+    public HookPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * @return the changes made
+     */
+    public List<HookChange> getApplied() {
+        return applied;
+    }
+
+    /**
+     * @return the changes that failed
+     */
+    public Map<HookChange, IOException> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return true if every project was listed and every change made
+     */
+    public boolean isSuccess() {
+        return failures.isEmpty() && plan.getFailures().isEmpty();
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return plan.getProjectCount() + " projects: " + applied.size() + " changes applied, " + failures.size() + " failed, " + plan.getFailures().size()
+                + " projects not listed, in " + durationMillis + "ms";
+    }
+}
@@ -0,0 +1,426 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.synaptix.gitlab.api.models.GitlabIssue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of issues, answering filtered searches without calling the API
+ * <p>
+ * Every issue gets a document number, and every title word, label, state, assignee, milestone and project maps to the sorted
+ * document numbers of its issues. A search intersects the lists of its criteria, walking the shortest one.
+ * <p>
+ * Documents are only appended: an updated issue gets a new document number and its old one is marked dead, so the lists stay sorted
+ * without being rewritten. The index is rebuilt once dead documents outnumber the live ones. When issues are added in update order,
+ * as {@link #putAll(Collection)} does, document order is update order and searches return the most recently updated issues first.
+ * <p>
+ * Searches may run concurrently with each other, updates are exclusive.
+ */
+public class IssueIndex {
+
+    private static final String TITLE = "t:";
+    private static final String LABEL = "l:";
+    private static final String STATE = "s:";
+    private static final String ASSIGNEE = "a:";
+    private static final String MILESTONE = "m:";
+    private static final String PROJECT = "p:";
+
+    private static final int MIN_DEAD_BEFORE_COMPACTION = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<String, Postings>();
+    private final Map<Integer, Integer> documents = new HashMap<Integer, Integer>();
+    private final BitSet live = new BitSet();
+    private GitlabIssue[] issues = new GitlabIssue[1024];
+    private int documentCount;
+
+    /**
+     * Adds or replaces an issue
+     *
+     * @param issue The issue
+     * @return true if the issue was added or changed, false if the same version was already indexed
+     */
+    public boolean put(GitlabIssue issue) {
+        lock.writeLock().lock();
+        try {
+            boolean changed = add(issue);
+            compactIfNeeded();
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces issues, in update order so that searches return the most recently updated first
+     *
+     * @param issues The issues
+     * @return the number of issues added or changed
+     */
+    public int putAll(Collection<GitlabIssue> issues) {
+        List<GitlabIssue> sorted = new ArrayList<GitlabIssue>(issues);
+        Collections.sort(sorted, new Comparator<GitlabIssue>() {
+            @Override
+            public int compare(GitlabIssue left, GitlabIssue right) {
+                long leftTime = left.getUpdatedAt() != null ? left.getUpdatedAt().getTime() : Long.MIN_VALUE;
+                long rightTime = right.getUpdatedAt() != null ? right.getUpdatedAt().getTime() : Long.MIN_VALUE;
+                return leftTime < rightTime ? -1 : leftTime == rightTime ? 0 : 1;
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            int changed = 0;
+            for (GitlabIssue issue : sorted) {
+                if (add(issue)) {
+                    changed++;
+                }
+            }
+            compactIfNeeded();
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param issueId The global ID of the issue
+     * @return true if the issue was indexed
+     */
+    public boolean remove(int issueId) {
+        lock.writeLock().lock();
+        try {
+            Integer document = documents.remove(issueId);
+            if (document == null) {
+                return false;
+            }
+            kill(document);
+            compactIfNeeded();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param issueId The global ID of the issue
+     * @return the issue or null
+     */
+    public GitlabIssue get(int issueId) {
+        lock.readLock().lock();
+        try {
+            Integer document = documents.get(issueId);
+            return document != null ? issues[document] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the matching issues, most recently indexed first, at most {@link IssueQuery#getLimit()}
+     */
+    public List<GitlabIssue> search(IssueQuery query) {
+        List<GitlabIssue> results = new ArrayList<GitlabIssue>();
+        lock.readLock().lock();
+        try {
+            run(query, query.getLimit(), results);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return results;
+    }
+
+    /**
+     * @return the number of matching issues, regardless of the limit of the query
+     */
+    public int count(IssueQuery query) {
+        lock.readLock().lock();
+        try {
+            return run(query, Integer.MAX_VALUE, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int run(IssueQuery query, int limit, List<GitlabIssue> results) {
+        List<Postings> required = new ArrayList<Postings>();
+        if (!require(required, query) || limit <= 0) {
+            return 0;
+        }
+
+        int found = 0;
+        if (required.isEmpty()) {
+            for (int document = live.previousSetBit(documentCount - 1); document >= 0 && found < limit; document = live.previousSetBit(document - 1)) {
+                if (results != null) {
+                    results.add(issues[document]);
+                }
+                found++;
+            }
+            return found;
+        }
+
+        Collections.sort(required, new Comparator<Postings>() {
+            @Override
+            public int compare(Postings left, Postings right) {
+                return left.size - right.size;
+            }
+        });
+        Postings shortest = required.get(0);
+        int[] cursors = new int[required.size()];
+        for (int k = 1; k < cursors.length; k++) {
+            cursors[k] = required.get(k).size - 1;
+        }
+        candidates:
+        for (int i = shortest.size - 1; i >= 0 && found < limit; i--) {
+            int document = shortest.documents[i];
+            if (!live.get(document)) {
+                continue;
+            }
+            for (int k = 1; k < cursors.length; k++) {
+                Postings other = required.get(k);
+                cursors[k] = other.floor(document, cursors[k]);
+                if (cursors[k] < 0) {
+                    break candidates;
+                }
+                if (other.documents[cursors[k]] != document) {
+                    continue candidates;
+                }
+            }
+            if (results != null) {
+                results.add(issues[document]);
+            }
+            found++;
+        }
+        return found;
+    }
+
+    /**
+     * Collects the lists every match must be in
+     *
+     * @return false if a criterion matches nothing
+     */
+    private boolean require(List<Postings> required, IssueQuery query) {
+        if (query.getText() != null) {
+            List<String> words = new ArrayList<String>(words(query.getText()));
+            for (int i = 0; i < words.size(); i++) {
+                Postings postings = i < words.size() - 1 ? terms.get(TITLE + words.get(i)) : prefix(TITLE + words.get(i));
+                if (postings == null) {
+                    return false;
+                }
+                required.add(postings);
+            }
+        }
+        for (String label : query.getLabels()) {
+            if (!require(required, LABEL, label)) {
+                return false;
+            }
+        }
+        return require(required, STATE, query.getState()) && require(required, ASSIGNEE, query.getAssignee()) && require(required, MILESTONE, query.getMilestone())
+                && require(required, PROJECT, query.getProjectId() != null ? query.getProjectId().toString() : null);
+    }
+
+    private boolean require(List<Postings> required, String field, String value) {
+        if (value == null) {
+            return true;
+        }
+        Postings postings = terms.get(field + value.toLowerCase(Locale.ROOT));
+        if (postings == null) {
+            return false;
+        }
+        required.add(postings);
+        return true;
+    }
+
+    /**
+     * @return the union of the lists of the terms starting with the prefix, or null if there is none
+     */
+    private Postings prefix(String prefix) {
+        SortedMap<String, Postings> matches = terms.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (matches.size() <= 1) {
+            return matches.isEmpty() ? null : matches.values().iterator().next();
+        }
+        BitSet union = new BitSet(documentCount);
+        for (Postings postings : matches.values()) {
+            for (int i = 0; i < postings.size; i++) {
+                union.set(postings.documents[i]);
+            }
+        }
+        Postings merged = new Postings(union.cardinality());
+        for (int document = union.nextSetBit(0); document >= 0; document = union.nextSetBit(document + 1)) {
+            merged.add(document);
+        }
+        return merged;
+    }
+
+    private boolean add(GitlabIssue issue) {
+        Integer previous = documents.get(issue.getId());
+        if (previous != null) {
+            Date indexed = issues[previous].getUpdatedAt();
+            if (indexed != null && indexed.equals(issue.getUpdatedAt())) {
+                return false;
+            }
+            kill(previous);
+        }
+        index(issue);
+        return true;
+    }
+
+    private void index(GitlabIssue issue) {
+        int document = documentCount++;
+        if (document == issues.length) {
+            issues = Arrays.copyOf(issues, issues.length * 2);
+        }
+        issues[document] = issue;
+        live.set(document);
+        documents.put(issue.getId(), document);
+        for (String term : terms(issue)) {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                postings = new Postings(4);
+                terms.put(term, postings);
+            }
+            postings.add(document);
+        }
+    }
+
+    private void kill(int document) {
+        live.clear(document);
+        issues[document] = null;
+    }
+
+    /**
+     * Renumbers the live documents and rebuilds the lists once dead documents outnumber live ones
+     */
+    private void compactIfNeeded() {
+        int dead = documentCount - documents.size();
+        if (dead < MIN_DEAD_BEFORE_COMPACTION || dead < documents.size()) {
+            return;
+        }
+        GitlabIssue[] previous = issues;
+        int previousCount = documentCount;
+        terms.clear();
+        documents.clear();
+        live.clear();
+        issues = new GitlabIssue[Math.max(1024, Integer.highestOneBit(Math.max(1, previousCount - dead)) * 2)];
+        documentCount = 0;
+        for (int document = 0; document < previousCount; document++) {
+            if (previous[document] != null) {
+                index(previous[document]);
+            }
+        }
+    }
+
+    private static Set<String> terms(GitlabIssue issue) {
+        Set<String> terms = new LinkedHashSet<String>();
+        for (String word : words(issue.getTitle())) {
+            terms.add(TITLE + word);
+        }
+        if (issue.getLabels() != null) {
+            for (String label : issue.getLabels()) {
+                terms.add(LABEL + label.toLowerCase(Locale.ROOT));
+            }
+        }
+        terms.add(STATE + (issue.getState() != null ? issue.getState().toLowerCase(Locale.ROOT) : ""));
+        terms.add(ASSIGNEE + (issue.getAssignee() != null && issue.getAssignee().getUsername() != null ? issue.getAssignee().getUsername().toLowerCase(Locale.ROOT) : ""));
+        terms.add(MILESTONE + (issue.getMilestone() != null && issue.getMilestone().getTitle() != null ? issue.getMilestone().getTitle().toLowerCase(Locale.ROOT) : ""));
+        terms.add(PROJECT + issue.getProjectId());
+        return terms;
+    }
+
+    /**
+     * Splits a text in lower case words of letters and digits
+     */
+    static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<String>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Sorted, growable list of document numbers
+     */
+    private static final class Postings {
+
+        private int[] documents;
+        private int size;
+
+        Postings(int capacity) {
+            this.documents = new int[Math.max(1, capacity)];
+        }
+
+        void add(int document) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+
+        /**
+         * Gallops down from a position to the last document not greater than the given one
+         *
+         * @param document The document to look for
+         * @param from     The position to search down from
+         * @return the position, or -1 if every document is greater
+         */
+        int floor(int document, int from) {
+            if (from < 0 || documents[from] <= document) {
+                return from;
+            }
+            int step = 1;
+            int high = from;
+            int low = from - step;
+            while (low >= 0 && documents[low] > document) {
+                high = low;
+                step <<= 1;
+                low = from - step;
+            }
+            low = Math.max(low, -1);
+            // documents[high] > document, and documents[low] <= document or low == -1
+            while (high - low > 1) {
+                int middle = (low + high) >>> 1;
+                if (documents[middle] > document) {
+                    high = middle;
+                } else {
+                    low = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.synaptix.gitlab.api.sync;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A search of an {@link IssueIndex}
+ * <p>
+ * Every criterion that is set must match. Values are compared ignoring case. Has a fluent api for method chaining.
+ * <pre>
+ * index.search(new IssueQuery().text("login cra").state("opened").label("bug").limit(20));
+ * </pre>
+ */
+public class IssueQuery {
+
+    private String text;
+    private final List<String> labels = new ArrayList<String>();
+    private String state;
+    private String assignee;
+    private String milestone;
+    private Integer projectId;
+    private int limit = 100;
+
+    /**
+     * @param text Words that must all be in the title, the last one may be the start of a word
+     * @return this
+     */
+    public IssueQuery text(String text) {
+        this.text = text;
+        return this;
+    }
+
+    /**
+     * @param label A label the issues must have, may be called several times
+     * @return this
+     */
+    public IssueQuery label(String label) {
+        labels.add(label);
+        return this;
+    }
+
+    /**
+     * @param state opened or closed
+     * @return this
+     */
+    public IssueQuery state(String state) {
+        this.state = state;
+        return this;
+    }
+
+    /**
+     * @param assignee The username of the assignee, empty for the issues without assignee
+     * @return this
+     */
+    public IssueQuery assignee(String assignee) {
+        this.assignee = assignee;
+        return this;
+    }
+
+    /**
+     * @param milestone The title of the milestone, empty for the issues without milestone
+     * @return this
+     */
+    public IssueQuery milestone(String milestone) {
+        this.milestone = milestone;
+        return this;
+    }
+
+    public IssueQuery projectId(Integer projectId) {
+        this.projectId = projectId;
+        return this;
+    }
+
+    /**
+     * @param limit The maximum number of issues returned by a search, 100 by default
+     * @return this
+     */
+    public IssueQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public List<String> getLabels() {
+        return Collections.unmodifiableList(labels);
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getAssignee() {
+        return assignee;
+    }
+
+    public String getMilestone() {
+        return milestone;
+    }
+
+    public Integer getProjectId() {
+        return projectId;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,122 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.concurrent.BulkResult;
+import com.synaptix.gitlab.api.concurrent.IOFunction;
+import com.synaptix.gitlab.api.models.GitlabIssue;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps an {@link IssueIndex} up to date with the issues of some projects
+ * <p>
+ * The first {@link #sync()} fetches every issue. The next ones only fetch the issues updated since the most recent update
+ * seen in each project, projects being listed in parallel. Issues are listed most recently updated first, so a sync stops paging
+ * as soon as it reaches known issues. A project whose listing failed is fetched from its previous point on the next sync.
+ * <p>
+ * Deleted issues are not reported by GitLab, they stay in the index until removed with {@link IssueIndex#remove(int)}.
+ */
+public class IssueSync {
+
+    private final GitLabAPI gitLabAPI;
+    private final List<Serializable> projectIds;
+    private final IssueIndex index;
+
+    private final Map<Serializable, Date> watermarks = new HashMap<Serializable, Date>();
+    private final Map<Serializable, IOException> failures = new LinkedHashMap<Serializable, IOException>();
+    // Held across the listings: a lock rather than a monitor, which would pin the carrier of a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param projectIds The projects to sync
+     * @param index      The index receiving the issues
+     */
+    public IssueSync(GitLabAPI gitLabAPI, Collection<? extends Serializable> projectIds, IssueIndex index) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+        this.projectIds = new ArrayList<Serializable>(projectIds);
+        this.index = index;
+    }
+
+    public IssueIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Fetches the issues updated since the previous sync into the index
+     *
+     * @return the number of issues added or changed in the index
+     * @throws IOException if interrupted while waiting for the listings
+     */
+    public int sync() throws IOException {
+        lock.lock();
+        try {
+            return doSync();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int doSync() throws IOException {
+        final Map<Serializable, Date> since = new HashMap<Serializable, Date>(watermarks);
+        List<BulkResult<Serializable, List<GitlabIssue>>> results = gitLabAPI.bulk().getAll(projectIds, new IOFunction<Serializable, List<GitlabIssue>>() {
+            @Override
+            public List<GitlabIssue> apply(Serializable projectId) throws IOException {
+                return gitLabAPI.getGitLabAPIIssues().getIssues(projectId, null, null, null, since.get(projectId));
+            }
+        });
+
+        List<GitlabIssue> updated = new ArrayList<GitlabIssue>();
+        failures.clear();
+        for (BulkResult<Serializable, List<GitlabIssue>> result : results) {
+            if (!result.isSuccess()) {
+                failures.put(result.getKey(), result.getException());
+                continue;
+            }
+            Date watermark = watermarks.get(result.getKey());
+            for (GitlabIssue issue : result.getValue()) {
+                updated.add(issue);
+                if (issue.getUpdatedAt() != null && (watermark == null || issue.getUpdatedAt().after(watermark))) {
+                    watermark = issue.getUpdatedAt();
+                }
+            }
+            if (watermark != null) {
+                watermarks.put(result.getKey(), watermark);
+            }
+        }
+        return index.putAll(updated);
+    }
+
+    /**
+     * @return the most recent update seen in the project, the next sync fetches the issues updated since then
+     */
+    public Date getWatermark(Serializable projectId) {
+        lock.lock();
+        try {
+            return watermarks.get(projectId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the projects whose issues could not be listed by the last sync
+     */
+    public Map<Serializable, IOException> getFailures() {
+        lock.lock();
+        try {
+            return new LinkedHashMap<Serializable, IOException>(failures);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.synaptix.gitlab.api.sync;
+
+/**
+ * Map of long keys to int values, with open addressing and linear probing over two primitive arrays
+ * <p>
+ * Key 0 is reserved for empty slots. Not thread safe, but a lookup racing with a write never fails: it may only return a wrong
+ * value, which callers reading optimistically detect and retry.
+ */
+final class LongIntHashTable {
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntHashTable(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the value of the key, or {@code missing}
+     */
+    int get(long key, int missing) {
+        long[] k = keys;
+        int[] v = values;
+        if (k.length != v.length) {
+            // Resized under an optimistic read
+            return missing;
+        }
+        int mask = k.length - 1;
+        int index = hash(key) & mask;
+        for (int probes = 0; probes < k.length; probes++) {
+            long current = k[index];
+            if (current == key) {
+                return v[index];
+            } else if (current == 0) {
+                return missing;
+            }
+            index = (index + 1) & mask;
+        }
+        return missing;
+    }
+
+    void put(long key, int value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    boolean remove(long key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != key) {
+            if (keys[index] == 0) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        // Shift back the next entries of the run that probed past the removed slot
+        int hole = index;
+        for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        size--;
+        return true;
+    }
+
+    void clear() {
+        keys = new long[16];
+        values = new int[16];
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        long[] newKeys = new long[capacity];
+        int[] newValues = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int index = hash(oldKeys[i]) & mask;
+                while (newKeys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                newKeys[index] = oldKeys[i];
+                newValues[index] = oldValues[i];
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+}
@@ -0,0 +1,311 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.models.GitlabAbstractMember;
+import com.synaptix.gitlab.api.models.GitlabAccessLevel;
+import com.synaptix.gitlab.api.models.GitlabGroup;
+import com.synaptix.gitlab.api.models.GitlabGroupMember;
+import com.synaptix.gitlab.api.models.GitlabProjectMember;
+import com.synaptix.gitlab.api.models.projects.GitLabProject;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Answers "what access does user U have to project P" without calling the API
+ * <p>
+ * The effective access of a user to a project is the highest of its membership of the project and of the group owning the project,
+ * or of any ancestor of that group. The index keeps the direct memberships in open addressing tables keyed by (project, user)
+ * and (group, user), plus the namespace of each project and the parent of each group, all in primitive arrays. A check is
+ * a few table probes up the namespace tree, lock free unless it races with an update, so millions of checks per second
+ * cost no API call and no allocation.
+ * <p>
+ * Fill the index with a {@link GroupCrawler} through {@link #visitor()}, then keep it current with the membership changes,
+ * or by refreshing a single project or group with {@link #refreshProject(GitLabAPI, int)} and {@link #refreshGroup(GitLabAPI, int)}.
+ * Ids must be positive. Administrators and public or internal visibility are not taken into account.
+ */
+public class PermissionIndex {
+
+    // Guards against a cycle in the parents of the groups
+    private static final int MAX_DEPTH = 32;
+
+    private final StampedLock lock = new StampedLock();
+    private final LongIntHashTable projectGrants = new LongIntHashTable(1024);
+    private final LongIntHashTable groupGrants = new LongIntHashTable(1024);
+    private final LongIntHashTable projectNamespaces = new LongIntHashTable(1024);
+    private final LongIntHashTable groupParents = new LongIntHashTable(64);
+
+    // The members of each project and group, sorted, so that a project or group can be replaced or removed
+    private final Map<Integer, int[]> projectMembers = new HashMap<Integer, int[]>();
+    private final Map<Integer, int[]> groupMembers = new HashMap<Integer, int[]>();
+
+    /**
+     * @return the effective access level of the user to the project, or null if the user has none
+     */
+    public GitlabAccessLevel getAccessLevel(int userId, int projectId) {
+        int accessValue = getAccessValue(userId, projectId);
+        return accessValue != 0 ? GitlabAccessLevel.fromAccessValue(accessValue) : null;
+    }
+
+    /**
+     * @return the effective access value of the user to the project, 0 if the user has none
+     */
+    public int getAccessValue(int userId, int projectId) {
+        long stamp = lock.tryOptimisticRead();
+        int accessValue = effectiveAccess(userId, projectId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                accessValue = effectiveAccess(userId, projectId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return accessValue;
+    }
+
+    /**
+     * @return true if the effective access of the user to the project is at least the given level
+     */
+    public boolean hasAccess(int userId, int projectId, GitlabAccessLevel level) {
+        return getAccessValue(userId, projectId) >= level.accessValue;
+    }
+
+    /**
+     * @return true if the user is at least developer, who may push to the branches that are not protected
+     */
+    public boolean canPush(int userId, int projectId) {
+        return hasAccess(userId, projectId, GitlabAccessLevel.Developer);
+    }
+
+    /**
+     * @return the number of direct memberships of projects and groups
+     */
+    public int getMembershipCount() {
+        long stamp = lock.readLock();
+        try {
+            return projectGrants.size() + groupGrants.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Sets the namespace of a project, the group whose members inherit access to it
+     */
+    public void putProject(int projectId, int namespaceId) {
+        long stamp = lock.writeLock();
+        try {
+            projectNamespaces.put(projectId, namespaceId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param parentId The parent of a subgroup, null for a top level group
+     */
+    public void putGroup(int groupId, Integer parentId) {
+        long stamp = lock.writeLock();
+        try {
+            if (parentId != null) {
+                groupParents.put(groupId, parentId);
+            } else {
+                groupParents.remove(groupId);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces the members of a project
+     */
+    public void setProjectMembers(int projectId, Collection<? extends GitlabAbstractMember> members) {
+        long stamp = lock.writeLock();
+        try {
+            replaceMembers(projectGrants, projectMembers, projectId, members);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces the members of a group
+     */
+    public void setGroupMembers(int groupId, Collection<? extends GitlabAbstractMember> members) {
+        long stamp = lock.writeLock();
+        try {
+            replaceMembers(groupGrants, groupMembers, groupId, members);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds, changes or removes a member of a project
+     *
+     * @param level The access level, null to remove the member
+     */
+    public void setProjectMember(int projectId, int userId, GitlabAccessLevel level) {
+        long stamp = lock.writeLock();
+        try {
+            setMember(projectGrants, projectMembers, projectId, userId, level);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds, changes or removes a member of a group
+     *
+     * @param level The access level, null to remove the member
+     */
+    public void setGroupMember(int groupId, int userId, GitlabAccessLevel level) {
+        long stamp = lock.writeLock();
+        try {
+            setMember(groupGrants, groupMembers, groupId, userId, level);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes a project and its members
+     */
+    public void removeProject(int projectId) {
+        long stamp = lock.writeLock();
+        try {
+            replaceMembers(projectGrants, projectMembers, projectId, null);
+            projectNamespaces.remove(projectId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes a group and its members. Its projects and subgroups no longer inherit anything from it.
+     */
+    public void removeGroup(int groupId) {
+        long stamp = lock.writeLock();
+        try {
+            replaceMembers(groupGrants, groupMembers, groupId, null);
+            groupParents.remove(groupId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Fetches the members of a project again
+     *
+     * @throws IOException
+     */
+    public void refreshProject(GitLabAPI gitLabAPI, int projectId) throws IOException {
+        setProjectMembers(projectId, gitLabAPI.getGitLabAPIMembers().getProjectMembers(projectId));
+    }
+
+    /**
+     * Fetches the members of a group again
+     *
+     * @throws IOException
+     */
+    public void refreshGroup(GitLabAPI gitLabAPI, int groupId) throws IOException {
+        setGroupMembers(groupId, gitLabAPI.getGitLabAPIMembers().getGroupMembers(groupId));
+    }
+
+    /**
+     * @return a visitor filling the index from a {@link GroupCrawler}
+     */
+    public GroupCrawlVisitor visitor() {
+        return new GroupCrawlVisitor() {
+            @Override
+            public void group(GitlabGroup group) {
+                putGroup(group.getId(), group.getParentId());
+            }
+
+            @Override
+            public void groupMembers(Integer groupId, List<GitlabGroupMember> members) {
+                setGroupMembers(groupId, members);
+            }
+
+            @Override
+            public void project(Integer groupId, GitLabProject project) {
+                putProject(project.getId(), project.getNamespace() != null && project.getNamespace().getId() != null ? project.getNamespace().getId() : groupId);
+            }
+
+            @Override
+            public void projectMembers(Integer projectId, List<GitlabProjectMember> members) {
+                setProjectMembers(projectId, members);
+            }
+        };
+    }
+
+    private int effectiveAccess(int userId, int projectId) {
+        int accessValue = projectGrants.get(key(projectId, userId), 0);
+        int groupId = projectNamespaces.get(projectId, 0);
+        for (int depth = 0; groupId != 0 && depth < MAX_DEPTH; depth++) {
+            accessValue = Math.max(accessValue, groupGrants.get(key(groupId, userId), 0));
+            groupId = groupParents.get(groupId, 0);
+        }
+        return accessValue;
+    }
+
+    private static void replaceMembers(LongIntHashTable grants, Map<Integer, int[]> membersByOwner, int ownerId, Collection<? extends GitlabAbstractMember> members) {
+        int[] previous = membersByOwner.remove(ownerId);
+        if (previous != null) {
+            for (int userId : previous) {
+                grants.remove(key(ownerId, userId));
+            }
+        }
+        if (members == null || members.isEmpty()) {
+            return;
+        }
+
+        int[] userIds = new int[members.size()];
+        int count = 0;
+        for (GitlabAbstractMember member : members) {
+            grants.put(key(ownerId, member.getId()), member.getAccessLevel().accessValue);
+            userIds[count++] = member.getId();
+        }
+        Arrays.sort(userIds);
+        membersByOwner.put(ownerId, userIds);
+    }
+
+    private static void setMember(LongIntHashTable grants, Map<Integer, int[]> membersByOwner, int ownerId, int userId, GitlabAccessLevel level) {
+        int[] userIds = membersByOwner.get(ownerId);
+        if (userIds == null) {
+            userIds = new int[0];
+        }
+        int index = Arrays.binarySearch(userIds, userId);
+        if (level == null) {
+            if (index >= 0) {
+                grants.remove(key(ownerId, userId));
+                int[] removed = new int[userIds.length - 1];
+                System.arraycopy(userIds, 0, removed, 0, index);
+                System.arraycopy(userIds, index + 1, removed, index, removed.length - index);
+                membersByOwner.put(ownerId, removed);
+            }
+            return;
+        }
+
+        grants.put(key(ownerId, userId), level.accessValue);
+        if (index < 0) {
+            int insertion = -index - 1;
+            int[] added = new int[userIds.length + 1];
+            System.arraycopy(userIds, 0, added, 0, insertion);
+            added[insertion] = userId;
+            System.arraycopy(userIds, insertion, added, insertion + 1, userIds.length - insertion);
+            membersByOwner.put(ownerId, added);
+        }
+    }
+
+    private static long key(int ownerId, int userId) {
+        return (long) ownerId << 32 | userId & 0xffffffffL;
+    }
+}
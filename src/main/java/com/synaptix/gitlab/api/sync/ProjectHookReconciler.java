@@ -0,0 +1,248 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.concurrent.BulkExecutor;
+import com.synaptix.gitlab.api.concurrent.BulkResult;
+import com.synaptix.gitlab.api.concurrent.IOFunction;
+import com.synaptix.gitlab.api.models.GitlabProjectHook;
+import com.synaptix.gitlab.api.models.projects.GitLabProject;
+import com.synaptix.gitlab.api.services.GitLabAPIHooks;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Enforces a standard set of hooks across many projects
+ * <p>
+ * The desired hooks are matched to the hooks of each project by url. {@link #plan(Collection)} lists the hooks of the projects
+ * concurrently and compares them to the desired ones, without changing anything: the plan is the dry run. {@link #apply(HookPlan)}
+ * then makes only the planned changes, with bounded parallelism, and reports their outcome:
+ * <ul>
+ * <li>a desired hook missing from a project is added,</li>
+ * <li>a hook whose events or certificate verification differ from the desired one is edited, the settings left null in the desired
+ * hook are kept as they are,</li>
+ * <li>duplicates of a desired hook are deleted, and so are the other hooks if {@link #removeUnlisted(boolean)} is set.</li>
+ * </ul>
+ * GitLab never returns the secret token of a hook, so tokens cannot be compared: they are sent when a hook is added or edited,
+ * and {@link #enforceTokens(boolean)} edits every matching hook to set them.
+ */
+public class ProjectHookReconciler {
+
+    private static final int PER_PAGE = 100;
+
+    private final GitLabAPI gitLabAPI;
+
+    private final Map<String, GitlabProjectHook> hooks = new LinkedHashMap<String, GitlabProjectHook>();
+    private final Map<String, String> tokens = new LinkedHashMap<String, String>();
+    private boolean removeUnlisted;
+    private boolean enforceTokens;
+    private int parallelism;
+
+    public ProjectHookReconciler(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+        this.parallelism = gitLabAPI.getParallelism();
+    }
+
+    /**
+     * Adds a desired hook
+     *
+     * @param hook  The url of the hook, the events triggering it and whether to verify the certificate of the url, null to keep a setting
+     * @param token The secret token sent with the events, or null
+     * @return this
+     */
+    public ProjectHookReconciler hook(GitlabProjectHook hook, String token) {
+        if (hook.getUrl() == null) {
+            throw new IllegalArgumentException("The url of the hook is required");
+        }
+        hooks.put(hook.getUrl(), hook);
+        tokens.put(hook.getUrl(), token);
+        return this;
+    }
+
+    /**
+     * @param removeUnlisted true to delete the hooks whose url is not desired, false by default
+     * @return this
+     */
+    public ProjectHookReconciler removeUnlisted(boolean removeUnlisted) {
+        this.removeUnlisted = removeUnlisted;
+        return this;
+    }
+
+    /**
+     * @param enforceTokens true to edit every hook having a token, even if it looks up to date, eg. to rotate the token. False by default.
+     * @return this
+     */
+    public ProjectHookReconciler enforceTokens(boolean enforceTokens) {
+        this.enforceTokens = enforceTokens;
+        return this;
+    }
+
+    /**
+     * @param parallelism The number of changes applied concurrently, {@link GitLabAPI#getParallelism()} by default
+     * @return this
+     */
+    public ProjectHookReconciler parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Plans the changes for every project visible to the user
+     *
+     * @throws IOException if the projects could not be listed
+     * @see #plan(Collection)
+     */
+    public HookPlan plan() throws IOException {
+        List<Integer> projectIds = new ArrayList<Integer>();
+        for (GitLabProject project : gitLabAPI.getGitLabAPIProjects().getProjects(null, null, null, null, null)) {
+            projectIds.add(project.getId());
+        }
+        return plan(projectIds);
+    }
+
+    /**
+     * Lists the hooks of the projects concurrently and compares them to the desired hooks, without changing anything
+     *
+     * @param projectIds The IDs or NAMESPACE/PROJECT_NAME of the projects
+     * @return the changes to make
+     * @throws IOException if interrupted while listing the hooks
+     */
+    public HookPlan plan(Collection<? extends Serializable> projectIds) throws IOException {
+        List<Serializable> keys = new ArrayList<Serializable>(projectIds);
+        List<BulkResult<Serializable, List<GitlabProjectHook>>> results = gitLabAPI.bulk().getAll(keys, new IOFunction<Serializable, List<GitlabProjectHook>>() {
+            @Override
+            public List<GitlabProjectHook> apply(Serializable projectId) throws IOException {
+                return listHooks(projectId);
+            }
+        });
+
+        List<HookChange> changes = new ArrayList<HookChange>();
+        Map<Serializable, IOException> failures = new LinkedHashMap<Serializable, IOException>();
+        for (BulkResult<Serializable, List<GitlabProjectHook>> result : results) {
+            if (result.isSuccess()) {
+                diff(result.getKey(), result.getValue(), changes);
+            } else {
+                failures.put(result.getKey(), result.getException());
+            }
+        }
+        return new HookPlan(keys.size(), changes, failures);
+    }
+
+    /**
+     * Makes the changes of a plan, with bounded parallelism
+     *
+     * @return the changes made and those that failed
+     * @throws IOException if interrupted while applying the changes
+     */
+    public HookReport apply(HookPlan plan) throws IOException {
+        long start = System.currentTimeMillis();
+        final GitLabAPIHooks api = gitLabAPI.getGitLabAPIHooks();
+        List<BulkResult<HookChange, HookChange>> results = new BulkExecutor(gitLabAPI.getExecutorService(), parallelism).getAll(plan.getChanges(),
+                new IOFunction<HookChange, HookChange>() {
+                    @Override
+                    public HookChange apply(HookChange change) throws IOException {
+                        switch (change.getType()) {
+                            case ADD:
+                                api.addProjectHook(change.getProjectId(), change.getDesired(), change.getToken());
+                                break;
+                            case EDIT:
+                                api.editProjectHook(change.getProjectId(), change.getActual().getId(), change.getDesired(), change.getToken());
+                                break;
+                            default:
+                                try {
+                                    api.deleteProjectHook(change.getProjectId(), change.getActual().getId());
+                                } catch (FileNotFoundException e) {
+                                    // Already deleted
+                                }
+                                break;
+                        }
+                        return change;
+                    }
+                });
+
+        List<HookChange> applied = new ArrayList<HookChange>();
+        Map<HookChange, IOException> failures = new LinkedHashMap<HookChange, IOException>();
+        for (BulkResult<HookChange, HookChange> result : results) {
+            if (result.isSuccess()) {
+                applied.add(result.getKey());
+            } else {
+                failures.put(result.getKey(), result.getException());
+            }
+        }
+        return new HookReport(plan, applied, failures, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Plans and applies the changes for the projects
+     *
+     * @throws IOException if interrupted
+     */
+    public HookReport reconcile(Collection<? extends Serializable> projectIds) throws IOException {
+        return apply(plan(projectIds));
+    }
+
+    private List<GitlabProjectHook> listHooks(Serializable projectId) throws IOException {
+        GitLabAPIHooks api = gitLabAPI.getGitLabAPIHooks();
+        // Nearly every project has fewer hooks than a page, which saves the request of the empty page ending a full listing
+        List<GitlabProjectHook> projectHooks = api.getProjectHooks(projectId, 1, PER_PAGE);
+        return projectHooks.size() < PER_PAGE ? projectHooks : api.getProjectHooks(projectId);
+    }
+
+    private void diff(Serializable projectId, List<GitlabProjectHook> actualHooks, List<HookChange> changes) {
+        Map<String, GitlabProjectHook> matched = new LinkedHashMap<String, GitlabProjectHook>();
+        for (GitlabProjectHook actual : actualHooks) {
+            GitlabProjectHook desired = hooks.get(actual.getUrl());
+            if (desired == null) {
+                if (removeUnlisted) {
+                    changes.add(new HookChange(HookChange.Type.DELETE, projectId, actual, null, null));
+                }
+            } else if (matched.containsKey(actual.getUrl())) {
+                changes.add(new HookChange(HookChange.Type.DELETE, projectId, actual, null, null));
+            } else {
+                matched.put(actual.getUrl(), actual);
+                String token = tokens.get(actual.getUrl());
+                if (!differences(actual, desired).isEmpty() || enforceTokens && token != null) {
+                    changes.add(new HookChange(HookChange.Type.EDIT, projectId, actual, desired, token));
+                }
+            }
+        }
+        for (Map.Entry<String, GitlabProjectHook> desired : hooks.entrySet()) {
+            if (!matched.containsKey(desired.getKey())) {
+                changes.add(new HookChange(HookChange.Type.ADD, projectId, null, desired.getValue(), tokens.get(desired.getKey())));
+            }
+        }
+    }
+
+    /**
+     * Settings left null in the desired hook are not enforced, and those the server did not return are not compared: an older
+     * GitLab omits the flags it does not know, which would otherwise be edited again at every run.
+     *
+     * @return the settings of the actual hook differing from the desired one, eg. " push_events true -> false", empty if none
+     */
+    static String differences(GitlabProjectHook actual, GitlabProjectHook desired) {
+        StringBuilder differences = new StringBuilder();
+        difference(differences, "push_events", actual.getPushEventsFlag(), desired.getPushEventsFlag());
+        difference(differences, "issues_events", actual.getIssueEventsFlag(), desired.getIssueEventsFlag());
+        difference(differences, "merge_requests_events", actual.getMergeRequestsEventsFlag(), desired.getMergeRequestsEventsFlag());
+        difference(differences, "tag_push_events", actual.getTagPushEventsFlag(), desired.getTagPushEventsFlag());
+        difference(differences, "note_events", actual.getNoteEventsFlag(), desired.getNoteEventsFlag());
+        difference(differences, "build_events", actual.getBuildEventsFlag(), desired.getBuildEventsFlag());
+        difference(differences, "pipeline_events", actual.getPipelineEventsFlag(), desired.getPipelineEventsFlag());
+        difference(differences, "wiki_page_events", actual.getWikiPageEventsFlag(), desired.getWikiPageEventsFlag());
+        difference(differences, "enable_ssl_verification", actual.getSslVerificationEnabledFlag(), desired.getSslVerificationEnabledFlag());
+        return differences.toString();
+    }
+
+    private static void difference(StringBuilder differences, String name, Boolean actual, Boolean desired) {
+        if (actual != null && desired != null && !actual.equals(desired)) {
+            differences.append(' ').append(name).append(' ').append(actual).append(" -> ").append(desired);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.synaptix.gitlab.api.sync;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.synaptix.gitlab.api.GitLabAPI;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Receives the pipeline and build webhooks of GitLab, so that a {@link CommitStatusWaiter} polls the commits whose statuses changed
+ * at once instead of at their next poll
+ * <p>
+ * Either {@link #start(InetSocketAddress) start} the embedded HTTP server and point the project hooks to it, or hand the bodies of
+ * the webhooks received by the application to {@link #handle(InputStream)}. The event only triggers a poll, the statuses themselves
+ * are always read from the API.
+ * <p>
+ * Events carry the numeric ID of the project: only the commits awaited with an Integer project ID are matched.
+ */
+public class StatusWebhookReceiver implements Closeable {
+
+    public static final String TOKEN_HEADER = "X-Gitlab-Token";
+
+    private final CommitStatusWaiter waiter;
+    private final String secretToken;
+
+    private final AtomicLong events = new AtomicLong();
+    private HttpServer server;
+
+    /**
+     * @param secretToken The secret token of the hooks, null to accept any request
+     */
+    public StatusWebhookReceiver(CommitStatusWaiter waiter, String secretToken) {
+        super();
+        this.waiter = waiter;
+        this.secretToken = secretToken;
+    }
+
+    /**
+     * Starts an HTTP server receiving the webhooks on any path
+     *
+     * @param address The address to listen to, port 0 for any free port
+     * @return this
+     * @throws IOException if the server could not be started
+     */
+    public synchronized StatusWebhookReceiver start(InetSocketAddress address) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Already started");
+        }
+        server = HttpServer.create(address, 64);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    int status;
+                    if (!"POST".equals(exchange.getRequestMethod())) {
+                        status = 405;
+                    } else if (!isAuthorized(exchange.getRequestHeaders().getFirst(TOKEN_HEADER))) {
+                        status = 401;
+                    } else {
+                        StatusWebhookReceiver.this.handle(exchange.getRequestBody());
+                        status = 200;
+                    }
+                    exchange.sendResponseHeaders(status, -1);
+                } catch (IOException e) {
+                    // Unreadable event, GitLab does not retry it anyway
+                    exchange.sendResponseHeaders(400, -1);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+        return this;
+    }
+
+    /**
+     * @return the port of the embedded server
+     */
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("Not started");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Handles the body of a webhook: pipeline and build events make the waiter poll their commit, others are ignored
+     *
+     * @return true if the event concerned a commit status
+     * @throws IOException if the body is not JSON
+     */
+    public boolean handle(InputStream body) throws IOException {
+        JsonNode event = GitLabAPI.MAPPER.readTree(body);
+        if (event == null) {
+            return false;
+        }
+        String kind = event.path("object_kind").asText();
+        String sha;
+        JsonNode projectId;
+        if ("pipeline".equals(kind)) {
+            sha = event.path("object_attributes").path("sha").asText(null);
+            projectId = event.path("project").path("id");
+        } else if ("build".equals(kind)) {
+            sha = event.path("sha").asText(null);
+            projectId = event.path("project_id");
+        } else {
+            return false;
+        }
+        if (sha == null || !projectId.canConvertToInt()) {
+            return false;
+        }
+
+        events.incrementAndGet();
+        waiter.statusChanged(projectId.asInt(), sha);
+        return true;
+    }
+
+    /**
+     * @return the number of status events received
+     */
+    public long getEvents() {
+        return events.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private boolean isAuthorized(String token) {
+        if (secretToken == null) {
+            return true;
+        }
+        // Constant time, the token is a secret
+        return token != null && MessageDigest.isEqual(secretToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,23 @@
+package com.synaptix.gitlab.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.synaptix.gitlab.CacheAccess")
+@Label("GitLab Cache Access")
+@Description("Lookup in one of the client caches")
+@Category("GitLab API")
+@StackTrace(false)
+class CacheAccessEvent extends Event {
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Hit")
+    boolean hit;
+
+}
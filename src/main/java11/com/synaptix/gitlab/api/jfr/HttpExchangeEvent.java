@@ -0,0 +1,33 @@
+package com.synaptix.gitlab.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.synaptix.gitlab.HttpExchange")
+@Label("GitLab HTTP Exchange")
+@Description("One HTTP request and its response")
+@Category("GitLab API")
+class HttpExchangeEvent extends Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Method")
+    String method;
+
+    @Label("Status")
+    int status;
+
+    @Label("Bytes In")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Bytes Out")
+    @DataAmount
+    long bytesOut;
+
+}
@@ -0,0 +1,95 @@
+package com.synaptix.gitlab.api.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * JFR backed recorder, only loaded by {@link GitLabFlightRecorder} on Java 11+
+ */
+class JfrRecorder implements GitLabFlightRecorder.Recorder {
+
+    JfrRecorder() {
+        super();
+        FlightRecorder.register(HttpExchangeEvent.class);
+        FlightRecorder.register(PageFetchEvent.class);
+        FlightRecorder.register(JsonBindEvent.class);
+        FlightRecorder.register(CacheAccessEvent.class);
+    }
+
+    @Override
+    public Object beginExchange() {
+        HttpExchangeEvent event = new HttpExchangeEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endExchange(Object token, String endpoint, String method, int status, long bytesIn, long bytesOut) {
+        HttpExchangeEvent event = (HttpExchangeEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.method = method;
+            event.status = status;
+            event.bytesIn = bytesIn;
+            event.bytesOut = bytesOut;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginPage() {
+        PageFetchEvent event = new PageFetchEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endPage(Object token, String endpoint, int page, int items) {
+        PageFetchEvent event = (PageFetchEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.page = page;
+            event.items = items;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginBind() {
+        JsonBindEvent event = new JsonBindEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endBind(Object token, String endpoint, Class<?> type, long bytes) {
+        JsonBindEvent event = (JsonBindEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.type = type != null ? type.getSimpleName() : null;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void cacheAccess(String cache, boolean hit) {
+        CacheAccessEvent event = new CacheAccessEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+}
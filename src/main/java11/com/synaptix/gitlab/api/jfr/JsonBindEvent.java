@@ -0,0 +1,26 @@
+package com.synaptix.gitlab.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.synaptix.gitlab.JsonBind")
+@Label("GitLab JSON Bind")
+@Description("Deserialization of a response body")
+@Category("GitLab API")
+class JsonBindEvent extends Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Type")
+    String type;
+
+    @Label("Payload Size")
+    @DataAmount
+    long bytes;
+
+}
@@ -0,0 +1,24 @@
+package com.synaptix.gitlab.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.synaptix.gitlab.PageFetch")
+@Label("GitLab Page Fetch")
+@Description("One page of a paginated listing")
+@Category("GitLab API")
+class PageFetchEvent extends Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Page")
+    int page;
+
+    @Label("Items")
+    int items;
+
+}
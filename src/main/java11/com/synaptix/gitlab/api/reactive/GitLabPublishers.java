@@ -0,0 +1,136 @@
+package com.synaptix.gitlab.api.reactive;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.EndpointTemplate;
+import com.synaptix.gitlab.api.models.GitlabIssue;
+import com.synaptix.gitlab.api.models.GitlabMergeRequest;
+import com.synaptix.gitlab.api.models.commits.GitLabCommit;
+import com.synaptix.gitlab.api.models.commits.GitLabCommitStatus;
+import com.synaptix.gitlab.api.models.projects.GitLabProject;
+import com.synaptix.gitlab.api.services.GitLabAPICommits;
+import com.synaptix.gitlab.api.services.GitLabAPIIssues;
+import com.synaptix.gitlab.api.services.GitLabAPIMergeRequests;
+import com.synaptix.gitlab.api.services.GitLabAPIProjects;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.concurrent.Flow;
+
+/**
+ * Paginated listings as {@link Flow.Publisher}, with backpressure
+ * <p>
+ * Requires Java 11+, the classes are in META-INF/versions/11 of the multi-release jar. Pages are fetched as the subscriber requests items, see {@link PagePublisher}.
+ * <pre>
+ * GitLabPublishers publishers = new GitLabPublishers(gitLabAPI);
+ * publishers.getAllCommits(projectId).subscribe(subscriber);
+ * </pre>
+ * Use {@link ReactiveStreamsAdapter} for libraries built on org.reactivestreams.
+ */
+public class GitLabPublishers {
+
+    private final GitLabAPI gitLabAPI;
+
+    public GitLabPublishers(GitLabAPI gitLabAPI) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+    }
+
+    /**
+     * List repository commits
+     * <p>
+     * GET /projects/:id/repository/commits
+     *
+     * @param projectId (required) - The ID of a project
+     * @return a publisher of the commits
+     */
+    public Flow.Publisher<GitLabCommit> getAllCommits(Serializable projectId) {
+        return new PagePublisher<GitLabCommit>(gitLabAPI, GitLabAPICommits.COMMITS.expand(projectId), GitLabCommit[].class);
+    }
+
+    /**
+     * Get the statuses of a commit
+     * <p>
+     * GET /projects/:id/repository/commits/:sha/statuses
+     *
+     * @param projectId  (required) - The ID of a project
+     * @param commitHash (required) - The commit SHA
+     * @return a publisher of the statuses
+     */
+    public Flow.Publisher<GitLabCommitStatus> getCommitStatuses(Serializable projectId, String commitHash) {
+        return new PagePublisher<GitLabCommitStatus>(gitLabAPI, GitLabAPICommits.COMMIT_STATUSES.expand(projectId, commitHash), GitLabCommitStatus[].class);
+    }
+
+    /**
+     * List project issues, most recently updated first
+     * <p>
+     * GET /projects/:id/issues
+     *
+     * @see com.synaptix.gitlab.api.services.GitLabAPIIssues#getIssues(Serializable, String, String, String, Date)
+     */
+    public Flow.Publisher<GitlabIssue> getIssues(Serializable projectId, String state, String labels, String milestone, Date updatedAfter) {
+        return new PagePublisher<GitlabIssue>(gitLabAPI, GitLabAPIIssues.PROJECT_ISSUES.expand(projectId).with("state", state).with("labels", labels).with("milestone", milestone)
+                .with("order_by", "updated_at").with("sort", "desc").with("updated_after", updatedAfter), GitlabIssue[].class);
+    }
+
+    /**
+     * List merge requests, most recently updated first
+     * <p>
+     * GET /projects/:id/merge_requests
+     *
+     * @see com.synaptix.gitlab.api.services.GitLabAPIMergeRequests#getMergeRequests(Serializable, String, Date)
+     */
+    public Flow.Publisher<GitlabMergeRequest> getMergeRequests(Serializable projectId, String state, Date updatedAfter) {
+        return new PagePublisher<GitlabMergeRequest>(gitLabAPI, GitLabAPIMergeRequests.MERGE_REQUESTS.expand(projectId).with("state", state).with("order_by", "updated_at")
+                .with("sort", "desc").with("updated_after", updatedAfter), GitlabMergeRequest[].class);
+    }
+
+    /**
+     * List projects accessible by the authenticated user
+     * <p>
+     * GET /projects
+     *
+     * @see com.synaptix.gitlab.api.services.GitLabAPIProjects#getProjects(Boolean, String, String, String, Boolean)
+     */
+    public Flow.Publisher<GitLabProject> getProjects(Boolean archived, String orderBy, String sort, String search, Boolean ciEnabledFirst) {
+        return getProjects(GitLabAPIProjects.PROJECTS, archived, orderBy, sort, search, ciEnabledFirst);
+    }
+
+    /**
+     * List projects owned by the authenticated user
+     * <p>
+     * GET /projects/owned
+     *
+     * @see com.synaptix.gitlab.api.services.GitLabAPIProjects#getProjectOwneds(Boolean, String, String, String, Boolean)
+     */
+    public Flow.Publisher<GitLabProject> getProjectOwneds(Boolean archived, String orderBy, String sort, String search, Boolean ciEnabledFirst) {
+        return getProjects(GitLabAPIProjects.PROJECTS_OWNED, archived, orderBy, sort, search, ciEnabledFirst);
+    }
+
+    /**
+     * List all GitLab projects (admin only)
+     * <p>
+     * GET /projects/all
+     *
+     * @see com.synaptix.gitlab.api.services.GitLabAPIProjects#getProjectAlls(Boolean, String, String, String, Boolean)
+     */
+    public Flow.Publisher<GitLabProject> getProjectAlls(Boolean archived, String orderBy, String sort, String search, Boolean ciEnabledFirst) {
+        return getProjects(GitLabAPIProjects.PROJECTS_ALL, archived, orderBy, sort, search, ciEnabledFirst);
+    }
+
+    /**
+     * Any paginated listing
+     *
+     * @param tailUrl The url after the API namespace, with its query
+     * @param type    The page type, eg. GitLabCommit[].class
+     * @param <T>     item type
+     * @return a publisher of the items
+     */
+    public <T> Flow.Publisher<T> getAll(String tailUrl, Class<T[]> type) {
+        return new PagePublisher<T>(gitLabAPI, tailUrl, type);
+    }
+
+    private Flow.Publisher<GitLabProject> getProjects(EndpointTemplate template, Boolean archived, String orderBy, String sort, String search, Boolean ciEnabledFirst) {
+        return new PagePublisher<GitLabProject>(gitLabAPI, template.expand().with("archived", archived).with("order_by", orderBy).with("sort", sort).with("search", search)
+                .with("ciEnabledFirst", ciEnabledFirst), GitLabProject[].class);
+    }
+}
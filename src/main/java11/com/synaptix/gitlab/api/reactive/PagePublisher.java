@@ -0,0 +1,160 @@
+package com.synaptix.gitlab.api.reactive;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.http.CancellationToken;
+import com.synaptix.gitlab.api.http.Endpoint;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the items of a paginated listing, fetching pages on subscriber demand
+ * <p>
+ * A page is only requested when the subscriber has outstanding demand and every item of the
+ * previous page has been delivered, so at most one page is held in memory per subscription and a
+ * slow subscriber slows the crawl down. Pages are fetched and items delivered on the executor of
+ * the {@link GitLabAPI}. The publisher is cold: every subscription crawls the listing from the start.
+ *
+ * @param <T> item type
+ */
+public class PagePublisher<T> implements Flow.Publisher<T> {
+
+    private final GitLabAPI gitLabAPI;
+    private final Endpoint endpoint;
+    private final Class<T[]> type;
+
+    public PagePublisher(GitLabAPI gitLabAPI, String tailUrl, Class<T[]> type) {
+        this(gitLabAPI, Endpoint.of(tailUrl), type);
+    }
+
+    public PagePublisher(GitLabAPI gitLabAPI, Endpoint endpoint, Class<T[]> type) {
+        super();
+        this.gitLabAPI = gitLabAPI;
+        this.endpoint = endpoint;
+        this.type = type;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        CancellationToken cancellation = new CancellationToken();
+        Iterator<T[]> pages = gitLabAPI.retrieve().cancellation(cancellation).asIterator(endpoint, type);
+        PageSubscription<T> subscription = new PageSubscription<T>(subscriber, pages, cancellation, gitLabAPI.getExecutorService());
+        subscriber.onSubscribe(subscription);
+    }
+
+    static final class PageSubscription<T> implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final Iterator<T[]> pages;
+        private final CancellationToken cancellation;
+        private final Executor executor;
+
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+
+        // Only touched by the draining thread
+        private boolean done;
+        private T[] page;
+        private int index;
+
+        PageSubscription(Flow.Subscriber<? super T> subscriber, Iterator<T[]> pages, CancellationToken cancellation, Executor executor) {
+            this.subscriber = subscriber;
+            this.pages = pages;
+            this.cancellation = cancellation;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Subscriber requested " + n + " items, must be positive (rule 3.9)");
+            } else {
+                long current;
+                long next;
+                do {
+                    current = requested.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!requested.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            // Aborts the page being fetched, if any
+            cancellation.cancel();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (done || cancelled) {
+                return;
+            }
+            if (invalidRequest != null) {
+                done = true;
+                subscriber.onError(invalidRequest);
+                return;
+            }
+
+            long demand = requested.get();
+            long emitted = 0;
+            while (emitted != demand) {
+                if (cancelled) {
+                    return;
+                }
+                if (page == null || index == page.length) {
+                    try {
+                        if (!pages.hasNext()) {
+                            done = true;
+                            page = null;
+                            subscriber.onComplete();
+                            return;
+                        }
+                        page = pages.next();
+                        index = 0;
+                    } catch (Throwable e) {
+                        done = true;
+                        page = null;
+                        if (!cancelled) {
+                            // Listings wrap their I/O failures in an UncheckedIOException
+                            subscriber.onError(e instanceof UncheckedIOException ? e.getCause() : e);
+                        }
+                        return;
+                    }
+                    continue;
+                }
+                T item = page[index];
+                page[index++] = null;
+                subscriber.onNext(item);
+                emitted++;
+            }
+            if (demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+        }
+    }
+}
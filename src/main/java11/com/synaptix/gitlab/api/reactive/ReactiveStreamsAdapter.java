@@ -0,0 +1,22 @@
+package com.synaptix.gitlab.api.reactive;
+
+import org.reactivestreams.FlowAdapters;
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Bridges the {@link Flow} publishers to Reactive Streams, for Reactor, RxJava, Akka Streams...
+ * <p>
+ * Needs org.reactivestreams:reactive-streams on the classpath, it is an optional dependency.
+ */
+public final class ReactiveStreamsAdapter {
+
+    private ReactiveStreamsAdapter() {
+        super();
+    }
+
+    public static <T> Publisher<T> toPublisher(Flow.Publisher<T> publisher) {
+        return FlowAdapters.toPublisher(publisher);
+    }
+}
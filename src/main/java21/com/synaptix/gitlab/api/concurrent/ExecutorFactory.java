@@ -0,0 +1,53 @@
+package com.synaptix.gitlab.api.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors used for fan-out operations
+ * <p>
+ * This is the Java 21 version, loaded from META-INF/versions/21 of the multi-release jar.
+ */
+public final class ExecutorFactory {
+
+    private ExecutorFactory() {
+        super();
+    }
+
+    /**
+     * @return true if this JVM can run one virtual thread per task
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return true;
+    }
+
+    /**
+     * @param namePrefix Prefix of the thread names
+     * @return an unbounded pool of daemon platform threads
+     */
+    public static ExecutorService newPlatformThreadExecutor(final String namePrefix) {
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Returns an executor starting a new virtual thread per task
+     *
+     * @param namePrefix Prefix of the thread names
+     * @return the executor
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory factory = Thread.ofVirtual().name(namePrefix, 1).factory();
+        return Executors.newThreadPerTaskExecutor(factory);
+    }
+}
@@ -0,0 +1,947 @@
+package com.synaptix.gitlab.api.fake;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generated GitLab data served by {@link FakeGitLabServer}
+ * <p>
+ * Projects and users are built up front. Commits, diffs and statuses are derived on demand
+ * from the project id and the commit index, so large histories cost no memory:
+ * a commit SHA encodes its project id and index. Commit 0 is the newest one.
+ * Every commit has a tree of {@link #TREE_DEPTH} levels of {@link #TREE_FANOUT} directories holding {@link #FILES_PER_DIRECTORY} files each.
+ * A commit only changes the directories on one path from the root, the other ones keep their tree id.
+ * Every project has a master branch on commit 0 and {@link #FEATURE_BRANCHES} feature branches, which can be moved with {@link #push(int, String, int)}.
+ * Every project has {@link #ISSUES_PER_PROJECT} issues, which can be changed with {@link #updateIssue(int, int, String, String)}.
+ * Every project has {@link #MERGE_REQUESTS_PER_PROJECT} merge requests, the one with the highest iid being the most recently updated.
+ * Groups are the namespaces of the projects. Groups and projects have a few members each.
+ * Issues and merge requests have up to {@link #MAX_NOTES} notes, more can be added with {@link #addNote(String, int, String)}.
+ * Statuses and comments posted through the API are kept and returned by later reads.
+ * Every third project starts with a CI hook, every seventh with a legacy hook and every tenth with the standard hook, which
+ * can be listed and changed like the system hooks.
+ */
+public class FakeGitLabDataset {
+
+    private static final String[] WORDS = { "gitlab", "api", "client", "release", "build", "deploy", "fix", "feature", "refactor", "cache", "service", "parser",
+            "module", "update", "remove", "docs" };
+    public static final int MERGE_REQUESTS_PER_PROJECT = 30;
+    public static final int FEATURE_BRANCHES = 3;
+    public static final int ISSUES_PER_PROJECT = 100;
+    public static final int MAX_NOTES = 40;
+    public static final String STANDARD_HOOK_URL = "https://hooks.example.com/gitlab";
+    public static final String[] HOOK_EVENTS = { "push_events", "issues_events", "merge_requests_events", "tag_push_events", "note_events", "build_events",
+            "pipeline_events", "wiki_page_events" };
+
+    private static final String[] LABELS = { "bug", "feature", "ui", "backend", "security", "docs" };
+    public static final int TREE_DEPTH = 3;
+    public static final int TREE_FANOUT = 4;
+    public static final int FILES_PER_DIRECTORY = 5;
+
+    private static final String[] STATUS_NAMES = { "build", "test", "lint", "deploy", "security", "coverage" };
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+    private static final long BASE_TIME = Instant.parse("2016-06-01T12:00:00Z").toEpochMilli();
+
+    private final long seed;
+    private final int commitsPerProject;
+    private final int statusesPerCommit;
+    private final int diffsPerCommit;
+    private final int pendingCommits;
+
+    private final List<Map<String, Object>> users = new ArrayList<Map<String, Object>>();
+    private final List<Map<String, Object>> projects = new ArrayList<Map<String, Object>>();
+    private final Map<String, Map<String, Object>> projectsByPath = new LinkedHashMap<String, Map<String, Object>>();
+
+    private final ConcurrentMap<String, List<Map<String, Object>>> postedStatuses = new ConcurrentHashMap<String, List<Map<String, Object>>>();
+    private final ConcurrentMap<String, List<Map<String, Object>>> postedComments = new ConcurrentHashMap<String, List<Map<String, Object>>>();
+    private final AtomicInteger nextStatusId = new AtomicInteger(1000000);
+    private final ConcurrentMap<Integer, Map<String, Integer>> branchHeads = new ConcurrentHashMap<Integer, Map<String, Integer>>();
+    private final ConcurrentMap<String, List<Map<String, Object>>> addedNotes = new ConcurrentHashMap<String, List<Map<String, Object>>>();
+    private final AtomicInteger nextNoteId = new AtomicInteger(900000000);
+    private final ConcurrentMap<Integer, Map<String, Object>> updatedIssues = new ConcurrentHashMap<Integer, Map<String, Object>>();
+    private final ConcurrentMap<Integer, Map<String, Boolean>> protectedBranches = new ConcurrentHashMap<Integer, Map<String, Boolean>>();
+    private final Map<Integer, List<Map<String, Object>>> projectHooks = new HashMap<Integer, List<Map<String, Object>>>();
+    private final List<Map<String, Object>> systemHooks = new ArrayList<Map<String, Object>>();
+    private final AtomicInteger nextHookId = new AtomicInteger(1);
+
+    /**
+     * @param seed              Seed of the generator, the same seed gives the same data
+     * @param users             Number of users, at least 1. User 1 is the authenticated user.
+     * @param projects          Number of projects
+     * @param commitsPerProject Number of commits in every project
+     * @param statusesPerCommit Number of statuses of every commit, at most 6
+     * @param diffsPerCommit    Number of changed files in every commit
+     * @param pendingCommits    Number of newest commits whose statuses are still running
+     */
+    public FakeGitLabDataset(long seed, int users, int projects, int commitsPerProject, int statusesPerCommit, int diffsPerCommit, int pendingCommits) {
+        super();
+        this.seed = seed;
+        this.commitsPerProject = commitsPerProject;
+        this.statusesPerCommit = Math.min(statusesPerCommit, STATUS_NAMES.length);
+        this.diffsPerCommit = diffsPerCommit;
+        this.pendingCommits = pendingCommits;
+
+        Random random = new Random(seed);
+        for (int i = 1; i <= Math.max(1, users); i++) {
+            this.users.add(user(random, i));
+        }
+        for (int i = 1; i <= projects; i++) {
+            Map<String, Object> project = project(random, i);
+            this.projects.add(project);
+            this.projectsByPath.put((String) project.get("path_with_namespace"), project);
+        }
+    }
+
+    public static FakeGitLabDataset small() {
+        return new FakeGitLabDataset(42, 20, 50, 200, 3, 5, 2);
+    }
+
+    public List<Map<String, Object>> getUsers() {
+        return Collections.unmodifiableList(users);
+    }
+
+    public Map<String, Object> getUser(int id) {
+        return id >= 1 && id <= users.size() ? users.get(id - 1) : null;
+    }
+
+    public Map<String, Object> getCurrentUser() {
+        return users.get(0);
+    }
+
+    public List<Map<String, Object>> getProjects() {
+        return Collections.unmodifiableList(projects);
+    }
+
+    /**
+     * @param idOrPath The numeric id or the NAMESPACE/PROJECT_NAME path
+     * @return the project or null
+     */
+    public Map<String, Object> getProject(String idOrPath) {
+        try {
+            int id = Integer.parseInt(idOrPath);
+            return id >= 1 && id <= projects.size() ? projects.get(id - 1) : null;
+        } catch (NumberFormatException e) {
+            return projectsByPath.get(idOrPath);
+        }
+    }
+
+    /**
+     * @return the namespaces of the projects, sorted by id
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> groups() {
+        Map<Integer, Map<String, Object>> groups = new TreeMap<Integer, Map<String, Object>>();
+        for (Map<String, Object> project : projects) {
+            Map<String, Object> namespace = (Map<String, Object>) project.get("namespace");
+            Integer id = (Integer) namespace.get("id");
+            if (!groups.containsKey(id)) {
+                Map<String, Object> group = new LinkedHashMap<String, Object>();
+                group.put("id", id);
+                group.put("name", namespace.get("name"));
+                group.put("path", namespace.get("path"));
+                group.put("description", namespace.get("description"));
+                group.put("parent_id", null);
+                groups.put(id, group);
+            }
+        }
+        return new ArrayList<Map<String, Object>>(groups.values());
+    }
+
+    public Map<String, Object> group(int groupId) {
+        for (Map<String, Object> group : groups()) {
+            if (group.get("id").equals(groupId)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> groupProjects(int groupId) {
+        List<Map<String, Object>> groupProjects = new ArrayList<Map<String, Object>>();
+        for (Map<String, Object> project : projects) {
+            if (((Map<String, Object>) project.get("namespace")).get("id").equals(groupId)) {
+                groupProjects.add(project);
+            }
+        }
+        return groupProjects;
+    }
+
+    public List<Map<String, Object>> groupMembers(int groupId) {
+        return members(new Random(mix(seed * 31 + groupId)), 3 + (groupId & 3));
+    }
+
+    public List<Map<String, Object>> projectMembers(int projectId) {
+        return members(new Random(mix(seed * 47 + projectId * 53L)), 1 + projectId % 5);
+    }
+
+    private List<Map<String, Object>> members(Random random, int count) {
+        int[] levels = { 10, 20, 30, 40, 50 };
+        Map<Integer, Map<String, Object>> members = new TreeMap<Integer, Map<String, Object>>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> user = users.get(random.nextInt(users.size()));
+            Map<String, Object> member = new LinkedHashMap<String, Object>();
+            for (String field : new String[] { "id", "username", "email", "name", "state", "created_at" }) {
+                member.put(field, user.get(field));
+            }
+            member.put("access_level", levels[random.nextInt(levels.length)]);
+            members.put((Integer) user.get("id"), member);
+        }
+        return new ArrayList<Map<String, Object>>(members.values());
+    }
+
+    public int getCommitsPerProject() {
+        return commitsPerProject;
+    }
+
+    public String sha(int projectId, int index) {
+        long hash = mix(seed ^ ((long) projectId << 32 | index));
+        return String.format("%08x%08x%016x%08x", projectId, index, hash, (int) (hash >>> 17));
+    }
+
+    /**
+     * @return the index of the commit with this SHA in the project, or -1
+     */
+    public int commitIndex(int projectId, String sha) {
+        if (sha == null || sha.length() != 40) {
+            return -1;
+        }
+        try {
+            int shaProject = (int) Long.parseLong(sha.substring(0, 8), 16);
+            int index = (int) Long.parseLong(sha.substring(8, 16), 16);
+            if (shaProject != projectId || index < 0 || index >= commitsPerProject || !sha.equals(sha(projectId, index))) {
+                return -1;
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public Map<String, Object> commit(int projectId, int index) {
+        Random random = new Random(mix(seed + projectId * 31L + index));
+        String sha = sha(projectId, index);
+        String date = date(BASE_TIME - index * 3600000L);
+        Map<String, Object> user = users.get(random.nextInt(users.size()));
+
+        Map<String, Object> commit = new LinkedHashMap<String, Object>();
+        commit.put("id", sha);
+        commit.put("short_id", sha.substring(0, 8));
+        commit.put("title", words(random, 6, " "));
+        commit.put("author_name", user.get("name"));
+        commit.put("author_email", user.get("email"));
+        commit.put("created_at", date);
+        commit.put("message", words(random, 16, " ") + "\n");
+        commit.put("committed_date", date);
+        commit.put("authored_date", date);
+        List<String> parents = new ArrayList<String>();
+        if (index + 1 < commitsPerProject) {
+            parents.add(sha(projectId, index + 1));
+        }
+        commit.put("parent_ids", parents);
+        return commit;
+    }
+
+    public List<Map<String, Object>> commits(int projectId, int from, int to) {
+        List<Map<String, Object>> commits = new ArrayList<Map<String, Object>>();
+        for (int index = Math.max(0, from); index < Math.min(to, commitsPerProject); index++) {
+            commits.add(commit(projectId, index));
+        }
+        return commits;
+    }
+
+    public List<Map<String, Object>> diffs(int projectId, int index) {
+        Random random = new Random(mix(seed * 7 + projectId * 131L + index));
+        List<Map<String, Object>> diffs = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < diffsPerCommit; i++) {
+            String path = "src/main/java/" + words(random, 3, "/") + ".java";
+            StringBuilder diff = new StringBuilder();
+            diff.append("--- a/").append(path).append("\n+++ b/").append(path).append("\n@@ -1,12 +1,14 @@\n");
+            for (int line = 0; line < 14; line++) {
+                diff.append(line % 5 == 0 ? '+' : line % 7 == 0 ? '-' : ' ').append("    ").append(words(random, 6, " ")).append(";\n");
+            }
+            Map<String, Object> entry = new LinkedHashMap<String, Object>();
+            entry.put("diff", diff.toString());
+            entry.put("new_path", path);
+            entry.put("old_path", path);
+            entry.put("a_mode", "100644");
+            entry.put("b_mode", "100644");
+            entry.put("new_file", false);
+            entry.put("renamed_file", false);
+            entry.put("deleted_file", false);
+            diffs.add(entry);
+        }
+        return diffs;
+    }
+
+    /**
+     * @return the issues of the project, newest first
+     */
+    public List<Map<String, Object>> issues(int projectId) {
+        List<Map<String, Object>> issues = new ArrayList<Map<String, Object>>();
+        for (int iid = ISSUES_PER_PROJECT; iid >= 1; iid--) {
+            issues.add(issue(projectId, iid));
+        }
+        return issues;
+    }
+
+    /**
+     * @param id The global id of the issue
+     * @return the issue or null
+     */
+    public Map<String, Object> issueById(int projectId, int id) {
+        int iid = id - projectId * 10000;
+        return id > projectId * 10000 && iid <= ISSUES_PER_PROJECT ? issue(projectId, iid) : null;
+    }
+
+    /**
+     * Changes the title or the state of an issue, and marks it as updated now
+     */
+    public void updateIssue(int projectId, int iid, String title, String state) {
+        Map<String, Object> issue = issue(projectId, iid);
+        if (title != null) {
+            issue.put("title", title);
+        }
+        if (state != null) {
+            issue.put("state", state);
+        }
+        issue.put("updated_at", date(System.currentTimeMillis()));
+        updatedIssues.put((Integer) issue.get("id"), issue);
+    }
+
+    private Map<String, Object> issue(int projectId, int iid) {
+        Map<String, Object> updated = updatedIssues.get(projectId * 10000 + iid);
+        if (updated != null) {
+            return new LinkedHashMap<String, Object>(updated);
+        }
+
+        Random random = new Random(mix(seed * 23 + projectId * 41L + iid));
+        long updatedAt = BASE_TIME - (ISSUES_PER_PROJECT - iid) * 3600000L;
+        List<String> labels = new ArrayList<String>();
+        for (String label : LABELS) {
+            if (random.nextInt(4) == 0) {
+                labels.add(label);
+            }
+        }
+        Map<String, Object> milestone = null;
+        if (iid % 5 != 0) {
+            milestone = new LinkedHashMap<String, Object>();
+            milestone.put("id", projectId * 10 + iid % 4);
+            milestone.put("iid", iid % 4 + 1);
+            milestone.put("project_id", projectId);
+            milestone.put("title", "v1." + iid % 4);
+            milestone.put("description", "");
+            milestone.put("state", "active");
+            milestone.put("created_at", date(BASE_TIME - 200 * 86400000L));
+            milestone.put("updated_at", date(BASE_TIME - 100 * 86400000L));
+            milestone.put("due_date", null);
+        }
+
+        Map<String, Object> issue = new LinkedHashMap<String, Object>();
+        issue.put("id", projectId * 10000 + iid);
+        issue.put("iid", iid);
+        issue.put("project_id", projectId);
+        issue.put("title", words(random, 5, " "));
+        issue.put("description", words(random, 20, " "));
+        issue.put("state", random.nextInt(3) == 0 ? "closed" : "opened");
+        issue.put("created_at", date(updatedAt - 86400000L * (1 + random.nextInt(30))));
+        issue.put("updated_at", date(updatedAt));
+        issue.put("labels", labels);
+        issue.put("milestone", milestone);
+        issue.put("assignee", random.nextInt(4) == 0 ? null : users.get(random.nextInt(users.size())));
+        issue.put("author", users.get(random.nextInt(users.size())));
+        issue.put("user_notes_count", random.nextInt(10));
+        issue.put("upvotes", random.nextInt(5));
+        issue.put("downvotes", 0);
+        issue.put("due_date", null);
+        issue.put("confidential", false);
+        return issue;
+    }
+
+    /**
+     * @return the branches of the project, sorted by name
+     */
+    public List<Map<String, Object>> branches(int projectId) {
+        List<Map<String, Object>> branches = new ArrayList<Map<String, Object>>();
+        for (Map.Entry<String, Integer> head : heads(projectId).entrySet()) {
+            branches.add(branch(projectId, head.getKey(), head.getValue()));
+        }
+        return branches;
+    }
+
+    /**
+     * @return the branch or null
+     */
+    public Map<String, Object> branch(int projectId, String name) {
+        Integer index = heads(projectId).get(name);
+        return index != null ? branch(projectId, name, index) : null;
+    }
+
+    /**
+     * Protects or unprotects a branch
+     *
+     * @return the branch or null
+     */
+    public Map<String, Object> protectBranch(int projectId, String name, boolean isProtected) {
+        Integer index = heads(projectId).get(name);
+        if (index == null) {
+            return null;
+        }
+        protectedBranches.putIfAbsent(projectId, new ConcurrentHashMap<String, Boolean>());
+        protectedBranches.get(projectId).put(name, isProtected);
+        return branch(projectId, name, index);
+    }
+
+    /**
+     * Moves or creates a branch, and marks the project as active now
+     *
+     * @param index The index of the new head commit, or -1 to delete the branch
+     */
+    public void push(int projectId, String name, int index) {
+        Map<String, Integer> heads = liveHeads(projectId);
+        synchronized (heads) {
+            if (index < 0) {
+                heads.remove(name);
+            } else {
+                heads.put(name, index);
+            }
+        }
+        getProject(Integer.toString(projectId)).put("last_activity_at", date(System.currentTimeMillis()));
+    }
+
+    private Map<String, Integer> heads(int projectId) {
+        Map<String, Integer> heads = liveHeads(projectId);
+        synchronized (heads) {
+            return new TreeMap<String, Integer>(heads);
+        }
+    }
+
+    private Map<String, Integer> liveHeads(int projectId) {
+        Map<String, Integer> heads = branchHeads.get(projectId);
+        if (heads == null) {
+            heads = Collections.synchronizedMap(new TreeMap<String, Integer>());
+            heads.put("master", 0);
+            for (int i = 1; i <= FEATURE_BRANCHES; i++) {
+                heads.put("feature-" + i, i % commitsPerProject);
+            }
+            Map<String, Integer> existing = branchHeads.putIfAbsent(projectId, heads);
+            if (existing != null) {
+                heads = existing;
+            }
+        }
+        return heads;
+    }
+
+    private Map<String, Object> branch(int projectId, String name, int index) {
+        Map<String, Object> commit = commit(projectId, index);
+        Map<String, Object> branchCommit = new LinkedHashMap<String, Object>();
+        branchCommit.put("id", commit.get("id"));
+        branchCommit.put("message", commit.get("message"));
+        branchCommit.put("parent_ids", commit.get("parent_ids"));
+        branchCommit.put("authored_date", commit.get("authored_date"));
+        branchCommit.put("author_name", commit.get("author_name"));
+        branchCommit.put("author_email", commit.get("author_email"));
+        branchCommit.put("committed_date", commit.get("committed_date"));
+        branchCommit.put("committer_name", commit.get("author_name"));
+        branchCommit.put("committer_email", commit.get("author_email"));
+
+        Map<String, Boolean> protections = protectedBranches.get(projectId);
+        Boolean isProtected = protections != null ? protections.get(name) : null;
+
+        Map<String, Object> branch = new LinkedHashMap<String, Object>();
+        branch.put("name", name);
+        branch.put("commit", branchCommit);
+        branch.put("protected", isProtected != null ? isProtected : "master".equals(name));
+        return branch;
+    }
+
+    /**
+     * Lists a directory of the tree of a commit
+     *
+     * @param path The path of the directory, empty for the root
+     * @return the entries, or null if there is no such directory
+     */
+    public List<Map<String, Object>> tree(int projectId, int index, String path) {
+        String[] segments = path == null || path.isEmpty() ? new String[0] : path.split("/");
+        if (segments.length > TREE_DEPTH) {
+            return null;
+        }
+        for (String segment : segments) {
+            if (!segment.matches("dir[0-9]+") || Integer.parseInt(segment.substring(3)) >= TREE_FANOUT) {
+                return null;
+            }
+        }
+        boolean changed = changedByCommit(index, segments);
+        String prefix = segments.length == 0 ? "" : path + "/";
+
+        List<Map<String, Object>> entries = new ArrayList<Map<String, Object>>();
+        if (segments.length < TREE_DEPTH) {
+            for (int i = 0; i < TREE_FANOUT; i++) {
+                String[] child = Arrays.copyOf(segments, segments.length + 1);
+                child[segments.length] = "dir" + i;
+                entries.add(treeEntry("dir" + i, "tree", "040000", objectId(projectId, prefix + "dir" + i, changedByCommit(index, child) ? index : -1)));
+            }
+        }
+        for (int i = 0; i < FILES_PER_DIRECTORY; i++) {
+            entries.add(treeEntry("file" + i + ".java", "blob", "100644", objectId(projectId, prefix + "file" + i + ".java", changed ? index : -1)));
+        }
+        return entries;
+    }
+
+    /**
+     * @return true if the directory is on the path changed by the commit: dir(index % 4)/dir(index / 4 % 4)/...
+     */
+    private boolean changedByCommit(int index, String[] segments) {
+        int changed = index;
+        for (String segment : segments) {
+            if (!segment.equals("dir" + changed % TREE_FANOUT)) {
+                return false;
+            }
+            changed /= TREE_FANOUT;
+        }
+        return true;
+    }
+
+    private String objectId(int projectId, String path, int version) {
+        long hash = mix(seed ^ projectId * 0x9e3779b97f4a7c15L ^ path.hashCode() * 31L ^ version);
+        return String.format("%016x%016x%08x", hash, mix(hash), (int) mix(hash + 1));
+    }
+
+    private static Map<String, Object> treeEntry(String name, String type, String mode, String id) {
+        Map<String, Object> entry = new LinkedHashMap<String, Object>();
+        entry.put("id", id);
+        entry.put("name", name);
+        entry.put("type", type);
+        entry.put("mode", mode);
+        return entry;
+    }
+
+    /**
+     * @return the merge requests of the project, most recently updated first
+     */
+    public List<Map<String, Object>> mergeRequests(int projectId, String state) {
+        List<Map<String, Object>> mergeRequests = new ArrayList<Map<String, Object>>();
+        for (int iid = MERGE_REQUESTS_PER_PROJECT; iid >= 1; iid--) {
+            Map<String, Object> mergeRequest = mergeRequest(projectId, iid);
+            if (state == null || "all".equals(state) || state.equals(mergeRequest.get("state"))) {
+                mergeRequests.add(mergeRequest);
+            }
+        }
+        return mergeRequests;
+    }
+
+    /**
+     * @param id The global id of the merge request
+     * @return the merge request or null
+     */
+    public Map<String, Object> mergeRequestById(int projectId, int id) {
+        int iid = id - projectId * 1000;
+        return id > projectId * 1000 && iid <= MERGE_REQUESTS_PER_PROJECT ? mergeRequest(projectId, iid) : null;
+    }
+
+    public Map<String, Object> mergeRequest(int projectId, int iid) {
+        Random random = new Random(mix(seed * 19 + projectId * 37L + iid));
+        String sourceSha = sha(projectId, iid % commitsPerProject);
+        long updated = BASE_TIME - (MERGE_REQUESTS_PER_PROJECT - iid) * 7200000L;
+
+        Map<String, Object> diffRefs = new LinkedHashMap<String, Object>();
+        diffRefs.put("base_sha", sha(projectId, (iid + 1) % commitsPerProject));
+        diffRefs.put("head_sha", sourceSha);
+        diffRefs.put("start_sha", sha(projectId, 0));
+
+        Map<String, Object> mergeRequest = new LinkedHashMap<String, Object>();
+        mergeRequest.put("id", projectId * 1000 + iid);
+        mergeRequest.put("iid", iid);
+        mergeRequest.put("project_id", projectId);
+        mergeRequest.put("title", words(random, 5, " "));
+        mergeRequest.put("description", words(random, 12, " "));
+        mergeRequest.put("state", iid % 7 == 0 ? "closed" : iid % 3 == 0 ? "merged" : "opened");
+        mergeRequest.put("created_at", date(updated - 86400000L));
+        mergeRequest.put("updated_at", date(updated));
+        mergeRequest.put("target_branch", "master");
+        mergeRequest.put("source_branch", "feature-" + iid);
+        mergeRequest.put("upvotes", random.nextInt(5));
+        mergeRequest.put("downvotes", random.nextInt(2));
+        mergeRequest.put("author", users.get(random.nextInt(users.size())));
+        mergeRequest.put("assignee", null);
+        mergeRequest.put("source_project_id", projectId);
+        mergeRequest.put("target_project_id", projectId);
+        mergeRequest.put("labels", new ArrayList<String>());
+        mergeRequest.put("milestone", null);
+        mergeRequest.put("sha", sourceSha);
+        mergeRequest.put("merge_commit_sha", null);
+        mergeRequest.put("diff_refs", diffRefs);
+        return mergeRequest;
+    }
+
+    /**
+     * @param noteableType Issue or MergeRequest
+     * @param noteableId   The global id of the issue or merge request
+     * @return the notes, oldest first
+     */
+    public List<Map<String, Object>> notes(String noteableType, int noteableId) {
+        boolean issue = "Issue".equals(noteableType);
+        Random random = new Random(mix(seed * 29 + noteableId * 43L + (issue ? 0 : 1)));
+        int count = random.nextInt(MAX_NOTES + 1);
+        List<Map<String, Object>> notes = new ArrayList<Map<String, Object>>(count);
+        for (int i = 0; i < count; i++) {
+            long created = BASE_TIME - (count - i) * 600000L;
+            int id = (issue ? 0 : 100000000) + noteableId * 100 + i;
+            notes.add(note(id, noteableType, noteableId, words(random, 8, " "), users.get(random.nextInt(users.size())), created));
+        }
+        List<Map<String, Object>> added = addedNotes.get(noteableType + "@" + noteableId);
+        if (added != null) {
+            notes.addAll(added);
+        }
+        return notes;
+    }
+
+    /**
+     * Adds a note by the current user, updated now
+     */
+    public Map<String, Object> addNote(String noteableType, int noteableId, String body) {
+        Map<String, Object> note = note(nextNoteId.incrementAndGet(), noteableType, noteableId, body, getCurrentUser(), System.currentTimeMillis());
+        addedNotes.putIfAbsent(noteableType + "@" + noteableId, new CopyOnWriteArrayList<Map<String, Object>>());
+        addedNotes.get(noteableType + "@" + noteableId).add(note);
+        return note;
+    }
+
+    public synchronized List<Map<String, Object>> projectHooks(int projectId) {
+        return new ArrayList<Map<String, Object>>(hooksOf(projectId));
+    }
+
+    public synchronized Map<String, Object> projectHook(int projectId, int hookId) {
+        for (Map<String, Object> hook : hooksOf(projectId)) {
+            if (hook.get("id").equals(hookId)) {
+                return hook;
+            }
+        }
+        return null;
+    }
+
+    public synchronized Map<String, Object> addProjectHook(int projectId, Map<String, Object> body) {
+        Map<String, Object> hook = new LinkedHashMap<String, Object>();
+        hook.put("id", nextHookId.getAndIncrement());
+        hook.put("url", body.get("url"));
+        hook.put("project_id", projectId);
+        for (String event : HOOK_EVENTS) {
+            hook.put(event, "push_events".equals(event));
+        }
+        hook.put("enable_ssl_verification", true);
+        hook.put("created_at", date(System.currentTimeMillis()));
+        updateHook(hook, body);
+        hooksOf(projectId).add(hook);
+        return hook;
+    }
+
+    /**
+     * @return the hook, or null if the project has no such hook
+     */
+    public synchronized Map<String, Object> editProjectHook(int projectId, int hookId, Map<String, Object> body) {
+        Map<String, Object> hook = projectHook(projectId, hookId);
+        if (hook != null) {
+            updateHook(hook, body);
+        }
+        return hook;
+    }
+
+    /**
+     * @return the deleted hook, or null if the project has no such hook
+     */
+    public synchronized Map<String, Object> deleteProjectHook(int projectId, int hookId) {
+        Map<String, Object> hook = projectHook(projectId, hookId);
+        if (hook != null) {
+            hooksOf(projectId).remove(hook);
+        }
+        return hook;
+    }
+
+    public synchronized List<Map<String, Object>> systemHooks() {
+        return new ArrayList<Map<String, Object>>(systemHooks);
+    }
+
+    public synchronized Map<String, Object> addSystemHook(String url) {
+        Map<String, Object> hook = new LinkedHashMap<String, Object>();
+        hook.put("id", nextHookId.getAndIncrement());
+        hook.put("url", url);
+        hook.put("created_at", date(System.currentTimeMillis()));
+        systemHooks.add(hook);
+        return hook;
+    }
+
+    public synchronized Map<String, Object> deleteSystemHook(int hookId) {
+        for (Map<String, Object> hook : systemHooks) {
+            if (hook.get("id").equals(hookId)) {
+                systemHooks.remove(hook);
+                return hook;
+            }
+        }
+        return null;
+    }
+
+    private List<Map<String, Object>> hooksOf(int projectId) {
+        List<Map<String, Object>> hooks = projectHooks.get(projectId);
+        if (hooks == null) {
+            hooks = new ArrayList<Map<String, Object>>();
+            projectHooks.put(projectId, hooks);
+            Map<String, Object> body = new HashMap<String, Object>();
+            if (projectId % 3 == 0) {
+                body.put("url", "https://ci.example.com/hooks/" + projectId);
+                body.put("build_events", true);
+                addProjectHook(projectId, body);
+            }
+            if (projectId % 7 == 0) {
+                body.clear();
+                body.put("url", "https://legacy.example.com/hook");
+                body.put("enable_ssl_verification", false);
+                addProjectHook(projectId, body);
+            }
+            if (projectId % 10 == 0) {
+                body.clear();
+                body.put("url", STANDARD_HOOK_URL);
+                body.put("merge_requests_events", true);
+                body.put("pipeline_events", true);
+                addProjectHook(projectId, body);
+            }
+            if (projectId % 11 == 0) {
+                // Created by an older GitLab, which neither returns nor updates the flags it did not know
+                body.clear();
+                body.put("url", STANDARD_HOOK_URL);
+                body.put("merge_requests_events", true);
+                Map<String, Object> hook = addProjectHook(projectId, body);
+                hook.remove("pipeline_events");
+                hook.remove("wiki_page_events");
+            }
+        }
+        return hooks;
+    }
+
+    private static void updateHook(Map<String, Object> hook, Map<String, Object> body) {
+        for (String field : HOOK_EVENTS) {
+            if (body.containsKey(field) && hook.containsKey(field)) {
+                hook.put(field, Boolean.TRUE.equals(body.get(field)));
+            }
+        }
+        if (body.containsKey("enable_ssl_verification")) {
+            hook.put("enable_ssl_verification", Boolean.TRUE.equals(body.get("enable_ssl_verification")));
+        }
+        if (body.get("url") != null) {
+            hook.put("url", body.get("url"));
+        }
+    }
+
+    private Map<String, Object> note(int id, String noteableType, int noteableId, String body, Map<String, Object> author, long time) {
+        Map<String, Object> note = new LinkedHashMap<String, Object>();
+        note.put("id", id);
+        note.put("body", body);
+        note.put("attachment", null);
+        note.put("author", author);
+        note.put("created_at", date(time));
+        note.put("updated_at", date(time));
+        note.put("system", false);
+        note.put("upvote", false);
+        note.put("downvote", false);
+        note.put("noteable_id", noteableId);
+        note.put("noteable_type", noteableType);
+        return note;
+    }
+
+    public List<Map<String, Object>> statuses(int projectId, int index) {
+        String sha = sha(projectId, index);
+        Map<String, Map<String, Object>> byName = new LinkedHashMap<String, Map<String, Object>>();
+        Random random = new Random(mix(seed * 13 + projectId * 17L + index));
+        for (int i = 0; i < statusesPerCommit; i++) {
+            String state;
+            if (index < pendingCommits) {
+                state = i == 0 ? "running" : "pending";
+            } else {
+                state = random.nextInt(10) == 0 ? "failed" : "success";
+            }
+            byName.put(STATUS_NAMES[i], status(projectId * 100000 + index * 10 + i, sha, STATUS_NAMES[i], state, BASE_TIME - index * 3600000L, random));
+        }
+        List<Map<String, Object>> posted = postedStatuses.get(projectId + "@" + sha);
+        if (posted != null) {
+            for (Map<String, Object> status : posted) {
+                byName.put((String) status.get("name"), status);
+            }
+        }
+        return new ArrayList<Map<String, Object>>(byName.values());
+    }
+
+    public Map<String, Object> postStatus(int projectId, String sha, String state, String ref, String name, String targetUrl, String description) {
+        Map<String, Object> status = status(nextStatusId.incrementAndGet(), sha, name != null ? name : "default", state, System.currentTimeMillis(), new Random());
+        status.put("ref", ref);
+        status.put("target_url", targetUrl);
+        status.put("description", description);
+
+        List<Map<String, Object>> posted = postedStatuses.get(projectId + "@" + sha);
+        if (posted == null) {
+            postedStatuses.putIfAbsent(projectId + "@" + sha, new CopyOnWriteArrayList<Map<String, Object>>());
+            posted = postedStatuses.get(projectId + "@" + sha);
+        }
+        for (Map<String, Object> existing : posted) {
+            if (existing.get("name").equals(status.get("name"))) {
+                posted.remove(existing);
+            }
+        }
+        posted.add(status);
+        return status;
+    }
+
+    public List<Map<String, Object>> comments(int projectId, String sha) {
+        List<Map<String, Object>> posted = postedComments.get(projectId + "@" + sha);
+        return posted != null ? new ArrayList<Map<String, Object>>(posted) : new ArrayList<Map<String, Object>>();
+    }
+
+    public Map<String, Object> postComment(int projectId, String sha, String note, String path, Integer line, String lineType) {
+        Map<String, Object> comment = new LinkedHashMap<String, Object>();
+        comment.put("note", note);
+        comment.put("path", path);
+        comment.put("line", line);
+        comment.put("line_type", lineType);
+        comment.put("author", getCurrentUser());
+
+        postedComments.putIfAbsent(projectId + "@" + sha, new CopyOnWriteArrayList<Map<String, Object>>());
+        postedComments.get(projectId + "@" + sha).add(comment);
+        return comment;
+    }
+
+    private Map<String, Object> status(int id, String sha, String name, String state, long time, Random random) {
+        Map<String, Object> status = new LinkedHashMap<String, Object>();
+        status.put("id", id);
+        status.put("sha", sha);
+        status.put("ref", "master");
+        status.put("status", state);
+        status.put("name", name);
+        status.put("target_url", "https://ci.example.com/builds/" + id);
+        status.put("description", null);
+        status.put("created_at", date(time));
+        status.put("started_at", "pending".equals(state) ? null : date(time + 1000));
+        status.put("finished_at", "pending".equals(state) || "running".equals(state) ? null : date(time + 60000 + random.nextInt(600000)));
+        status.put("allow_failure", false);
+        status.put("author", users.get(random.nextInt(users.size())));
+        return status;
+    }
+
+    private Map<String, Object> user(Random random, int id) {
+        String first = capitalize(WORDS[random.nextInt(WORDS.length)]);
+        String last = capitalize(WORDS[random.nextInt(WORDS.length)]);
+        String username = (first + "." + last).toLowerCase() + id;
+
+        Map<String, Object> user = new LinkedHashMap<String, Object>();
+        user.put("id", id);
+        user.put("username", username);
+        user.put("email", username + "@example.com");
+        user.put("name", first + " " + last);
+        user.put("state", "active");
+        user.put("created_at", date(BASE_TIME - id * 86400000L));
+        user.put("bio", null);
+        user.put("skype", "");
+        user.put("linkedin", "");
+        user.put("twitter", "");
+        user.put("website_url", "");
+        user.put("avatar_url", "https://gitlab.example.com/uploads/user/avatar/" + id + "/avatar.png");
+        user.put("web_url", "https://gitlab.example.com/u/" + username);
+        user.put("is_admin", id == 1);
+        user.put("can_create_group", true);
+        user.put("can_create_project", true);
+        return user;
+    }
+
+    private Map<String, Object> project(Random random, int id) {
+        String group = WORDS[random.nextInt(WORDS.length)] + "-group";
+        String name = words(random, 2, "-") + "-" + id;
+        Map<String, Object> owner = users.get(random.nextInt(users.size()));
+
+        Map<String, Object> namespace = new LinkedHashMap<String, Object>();
+        namespace.put("id", Math.abs(group.hashCode() % 1000));
+        namespace.put("name", group);
+        namespace.put("path", group);
+        namespace.put("owner_id", null);
+        namespace.put("created_at", date(BASE_TIME - 400 * 86400000L));
+        namespace.put("updated_at", date(BASE_TIME - 100 * 86400000L));
+        namespace.put("description", words(random, 6, " "));
+        namespace.put("avatar", null);
+
+        Map<String, Object> projectAccess = new LinkedHashMap<String, Object>();
+        projectAccess.put("access_level", 30);
+        projectAccess.put("notification_level", 3);
+        Map<String, Object> permissions = new LinkedHashMap<String, Object>();
+        permissions.put("project_access", projectAccess);
+        permissions.put("group_access", null);
+
+        List<String> tags = new ArrayList<String>();
+        tags.add(WORDS[random.nextInt(WORDS.length)]);
+
+        Map<String, Object> project = new LinkedHashMap<String, Object>();
+        project.put("id", id);
+        project.put("description", words(random, 12, " "));
+        project.put("default_branch", "master");
+        project.put("tag_list", tags);
+        project.put("public", false);
+        project.put("archived", random.nextInt(20) == 0);
+        project.put("visibility_level", 10);
+        project.put("ssh_url_to_repo", "git@gitlab.example.com:" + group + "/" + name + ".git");
+        project.put("http_url_to_repo", "https://gitlab.example.com/" + group + "/" + name + ".git");
+        project.put("web_url", "https://gitlab.example.com/" + group + "/" + name);
+        project.put("owner", owner);
+        project.put("name", name);
+        project.put("name_with_namespace", group + " / " + name);
+        project.put("path", name);
+        project.put("path_with_namespace", group + "/" + name);
+        project.put("issues_enabled", true);
+        project.put("merge_requests_enabled", true);
+        project.put("wiki_enabled", true);
+        project.put("builds_enabled", true);
+        project.put("snippets_enabled", false);
+        project.put("created_at", date(BASE_TIME - (400 - id % 300) * 86400000L));
+        project.put("last_activity_at", date(BASE_TIME - random.nextInt(100) * 3600000L));
+        project.put("creator_id", owner.get("id"));
+        project.put("namespace", namespace);
+        project.put("avatar_url", null);
+        project.put("star_count", random.nextInt(100));
+        project.put("forks_count", random.nextInt(10));
+        project.put("open_issues_count", random.nextInt(50));
+        project.put("permissions", permissions);
+        return project;
+    }
+
+    private static String words(Random random, int count, String separator) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    static String date(long millis) {
+        return DATE_FORMAT.format(Instant.ofEpochMilli(millis));
+    }
+
+    private static long mix(long value) {
+        // SplitMix64 finalizer
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,835 @@
+package com.synaptix.gitlab.api.fake;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.synaptix.gitlab.api.metrics.EndpointTemplates;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the GitLab v3 API
+ * <p>
+ * Serves the endpoints used by the branches, commits, groups, issues, members, merge requests, notes, projects, repositories and users services from a generated {@link FakeGitLabDataset},
+ * with GitLab pagination headers, gzip, ETags and rate limit headers. Latency, rate limiting and
+ * 429/5xx faults can be injected to exercise the client offline.
+ * <pre>
+ * FakeGitLabServer server = FakeGitLabServer.create()
+ *         .dataset(new FakeGitLabDataset(42, 100, 1000, 500, 3, 5, 2))
+ *         .latency(LatencyDistribution.logNormal(20, 0.5))
+ *         .faults(0.01, 0.005)
+ *         .start();
+ * GitLabAPI gitLabAPI = GitLabAPI.connect(server.getUrl(), FakeGitLabServer.TOKEN);
+ * </pre>
+ * Like GitLab CE 8, commit listings start at page 0 when no page is given.
+ */
+public class FakeGitLabServer implements HttpHandler {
+
+    public static final String TOKEN = "fake-gitlab-token";
+
+    private static final String API_NAMESPACE = "/api/v3";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private FakeGitLabDataset dataset = FakeGitLabDataset.small();
+    private String token = TOKEN;
+    private int port;
+    private int threads;
+    private boolean gzip = true;
+    private volatile LatencyDistribution latency = LatencyDistribution.none();
+    private final Map<String, LatencyDistribution> endpointLatencies = new ConcurrentHashMap<String, LatencyDistribution>();
+    private volatile double tooManyRequestsRate;
+    private volatile double serverErrorRate;
+    private int rateLimit;
+    private long rateLimitWindowMillis = 60000;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedFaults = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> endpointRequests = new ConcurrentHashMap<String, LongAdder>();
+
+    private final Object rateLimitLock = new Object();
+    private long rateLimitWindowStart;
+    private int rateLimitCount;
+
+    static {
+        // The JDK server writes the headers and the body separately. With Nagle's algorithm on, a reused
+        // connection then waits for a delayed ACK, which adds ~40ms to every request on loopback
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private FakeGitLabServer() {
+        super();
+    }
+
+    public static FakeGitLabServer create() {
+        return new FakeGitLabServer();
+    }
+
+    public FakeGitLabServer dataset(FakeGitLabDataset dataset) {
+        this.dataset = dataset;
+        return this;
+    }
+
+    /**
+     * @param token The accepted private token, null to accept unauthenticated requests
+     */
+    public FakeGitLabServer token(String token) {
+        this.token = token;
+        return this;
+    }
+
+    /**
+     * @param port The port to listen to on the loopback interface, 0 for any free port
+     */
+    public FakeGitLabServer port(int port) {
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * @param threads The number of worker threads, 0 for an unbounded pool
+     */
+    public FakeGitLabServer threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * @param gzip Whether responses are compressed when the client accepts gzip
+     */
+    public FakeGitLabServer gzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    /**
+     * @param latency The delay added before answering any request
+     */
+    public FakeGitLabServer latency(LatencyDistribution latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * @param endpoint The endpoint template, eg. /projects/:id/repository/commits/:sha/diff
+     * @param latency  The delay added before answering this endpoint, instead of the default one
+     */
+    public FakeGitLabServer latency(String endpoint, LatencyDistribution latency) {
+        this.endpointLatencies.put(endpoint, latency);
+        return this;
+    }
+
+    /**
+     * @param tooManyRequestsRate The share of requests answered with 429, between 0 and 1
+     * @param serverErrorRate     The share of requests answered with 500, 502 or 503, between 0 and 1
+     */
+    public FakeGitLabServer faults(double tooManyRequestsRate, double serverErrorRate) {
+        this.tooManyRequestsRate = tooManyRequestsRate;
+        this.serverErrorRate = serverErrorRate;
+        return this;
+    }
+
+    /**
+     * Enforces a rate limit, requests over the limit are answered with 429 and Retry-After
+     *
+     * @param requests     Allowed requests per window, 0 for no limit
+     * @param windowMillis The window duration
+     */
+    public FakeGitLabServer rateLimit(int requests, long windowMillis) {
+        this.rateLimit = requests;
+        this.rateLimitWindowMillis = windowMillis;
+        return this;
+    }
+
+    public FakeGitLabServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 256);
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "fake-gitlab-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        executor = threads > 0 ? Executors.newFixedThreadPool(threads, threadFactory) : Executors.newCachedThreadPool(threadFactory);
+        server.setExecutor(executor);
+        server.createContext("/", this);
+        server.start();
+        return this;
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public FakeGitLabDataset getDataset() {
+        return dataset;
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getRequestCount(String endpoint) {
+        LongAdder count = endpointRequests.get(endpoint);
+        return count != null ? count.sum() : 0;
+    }
+
+    public Map<String, Long> getRequestCounts() {
+        Map<String, Long> counts = new HashMap<String, Long>();
+        for (Map.Entry<String, LongAdder> entry : endpointRequests.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    public long getInjectedFaultCount() {
+        return injectedFaults.sum();
+    }
+
+    public long getNotModifiedCount() {
+        return notModified.sum();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String rawPath = exchange.getRequestURI().getRawPath();
+            String apiPath = rawPath.startsWith(API_NAMESPACE) ? rawPath.substring(API_NAMESPACE.length()) : rawPath;
+            String endpoint = EndpointTemplates.of(apiPath);
+            requests.increment();
+            count(endpoint);
+
+            Random random = ThreadLocalRandom.current();
+            LatencyDistribution endpointLatency = endpointLatencies.get(endpoint);
+            long delay = (endpointLatency != null ? endpointLatency : latency).nextMillis(random);
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            if (token != null && !token.equals(exchange.getRequestHeaders().getFirst("PRIVATE-TOKEN")) && !token.equals(query.get("private_token"))) {
+                sendMessage(exchange, 401, "401 Unauthorized");
+                return;
+            }
+
+            long retryAfter = consumeRateLimit(exchange.getResponseHeaders());
+            if (retryAfter >= 0) {
+                exchange.getResponseHeaders().set("Retry-After", Long.toString(retryAfter));
+                sendMessage(exchange, 429, "Retry later");
+                return;
+            }
+
+            double fault = random.nextDouble();
+            if (fault < tooManyRequestsRate) {
+                injectedFaults.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendMessage(exchange, 429, "Retry later");
+                return;
+            } else if (fault < tooManyRequestsRate + serverErrorRate) {
+                injectedFaults.increment();
+                int[] codes = { 500, 502, 503 };
+                sendMessage(exchange, codes[random.nextInt(codes.length)], "Injected fault");
+                return;
+            }
+
+            route(exchange, decodeSegments(apiPath), query);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            sendMessage(exchange, 500, String.valueOf(e));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, List<String> path, Map<String, String> query) throws IOException {
+        String method = exchange.getRequestMethod();
+        int size = path.size();
+
+        if (size == 1 && "user".equals(path.get(0)) && "GET".equals(method)) {
+            sendJson(exchange, 200, dataset.getCurrentUser());
+            return;
+        }
+
+        if (size >= 1 && "users".equals(path.get(0)) && "GET".equals(method)) {
+            if (size == 1) {
+                List<Map<String, Object>> users = dataset.getUsers();
+                String username = query.get("username");
+                String search = query.get("search");
+                if (username != null || search != null) {
+                    List<Map<String, Object>> filtered = new ArrayList<Map<String, Object>>();
+                    for (Map<String, Object> user : users) {
+                        if (username != null && username.equals(user.get("username")) || search != null
+                                && (String.valueOf(user.get("username")).contains(search) || String.valueOf(user.get("email")).equals(search))) {
+                            filtered.add(user);
+                        }
+                    }
+                    users = filtered;
+                }
+                sendPage(exchange, query, users, false);
+                return;
+            } else if (size == 2) {
+                Map<String, Object> user = dataset.getUser(parseInt(path.get(1), -1));
+                if (user != null) {
+                    sendJson(exchange, 200, user);
+                    return;
+                }
+            }
+        }
+
+        if (size >= 1 && "groups".equals(path.get(0)) && "GET".equals(method)) {
+            if (size == 1) {
+                sendPage(exchange, query, dataset.groups(), false);
+                return;
+            }
+            int groupId = parseInt(path.get(1), -1);
+            Map<String, Object> group = dataset.group(groupId);
+            if (group != null) {
+                if (size == 2) {
+                    sendJson(exchange, 200, group);
+                    return;
+                } else if (size == 3 && "projects".equals(path.get(2))) {
+                    sendPage(exchange, query, dataset.groupProjects(groupId), false);
+                    return;
+                } else if (size == 3 && "members".equals(path.get(2))) {
+                    sendPage(exchange, query, dataset.groupMembers(groupId), false);
+                    return;
+                }
+            }
+        }
+
+        if (size >= 1 && "projects".equals(path.get(0))) {
+            routeProjects(exchange, path, query, method);
+            return;
+        }
+
+        if (size == 1 && "hooks".equals(path.get(0))) {
+            if ("GET".equals(method)) {
+                sendPage(exchange, query, dataset.systemHooks(), false);
+                return;
+            } else if ("POST".equals(method)) {
+                sendJson(exchange, 201, dataset.addSystemHook((String) readBody(exchange).get("url")));
+                return;
+            }
+        } else if (size == 2 && "hooks".equals(path.get(0))) {
+            int hookId = parseInt(path.get(1), -1);
+            Map<String, Object> hook = null;
+            if ("GET".equals(method)) {
+                for (Map<String, Object> systemHook : dataset.systemHooks()) {
+                    if (systemHook.get("id").equals(hookId)) {
+                        hook = systemHook;
+                    }
+                }
+            } else if ("DELETE".equals(method)) {
+                hook = dataset.deleteSystemHook(hookId);
+            }
+            if (hook != null) {
+                sendJson(exchange, 200, hook);
+                return;
+            }
+        }
+
+        sendMessage(exchange, 404, "404 Not Found");
+    }
+
+    private void routeProjects(HttpExchange exchange, List<String> path, Map<String, String> query, String method) throws IOException {
+        int size = path.size();
+
+        if ("GET".equals(method) && (size == 1 || size == 2 && ("owned".equals(path.get(1)) || "all".equals(path.get(1))))) {
+            sendPage(exchange, query, sortBy(filterProjects(query.get("search"), query.get("archived")), query.get("order_by"), query.get("sort")), false);
+            return;
+        }
+        if ("GET".equals(method) && size == 3 && "search".equals(path.get(1))) {
+            sendPage(exchange, query, filterProjects(path.get(2), null), false);
+            return;
+        }
+        if (size < 2) {
+            sendMessage(exchange, 404, "404 Not Found");
+            return;
+        }
+
+        Map<String, Object> project = dataset.getProject(path.get(1));
+        if (project == null) {
+            sendMessage(exchange, 404, "404 Project Not Found");
+            return;
+        }
+        int projectId = (Integer) project.get("id");
+
+        if (size == 2 && "GET".equals(method)) {
+            sendJson(exchange, 200, project);
+            return;
+        }
+
+        if (size == 4 && "statuses".equals(path.get(2)) && "POST".equals(method)) {
+            if (dataset.commitIndex(projectId, path.get(3)) < 0) {
+                sendMessage(exchange, 404, "404 Commit Not Found");
+                return;
+            }
+            Map<String, Object> body = readBody(exchange);
+            sendJson(exchange, 201, dataset.postStatus(projectId, path.get(3), (String) body.get("state"), (String) body.get("ref"), (String) body.get("name"),
+                    (String) body.get("target_url"), (String) body.get("description")));
+            return;
+        }
+
+        if (size == 3 && "hooks".equals(path.get(2))) {
+            if ("GET".equals(method)) {
+                sendPage(exchange, query, dataset.projectHooks(projectId), false);
+                return;
+            } else if ("POST".equals(method)) {
+                sendJson(exchange, 201, dataset.addProjectHook(projectId, readBody(exchange)));
+                return;
+            }
+        } else if (size == 4 && "hooks".equals(path.get(2))) {
+            int hookId = parseInt(path.get(3), -1);
+            Map<String, Object> hook = null;
+            if ("GET".equals(method)) {
+                hook = dataset.projectHook(projectId, hookId);
+            } else if ("PUT".equals(method)) {
+                hook = dataset.editProjectHook(projectId, hookId, readBody(exchange));
+            } else if ("DELETE".equals(method)) {
+                hook = dataset.deleteProjectHook(projectId, hookId);
+            }
+            if (hook == null) {
+                sendMessage(exchange, 404, "404 Not found");
+                return;
+            }
+            sendJson(exchange, 200, hook);
+            return;
+        }
+
+        if (size == 3 && "members".equals(path.get(2)) && "GET".equals(method)) {
+            sendPage(exchange, query, dataset.projectMembers(projectId), false);
+            return;
+        }
+
+        if (size == 3 && "issues".equals(path.get(2)) && "GET".equals(method)) {
+            // Like GitLab CE 8, updated_after is not supported
+            sendPage(exchange, query, sortBy(filterIssues(dataset.issues(projectId), query), query.get("order_by"), query.get("sort")), false);
+            return;
+        }
+        if (size == 4 && "issues".equals(path.get(2)) && "GET".equals(method)) {
+            Map<String, Object> issue = dataset.issueById(projectId, parseInt(path.get(3), -1));
+            if (issue != null) {
+                sendJson(exchange, 200, issue);
+                return;
+            }
+        }
+        if (size == 5 && "notes".equals(path.get(4)) && "GET".equals(method)) {
+            int noteableId = parseInt(path.get(3), -1);
+            Map<String, Object> noteable = null;
+            if ("issues".equals(path.get(2))) {
+                noteable = dataset.issueById(projectId, noteableId);
+            } else if ("merge_requests".equals(path.get(2))) {
+                noteable = dataset.mergeRequestById(projectId, noteableId);
+            }
+            if (noteable != null) {
+                String noteableType = "issues".equals(path.get(2)) ? "Issue" : "MergeRequest";
+                // Like the v3 API, ignores order_by and sort: notes are listed oldest first
+                sendPage(exchange, query, dataset.notes(noteableType, noteableId), false);
+                return;
+            }
+        }
+
+        if (size == 3 && "merge_requests".equals(path.get(2)) && "GET".equals(method)) {
+            // Like GitLab CE 8, updated_after is not supported
+            List<Map<String, Object>> mergeRequests = dataset.mergeRequests(projectId, query.get("state"));
+            if ("asc".equals(query.get("sort"))) {
+                Collections.reverse(mergeRequests);
+            }
+            sendPage(exchange, query, mergeRequests, false);
+            return;
+        }
+        if (size >= 4 && "merge_request".equals(path.get(2)) && "GET".equals(method)) {
+            Map<String, Object> mergeRequest = dataset.mergeRequestById(projectId, parseInt(path.get(3), -1));
+            if (mergeRequest == null) {
+                sendMessage(exchange, 404, "404 Not Found");
+                return;
+            }
+            if (size == 4) {
+                sendJson(exchange, 200, mergeRequest);
+                return;
+            } else if (size == 5 && "changes".equals(path.get(4))) {
+                mergeRequest.put("changes", dataset.diffs(projectId, (Integer) mergeRequest.get("iid")));
+                sendJson(exchange, 200, mergeRequest);
+                return;
+            }
+        }
+
+        if (size >= 4 && "repository".equals(path.get(2)) && "branches".equals(path.get(3))) {
+            if (size == 4 && "GET".equals(method)) {
+                // Like GitLab CE 8, branches are not paginated
+                sendJson(exchange, 200, dataset.branches(projectId));
+                return;
+            }
+            Map<String, Object> branch = null;
+            if (size == 5 && "GET".equals(method)) {
+                branch = dataset.branch(projectId, path.get(4));
+            } else if (size == 6 && "PUT".equals(method) && ("protect".equals(path.get(5)) || "unprotect".equals(path.get(5)))) {
+                branch = dataset.protectBranch(projectId, path.get(4), "protect".equals(path.get(5)));
+            }
+            if (branch != null) {
+                sendJson(exchange, 200, branch);
+                return;
+            }
+            sendMessage(exchange, 404, "404 Branch Not Found");
+            return;
+        }
+
+        if (size == 4 && "repository".equals(path.get(2)) && "tree".equals(path.get(3)) && "GET".equals(method)) {
+            String ref = query.get("ref_name");
+            int index = ref == null || "master".equals(ref) || "HEAD".equals(ref) ? 0 : dataset.commitIndex(projectId, ref);
+            List<Map<String, Object>> tree = index >= 0 ? dataset.tree(projectId, index, query.get("path")) : null;
+            if (tree == null) {
+                sendMessage(exchange, 404, "404 Tree Not Found");
+                return;
+            }
+            // Like GitLab CE 8, the tree is not paginated
+            sendJson(exchange, 200, tree);
+            return;
+        }
+
+        if (size >= 4 && "repository".equals(path.get(2)) && "commits".equals(path.get(3))) {
+            if (size == 4 && "GET".equals(method)) {
+                sendCommitPage(exchange, query, projectId);
+                return;
+            }
+
+            String sha = path.get(4);
+            int index = dataset.commitIndex(projectId, sha);
+            if ("master".equals(sha) || "HEAD".equals(sha)) {
+                index = 0;
+                sha = dataset.sha(projectId, 0);
+            }
+            if (index < 0) {
+                sendMessage(exchange, 404, "404 Commit Not Found");
+                return;
+            }
+
+            if (size == 5 && "GET".equals(method)) {
+                Map<String, Object> commit = dataset.commit(projectId, index);
+                Map<String, Object> stats = new LinkedHashMap<String, Object>();
+                stats.put("additions", 10 + index % 50);
+                stats.put("deletions", index % 20);
+                stats.put("total", 10 + index % 50 + index % 20);
+                commit.put("stats", stats);
+                commit.put("status", index < 1 ? "running" : "success");
+                sendJson(exchange, 200, commit);
+                return;
+            } else if (size == 6 && "diff".equals(path.get(5)) && "GET".equals(method)) {
+                sendJson(exchange, 200, dataset.diffs(projectId, index));
+                return;
+            } else if (size == 6 && "statuses".equals(path.get(5)) && "GET".equals(method)) {
+                sendPage(exchange, query, dataset.statuses(projectId, index), false);
+                return;
+            } else if (size == 6 && "comments".equals(path.get(5)) && "GET".equals(method)) {
+                sendPage(exchange, query, dataset.comments(projectId, sha), false);
+                return;
+            } else if (size == 6 && "comments".equals(path.get(5)) && "POST".equals(method)) {
+                Map<String, Object> body = readBody(exchange);
+                Object line = body.get("line");
+                sendJson(exchange, 201, dataset.postComment(projectId, sha, (String) body.get("note"), (String) body.get("path"), line instanceof Number ? ((Number) line)
+                        .intValue() : null, (String) body.get("line_type")));
+                return;
+            }
+        }
+
+        sendMessage(exchange, 404, "404 Not Found");
+    }
+
+    private List<Map<String, Object>> sortBy(List<Map<String, Object>> items, final String orderBy, String sort) {
+        if (orderBy != null) {
+            final int direction = "asc".equals(sort) ? 1 : -1;
+            Collections.sort(items, new Comparator<Map<String, Object>>() {
+                @Override
+                public int compare(Map<String, Object> left, Map<String, Object> right) {
+                    // Dates are ISO 8601 in UTC, their strings sort chronologically
+                    return direction * String.valueOf(left.get(orderBy)).compareTo(String.valueOf(right.get(orderBy)));
+                }
+            });
+        }
+        return items;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> filterIssues(List<Map<String, Object>> issues, Map<String, String> query) {
+        String state = query.get("state");
+        String labels = query.get("labels");
+        String milestone = query.get("milestone");
+        List<Map<String, Object>> filtered = new ArrayList<Map<String, Object>>();
+        for (Map<String, Object> issue : issues) {
+            if (state != null && !"all".equals(state) && !state.equals(issue.get("state"))) {
+                continue;
+            }
+            if (labels != null && !((List<String>) issue.get("labels")).containsAll(Arrays.asList(labels.split(",")))) {
+                continue;
+            }
+            Map<String, Object> issueMilestone = (Map<String, Object>) issue.get("milestone");
+            if (milestone != null && (issueMilestone == null || !milestone.equals(issueMilestone.get("title")))) {
+                continue;
+            }
+            filtered.add(issue);
+        }
+        return filtered;
+    }
+
+    private List<Map<String, Object>> filterProjects(String search, String archived) {
+        List<Map<String, Object>> projects = new ArrayList<Map<String, Object>>();
+        for (Map<String, Object> project : dataset.getProjects()) {
+            if (search != null && !String.valueOf(project.get("name")).contains(search)) {
+                continue;
+            }
+            if (archived != null && Boolean.parseBoolean(archived) != (Boolean) project.get("archived")) {
+                continue;
+            }
+            projects.add(project);
+        }
+        return projects;
+    }
+
+    private void sendCommitPage(HttpExchange exchange, Map<String, String> query, int projectId) throws IOException {
+        int perPage = perPage(query);
+        // GitLab CE 8 numbers commit pages from 0 (https://gitlab.com/gitlab-org/gitlab-ce/issues/759)
+        int page = Math.max(0, parseInt(query.get("page"), 0));
+        int total = dataset.getCommitsPerProject();
+        paginationHeaders(exchange, query, page, perPage, total, true);
+        sendJson(exchange, 200, dataset.commits(projectId, page * perPage, (page + 1) * perPage));
+    }
+
+    private void sendPage(HttpExchange exchange, Map<String, String> query, List<Map<String, Object>> items, boolean zeroBased) throws IOException {
+        int perPage = perPage(query);
+        int page = Math.max(zeroBased ? 0 : 1, parseInt(query.get("page"), zeroBased ? 0 : 1));
+        int first = (zeroBased ? page : page - 1) * perPage;
+        List<Map<String, Object>> slice = first < items.size() ? items.subList(first, Math.min(items.size(), first + perPage)) : Collections.<Map<String, Object>> emptyList();
+        paginationHeaders(exchange, query, page, perPage, items.size(), zeroBased);
+        sendJson(exchange, 200, slice);
+    }
+
+    private void paginationHeaders(HttpExchange exchange, Map<String, String> query, int page, int perPage, int total, boolean zeroBased) {
+        int firstPage = zeroBased ? 0 : 1;
+        int totalPages = Math.max(1, (total + perPage - 1) / perPage);
+        int lastPage = firstPage + totalPages - 1;
+
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("X-Total", Integer.toString(total));
+        headers.set("X-Total-Pages", Integer.toString(totalPages));
+        headers.set("X-Per-Page", Integer.toString(perPage));
+        headers.set("X-Page", Integer.toString(page));
+        headers.set("X-Next-Page", page < lastPage ? Integer.toString(page + 1) : "");
+        headers.set("X-Prev-Page", page > firstPage ? Integer.toString(page - 1) : "");
+
+        String base = getUrl() + exchange.getRequestURI().getRawPath() + "?per_page=" + perPage + "&page=";
+        StringBuilder link = new StringBuilder();
+        if (page > firstPage) {
+            link.append('<').append(base).append(page - 1).append(">; rel=\"prev\", ");
+        }
+        if (page < lastPage) {
+            link.append('<').append(base).append(page + 1).append(">; rel=\"next\", ");
+        }
+        link.append('<').append(base).append(firstPage).append(">; rel=\"first\", ");
+        link.append('<').append(base).append(lastPage).append(">; rel=\"last\"");
+        headers.set("Link", link.toString());
+    }
+
+    private int perPage(Map<String, String> query) {
+        return Math.min(100, Math.max(1, parseInt(query.get("per_page"), 20)));
+    }
+
+    private long consumeRateLimit(Headers headers) {
+        if (rateLimit <= 0) {
+            return -1;
+        }
+        long now = System.currentTimeMillis();
+        int count;
+        long windowStart;
+        synchronized (rateLimitLock) {
+            if (now - rateLimitWindowStart >= rateLimitWindowMillis) {
+                rateLimitWindowStart = now;
+                rateLimitCount = 0;
+            }
+            count = ++rateLimitCount;
+            windowStart = rateLimitWindowStart;
+        }
+        long reset = (windowStart + rateLimitWindowMillis) / 1000;
+        headers.set("RateLimit-Limit", Integer.toString(rateLimit));
+        headers.set("RateLimit-Observed", Integer.toString(count));
+        headers.set("RateLimit-Remaining", Integer.toString(Math.max(0, rateLimit - count)));
+        headers.set("RateLimit-Reset", Long.toString(reset));
+        if (count > rateLimit) {
+            return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(windowStart + rateLimitWindowMillis - now));
+        }
+        return -1;
+    }
+
+    private void sendMessage(HttpExchange exchange, int status, String message) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<String, Object>();
+        body.put("message", message);
+        sendJson(exchange, status, body);
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object value) throws IOException {
+        byte[] body = MAPPER.writeValueAsBytes(value);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "application/json");
+
+        if (status == 200) {
+            String etag = etag(body);
+            headers.set("ETag", etag);
+            headers.set("Cache-Control", "max-age=0, private, must-revalidate");
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.increment();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (gzip && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 32);
+            GZIPOutputStream gzipStream = new GZIPOutputStream(compressed);
+            gzipStream.write(body);
+            gzipStream.close();
+            body = compressed.toByteArray();
+            headers.set("Content-Encoding", "gzip");
+        }
+
+        exchange.sendResponseHeaders(status, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        byte[] bytes = IOUtils.toByteArray(in);
+        if (bytes.length == 0) {
+            return new HashMap<String, Object>();
+        }
+        return MAPPER.readValue(bytes, Map.class);
+    }
+
+    private void count(String endpoint) {
+        LongAdder count = endpointRequests.get(endpoint);
+        if (count == null) {
+            endpointRequests.putIfAbsent(endpoint, new LongAdder());
+            count = endpointRequests.get(endpoint);
+        }
+        count.increment();
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(body);
+            StringBuilder builder = new StringBuilder("W/\"");
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<String> decodeSegments(String rawPath) throws UnsupportedEncodingException {
+        List<String> segments = new ArrayList<String>();
+        for (String segment : rawPath.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(URLDecoder.decode(segment, "UTF-8"));
+            }
+        }
+        return segments;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> query = new HashMap<String, String>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            if (parameter.isEmpty()) {
+                continue;
+            }
+            int equals = parameter.indexOf('=');
+            if (equals < 0) {
+                query.put(URLDecoder.decode(parameter, "UTF-8"), "");
+            } else {
+                query.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"), URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+            }
+        }
+        return query;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Runs a standalone server until killed
+     * <p>
+     * Arguments: [port] [projects] [commitsPerProject] [medianLatencyMillis]
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int projects = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int commits = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        double medianLatency = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+
+        FakeGitLabServer server = FakeGitLabServer.create().port(port).dataset(new FakeGitLabDataset(42, 50, projects, commits, 3, 5, 2))
+                .latency(medianLatency > 0 ? LatencyDistribution.logNormal(medianLatency, 0.5) : LatencyDistribution.none()).start();
+        System.out.println("Fake GitLab listening on " + server.getUrl() + " with token " + TOKEN);
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,93 @@
+package com.synaptix.gitlab.api.fake;
+
+import java.util.Random;
+
+/**
+ * Distribution of the artificial delay added by {@link FakeGitLabServer} before answering
+ */
+public abstract class LatencyDistribution {
+
+    /**
+     * @param random The source of randomness
+     * @return the next delay in milliseconds
+     */
+    public abstract long nextMillis(Random random);
+
+    public static LatencyDistribution none() {
+        return fixed(0);
+    }
+
+    public static LatencyDistribution fixed(final long millis) {
+        return new LatencyDistribution() {
+            @Override
+            public long nextMillis(Random random) {
+                return millis;
+            }
+
+            @Override
+            public String toString() {
+                return "fixed(" + millis + "ms)";
+            }
+        };
+    }
+
+    public static LatencyDistribution uniform(final long minMillis, final long maxMillis) {
+        if (maxMillis < minMillis) {
+            throw new IllegalArgumentException("max < min");
+        }
+        return new LatencyDistribution() {
+            @Override
+            public long nextMillis(Random random) {
+                return minMillis + (long) (random.nextDouble() * (maxMillis - minMillis + 1));
+            }
+
+            @Override
+            public String toString() {
+                return "uniform(" + minMillis + "ms, " + maxMillis + "ms)";
+            }
+        };
+    }
+
+    /**
+     * Long tailed latency, as usually observed on real servers
+     *
+     * @param medianMillis The median delay
+     * @param sigma        The spread, 0.5 gives a p99 of about 3x the median, 1.0 about 10x
+     * @return the distribution
+     */
+    public static LatencyDistribution logNormal(final double medianMillis, final double sigma) {
+        return new LatencyDistribution() {
+            @Override
+            public long nextMillis(Random random) {
+                return Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+            }
+
+            @Override
+            public String toString() {
+                return "logNormal(" + medianMillis + "ms, " + sigma + ")";
+            }
+        };
+    }
+
+    /**
+     * Mostly the base latency, but a given share of requests take the slow latency
+     *
+     * @param base         The usual latency
+     * @param slow         The latency of slow requests
+     * @param slowFraction The share of slow requests, between 0 and 1
+     * @return the distribution
+     */
+    public static LatencyDistribution bimodal(final LatencyDistribution base, final LatencyDistribution slow, final double slowFraction) {
+        return new LatencyDistribution() {
+            @Override
+            public long nextMillis(Random random) {
+                return random.nextDouble() < slowFraction ? slow.nextMillis(random) : base.nextMillis(random);
+            }
+
+            @Override
+            public String toString() {
+                return "bimodal(" + base + ", " + slow + ", " + slowFraction + ")";
+            }
+        };
+    }
+}
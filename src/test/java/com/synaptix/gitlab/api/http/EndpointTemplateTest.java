@@ -0,0 +1,74 @@
+package com.synaptix.gitlab.api.http;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+
+public class EndpointTemplateTest {
+
+    private static final EndpointTemplate COMMIT = EndpointTemplate.compile("/projects/:id/repository/commits/:sha");
+
+    @Test
+    public void expandsTheParametersInOrder() {
+        assertEquals(2, COMMIT.getParameterCount());
+        assertEquals("/projects/42/repository/commits/master", COMMIT.expand(42, "master").getTailUrl());
+        assertEquals("/projects/:id/repository/commits/:sha", COMMIT.expand(42, "master").getTemplate());
+    }
+
+    @Test
+    public void encodesTheValuesAsPathSegments() {
+        assertEquals("/projects/group%2Fproject/repository/commits/feature%2Fa%20b", COMMIT.expand("group/project", "feature/a b").getTailUrl());
+    }
+
+    @Test
+    public void expandsAParameterEndingTheTemplate() {
+        EndpointTemplate user = EndpointTemplate.compile("/users/:id");
+        assertEquals("/users/7", user.expand(7L).getTailUrl());
+    }
+
+    @Test
+    public void expandsATemplateWithoutParameter() {
+        EndpointTemplate projects = EndpointTemplate.compile("/projects");
+        assertEquals(0, projects.getParameterCount());
+        assertEquals("/projects", projects.expand().getTailUrl());
+    }
+
+    @Test
+    public void encodesTheQuery() {
+        Endpoint endpoint = COMMIT.expand(1, "abc").with("ref_name", "a&b=c").with("skipped", null).with("path", "dir/file name");
+        assertEquals("/projects/1/repository/commits/abc?ref_name=a%26b%3Dc&path=dir%2Ffile%20name", endpoint.getTailUrl());
+    }
+
+    @Test
+    public void writesDatesInIso8601() {
+        Endpoint endpoint = EndpointTemplate.compile("/issues").expand().with("updated_after", new Date(1464782400000L));
+        assertEquals("/issues?updated_after=2016-06-01T12%3A00%3A00Z", endpoint.getTailUrl());
+    }
+
+    @Test
+    public void appendsTheQueryOfAnExistingPath() {
+        assertEquals("/projects?archived=true&search=a%20b", Endpoint.of("/projects?archived=true").with("search", "a b").getTailUrl());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAMissingValue() {
+        COMMIT.expand(1, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAWrongNumberOfValues() {
+        COMMIT.expand(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsARelativeTemplate() {
+        EndpointTemplate.compile("projects/:id");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnEmptyParameterName() {
+        EndpointTemplate.compile("/projects/:/commits");
+    }
+}
@@ -0,0 +1,57 @@
+package com.synaptix.gitlab.api.http;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PercentEncoderTest {
+
+    @Test
+    public void keepsTheUnreservedCharacters() {
+        String value = "AZaz09-._~";
+        assertSame(value, PercentEncoder.encode(value));
+    }
+
+    @Test
+    public void escapesTheReservedCharacters() {
+        assertEquals("group%2Fproject", PercentEncoder.encode("group/project"));
+        assertEquals("a%20b%2Bc%26d%3De%3Ff%23g%25", PercentEncoder.encode("a b+c&d=e?f#g%"));
+    }
+
+    @Test
+    public void writesUtf8Bytes() {
+        assertEquals("caf%C3%A9", PercentEncoder.encode("café"));
+        assertEquals("%E2%82%AC", PercentEncoder.encode("€"));
+        // A surrogate pair is one code point of four bytes
+        assertEquals("%F0%9F%98%80", PercentEncoder.encode("😀"));
+    }
+
+    @Test
+    public void replacesAnUnpairedSurrogate() {
+        assertEquals("a%3Fb", PercentEncoder.encode("a\ud83db"));
+        assertEquals("%3F", PercentEncoder.encode("\ude00"));
+    }
+
+    @Test
+    public void matchesStringGetBytes() throws Exception {
+        String value = "x é中😀/";
+        StringBuilder expected = new StringBuilder();
+        for (byte b : value.getBytes("UTF-8")) {
+            char c = (char) (b & 0xFF);
+            if (c >= 'a' && c <= 'z') {
+                expected.append(c);
+            } else {
+                expected.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        assertEquals(expected.toString(), PercentEncoder.encode(value));
+    }
+
+    @Test
+    public void appendsToTheBuilder() {
+        StringBuilder builder = new StringBuilder("/projects/");
+        PercentEncoder.encode("a b", builder);
+        assertEquals("/projects/a%20b", builder.toString());
+    }
+}
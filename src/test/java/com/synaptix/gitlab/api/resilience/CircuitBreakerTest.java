@@ -0,0 +1,94 @@
+package com.synaptix.gitlab.api.resilience;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class CircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 50;
+
+    @Test
+    public void opensWhenTheWindowReachesTheThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 4, OPEN_MILLIS, 2);
+        breaker.record(breaker.tryAcquire(), false);
+        breaker.record(breaker.tryAcquire(), true);
+        breaker.record(breaker.tryAcquire(), false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.record(breaker.tryAcquire(), true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    public void admitsOnlyTheProbesOnceHalfOpen() throws InterruptedException {
+        CircuitBreaker breaker = open(2);
+        Thread.sleep(OPEN_MILLIS + 10);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    public void closesWhenEveryProbeSucceeds() throws InterruptedException {
+        CircuitBreaker breaker = open(2);
+        Thread.sleep(OPEN_MILLIS + 10);
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        breaker.record(first, false);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.record(second, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate(), 0);
+    }
+
+    @Test
+    public void reopensWhenAProbeFails() throws InterruptedException {
+        CircuitBreaker breaker = open(2);
+        Thread.sleep(OPEN_MILLIS + 10);
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        breaker.record(first, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        // The other probe completes after the breaker moved on
+        breaker.record(second, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void ignoresCallsAdmittedBeforeItOpened() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 2, OPEN_MILLIS, 1);
+        long late = breaker.tryAcquire();
+        breaker.record(breaker.tryAcquire(), true);
+        breaker.record(breaker.tryAcquire(), true);
+        Thread.sleep(OPEN_MILLIS + 10);
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        // Not taken for the probe
+        breaker.record(late, false);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    public void releaseFreesTheSlotOfACancelledProbe() throws InterruptedException {
+        CircuitBreaker breaker = open(1);
+        Thread.sleep(OPEN_MILLIS + 10);
+        long probe = breaker.tryAcquire();
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        breaker.release(probe);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        long next = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REJECTED, next);
+        breaker.record(next, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private static CircuitBreaker open(int halfOpenProbes) {
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 2, OPEN_MILLIS, halfOpenProbes);
+        breaker.record(breaker.tryAcquire(), true);
+        breaker.record(breaker.tryAcquire(), true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+}
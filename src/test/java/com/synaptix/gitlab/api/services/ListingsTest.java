@@ -0,0 +1,113 @@
+package com.synaptix.gitlab.api.services;
+
+import com.synaptix.gitlab.api.GitLabAPI;
+import com.synaptix.gitlab.api.fake.FakeGitLabDataset;
+import com.synaptix.gitlab.api.fake.FakeGitLabServer;
+import com.synaptix.gitlab.api.models.GitlabNote;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The fake server lists notes oldest first whatever the sort asked, like the v3 API
+ */
+public class ListingsTest {
+
+    private static final int PROJECT_ID = 2;
+    // Pages of the fake server hold 20 items by default
+    private static final int MIN_NOTES = 30;
+
+    private static final Function<GitlabNote, Date> UPDATED_AT = new Function<GitlabNote, Date>() {
+        @Override
+        public Date apply(GitlabNote note) {
+            return note.getUpdatedAt();
+        }
+    };
+
+    private static FakeGitLabDataset dataset;
+    private static FakeGitLabServer server;
+    private static GitLabAPI gitLabAPI;
+
+    private int mergeRequestId;
+    private List<GitlabNote> all;
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        dataset = FakeGitLabDataset.small();
+        server = FakeGitLabServer.create().dataset(dataset).start();
+        gitLabAPI = GitLabAPI.connect(server.getUrl(), FakeGitLabServer.TOKEN);
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.stop();
+    }
+
+    @Before
+    public void findMergeRequestWithSeveralPages() throws IOException {
+        for (int iid = 1; ; iid++) {
+            mergeRequestId = PROJECT_ID * 1000 + iid;
+            if (dataset.notes("MergeRequest", mergeRequestId).size() >= MIN_NOTES) {
+                break;
+            }
+        }
+        all = stream(null);
+    }
+
+    @Test
+    public void readsEveryPageWhenTheSortIsIgnored() throws IOException {
+        assertTrue(all.size() >= MIN_NOTES);
+        // Oldest first: the three most recent notes are on the last page
+        Date updatedAfter = all.get(all.size() - 3).getUpdatedAt();
+        long requests = server.getRequestCount();
+        List<GitlabNote> recent = stream(updatedAfter);
+
+        assertEquals(3, recent.size());
+        for (GitlabNote note : recent) {
+            assertTrue(!note.getUpdatedAt().before(updatedAfter));
+        }
+        assertTrue(server.getRequestCount() - requests >= (all.size() + 19) / 20);
+    }
+
+    @Test
+    public void findsANoteAddedAfterTheLastRead() throws IOException {
+        Date updatedAfter = new Date(all.get(all.size() - 1).getUpdatedAt().getTime() + 1);
+        assertEquals(0, stream(updatedAfter).size());
+
+        dataset.addNote("MergeRequest", mergeRequestId, "added after the last read");
+        List<GitlabNote> added = stream(updatedAfter);
+        assertEquals(1, added.size());
+        assertEquals("added after the last read", added.get(0).getBody());
+    }
+
+    @Test
+    public void sortsTheListMostRecentFirst() throws IOException {
+        List<GitlabNote> notes = gitLabAPI.getGitLabAPINotes().getNotes(Noteable.mergeRequest(PROJECT_ID, mergeRequestId), null);
+        for (int i = 1; i < notes.size(); i++) {
+            assertTrue(!notes.get(i).getUpdatedAt().after(notes.get(i - 1).getUpdatedAt()));
+        }
+    }
+
+    private List<GitlabNote> stream(Date updatedAfter) throws IOException {
+        final List<GitlabNote> notes = new ArrayList<GitlabNote>();
+        Listings.streamUpdatedAfter(gitLabAPI, GitLabAPINotes.MERGE_REQUEST_NOTES.expand(PROJECT_ID, mergeRequestId).with("order_by", "updated_at").with("sort", "desc"),
+                GitlabNote[].class, UPDATED_AT, updatedAfter, new Consumer<GitlabNote>() {
+                    @Override
+                    public void accept(GitlabNote note) {
+                        notes.add(note);
+                    }
+                });
+        return notes;
+    }
+}
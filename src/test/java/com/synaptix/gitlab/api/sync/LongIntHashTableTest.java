@@ -0,0 +1,73 @@
+package com.synaptix.gitlab.api.sync;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongIntHashTableTest {
+
+    @Test
+    public void removeKeepsTheRestOfTheRunReachable() {
+        LongIntHashTable table = new LongIntHashTable(8);
+        // 12 keys in 32 slots: the runs of linear probing overlap
+        for (long key = 1; key <= 12; key++) {
+            table.put(key, (int) key * 10);
+        }
+        for (long removed = 1; removed <= 12; removed++) {
+            assertTrue(table.remove(removed));
+            assertEquals(-1, table.get(removed, -1));
+            for (long key = removed + 1; key <= 12; key++) {
+                assertEquals("key " + key + " after removing " + removed, (int) key * 10, table.get(key, -1));
+            }
+        }
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void removeOfAMissingKey() {
+        LongIntHashTable table = new LongIntHashTable(4);
+        table.put(7, 70);
+        assertFalse(table.remove(8));
+        assertEquals(1, table.size());
+        assertEquals(70, table.get(7, -1));
+    }
+
+    @Test
+    public void matchesAHashMapUnderRandomWrites() {
+        Random random = new Random(42);
+        LongIntHashTable table = new LongIntHashTable(16);
+        Map<Long, Integer> expected = new HashMap<Long, Integer>();
+        List<Long> keys = new ArrayList<Long>();
+        for (int i = 0; i < 200; i++) {
+            keys.add(1 + (long) random.nextInt(1 << 20) * 64);
+        }
+        for (int i = 0; i < 100000; i++) {
+            long key = keys.get(random.nextInt(keys.size()));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, table.remove(key));
+            } else {
+                int value = random.nextInt();
+                table.put(key, value);
+                expected.put(key, value);
+            }
+        }
+        assertEquals(expected.size(), table.size());
+        for (long key : keys) {
+            Integer value = expected.get(key);
+            assertEquals(value != null ? value : -1, table.get(key, -1));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keyZeroIsReserved() {
+        new LongIntHashTable(4).put(0, 1);
+    }
+}